@@ -0,0 +1,27 @@
+package com.entando.hub.catalog.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import com.entando.hub.catalog.config.datasource.ReadWriteRoutingDataSource;
+
+/**
+ * Pins the methods annotated with ReadFromPrimary to the primary datasource, a no-op when the
+ * read replica is not configured.
+ */
+@Aspect
+@Component
+public class ReadFromPrimaryAspect {
+
+	@Around("@annotation(com.entando.hub.catalog.config.datasource.ReadFromPrimary)")
+	public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+		boolean previous = ReadWriteRoutingDataSource.pinToPrimary();
+		try {
+			return joinPoint.proceed();
+		} finally {
+			ReadWriteRoutingDataSource.unpin(previous);
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package com.entando.hub.catalog.config.bulkhead;
+
+/**
+ * The classes of traffic kept apart, each with its own request budget and connection pools:
+ * the public read APIs (App Builder, templates) and everything else, the authenticated admin APIs
+ * and the background work.
+ */
+public enum Bulkhead {
+    PUBLIC, ADMIN
+}
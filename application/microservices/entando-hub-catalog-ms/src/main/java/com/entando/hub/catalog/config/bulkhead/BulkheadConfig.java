@@ -0,0 +1,83 @@
+package com.entando.hub.catalog.config.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Request budgets of the bulkheads, their connection pools are set up in DataSourceConfig.
+ * The budgets share the servlet threads (server.tomcat.threads.max): the sum of their
+ * max-concurrent-requests and max-queued-requests should stay below it.
+ * Each budget is sized against its pool, so that the admitted requests don't just queue up on the
+ * connections: the public one admits at most MAX_PUBLIC_REQUESTS_PER_CONNECTION requests per
+ * connection of the public pool, most of them being served from memory without one; the admin one
+ * admits fewer requests than the primary pool has connections, the background jobs use it too.
+ * A budget out of these bounds is reported at startup.
+ */
+@Configuration
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    static final int MAX_PUBLIC_REQUESTS_PER_CONNECTION = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadConfig.class);
+
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    public BulkheadConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${app.bulkhead.public.max-concurrent-requests:40}") int publicMaxConcurrent,
+                          @Value("${app.bulkhead.public.max-queued-requests:40}") int publicMaxQueued,
+                          @Value("${app.bulkhead.admin.max-concurrent-requests:16}") int adminMaxConcurrent,
+                          @Value("${app.bulkhead.admin.max-queued-requests:20}") int adminMaxQueued,
+                          @Value("${app.bulkhead.queue-timeout-ms:2000}") long queueTimeoutMs,
+                          @Value("${app.datasource.public.hikari.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int publicPoolSize,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int adminPoolSize) {
+        if (publicMaxConcurrent > MAX_PUBLIC_REQUESTS_PER_CONNECTION * publicPoolSize) {
+            logger.warn("BulkheadConfig: {} concurrent public requests for {} public connections, most of them will wait for a connection",
+                    publicMaxConcurrent, publicPoolSize);
+        }
+        if (adminMaxConcurrent >= adminPoolSize) {
+            logger.warn("BulkheadConfig: {} concurrent admin requests for {} primary connections, shared with the background jobs",
+                    adminMaxConcurrent, adminPoolSize);
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Map<Bulkhead, RequestBudget> budgets = new EnumMap<>(Bulkhead.class);
+        budgets.put(Bulkhead.PUBLIC, new RequestBudget(Bulkhead.PUBLIC, publicMaxConcurrent, publicMaxQueued, queueTimeoutMs, registry));
+        budgets.put(Bulkhead.ADMIN, new RequestBudget(Bulkhead.ADMIN, adminMaxConcurrent, adminMaxQueued, queueTimeoutMs, registry));
+        this.bulkheadInterceptor = new BulkheadInterceptor(budgets);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor);
+    }
+
+    /**
+     * Carries the bulkhead over to the application task executor, where the streamed response
+     * bodies are written.
+     */
+    @Bean
+    public TaskDecorator bulkheadTaskDecorator() {
+        return runnable -> {
+            Bulkhead bulkhead = BulkheadContext.get();
+            return () -> {
+                BulkheadContext.set(bulkhead);
+                try {
+                    runnable.run();
+                } finally {
+                    BulkheadContext.clear();
+                }
+            };
+        };
+    }
+}
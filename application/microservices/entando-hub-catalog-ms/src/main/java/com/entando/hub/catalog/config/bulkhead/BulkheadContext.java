@@ -0,0 +1,25 @@
+package com.entando.hub.catalog.config.bulkhead;
+
+/**
+ * The bulkhead of the request served by the current thread, ADMIN when there is none.
+ */
+public final class BulkheadContext {
+
+    private static final ThreadLocal<Bulkhead> current = new ThreadLocal<>();
+
+    private BulkheadContext() {
+    }
+
+    public static Bulkhead get() {
+        Bulkhead bulkhead = current.get();
+        return null == bulkhead ? Bulkhead.ADMIN : bulkhead;
+    }
+
+    public static void set(Bulkhead bulkhead) {
+        current.set(bulkhead);
+    }
+
+    public static void clear() {
+        current.remove();
+    }
+}
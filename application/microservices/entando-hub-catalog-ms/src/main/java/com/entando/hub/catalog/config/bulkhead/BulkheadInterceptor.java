@@ -0,0 +1,76 @@
+package com.entando.hub.catalog.config.bulkhead;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Runs every request in the bulkhead of its controller: PUBLIC for the ones annotated with PublicApi,
+ * ADMIN for the others. The request takes a slot of the budget of its bulkhead, or gets a 503 when
+ * the budget is exhausted, and its database work goes to the pools of the bulkhead.
+ * Asynchronous requests (server-sent events, streamed bodies) give the slot back once the servlet
+ * thread is released.
+ */
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    static final String BULKHEAD_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".bulkhead";
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadInterceptor.class);
+
+    private final Map<Bulkhead, RequestBudget> budgets;
+
+    public BulkheadInterceptor(Map<Bulkhead, RequestBudget> budgets) {
+        this.budgets = budgets;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        Bulkhead bulkhead = bulkheadOf(handler);
+        if (!budgets.get(bulkhead).acquire()) {
+            logger.warn("preHandle: {} bulkhead exhausted, rejecting {} {}", bulkhead, request.getMethod(), request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests, retry later");
+            return false;
+        }
+        request.setAttribute(BULKHEAD_ATTRIBUTE, bulkhead);
+        BulkheadContext.set(bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    static Bulkhead bulkheadOf(Object handler) {
+        if (handler instanceof HandlerMethod
+                && AnnotatedElementUtils.hasAnnotation(((HandlerMethod) handler).getBeanType(), PublicApi.class)) {
+            return Bulkhead.PUBLIC;
+        }
+        return Bulkhead.ADMIN;
+    }
+
+    private void release(HttpServletRequest request) {
+        Bulkhead bulkhead = (Bulkhead) request.getAttribute(BULKHEAD_ATTRIBUTE);
+        if (null != bulkhead) {
+            request.removeAttribute(BULKHEAD_ATTRIBUTE);
+            budgets.get(bulkhead).release();
+        }
+        BulkheadContext.clear();
+    }
+}
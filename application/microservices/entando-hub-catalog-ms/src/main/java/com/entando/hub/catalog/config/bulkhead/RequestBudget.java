@@ -0,0 +1,76 @@
+package com.entando.hub.catalog.config.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The servlet threads a bulkhead may hold: at most maxConcurrent requests served, at most maxQueued
+ * waiting up to queueTimeoutMs for their turn, the others are rejected straight away.
+ * Exposed as hub.bulkhead.active, hub.bulkhead.queued and hub.bulkhead.rejected.
+ */
+public class RequestBudget {
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutMs;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejected;
+
+    public RequestBudget(Bulkhead bulkhead, int maxConcurrent, int maxQueued, long queueTimeoutMs, MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+        String tag = bulkhead.name().toLowerCase();
+        Gauge.builder("hub.bulkhead.active", this, RequestBudget::getActive).tag("bulkhead", tag)
+                .description("Requests being served").register(meterRegistry);
+        Gauge.builder("hub.bulkhead.queued", queued, AtomicInteger::get).tag("bulkhead", tag)
+                .description("Requests waiting for their turn").register(meterRegistry);
+        this.rejected = Counter.builder("hub.bulkhead.rejected").tag("bulkhead", tag)
+                .description("Requests rejected, budget exhausted").register(meterRegistry);
+    }
+
+    public boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public double getRejected() {
+        return rejected.count();
+    }
+}
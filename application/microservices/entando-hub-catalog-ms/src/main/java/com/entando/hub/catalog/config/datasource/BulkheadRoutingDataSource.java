@@ -0,0 +1,30 @@
+package com.entando.hub.catalog.config.datasource;
+
+import com.entando.hub.catalog.config.bulkhead.Bulkhead;
+import com.entando.hub.catalog.config.bulkhead.BulkheadContext;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Gives the connections from the pools of the bulkhead of the current request, so that a burst of
+ * public reads can't take the connections of the admin writes, and the reverse.
+ */
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public BulkheadRoutingDataSource(DataSource adminDataSource, DataSource publicDataSource) {
+        Map<Object, Object> targets = new EnumMap<>(Bulkhead.class);
+        targets.put(Bulkhead.ADMIN, adminDataSource);
+        targets.put(Bulkhead.PUBLIC, publicDataSource);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(adminDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BulkheadContext.get();
+    }
+}
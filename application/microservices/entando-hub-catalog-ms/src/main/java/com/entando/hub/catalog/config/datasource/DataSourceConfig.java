@@ -0,0 +1,106 @@
+package com.entando.hub.catalog.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * The connection pools, one per bulkhead (see BulkheadConfig), and one more per bulkhead on the
+ * read replica when app.datasource.replica.url is set.
+ * All the pools connect with the spring.datasource settings and start from spring.datasource.hikari,
+ * overridden by app.datasource.replica.hikari for the replica ones, then by app.datasource.public.hikari
+ * for the public ones.
+ * The datasource used by the application routes each connection to the pool of the bulkhead of the
+ * request, then, with a replica, the read-only transactions to the replica (see ReadWriteRoutingDataSource).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    static final String HIKARI = "spring.datasource.hikari";
+    static final String PUBLIC_HIKARI = "app.datasource.public.hikari";
+    static final String REPLICA_HIKARI = "app.datasource.replica.hikari";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final Binder binder;
+
+    public DataSourceConfig(DataSourceProperties dataSourceProperties, Environment environment) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.binder = Binder.get(environment);
+    }
+
+    @Bean
+    public HikariDataSource primaryDataSource() {
+        return pool(null, null, HIKARI);
+    }
+
+    @Bean
+    public HikariDataSource publicDataSource() {
+        return pool("HikariPublic", null, HIKARI, PUBLIC_HIKARI);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url) {
+        return pool("HikariReplica", url, HIKARI, REPLICA_HIKARI);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+    public HikariDataSource publicReplicaDataSource(@Value("${app.datasource.replica.url}") String url) {
+        return pool("HikariPublicReplica", url, HIKARI, REPLICA_HIKARI, PUBLIC_HIKARI);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+    public ReplicaLagGuard replicaLagGuard(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                           @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        return new ReplicaLagGuard(replicaDataSource, maxLagMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("publicDataSource") DataSource publicDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 @Qualifier("publicReplicaDataSource") ObjectProvider<DataSource> publicReplicaDataSource,
+                                 ObjectProvider<ReplicaLagGuard> replicaLagGuard) {
+        DataSource admin = primaryDataSource;
+        DataSource pub = publicDataSource;
+        ReplicaLagGuard guard = replicaLagGuard.getIfAvailable();
+        if (null != guard) {
+            admin = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource.getObject(), guard);
+            pub = new ReadWriteRoutingDataSource(publicDataSource, publicReplicaDataSource.getObject(), guard);
+        }
+        // lazy: the transaction managers get the connection before the transaction is flagged as read-only
+        return new LazyConnectionDataSourceProxy(new BulkheadRoutingDataSource(admin, pub));
+    }
+
+    private HikariDataSource pool(String poolName, String url, String... prefixes) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        for (String prefix : prefixes) {
+            binder.bind(prefix, Bindable.ofInstance(pool));
+        }
+        if (null != poolName) {
+            pool.setPoolName(poolName);
+        }
+        if (null != url) {
+            pool.setJdbcUrl(url);
+            // same credentials as the primary unless configured
+            binder.bind("app.datasource.replica.username", String.class).ifBound(pool::setUsername);
+            binder.bind("app.datasource.replica.password", String.class).ifBound(pool::setPassword);
+        }
+        return pool;
+    }
+}
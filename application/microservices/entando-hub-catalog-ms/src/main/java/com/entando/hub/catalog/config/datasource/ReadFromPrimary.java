@@ -0,0 +1,18 @@
+package com.entando.hub.catalog.config.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sends the read-only transactions of the annotated method to the primary datasource, for the
+ * reads that must see a change as soon as it is committed (e.g. the index refreshes following a
+ * change event), whatever the lag of the replica.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
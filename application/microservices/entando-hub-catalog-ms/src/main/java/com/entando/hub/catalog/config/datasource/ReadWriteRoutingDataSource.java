@@ -0,0 +1,84 @@
+package com.entando.hub.catalog.config.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends the connections of the read-only transactions to the replica and everything else to the
+ * primary. The replica is skipped while the lag guard finds it too far behind, for the methods
+ * annotated with ReadFromPrimary, and when it refuses a connection.
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the transaction managers get the connection
+ * before the transaction is flagged as read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> pinnedToPrimary = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagGuard replicaLagGuard;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard replicaLagGuard) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaLagGuard = replicaLagGuard;
+    }
+
+    /**
+     * Pins the current thread to the primary, returns the previous state to be passed to unpin.
+     */
+    public static boolean pinToPrimary() {
+        boolean previous = pinnedToPrimary.get();
+        pinnedToPrimary.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void unpin(boolean previous) {
+        if (previous) {
+            pinnedToPrimary.set(Boolean.TRUE);
+        } else {
+            pinnedToPrimary.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                logger.warn("getConnection: replica not available, falling back to the primary: {}", e.getMessage());
+                replicaLagGuard.markUnavailable();
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                logger.warn("getConnection: replica not available, falling back to the primary: {}", e.getMessage());
+                replicaLagGuard.markUnavailable();
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    boolean useReplica() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !pinnedToPrimary.get()
+                && replicaLagGuard.isReplicaUsable();
+    }
+}
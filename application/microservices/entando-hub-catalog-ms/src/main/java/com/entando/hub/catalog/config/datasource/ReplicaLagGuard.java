@@ -0,0 +1,76 @@
+package com.entando.hub.catalog.config.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Measures how far the replica is behind the primary and keeps the reads off it when the lag goes
+ * over max-lag-ms or the replica can't be reached. Until the first successful check the reads stay
+ * on the primary.
+ */
+public class ReplicaLagGuard {
+
+    // zero when everything received has been replayed, that is when the replica is idle and caught up
+    static final String LAG_QUERY = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagGuard.class);
+
+    private final DataSource replica;
+    private final long maxLagMs;
+
+    private volatile boolean replicaUsable;
+    private volatile long lagMs = -1;
+
+    public ReplicaLagGuard(DataSource replica, long maxLagMs) {
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:1000}")
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            update(resultSet.getLong(1));
+        } catch (SQLException e) {
+            if (replicaUsable) {
+                logger.warn("check: replica not available, reading from the primary: {}", e.getMessage());
+            }
+            markUnavailable();
+        }
+    }
+
+    void update(long lagMs) {
+        this.lagMs = lagMs;
+        boolean usable = lagMs <= maxLagMs;
+        if (usable != replicaUsable) {
+            logger.info("update: replica lag {}ms, reads {}", lagMs, usable ? "back on the replica" : "moved to the primary");
+        }
+        replicaUsable = usable;
+    }
+
+    public void markUnavailable() {
+        replicaUsable = false;
+        lagMs = -1;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * The lag measured by the last check, -1 when the replica couldn't be reached.
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+}
@@ -3,15 +3,25 @@ package com.entando.hub.catalog.persistence;
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
 import com.entando.hub.catalog.persistence.entity.Category;
 import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.projection.BundleGroupSearchNames;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVisibility;
+import com.entando.hub.catalog.persistence.projection.EntityName;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 public interface BundleGroupRepository extends JpaRepository<BundleGroup, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "categories")
+    Optional<BundleGroup> findById(Long id);
+
     List<BundleGroup> findByOrganisationId(Long organisationId);
     
     Page<BundleGroup> findByOrganisationId(Long organisationId, Pageable pageable);
@@ -43,4 +53,29 @@ public interface BundleGroupRepository extends JpaRepository<BundleGroup, Long>
     @Query
     public List<BundleGroup> findAll();
 
+    @Query("select bg.id as id, o.id as organisationId, bg.catalogId as catalogId, bg.publicCatalog as publicCatalog " +
+            "from BundleGroup bg left join bg.organisation o")
+    List<BundleGroupVisibility> findAllVisibilities();
+
+    @Query("select bg.id as id, o.id as organisationId, bg.catalogId as catalogId, bg.publicCatalog as publicCatalog " +
+            "from BundleGroup bg left join bg.organisation o where bg.id = :id")
+    Optional<BundleGroupVisibility> findVisibilityById(@Param("id") Long id);
+
+    @Query("select bg.id as id, bg.name as name from BundleGroup bg where bg.publicCatalog = true")
+    List<EntityName> findPublicNames();
+
+    @Query("select bg.id as id, bg.name as name from BundleGroup bg where bg.publicCatalog = true and bg.id = :id")
+    Optional<EntityName> findPublicNameById(@Param("id") Long id);
+
+    @Query("select bg.id as id, bg.name as name, o.name as organisationName from BundleGroup bg left join bg.organisation o")
+    List<BundleGroupSearchNames> findAllSearchNames();
+
+    @Query("select bg.id as id, bg.name as name, o.name as organisationName from BundleGroup bg left join bg.organisation o"
+            + " where bg.id = :id")
+    Optional<BundleGroupSearchNames> findSearchNamesById(@Param("id") Long id);
+
+    @Query("select bg.id as id, bg.name as name, o.name as organisationName from BundleGroup bg join bg.organisation o"
+            + " where o.id = :organisationId")
+    List<BundleGroupSearchNames> findSearchNamesByOrganisationId(@Param("organisationId") Long organisationId);
+
  }
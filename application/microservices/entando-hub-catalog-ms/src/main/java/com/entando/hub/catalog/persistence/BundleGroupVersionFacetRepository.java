@@ -0,0 +1,18 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+
+/**
+ * Grouped counts of the bundle group versions matching a specification, one aggregate query each.
+ */
+public interface BundleGroupVersionFacetRepository {
+
+    Map<Long, Long> countByCategory(Specification<BundleGroupVersion> specification);
+
+    Map<Long, Long> countByOrganisation(Specification<BundleGroupVersion> specification);
+
+    Map<BundleGroupVersion.Status, Long> countByStatus(Specification<BundleGroupVersion> specification);
+}
@@ -0,0 +1,71 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.BundleGroup;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Transactional(readOnly = true)
+public class BundleGroupVersionFacetRepositoryImpl implements BundleGroupVersionFacetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<Long, Long> countByCategory(Specification<BundleGroupVersion> specification) {
+        return count(specification, root -> bundleGroup(root).join("categories").get("id"));
+    }
+
+    @Override
+    public Map<Long, Long> countByOrganisation(Specification<BundleGroupVersion> specification) {
+        return count(specification, root -> bundleGroup(root).join("organisation", JoinType.LEFT).get("id"));
+    }
+
+    @Override
+    public Map<BundleGroupVersion.Status, Long> countByStatus(Specification<BundleGroupVersion> specification) {
+        return count(specification, root -> root.get("status"));
+    }
+
+    /**
+     * select key, count(*) ... where specification group by key; rows with a null key are skipped.
+     */
+    @SuppressWarnings("unchecked")
+    private <K> Map<K, Long> count(Specification<BundleGroupVersion> specification,
+                                   Function<Root<BundleGroupVersion>, Expression<?>> groupBy) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<BundleGroupVersion> root = query.from(BundleGroupVersion.class);
+        Expression<?> key = groupBy.apply(root);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (null != predicate) {
+            query.where(predicate);
+        }
+        query.multiselect(key, cb.count(root)).groupBy(key);
+
+        List<Object[]> rows = entityManager.createQuery(query).getResultList();
+        Map<K, Long> counts = new LinkedHashMap<>();
+        rows.stream()
+                .filter(row -> null != row[0])
+                .forEach(row -> counts.put((K) row[0], (Long) row[1]));
+        return counts;
+    }
+
+    // inner join, the one the specifications look for and reuse
+    private static Join<BundleGroupVersion, BundleGroup> bundleGroup(Root<BundleGroupVersion> root) {
+        return root.join("bundleGroup");
+    }
+}
@@ -0,0 +1,7 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersionListing;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BundleGroupVersionListingRepository extends JpaRepository<BundleGroupVersionListing, Long> {
+}
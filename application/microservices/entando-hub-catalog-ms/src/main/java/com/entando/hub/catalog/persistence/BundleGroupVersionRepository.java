@@ -1,28 +1,63 @@
 package com.entando.hub.catalog.persistence;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.entando.hub.catalog.persistence.entity.Bundle;
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.projection.BundleGroupTemplateRow;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionText;
+import com.entando.hub.catalog.persistence.projection.BundleNameLink;
+import com.entando.hub.catalog.persistence.projection.BundleTemplateRow;
+
+public interface BundleGroupVersionRepository extends JpaRepository<BundleGroupVersion, Long>, JpaSpecificationExecutor<BundleGroupVersion>,
+        BundleGroupVersionFacetRepository, BundleGroupVersionSearchRepository {
 
-public interface BundleGroupVersionRepository extends JpaRepository<BundleGroupVersion, Long>{
+	String BUNDLE_TEMPLATE_SELECT = "select bg.name as bundleGroupName, b.name as bundleName, b.gitSrcRepoAddress as gitSrcRepoAddress, " +
+			"	bgv.id as bundleGroupVersionId, bg.id as bundleGroupId, b.id as bundleId ";
+	String BUNDLE_TEMPLATE_FROM = "from BundleGroupVersion bgv " +
+			"	join bgv.bundleGroup bg " +
+			"	join bgv.bundles b " +
+			"where bgv.status = 'PUBLISHED' " +
+			"  and b.gitSrcRepoAddress is not null " +
+			"  and b.gitSrcRepoAddress <> '' ";
+	String BUNDLE_TEMPLATE_ORDER = "order by bg.name, b.name, b.id";
+
+	/**
+	 * Fetches the bundles with the version. A single collection: joining the categories of the
+	 * bundle group too would return bundles x categories rows, load them separately.
+	 */
+	@Override
+	@EntityGraph(attributePaths = {"bundles", "bundleGroup"})
+	Optional<BundleGroupVersion> findById(Long id);
 	
 	Page<BundleGroupVersion> findByBundleGroupInAndStatusIn(List<BundleGroup> bundleGroup, Set<BundleGroupVersion.Status> statuses, Pageable pageable);
 	
 	BundleGroupVersion findByBundleGroupAndStatus(BundleGroup bundleGroup, BundleGroupVersion.Status status);
 
+	/**
+	 * The published versions of the bundle groups of the public catalog with a deployable bundle of the descriptorVersions.
+	 */
 	@Query(value = "select distinct bgv " +
 			"from BundleGroupVersion bgv " +
 			"	join bgv.bundles b " +
 			"where bgv.status = 'PUBLISHED' " +
+			"  and bgv.bundleGroup.publicCatalog = true" +
 			"  and b.descriptorVersion in(:descriptorVersions)" +
 			"  and b.gitRepoAddress is not null")
 	List<BundleGroupVersion> getPublishedBundleGroups(@Param("descriptorVersions") Set<Bundle.DescriptorVersion> descriptorVersions);
@@ -31,35 +66,68 @@ public interface BundleGroupVersionRepository extends JpaRepository<BundleGroupV
 	
 	List<BundleGroupVersion> findByBundleGroupAndVersion(BundleGroup bundleGroup, String version);
 
+	@Query("select bgv.bundleGroup.id from BundleGroupVersion bgv where bgv.id = :id")
+	Optional<Long> findBundleGroupIdById(@Param("id") Long id);
+
 	int countByBundleGroup(BundleGroup bundleGroup);
 	int countByBundleGroupId(Long bundleGroupId);
 	
 	@Query(value = "SELECT * FROM BUNDLE_GROUP_version bgv where bgv.bundle_group_id = :bundleGroupId and (bgv.status in('NOT_PUBLISHED', 'PUBLISH_REQ','DELETE_REQ') or bgv.status = 'PUBLISHED');", nativeQuery = true)
 	List<BundleGroupVersion> getByBundleGroupAndStatuses(@Param("bundleGroupId") Long bundleGroupId);
 
-	@Query(value = "select distinct bgv " +
-			"from BundleGroupVersion bgv " +
-			"	join bgv.bundles b " +
-			"where bgv.status = 'PUBLISHED' " +
-			"  and b.gitSrcRepoAddress is not null")
-	List<BundleGroupVersion> getByTemplateInIt();
+	@Query(value = BUNDLE_TEMPLATE_SELECT + BUNDLE_TEMPLATE_FROM + BUNDLE_TEMPLATE_ORDER)
+	List<BundleTemplateRow> findBundleTemplates();
 
-	@Query(value = "select distinct bgv " +
-			"from BundleGroupVersion bgv " +
-			"	join bgv.bundles b " +
-			"   join bgv.bundleGroup bg " +
-			"where bg.name like :name " +
-			"  and bgv.status = 'PUBLISHED' " +
-			"  and b.gitSrcRepoAddress is not null")
-	List<BundleGroupVersion> getByTemplateInItFilteredByName(@Param("name") String name);
+	@Query(value = BUNDLE_TEMPLATE_SELECT + BUNDLE_TEMPLATE_FROM + BUNDLE_TEMPLATE_ORDER,
+			countQuery = "select count(b) " + BUNDLE_TEMPLATE_FROM)
+	Page<BundleTemplateRow> findBundleTemplates(Pageable pageable);
 
-	@Query(value = "select distinct bgv " +
+	@Query(value = BUNDLE_TEMPLATE_SELECT + BUNDLE_TEMPLATE_FROM + BUNDLE_TEMPLATE_ORDER)
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "100"))
+	Stream<BundleTemplateRow> streamBundleTemplates();
+
+	@Query(value = BUNDLE_TEMPLATE_SELECT + BUNDLE_TEMPLATE_FROM + "  and bgv.id = :id " + BUNDLE_TEMPLATE_ORDER)
+	List<BundleTemplateRow> findBundleTemplatesByBundleGroupVersionId(@Param("id") Long id);
+
+	@Query(value = "select case when count(b) > 0 then true else false end " + BUNDLE_TEMPLATE_FROM + "  and bgv.id = :id")
+	boolean existsBundleTemplatesByBundleGroupVersionId(@Param("id") Long id);
+
+	@Query(value = "select distinct bg.name as bundleGroupName, bgv.id as bundleGroupVersionId " + BUNDLE_TEMPLATE_FROM +
+			"order by bg.name, bgv.id")
+	List<BundleGroupTemplateRow> findBundleGroupTemplates();
+
+	@Query(value = "select distinct bg.name as bundleGroupName, bgv.id as bundleGroupVersionId " + BUNDLE_TEMPLATE_FROM +
+			"  and bg.name like :name " +
+			"order by bg.name, bgv.id")
+	List<BundleGroupTemplateRow> findBundleGroupTemplatesByName(@Param("name") String name);
+
+	String TEXT_SELECT = "select bgv.id as id, bgv.description as description, bg.name as bundleGroupName, o.name as organisationName " +
 			"from BundleGroupVersion bgv " +
-			"	join bgv.bundles b " +
-			"where bgv.id = :id " +
-			"  and bgv.status = 'PUBLISHED' " +
-			"  and b.gitSrcRepoAddress is not null")
-	List<BundleGroupVersion> getByTemplateInItAndId(@Param("id") Long id);
+			"	join bgv.bundleGroup bg " +
+			"	left join bg.organisation o ";
+
+	@Query(TEXT_SELECT)
+	List<BundleGroupVersionText> findAllTexts();
+
+	@Query(TEXT_SELECT + "where bgv.id in :ids")
+	List<BundleGroupVersionText> findTextsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select bgv.id as bundleGroupVersionId, b.id as bundleId, b.name as name from BundleGroupVersion bgv join bgv.bundles b")
+	List<BundleNameLink> findAllBundleNames();
+
+	@Query("select bgv.id as bundleGroupVersionId, b.id as bundleId, b.name as name from BundleGroupVersion bgv join bgv.bundles b where bgv.id in :ids")
+	List<BundleNameLink> findBundleNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select bgv.id from BundleGroupVersion bgv where bgv.bundleGroup.id = :bundleGroupId")
+	List<Long> findIdsByBundleGroupId(@Param("bundleGroupId") Long bundleGroupId);
+
+	@Query("select bgv.id from BundleGroupVersion bgv where bgv.bundleGroup.organisation.id = :organisationId")
+	List<Long> findIdsByOrganisationId(@Param("organisationId") Long organisationId);
+
+	@Query("select bgv.id from BundleGroupVersion bgv join bgv.bundles b where b.id = :bundleId")
+	List<Long> findIdsByBundleId(@Param("bundleId") Long bundleId);
 
+	@Query("select bgv.status from BundleGroupVersion bgv where bgv.id = :id")
+	Optional<BundleGroupVersion.Status> findStatusById(@Param("id") Long id);
 
 }
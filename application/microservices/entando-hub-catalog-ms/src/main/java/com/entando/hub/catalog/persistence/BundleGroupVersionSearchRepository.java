@@ -0,0 +1,16 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionSearchRow;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Searches whose order is computed in memory: the matching rows are selected without loading the
+ * entities, ranked, and only the requested page is loaded.
+ */
+public interface BundleGroupVersionSearchRepository {
+
+    List<BundleGroupVersionSearchRow> findSearchRows(Specification<BundleGroupVersion> specification);
+}
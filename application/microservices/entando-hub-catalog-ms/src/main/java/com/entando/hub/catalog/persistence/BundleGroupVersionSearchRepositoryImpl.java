@@ -0,0 +1,39 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.BundleGroup;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionSearchRow;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public class BundleGroupVersionSearchRepositoryImpl implements BundleGroupVersionSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BundleGroupVersionSearchRow> findSearchRows(Specification<BundleGroupVersion> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BundleGroupVersionSearchRow> query = cb.createQuery(BundleGroupVersionSearchRow.class);
+        Root<BundleGroupVersion> root = query.from(BundleGroupVersion.class);
+        // inner join, the one the specifications look for and reuse
+        Join<BundleGroupVersion, BundleGroup> bundleGroup = root.join("bundleGroup");
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (null != predicate) {
+            query.where(predicate);
+        }
+        query.select(cb.construct(BundleGroupVersionSearchRow.class,
+                root.get("id"), bundleGroup.get("id"), bundleGroup.get("name"), root.get("lastUpdated")));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -3,16 +3,26 @@ package com.entando.hub.catalog.persistence;
 import com.entando.hub.catalog.persistence.entity.Bundle;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
 import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionLink;
+import com.entando.hub.catalog.persistence.projection.BundleNameGroupLink;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BundleRepository extends JpaRepository<Bundle, Long> {
 
+    @Override
+    @EntityGraph(Bundle.WITH_BUNDLE_GROUP_VERSIONS)
+    Optional<Bundle> findById(Long id);
+
     Page<Bundle> findByBundleGroupVersionsIsAndDescriptorVersionIn(BundleGroupVersion bundleGroupVersions, Collection<Bundle.DescriptorVersion> descriptorVersion, Pageable pageable);
     Page<Bundle> findByBundleGroupVersionsInAndDescriptorVersionIn(
             List<BundleGroupVersion> bundleGroupVersions, Collection<Bundle.DescriptorVersion> descriptorVersion, Pageable pageable);
@@ -30,5 +40,50 @@ public interface BundleRepository extends JpaRepository<Bundle, Long> {
 
     List<Bundle> findByBundleGroupVersionsBundleGroupOrganisation(Organisation organisation);
 
+    List<Bundle> findDistinctByBundleGroupVersionsBundleGroupIdIn(Collection<Long> bundleGroupIds);
+
+    List<Bundle> findDistinctByBundleGroupVersionsBundleGroupOrganisationIdIn(Collection<Long> organisationIds);
+
+    /**
+     * Distinct union of the public bundles and the bundles of the given organisations.
+     * The organisation ids must not be empty, use the public variants otherwise.
+     */
+    @Query(value = "select distinct b from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg left join bg.organisation o"
+            + " where bg.publicCatalog = true or o.id in :organisationIds",
+            countQuery = "select count(distinct b) from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg left join bg.organisation o"
+                    + " where bg.publicCatalog = true or o.id in :organisationIds")
+    Page<Bundle> findVisibleBundles(@Param("organisationIds") Collection<Long> organisationIds, Pageable pageable);
+
+    @Query("select distinct b from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg left join bg.organisation o"
+            + " where bg.publicCatalog = true or o.id in :organisationIds")
+    List<Bundle> findVisibleBundles(@Param("organisationIds") Collection<Long> organisationIds, Sort sort);
+
+    @Query(value = "select distinct b from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg where bg.publicCatalog = true",
+            countQuery = "select count(distinct b) from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg where bg.publicCatalog = true")
+    Page<Bundle> findPublicBundles(Pageable pageable);
+
+    @Query("select distinct b from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg where bg.publicCatalog = true")
+    List<Bundle> findPublicBundles(Sort sort);
+
+    @Query("select b.id as bundleId, bgv.id as bundleGroupVersionId from Bundle b join b.bundleGroupVersions bgv"
+            + " where b.id in :bundleIds order by bgv.id")
+    List<BundleGroupVersionLink> findBundleGroupVersionLinks(@Param("bundleIds") Collection<Long> bundleIds);
+
+    /**
+     * One row per public bundle group version of every bundle.
+     */
+    @Query("select b.id as id, b.name as name, bgv.id as bundleGroupVersionId, bg.id as bundleGroupId"
+            + " from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg where bg.publicCatalog = true")
+    List<BundleNameGroupLink> findPublicNameLinks();
+
+    @Query("select b.id as id, b.name as name, bgv.id as bundleGroupVersionId, bg.id as bundleGroupId"
+            + " from Bundle b join b.bundleGroupVersions bgv join bgv.bundleGroup bg"
+            + " where bg.publicCatalog = true and b.id in :ids")
+    List<BundleNameGroupLink> findPublicNameLinksByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct b.id from Bundle b join b.bundleGroupVersions bgv where bgv.bundleGroup.id = :bundleGroupId")
+    List<Long> findIdsByBundleGroupId(@Param("bundleGroupId") Long bundleGroupId);
 
+    @Query("select distinct b.id from Bundle b join b.bundleGroupVersions bgv where bgv.id = :bundleGroupVersionId")
+    List<Long> findIdsByBundleGroupVersionId(@Param("bundleGroupVersionId") Long bundleGroupVersionId);
 }
@@ -0,0 +1,21 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface CatalogEventRepository extends JpaRepository<CatalogEvent, Long> {
+
+    Slice<CatalogEvent> findByCommitSeqGreaterThanOrderByCommitSeqAsc(Long commitSeq, Pageable pageable);
+
+    List<CatalogEvent> findByCommitSeqIsNullOrderByIdAsc(Pageable pageable);
+
+    boolean existsByCommitSeqIsNull();
+
+    @Query("select coalesce(max(e.commitSeq), 0) from CatalogEvent e")
+    Long findMaxCommitSeq();
+}
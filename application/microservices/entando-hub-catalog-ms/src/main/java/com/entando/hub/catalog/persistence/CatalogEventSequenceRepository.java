@@ -0,0 +1,18 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEventSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface CatalogEventSequenceRepository extends JpaRepository<CatalogEventSequence, Integer> {
+
+    /**
+     * The sequence row, locked until the end of the transaction, waiting for the other transactions
+     * holding it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<CatalogEventSequence> findForUpdateById(Integer id);
+}
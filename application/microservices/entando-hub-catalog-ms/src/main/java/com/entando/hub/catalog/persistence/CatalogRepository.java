@@ -2,6 +2,9 @@ package com.entando.hub.catalog.persistence;
 
 import com.entando.hub.catalog.persistence.entity.Catalog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,10 +16,15 @@ public interface CatalogRepository extends JpaRepository<Catalog, Long> {
 
     Optional<Catalog> findByOrganisation_PortalUsers_UsernameAndId(String username, Long id);
 
+    boolean existsByIdAndOrganisation_PortalUsers_Username(Long id, String username);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     List<Catalog> findAll();
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     boolean existsByOrganisationId(Long organisationId);
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     Catalog findByOrganisationId(Long organisationId);
 
 }
@@ -2,10 +2,24 @@ package com.entando.hub.catalog.persistence;
 
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
 import com.entando.hub.catalog.persistence.entity.Category;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = "bundleGroups")
+    Optional<Category> findById(Long id);
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Category> findAll();
+
     List<Category> findByBundleGroupsIs(BundleGroup bundleGroup);
 }
@@ -1,10 +1,36 @@
 package com.entando.hub.catalog.persistence;
 
 import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.projection.EntityName;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface OrganisationRepository extends JpaRepository<Organisation, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = "bundleGroups")
+    Optional<Organisation> findById(Long id);
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Organisation> findAll(Sort sort);
     
     Organisation findByName(String name);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Organisation> findByPortalUsers_Username(String username);
+
+    @Query("select o.id as id, o.name as name from Organisation o")
+    List<EntityName> findAllNames();
+
+    @Query("select o.id as id, o.name as name from Organisation o where o.id = :id")
+    Optional<EntityName> findNameById(@Param("id") Long id);
     
 }
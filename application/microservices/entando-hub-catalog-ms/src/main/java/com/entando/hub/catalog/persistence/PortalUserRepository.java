@@ -7,13 +7,26 @@ package com.entando.hub.catalog.persistence;
 
 import com.entando.hub.catalog.persistence.entity.Organisation;
 import com.entando.hub.catalog.persistence.entity.PortalUser;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PortalUserRepository extends JpaRepository<PortalUser, Long> {
     
     List<PortalUser> findByOrganisationsIs(Organisation organisation);
     
     PortalUser findByUsername(String username);
-    
+
+    @Query("select u from PortalUser u where u.profileSyncedAt is null"
+            + " and (u.profileSyncFailedAt is null or u.profileSyncFailedAt < :failedBefore) order by u.id")
+    List<PortalUser> findNeverSynced(@Param("failedBefore") LocalDateTime failedBefore, Pageable pageable);
+
+    @Query("select u from PortalUser u where u.profileSyncedAt < :syncedBefore"
+            + " and (u.profileSyncFailedAt is null or u.profileSyncFailedAt < :failedBefore) order by u.profileSyncedAt")
+    List<PortalUser> findSyncedBefore(@Param("syncedBefore") LocalDateTime syncedBefore, @Param("failedBefore") LocalDateTime failedBefore,
+                                      Pageable pageable);
+
 }
@@ -0,0 +1,28 @@
+package com.entando.hub.catalog.persistence;
+
+import com.entando.hub.catalog.persistence.entity.WebhookCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Optional;
+
+public interface WebhookCursorRepository extends JpaRepository<WebhookCursor, String> {
+
+    /**
+     * The cursor of the endpoint, locked until the end of the transaction. Empty when another
+     * transaction holds it: -2 is Hibernate's LockOptions.SKIP_LOCKED.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    Optional<WebhookCursor> findLockedByEndpoint(String endpoint);
+
+    /**
+     * The cursor of the endpoint, locked until the end of the transaction, waiting for the other
+     * transactions holding it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<WebhookCursor> findForUpdateByEndpoint(String endpoint);
+}
@@ -1,7 +1,9 @@
 package com.entando.hub.catalog.persistence.entity;
 
+import com.entando.hub.catalog.persistence.event.CatalogEntityListener;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.Objects;
@@ -13,10 +15,14 @@ import lombok.experimental.Accessors;
  *
  */
 @Entity
+@EntityListeners(CatalogEntityListener.class)
+@NamedEntityGraph(name = Bundle.WITH_BUNDLE_GROUP_VERSIONS, attributeNodes = @NamedAttributeNode("bundleGroupVersions"))
 @Setter
 @Getter
 @Accessors(chain = true)
 public class Bundle {
+    public static final String WITH_BUNDLE_GROUP_VERSIONS = "Bundle.withBundleGroupVersions";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -30,7 +36,10 @@ public class Bundle {
     @Enumerated(EnumType.STRING)
     private DescriptorVersion descriptorVersion = DescriptorVersion.V1;
 
-	@ManyToMany(mappedBy = "bundles",fetch = FetchType.EAGER)
+	// lazy: list endpoints read the version ids through BundleRepository.findBundleGroupVersionLinks,
+	// findById loads them with the WITH_BUNDLE_GROUP_VERSIONS graph, the write path in batches
+	@ManyToMany(mappedBy = "bundles", fetch = FetchType.LAZY)
+	@BatchSize(size = 50)
 	private Set<BundleGroupVersion> bundleGroupVersions;
 
     @Override
@@ -1,10 +1,12 @@
 package com.entando.hub.catalog.persistence.entity;
 
+import com.entando.hub.catalog.persistence.event.CatalogEntityListener;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 import javax.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -16,6 +18,7 @@ import lombok.experimental.Accessors;
  *
  */
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Setter
 @Getter
 @ToString
@@ -38,12 +41,16 @@ public class BundleGroup {
     private Organisation organisation;
 
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.MERGE})
+    @BatchSize(size = 50)
+    @ToString.Exclude
     @JoinTable(name = "category_bundle_group",
             joinColumns = @JoinColumn(name = "bundle_group_id", referencedColumnName = "id"),
             inverseJoinColumns = @JoinColumn(name = "category_id", referencedColumnName = "id"))
     private Set<Category> categories = new HashSet<>();
     
     @OneToMany(mappedBy = "bundleGroup", fetch = FetchType.LAZY, cascade = {CascadeType.MERGE})
+    @BatchSize(size = 50)
+    @ToString.Exclude
     private Set<BundleGroupVersion> version = new HashSet<>();
 
     @Override
@@ -1,5 +1,6 @@
 package com.entando.hub.catalog.persistence.entity;
 
+import com.entando.hub.catalog.persistence.event.CatalogEntityListener;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -7,6 +8,7 @@ import java.util.Set;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
@@ -23,6 +25,7 @@ import javax.persistence.UniqueConstraint;
 
 import lombok.ToString;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import lombok.Getter;
@@ -33,6 +36,7 @@ import lombok.Setter;
  *
  */
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Setter
 @Getter
 @Accessors(chain = true)
@@ -70,6 +74,7 @@ public class BundleGroupVersion {
 	private BundleGroup bundleGroup;
 
 	@ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.MERGE})
+	@BatchSize(size = 50)
 	@JoinTable(name = "bundle_versions",
 			joinColumns = @JoinColumn(name = "bundle_group_version_id", referencedColumnName = "id"),
 			inverseJoinColumns = @JoinColumn(name = "bundle_id", referencedColumnName = "id"))
@@ -0,0 +1,49 @@
+package com.entando.hub.catalog.persistence.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.hibernate.annotations.Immutable;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/**
+ * This entity class is for the BUNDLE_GROUP_VERSION_LISTING view: one row per bundle group version
+ * with what the listings would otherwise load per version, the lists being comma separated.
+ * A materialized view on Postgres, so it may lag the tables until BundleGroupVersionListingRefresher
+ * has refreshed it.
+ */
+@Entity
+@Immutable
+@Getter
+@Setter
+@Accessors(chain = true)
+@ToString
+public class BundleGroupVersionListing {
+
+    @Id
+    private Long id;
+
+    private Long bundleGroupId;
+
+    private String bundleGroupName;
+
+    private Boolean publicCatalog;
+
+    private Long organisationId;
+
+    private String organisationName;
+
+    private String categoryIds;
+
+    private String bundleIds;
+
+    private String allVersions;
+
+    private Boolean editable;
+
+    private Boolean canAddNewVersion;
+}
@@ -1,5 +1,6 @@
 package com.entando.hub.catalog.persistence.entity;
 
+import com.entando.hub.catalog.persistence.event.CatalogEntityListener;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -8,13 +9,18 @@ import javax.persistence.*;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Getter
 @Setter
 @Accessors(chain = true)
 @ToString
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SequenceGenerator(name = "catalog_id", sequenceName = "SEQ_CATALOG_ID", allocationSize = 1)
 public class Catalog {
     @Id
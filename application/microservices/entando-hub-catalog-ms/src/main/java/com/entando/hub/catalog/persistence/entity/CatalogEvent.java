@@ -0,0 +1,64 @@
+package com.entando.hub.catalog.persistence.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/**
+ * This entity class is for CATALOG_EVENT table: the append-only log of the catalog changes, read by
+ * the App Builders to sync deltas. The id is taken at insert, the commit sequence number, the
+ * position of the event in the change feed, once it is committed (see CatalogEventService).
+ */
+@Entity
+@Getter
+@Setter
+@Accessors(chain = true)
+@ToString
+@SequenceGenerator(name = "catalog_event_id", sequenceName = "SEQ_CATALOG_EVENT_ID", allocationSize = 1)
+public class CatalogEvent {
+
+    public enum EntityType {
+        BUNDLE, BUNDLE_GROUP, BUNDLE_GROUP_VERSION
+    }
+
+    public enum Action {
+        CREATED, UPDATED, PUBLISHED, ARCHIVED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "catalog_event_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    // the bundle group of a bundle group or of a bundle group version, null for a bundle
+    private Long bundleGroupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Action action;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // null until the event is numbered, after its commit
+    @Column(unique = true)
+    private Long commitSeq;
+}
@@ -0,0 +1,30 @@
+package com.entando.hub.catalog.persistence.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/**
+ * This entity class is for CATALOG_EVENT_SEQUENCE table: its single row holds the last commit
+ * sequence number given to a catalog event, and is locked by the replica numbering the new ones.
+ */
+@Entity
+@Getter
+@Setter
+@Accessors(chain = true)
+@ToString
+public class CatalogEventSequence {
+
+    public static final Integer ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long lastCommitSeq;
+}
@@ -1,18 +1,25 @@
 package com.entando.hub.catalog.persistence.entity;
 
+import com.entando.hub.catalog.persistence.event.CatalogEntityListener;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
 import javax.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Getter
 @Setter
 @Accessors (chain = true)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SequenceGenerator(name = "category_id", sequenceName = "SEQ_CATEGORY_ID", allocationSize = 1)
 public class Category {
     @Id
@@ -25,6 +32,7 @@ public class Category {
     private String description;
 
     @ManyToMany(mappedBy = "categories", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private Set<BundleGroup> bundleGroups = new HashSet<>();
 
 
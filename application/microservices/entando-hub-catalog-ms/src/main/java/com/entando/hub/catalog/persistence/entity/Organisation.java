@@ -1,17 +1,24 @@
 package com.entando.hub.catalog.persistence.entity;
 
+import com.entando.hub.catalog.persistence.event.CatalogEntityListener;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
 import javax.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Objects;
 import java.util.Set;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Getter
 @Setter
 @Accessors(chain = true)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SequenceGenerator(name = "organisation_id", sequenceName = "SEQ_ORGANISATION_ID", allocationSize = 1)
 public class Organisation {
     @Id
@@ -24,9 +31,11 @@ public class Organisation {
     private String description;
 
     @OneToMany(mappedBy = "organisation", fetch = FetchType.LAZY, cascade = {CascadeType.MERGE})
+    @BatchSize(size = 50)
     private Set<BundleGroup> bundleGroups;
 
     @ManyToMany(mappedBy = "organisations", fetch = FetchType.LAZY, cascade = {CascadeType.MERGE})
+    @BatchSize(size = 50)
     private Set<PortalUser> portalUsers;
 
 /*
@@ -1,5 +1,6 @@
 package com.entando.hub.catalog.persistence.entity;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.Column;
@@ -14,6 +15,7 @@ import javax.persistence.ManyToMany;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Getter
@@ -30,7 +32,30 @@ public class PortalUser {
 
     private String email;
 
+    /*
+     * Profile fields mirrored from Keycloak by PortalUserSyncService, so that user listings
+     * can be served from the local database. profileSyncedAt is null until the first sync.
+     */
+    private String keycloakId;
+
+    private String firstName;
+
+    private String lastName;
+
+    private Boolean enabled;
+
+    private Long keycloakCreatedTimestamp;
+
+    private LocalDateTime profileSyncedAt;
+
+    /*
+     * Last time Keycloak failed to answer for the user, cleared by the next sync. The sync retries
+     * the user once it is old enough; the stored profile, or its absence, is left untouched meanwhile.
+     */
+    private LocalDateTime profileSyncFailedAt;
+
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JoinTable(name = "portal_user_organisation",
             joinColumns = @JoinColumn(name = "portal_user_id", referencedColumnName = "id"),
             inverseJoinColumns = @JoinColumn(name = "organisation_id", referencedColumnName = "id"))
@@ -0,0 +1,46 @@
+package com.entando.hub.catalog.persistence.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/**
+ * This entity class is for WEBHOOK_CURSOR table: how far the catalog events have been delivered to
+ * a webhook endpoint, when to try again after a failed delivery, and which replica is posting a
+ * batch to it.
+ */
+@Entity
+@Getter
+@Setter
+@Accessors(chain = true)
+@ToString
+public class WebhookCursor {
+
+    @Id
+    @Column(length = 1000)
+    private String endpoint;
+
+    // commit sequence number of the last event delivered
+    @Column(nullable = false)
+    private Long lastEventId;
+
+    @Column(nullable = false)
+    private int failures;
+
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime lastDeliveredAt;
+
+    // the delivery in progress, null when none
+    @Column(length = 36)
+    private String leaseOwner;
+
+    private LocalDateTime leasedUntil;
+}
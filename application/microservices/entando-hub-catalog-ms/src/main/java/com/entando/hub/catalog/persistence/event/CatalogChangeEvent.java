@@ -0,0 +1,39 @@
+package com.entando.hub.catalog.persistence.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published for every insert, update or delete of a catalog entity, see CatalogEntityListener.
+ * Listeners that keep derived state (indexes, caches) should react after commit.
+ * Remote events are the changes committed by another replica, received through the cache
+ * invalidation channel.
+ */
+@Getter
+@ToString
+public class CatalogChangeEvent {
+
+    public enum EntityType {
+        BUNDLE, BUNDLE_GROUP, BUNDLE_GROUP_VERSION, CATEGORY, ORGANISATION, CATALOG
+    }
+
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final EntityType entityType;
+    private final Long entityId;
+    private final Action action;
+    private final boolean remote;
+
+    public CatalogChangeEvent(EntityType entityType, Long entityId, Action action) {
+        this(entityType, entityId, action, false);
+    }
+
+    public CatalogChangeEvent(EntityType entityType, Long entityId, Action action, boolean remote) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.action = action;
+        this.remote = remote;
+    }
+}
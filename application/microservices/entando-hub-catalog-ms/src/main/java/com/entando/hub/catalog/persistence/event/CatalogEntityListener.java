@@ -0,0 +1,68 @@
+package com.entando.hub.catalog.persistence.event;
+
+import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.persistence.entity.BundleGroup;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.entity.Catalog;
+import com.entando.hub.catalog.persistence.entity.Category;
+import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.Action;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA entity listener turning entity lifecycle callbacks into CatalogChangeEvents.
+ * Hibernate builds it through the Spring bean container, so the publisher is injected.
+ */
+public class CatalogEntityListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogEntityListener.class);
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public CatalogEntityListener(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @PostPersist
+    public void onCreated(Object entity) {
+        publish(entity, Action.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdated(Object entity) {
+        publish(entity, Action.UPDATED);
+    }
+
+    @PostRemove
+    public void onDeleted(Object entity) {
+        publish(entity, Action.DELETED);
+    }
+
+    private void publish(Object entity, Action action) {
+        CatalogChangeEvent event;
+        if (entity instanceof BundleGroup) {
+            event = new CatalogChangeEvent(EntityType.BUNDLE_GROUP, ((BundleGroup) entity).getId(), action);
+        } else if (entity instanceof BundleGroupVersion) {
+            event = new CatalogChangeEvent(EntityType.BUNDLE_GROUP_VERSION, ((BundleGroupVersion) entity).getId(), action);
+        } else if (entity instanceof Bundle) {
+            event = new CatalogChangeEvent(EntityType.BUNDLE, ((Bundle) entity).getId(), action);
+        } else if (entity instanceof Category) {
+            event = new CatalogChangeEvent(EntityType.CATEGORY, ((Category) entity).getId(), action);
+        } else if (entity instanceof Organisation) {
+            event = new CatalogChangeEvent(EntityType.ORGANISATION, ((Organisation) entity).getId(), action);
+        } else if (entity instanceof Catalog) {
+            event = new CatalogChangeEvent(EntityType.CATALOG, ((Catalog) entity).getId(), action);
+        } else {
+            return;
+        }
+        logger.debug("publish: {}", event);
+        applicationEventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,19 @@
+package com.entando.hub.catalog.persistence.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published once this replica has given commit sequence numbers to new catalog events: the change
+ * feed holds every event up to lastCommitSeq.
+ */
+@Getter
+@ToString
+public class CatalogEventsSequencedEvent {
+
+    private final long lastCommitSeq;
+
+    public CatalogEventsSequencedEvent(long lastCommitSeq) {
+        this.lastCommitSeq = lastCommitSeq;
+    }
+}
@@ -0,0 +1,11 @@
+package com.entando.hub.catalog.persistence.event;
+
+import lombok.ToString;
+
+/**
+ * Published once this replica has refreshed the bundle group version listing view after a change:
+ * the state derived from the listings can be rebuilt.
+ */
+@ToString
+public class CatalogListingRefreshEvent {
+}
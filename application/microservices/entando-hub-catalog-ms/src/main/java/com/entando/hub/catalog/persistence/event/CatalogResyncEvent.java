@@ -0,0 +1,12 @@
+package com.entando.hub.catalog.persistence.event;
+
+import lombok.ToString;
+
+/**
+ * Published when the changes made by the other replicas may have been missed, e.g. after the cache
+ * invalidation channel was lost: the derived state (indexes, caches) has to be rebuilt from the
+ * database.
+ */
+@ToString
+public class CatalogResyncEvent {
+}
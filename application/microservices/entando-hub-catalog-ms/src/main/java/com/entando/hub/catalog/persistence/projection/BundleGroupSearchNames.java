@@ -0,0 +1,13 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * The names a bundle group is found by in a text search.
+ */
+public interface BundleGroupSearchNames {
+
+    Long getId();
+
+    String getName();
+
+    String getOrganisationName();
+}
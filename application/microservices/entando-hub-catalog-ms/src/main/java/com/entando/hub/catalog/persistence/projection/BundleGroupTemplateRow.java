@@ -0,0 +1,11 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * A published bundle group version containing at least one template bundle.
+ */
+public interface BundleGroupTemplateRow {
+
+    String getBundleGroupName();
+
+    Long getBundleGroupVersionId();
+}
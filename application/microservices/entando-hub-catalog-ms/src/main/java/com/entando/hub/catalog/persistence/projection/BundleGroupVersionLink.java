@@ -0,0 +1,11 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * A row of the bundle_versions join table: the bundle and one of the bundle group versions it belongs to.
+ */
+public interface BundleGroupVersionLink {
+
+    Long getBundleId();
+
+    Long getBundleGroupVersionId();
+}
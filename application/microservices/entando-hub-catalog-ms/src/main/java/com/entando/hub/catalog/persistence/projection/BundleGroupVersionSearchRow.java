@@ -0,0 +1,26 @@
+package com.entando.hub.catalog.persistence.projection;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a bundle group version needed to rank it in memory before loading the page.
+ */
+@Getter
+@ToString
+public class BundleGroupVersionSearchRow {
+
+    private final Long id;
+    private final Long bundleGroupId;
+    private final String bundleGroupName;
+    private final LocalDateTime lastUpdated;
+
+    public BundleGroupVersionSearchRow(Long id, Long bundleGroupId, String bundleGroupName, LocalDateTime lastUpdated) {
+        this.id = id;
+        this.bundleGroupId = bundleGroupId;
+        this.bundleGroupName = bundleGroupName;
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -0,0 +1,15 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * The texts of a bundle group version that are ranked by the relevance search, bundle names aside.
+ */
+public interface BundleGroupVersionText {
+
+    Long getId();
+
+    String getDescription();
+
+    String getBundleGroupName();
+
+    String getOrganisationName();
+}
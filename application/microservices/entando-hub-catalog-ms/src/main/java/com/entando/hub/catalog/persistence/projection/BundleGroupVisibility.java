@@ -0,0 +1,31 @@
+package com.entando.hub.catalog.persistence.projection;
+
+import java.util.Collection;
+
+/**
+ * The columns of a bundle group that decide who can see it.
+ */
+public interface BundleGroupVisibility {
+
+    Long getId();
+
+    Long getOrganisationId();
+
+    Long getCatalogId();
+
+    Boolean getPublicCatalog();
+
+    /**
+     * A null public_catalog is not public, as in the queries filtering on bg.publicCatalog = true.
+     */
+    default boolean isPublic() {
+        return Boolean.TRUE.equals(getPublicCatalog());
+    }
+
+    /**
+     * Public, or owned by one of the organisations.
+     */
+    default boolean isVisibleTo(Collection<Long> organisationIds) {
+        return isPublic() || (null != getOrganisationId() && organisationIds.contains(getOrganisationId()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * The name of a bundle with one of the bundle group versions it belongs to, and its bundle group.
+ */
+public interface BundleNameGroupLink extends EntityName {
+
+    Long getBundleGroupVersionId();
+
+    Long getBundleGroupId();
+}
@@ -0,0 +1,13 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * The name of a bundle of a bundle group version.
+ */
+public interface BundleNameLink {
+
+    Long getBundleGroupVersionId();
+
+    Long getBundleId();
+
+    String getName();
+}
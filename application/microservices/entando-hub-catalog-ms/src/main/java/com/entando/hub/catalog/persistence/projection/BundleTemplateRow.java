@@ -0,0 +1,19 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * A bundle of a published bundle group version that can be used as a template.
+ */
+public interface BundleTemplateRow {
+
+    String getBundleGroupName();
+
+    String getBundleName();
+
+    String getGitSrcRepoAddress();
+
+    Long getBundleGroupVersionId();
+
+    Long getBundleGroupId();
+
+    Long getBundleId();
+}
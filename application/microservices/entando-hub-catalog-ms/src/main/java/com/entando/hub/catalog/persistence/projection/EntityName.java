@@ -0,0 +1,11 @@
+package com.entando.hub.catalog.persistence.projection;
+
+/**
+ * Id and display name of a catalog entity.
+ */
+public interface EntityName {
+
+    Long getId();
+
+    String getName();
+}
@@ -0,0 +1,102 @@
+package com.entando.hub.catalog.persistence.specification;
+
+import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.persistence.entity.BundleGroup;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.entity.Category;
+import com.entando.hub.catalog.persistence.entity.Organisation;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
+
+/**
+ * Filters of the bundle group version searches. Each one adds a single predicate, so that a search
+ * only pays for the filters that were actually requested.
+ */
+public final class BundleGroupVersionSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private BundleGroupVersionSpecifications() {
+    }
+
+    public static Specification<BundleGroupVersion> inPublicCatalog() {
+        return (root, query, cb) -> cb.isTrue(bundleGroup(root).get("publicCatalog"));
+    }
+
+    public static Specification<BundleGroupVersion> inCatalog(Long catalogId) {
+        return (root, query, cb) -> cb.equal(bundleGroup(root).get("catalogId"), catalogId);
+    }
+
+    public static Specification<BundleGroupVersion> inBundleGroups(Collection<Long> bundleGroupIds) {
+        return (root, query, cb) -> bundleGroup(root).get("id").in(bundleGroupIds);
+    }
+
+    public static Specification<BundleGroupVersion> ofOrganisation(Long organisationId) {
+        return (root, query, cb) -> cb.equal(bundleGroup(root).get("organisation").get("id"), organisationId);
+    }
+
+    /**
+     * Versions whose bundle group is in at least one of the categories. Checked with an exists
+     * subquery, so that a group in several of them is not returned more than once.
+     */
+    public static Specification<BundleGroupVersion> inCategories(Collection<Long> categoryIds) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<BundleGroup> bundleGroup = subquery.from(BundleGroup.class);
+            Join<BundleGroup, Category> category = bundleGroup.join("categories");
+            subquery.select(bundleGroup.get("id"))
+                    .where(cb.equal(bundleGroup, root.get("bundleGroup")), category.get("id").in(categoryIds));
+            return cb.exists(subquery);
+        };
+    }
+
+    public static Specification<BundleGroupVersion> withStatusIn(Collection<BundleGroupVersion.Status> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    /**
+     * Case-insensitive substring match on the bundle group name, its organisation name, the version
+     * description or the name/description of one of its bundles. The bundles are checked with an
+     * exists subquery over bundle_versions, so a version is returned once however many bundles match.
+     */
+    public static Specification<BundleGroupVersion> matchingText(String searchText) {
+        String pattern = "%" + escapeLike(searchText.toLowerCase()) + "%";
+        return (root, query, cb) -> {
+            Join<BundleGroupVersion, BundleGroup> bundleGroup = bundleGroup(root);
+            Join<BundleGroup, Organisation> organisation = bundleGroup.join("organisation", JoinType.LEFT);
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<BundleGroupVersion> version = subquery.from(BundleGroupVersion.class);
+            Join<BundleGroupVersion, Bundle> bundle = version.join("bundles");
+            subquery.select(bundle.get("id"))
+                    .where(cb.equal(version, root),
+                            cb.or(cb.like(cb.lower(bundle.get("name")), pattern, LIKE_ESCAPE),
+                                    cb.like(cb.lower(bundle.get("description")), pattern, LIKE_ESCAPE)));
+            return cb.or(cb.like(cb.lower(bundleGroup.get("name")), pattern, LIKE_ESCAPE),
+                    cb.like(cb.lower(organisation.get("name")), pattern, LIKE_ESCAPE),
+                    cb.like(cb.lower(root.get("description")), pattern, LIKE_ESCAPE),
+                    cb.exists(subquery));
+        };
+    }
+
+    /**
+     * The join to the bundle group, shared by all the filters of the same query.
+     */
+    @SuppressWarnings("unchecked")
+    private static Join<BundleGroupVersion, BundleGroup> bundleGroup(From<?, BundleGroupVersion> root) {
+        return root.getJoins().stream()
+                .filter(join -> "bundleGroup".equals(join.getAttribute().getName()) && JoinType.INNER.equals(join.getJoinType()))
+                .map(join -> (Join<BundleGroupVersion, BundleGroup>) join)
+                .findFirst()
+                .orElseGet(() -> root.join("bundleGroup"));
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
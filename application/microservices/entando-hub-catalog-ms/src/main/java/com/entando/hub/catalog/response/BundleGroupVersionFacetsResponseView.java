@@ -0,0 +1,20 @@
+package com.entando.hub.catalog.response;
+
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import java.util.Map;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * Number of matching bundle group versions per category id, organisation id and status.
+ * Each facet applies every filter except its own, so that the other values of the same facet keep
+ * a count.
+ */
+@Data
+@Accessors(chain = true)
+public class BundleGroupVersionFacetsResponseView {
+	private Map<Long, Long> categories;
+	private Map<Long, Long> organisations;
+	private Map<BundleGroupVersion.Status, Long> statuses;
+	private long revision;
+}
@@ -0,0 +1,18 @@
+package com.entando.hub.catalog.response;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * A batch of the catalog change feed. lastEventId is the commit sequence number to pass as since to
+ * get the next batch; more tells whether that batch is already available.
+ */
+@Data
+@Accessors(chain = true)
+public class CatalogEventsResponseView {
+	private List<CatalogEvent> events;
+	private Long lastEventId;
+	private boolean more;
+}
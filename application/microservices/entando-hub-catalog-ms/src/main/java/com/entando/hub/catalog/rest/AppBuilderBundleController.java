@@ -1,38 +1,45 @@
 package com.entando.hub.catalog.rest;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.entando.hub.catalog.config.bulkhead.PublicApi;
 import com.entando.hub.catalog.persistence.entity.Bundle;
-import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
-import com.entando.hub.catalog.service.BundleGroupVersionService;
 import com.entando.hub.catalog.service.BundleService;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalog;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalogService;
+import com.entando.hub.catalog.service.snapshot.StaticCatalogFiles;
 
 import io.swagger.v3.oas.annotations.Operation;
 
 @RestController
+@PublicApi
 @RequestMapping("/appbuilder/api/bundles/")
 public class AppBuilderBundleController {
 
 	private final BundleService bundleService;
-	private final BundleGroupVersionService bundleGroupVersionService;
+	private final PublishedCatalogService publishedCatalogService;
+	private final StaticCatalogFiles staticCatalogFiles;
 	private static final Logger logger = LoggerFactory.getLogger(AppBuilderBundleController.class);
     private final String CLASS_NAME = this.getClass().getSimpleName();
 
-	public AppBuilderBundleController(BundleService bundleService,BundleGroupVersionService bundleGroupVersionService) {
+	public AppBuilderBundleController(BundleService bundleService, PublishedCatalogService publishedCatalogService, StaticCatalogFiles staticCatalogFiles) {
 		this.bundleService = bundleService;
-		this.bundleGroupVersionService = bundleGroupVersionService;
+		this.publishedCatalogService = publishedCatalogService;
+		this.staticCatalogFiles = staticCatalogFiles;
 	}
 
 	static Set<Bundle.DescriptorVersion> descriptorVersionsToSet(String[] descriptorVersions) {
@@ -59,25 +66,21 @@ public class AppBuilderBundleController {
 	@GetMapping(value = "/", produces = {"application/json"})
 	@ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
 	@ApiResponse(responseCode = "200", description = "OK")
-	public PagedContent<BundleController.Bundle, Bundle> getBundles(@RequestParam Integer page,@RequestParam Integer pageSize, @RequestParam(required = false) String bundleGroupId, @RequestParam(required=false) String[] descriptorVersions) {
+	public PagedContent<BundleController.Bundle, ?> getBundles(@RequestParam Integer page,@RequestParam Integer pageSize, @RequestParam(required = false) String bundleGroupId, @RequestParam(required=false) String[] descriptorVersions, HttpServletRequest request, HttpServletResponse response) throws IOException {
 		logger.debug("{}: REST request to get bundles for the current published version by bundleGroup Id: {} ",CLASS_NAME, bundleGroupId );
 		Integer sanitizedPageNum = page >= 1 ? page - 1 : 0;
 		Set<Bundle.DescriptorVersion> versions = descriptorVersionsToSet(descriptorVersions);
-		Page<Bundle> bundlesPage = bundleService.getBundles(sanitizedPageNum, pageSize, Optional.ofNullable(bundleGroupId), versions);
-
-		PagedContent<BundleController.Bundle, Bundle> pagedContent = new PagedContent<>(
-				bundlesPage.getContent().stream().map(BundleController.Bundle::new).peek(bundle -> {
-					// add the bundle group image as bundle image
-					List<String> bundleGroupVersions = bundle.getBundleGroups();
-					if (bundleGroupVersions != null && bundleGroupVersions.size() > 0) {
-						Optional<BundleGroupVersion> optionalBundleGroup = bundleGroupVersionService.getBundleGroupVersion(bundleGroupVersions.get(0));
-						optionalBundleGroup.ifPresent(group -> {
-							bundle.setDescriptionImage(group.getDescriptionImage());
-							bundle.setDescription(group.getDescription());
-						});
-					}
-				}).collect(Collectors.toList()), bundlesPage);
-		return pagedContent;
+		PublishedCatalog publishedCatalog = publishedCatalogService.getSnapshot();
+		if (null != publishedCatalog) {
+			String key = publishedCatalog.bundlesKey(sanitizedPageNum, pageSize, bundleGroupId, versions);
+			if (null != key && staticCatalogFiles.serve(key, publishedCatalog.getRevision(),
+					() -> publishedCatalog.getBundles(sanitizedPageNum, pageSize, bundleGroupId, versions), request, response)) {
+				// already written from the static file
+				return null;
+			}
+			return publishedCatalog.getBundles(sanitizedPageNum, pageSize, bundleGroupId, versions);
+		}
+		return bundleService.getPublishedBundles(sanitizedPageNum, pageSize, Optional.ofNullable(bundleGroupId), versions);
 	}
 
 }
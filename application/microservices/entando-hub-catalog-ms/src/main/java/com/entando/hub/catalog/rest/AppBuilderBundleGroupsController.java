@@ -3,6 +3,11 @@ package com.entando.hub.catalog.rest;
 
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,26 +15,35 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.entando.hub.catalog.config.bulkhead.PublicApi;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
 import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalog;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalogService;
+import com.entando.hub.catalog.service.snapshot.StaticCatalogFiles;
 
 import io.swagger.v3.oas.annotations.Operation;
 
 @RestController
+@PublicApi
 @RequestMapping("/appbuilder/api/bundlegroups")
 public class AppBuilderBundleGroupsController {
     private final BundleGroupVersionController bundleGroupVersionController;
+    private final PublishedCatalogService publishedCatalogService;
+    private final StaticCatalogFiles staticCatalogFiles;
 	private final Logger logger = LoggerFactory.getLogger(AppBuilderBundleGroupsController.class);
 	
-    public AppBuilderBundleGroupsController(BundleGroupVersionController bundleGroupVersionController) {
+    public AppBuilderBundleGroupsController(BundleGroupVersionController bundleGroupVersionController, PublishedCatalogService publishedCatalogService, StaticCatalogFiles staticCatalogFiles) {
         this.bundleGroupVersionController = bundleGroupVersionController;
+        this.publishedCatalogService = publishedCatalogService;
+        this.staticCatalogFiles = staticCatalogFiles;
     }
 
     @Operation(summary = "Get all the bundleGroups in the hub", description = "Public api, no authentication required.")
     @GetMapping(value = "/", produces = {"application/json"})
     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
     @ApiResponse(responseCode = "200", description = "OK")
-    public PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> getBundleGroupVersionsAndFilterThem(@RequestParam Integer page, @RequestParam Integer pageSize, @RequestParam(required = false) String[] descriptorVersions) {
+    public PagedContent<BundleGroupVersionFilteredResponseView, ?> getBundleGroupVersionsAndFilterThem(@RequestParam Integer page, @RequestParam Integer pageSize, @RequestParam(required = false) String[] descriptorVersions, HttpServletRequest request, HttpServletResponse response) throws IOException {
     	logger.debug("REST request to get bundle group versions and filter them by descriptorVersions {}", descriptorVersions);
 
         String[] statuses = {BundleGroupVersion.Status.PUBLISHED.toString()};
@@ -37,7 +51,18 @@ public class AppBuilderBundleGroupsController {
         //No-op currently but descriptorVersions are available if we need to refine functionality
         // Set<Bundle.DescriptorVersion> versions = AppBuilderBundleController.descriptorVersionsToSet(descriptorVersions);
 
-        return bundleGroupVersionController.getBundleGroupsAndFilterThem(page, pageSize, null, null, statuses, null);
+        PublishedCatalog publishedCatalog = publishedCatalogService.getSnapshot();
+        if (null != publishedCatalog) {
+            int sanitizedPageNum = page >= 1 ? page - 1 : 0;
+            String key = publishedCatalog.bundleGroupVersionsKey(sanitizedPageNum, pageSize);
+            if (null != key && staticCatalogFiles.serve(key, publishedCatalog.getRevision(),
+                    () -> publishedCatalog.getBundleGroupVersions(sanitizedPageNum, pageSize), request, response)) {
+                // already written from the static file
+                return null;
+            }
+            return publishedCatalog.getBundleGroupVersions(sanitizedPageNum, pageSize);
+        }
+        return bundleGroupVersionController.getBundleGroupsAndFilterThem(page, pageSize, null, null, statuses, null, null, null);
     }
 
 }
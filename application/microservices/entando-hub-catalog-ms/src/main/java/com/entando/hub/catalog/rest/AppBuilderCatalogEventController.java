@@ -0,0 +1,61 @@
+package com.entando.hub.catalog.rest;
+
+import com.entando.hub.catalog.config.bulkhead.PublicApi;
+import com.entando.hub.catalog.response.CatalogEventsResponseView;
+import com.entando.hub.catalog.service.CatalogEventService;
+import com.entando.hub.catalog.service.CatalogEventStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/*
+ * Controller for the incremental sync of the App Builders
+ *
+ */
+@RestController
+@PublicApi
+@RequestMapping("/appbuilder/api/events")
+public class AppBuilderCatalogEventController {
+
+    private final Logger logger = LoggerFactory.getLogger(AppBuilderCatalogEventController.class);
+
+    private final CatalogEventService catalogEventService;
+    private final CatalogEventStreamService catalogEventStreamService;
+
+    public AppBuilderCatalogEventController(CatalogEventService catalogEventService, CatalogEventStreamService catalogEventStreamService) {
+        this.catalogEventService = catalogEventService;
+        this.catalogEventStreamService = catalogEventStreamService;
+    }
+
+    //PUBLIC
+    @Operation(summary = "Get the catalog changes after a sequence number", description = "Public api, no authentication required. Returns the create/update/publish/archive/delete events of the bundles, bundle groups and bundle group versions committed after since (0 for the whole log), in commit order by their commitSeq. limit defaults to 100, at most 500; pass the returned lastEventId as since to get the next batch")
+    @GetMapping(value = "/", produces = {"application/json"})
+    @ApiResponse(responseCode = "200", description = "OK")
+    public CatalogEventsResponseView getEvents(@RequestParam(required = false, defaultValue = "0") Long since, @RequestParam(required = false, defaultValue = "100") Integer limit) {
+        logger.debug("REST request to get the catalog events after {}", since);
+        return catalogEventService.getEvents(since, limit);
+    }
+
+    //PUBLIC
+    @Operation(summary = "Stream the catalog changes as server-sent events", description = "Public api, no authentication required. Every catalog-event carries an event of the change feed, from every replica; its id is the commitSeq of the event. A comment is sent as heartbeat. Reconnect with the Last-Event-ID header (or the lastEventId parameter) to get the events missed in between; a reset event means too many were missed and the client should resync through the change feed. A 503 means too many clients are connected, retry later")
+    @GetMapping(value = "/stream", produces = {MediaType.TEXT_EVENT_STREAM_VALUE})
+    @ApiResponse(responseCode = "200", description = "OK")
+    @ApiResponse(responseCode = "503", description = "Service Unavailable", content = @Content)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader, @RequestParam(required = false) Long lastEventId) {
+        Long resumeFrom = null != lastEventIdHeader ? lastEventIdHeader : lastEventId;
+        logger.debug("REST request to stream the catalog events after {}", resumeFrom);
+        return catalogEventStreamService.subscribe(resumeFrom)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many clients connected to the stream, retry later"));
+    }
+}
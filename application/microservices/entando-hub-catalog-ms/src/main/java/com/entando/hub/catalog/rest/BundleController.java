@@ -14,6 +14,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -61,10 +62,18 @@ public class BundleController {
                 bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(catalogId, bundleGroupVersionId);
             }
         }
-        List<Bundle> bundles = bundleService.getBundles(bundleGroupVersionId,catalogId).stream().map(BundleController.Bundle::new).collect(Collectors.toList());
+        List<Bundle> bundles = toBundles(bundleService.getBundles(bundleGroupVersionId,catalogId));
         return new ResponseEntity<>(bundles, HttpStatus.OK);
     }
 
+    @Operation(summary = "Get all the bundles visible to the user, paginated", description = "Public api, no authentication required. Returns the public bundles plus the ones of the user organisations, sorted by name")
+    @GetMapping(value = "/paged", produces = {"application/json"})
+    public PagedContent<Bundle, com.entando.hub.catalog.persistence.entity.Bundle> getBundlesPaged(@RequestParam Integer page, @RequestParam Integer pageSize) {
+        Integer sanitizedPageNum = page >= 1 ? page - 1 : 0;
+        Page<com.entando.hub.catalog.persistence.entity.Bundle> bundlesPage = bundleService.getVisibleBundles(sanitizedPageNum, pageSize);
+        return new PagedContent<>(toBundles(bundlesPage.getContent()), bundlesPage);
+    }
+
     @Operation(summary = "Get the bundle details", description = "Public api, no authentication required. You have to provide the bundleId")
     @GetMapping(value = "/{bundleId}", produces = {"application/json"})
     @ApiResponse(responseCode = "404", description = "Not Found", content = @Content)
@@ -91,7 +100,7 @@ public class BundleController {
                 : Optional.empty();
 
         com.entando.hub.catalog.persistence.entity.Bundle entity = bundleService.createBundle(bundle.createEntity(opt));
-        return new ResponseEntity<>(new Bundle(entity), HttpStatus.CREATED);
+        return new ResponseEntity<>(new Bundle(entity, bundle.getBundleGroups()), HttpStatus.CREATED);
     }
 
     @Operation(summary = "Update a bundle", description = "Protected api, only eh-admin, eh-author or eh-manager can access it. You have to provide the bundleId identifying the bundle")
@@ -108,7 +117,7 @@ public class BundleController {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         } else {
             com.entando.hub.catalog.persistence.entity.Bundle entity = bundleService.createBundle(bundle.createEntity(Optional.of(bundleId)));
-            return new ResponseEntity<>(new Bundle(entity), HttpStatus.OK);
+            return new ResponseEntity<>(new Bundle(entity, bundle.getBundleGroups()), HttpStatus.OK);
         }
     }
 
@@ -130,6 +139,11 @@ public class BundleController {
         }
     }
 
+    private List<Bundle> toBundles(List<com.entando.hub.catalog.persistence.entity.Bundle> entities) {
+        Map<Long, List<String>> bundleGroupVersionIds = bundleService.getBundleGroupVersionIds(entities);
+        return entities.stream().map(entity -> new Bundle(entity, bundleGroupVersionIds.get(entity.getId()))).collect(Collectors.toList());
+    }
+
     @Getter
     @Setter
     @ToString
@@ -147,6 +161,11 @@ public class BundleController {
             super(entity);
             this.bundleId = entity.getId().toString();
         }
+
+        public Bundle(com.entando.hub.catalog.persistence.entity.Bundle entity, List<String> bundleGroupVersionIds) {
+            super(entity, bundleGroupVersionIds);
+            this.bundleId = entity.getId().toString();
+        }
     }
 
     @Data
@@ -188,13 +207,21 @@ public class BundleController {
         }
 
         public BundleNoId(com.entando.hub.catalog.persistence.entity.Bundle entity) {
+            this(entity, entity.getBundleGroupVersions().stream().map(bundleGroupVersion -> bundleGroupVersion.getId().toString()).collect(Collectors.toList()));
+        }
+
+        /**
+         * Builds the view from the bundle columns and the given bundle group version ids, without touching
+         * the lazy bundleGroupVersions of the entity.
+         */
+        public BundleNoId(com.entando.hub.catalog.persistence.entity.Bundle entity, List<String> bundleGroupVersionIds) {
             this.bundleId = entity.getId().toString();
             this.name = entity.getName();
             this.description = entity.getDescription();
             this.gitRepoAddress = entity.getGitRepoAddress();
             this.gitSrcRepoAddress = entity.getGitSrcRepoAddress();
             this.dependencies = Arrays.asList(entity.getDependencies().split(","));
-            this.bundleGroups = entity.getBundleGroupVersions().stream().map(bundleGroupVersion -> bundleGroupVersion.getId().toString()).collect(Collectors.toList());
+            this.bundleGroups = bundleGroupVersionIds;
             this.descriptorVersion = entity.getDescriptorVersion().toString();
         }
 
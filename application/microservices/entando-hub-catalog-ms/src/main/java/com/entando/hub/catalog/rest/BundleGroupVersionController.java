@@ -1,12 +1,13 @@
 package com.entando.hub.catalog.rest;
 
 import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.response.BundleGroupVersionFacetsResponseView;
 import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
 import com.entando.hub.catalog.rest.BundleController.BundleNoId;
 import com.entando.hub.catalog.rest.validation.BundleGroupValidator;
 import com.entando.hub.catalog.service.BundleGroupService;
+import com.entando.hub.catalog.service.BundleGroupVersionFacetService;
 import com.entando.hub.catalog.service.BundleGroupVersionService;
-import com.entando.hub.catalog.service.CategoryService;
 import com.entando.hub.catalog.service.exception.ConflictException;
 import com.entando.hub.catalog.service.exception.ForbiddenException;
 import com.entando.hub.catalog.service.exception.NotFoundException;
@@ -52,15 +53,15 @@ public class BundleGroupVersionController {
 
     private final BundleGroupService bundleGroupService;
 
-    private final CategoryService categoryService;
+    private final BundleGroupVersionFacetService bundleGroupVersionFacetService;
 
     private final SecurityHelperService securityHelperService;
     private BundleGroupValidator bundleGroupValidator;
 
-    public BundleGroupVersionController(BundleGroupVersionService bundleGroupVersionService, BundleGroupService bundleGroupService, CategoryService categoryService, SecurityHelperService securityHelperService, BundleGroupValidator bundleGroupValidator) {
+    public BundleGroupVersionController(BundleGroupVersionService bundleGroupVersionService, BundleGroupService bundleGroupService, BundleGroupVersionFacetService bundleGroupVersionFacetService, SecurityHelperService securityHelperService, BundleGroupValidator bundleGroupValidator) {
     	this.bundleGroupVersionService = bundleGroupVersionService;
     	this.bundleGroupService = bundleGroupService;
-    	this.categoryService = categoryService;
+    	this.bundleGroupVersionFacetService = bundleGroupVersionFacetService;
     	this.securityHelperService = securityHelperService;
         this.bundleGroupValidator = bundleGroupValidator;
     }
@@ -94,34 +95,33 @@ public class BundleGroupVersionController {
     }
 
 	//PUBLIC
-    @Operation(summary = "Get all the bundle group versions in the hub, provides filter functionality", description = "Public api, no authentication required. You can provide the organisationId the categoryIds and the statuses [NOT_PUBLISHED, PUBLISHED, PUBLISH_REQ, DELETE_REQ, DELETED]")
+    @Operation(summary = "Get all the bundle group versions in the hub, provides filter functionality", description = "Public api, no authentication required. You can provide the organisationId the categoryIds and the statuses [NOT_PUBLISHED, PUBLISHED, PUBLISH_REQ, DELETE_REQ, DELETED]. With a fuzzyThreshold (0 to 1) the searchText is matched by similarity, best matches first. With sort=relevance the matches of the searchText are ranked by BM25 score instead of by name")
     @GetMapping(value = "/filtered", produces = {"application/json"})
     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
     @ApiResponse(responseCode = "200", description = "OK")
-    public PagedContent<BundleGroupVersionFilteredResponseView, com.entando.hub.catalog.persistence.entity.BundleGroupVersion> getBundleGroupsAndFilterThem(@RequestParam Integer page, @RequestParam Integer pageSize, @RequestParam(required = false) Long organisationId, @RequestParam(required = false) String[] categoryIds, @RequestParam(required = false) String[] statuses, @RequestParam(required = false) String searchText) {
+    public PagedContent<BundleGroupVersionFilteredResponseView, com.entando.hub.catalog.persistence.entity.BundleGroupVersion> getBundleGroupsAndFilterThem(@RequestParam Integer page, @RequestParam Integer pageSize, @RequestParam(required = false) Long organisationId, @RequestParam(required = false) String[] categoryIds, @RequestParam(required = false) String[] statuses, @RequestParam(required = false) String searchText, @RequestParam(required = false) Double fuzzyThreshold, @RequestParam(required = false) String sort) {
     	logger.debug("REST request to get bundle group versions by organisation Id: {}, categoryIds {}, statuses {}", organisationId, categoryIds, statuses);
         Integer sanitizedPageNum = page >= 1 ? page - 1 : 0;
+        // missing categoryIds/statuses mean any category/status: passed on as null, they add no filter
+        return bundleGroupVersionService.searchBundleGroupVersions(sanitizedPageNum, pageSize, organisationId, categoryIds, statuses, searchText, fuzzyThreshold, sort);
+    }
 
-        String[] categoryIdFilterValues = categoryIds;
-        if (categoryIdFilterValues == null) {
-            categoryIdFilterValues = categoryService.getCategories().stream().map(c -> c.getId().toString()).toArray(String[]::new);
-        }
-
-        String[] statusFilterValues = statuses;
-        if (statusFilterValues == null) {
-            statuses = Arrays.stream(com.entando.hub.catalog.persistence.entity.BundleGroupVersion.Status.values()).map(Enum::toString).toArray(String[]::new);
-        }
-
-        logger.debug("Organisation Id: {}, categoryIds {}, statuses {}", organisationId, categoryIds, statuses);
-        return bundleGroupVersionService.searchBundleGroupVersions(sanitizedPageNum, pageSize, organisationId, categoryIdFilterValues, statuses, searchText);
+    //PUBLIC
+    @Operation(summary = "Count the bundle group versions in the hub per category, organisation and status", description = "Public api, no authentication required. Takes the same filters as /filtered: the organisationId, the categoryIds, the statuses [NOT_PUBLISHED, PUBLISHED, PUBLISH_REQ, DELETE_REQ, DELETED] and the searchText. Each facet is counted with all the filters but its own")
+    @GetMapping(value = "/facets", produces = {"application/json"})
+    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
+    @ApiResponse(responseCode = "200", description = "OK")
+    public BundleGroupVersionFacetsResponseView getBundleGroupVersionFacets(@RequestParam(required = false) Long organisationId, @RequestParam(required = false) String[] categoryIds, @RequestParam(required = false) String[] statuses, @RequestParam(required = false) String searchText) {
+        logger.debug("REST request to get bundle group version facets by organisation Id: {}, categoryIds {}, statuses {}", organisationId, categoryIds, statuses);
+        return bundleGroupVersionFacetService.getFacets(organisationId, categoryIds, statuses, searchText);
     }
 
-    @Operation(summary = "Get all the private bundle group versions in the hub for the selected catalog, provides filter functionality", description = "Protected api, only eh-admin, eh-author or eh-manager can access it. You can provide the catalogId, the categoryIds and the statuses [NOT_PUBLISHED, PUBLISHED, PUBLISH_REQ, DELETE_REQ, DELETED]")
+    @Operation(summary = "Get all the private bundle group versions in the hub for the selected catalog, provides filter functionality", description = "Protected api, only eh-admin, eh-author or eh-manager can access it. You can provide the catalogId, the categoryIds and the statuses [NOT_PUBLISHED, PUBLISHED, PUBLISH_REQ, DELETE_REQ, DELETED]. With a fuzzyThreshold (0 to 1) the searchText is matched by similarity, best matches first. With sort=relevance the matches of the searchText are ranked by BM25 score instead of by name")
     @RolesAllowed({ADMIN, AUTHOR, MANAGER})
     @GetMapping(value = "catalog/{catalogId}", produces = {MediaType.APPLICATION_JSON_VALUE})
     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
     @ApiResponse(responseCode = "200", description = "OK")
-    public PagedContent<BundleGroupVersionFilteredResponseView, com.entando.hub.catalog.persistence.entity.BundleGroupVersion> getPrivateBundleGroupsAndFilterThem(@PathVariable Long catalogId, @RequestParam Integer page, @RequestParam Integer pageSize, @RequestParam(required = false) String[] categoryIds, @RequestParam(required = false) String[] statuses, @RequestParam(required = false) String searchText) {
+    public PagedContent<BundleGroupVersionFilteredResponseView, com.entando.hub.catalog.persistence.entity.BundleGroupVersion> getPrivateBundleGroupsAndFilterThem(@PathVariable Long catalogId, @RequestParam Integer page, @RequestParam Integer pageSize, @RequestParam(required = false) String[] categoryIds, @RequestParam(required = false) String[] statuses, @RequestParam(required = false) String searchText, @RequestParam(required = false) Double fuzzyThreshold, @RequestParam(required = false) String sort) {
         logger.debug("REST request to get bundle group versions by catalog Id: {}, categoryIds {}, statuses {}", catalogId, categoryIds, statuses);
 
         if (!this.securityHelperService.isAdmin() && !this.securityHelperService.userCanAccessTheCatalog(catalogId)){
@@ -129,17 +129,7 @@ public class BundleGroupVersionController {
         }
 
         Integer sanitizedPageNum = page >= 1 ? page - 1 : 0;
-
-        if (categoryIds == null) {
-            categoryIds = categoryService.getCategories().stream().map(c -> c.getId().toString()).toArray(String[]::new);
-        }
-
-        if (statuses == null) {
-            statuses = Arrays.stream(com.entando.hub.catalog.persistence.entity.BundleGroupVersion.Status.values()).map(Enum::toString).toArray(String[]::new);
-        }
-
-        logger.debug("Catalog Id: {}, categoryIds {}, statuses {}", catalogId, categoryIds, statuses);
-        return bundleGroupVersionService.searchPrivateBundleGroupVersions(sanitizedPageNum, pageSize, catalogId, categoryIds, statuses, searchText);
+        return bundleGroupVersionService.searchPrivateBundleGroupVersions(sanitizedPageNum, pageSize, catalogId, categoryIds, statuses, searchText, fuzzyThreshold, sort);
     }
 
     @Operation(summary = "Update a Bundle Group Version", description = "Protected api, only eh-admin, eh-author or eh-manager can access it. You have to provide the bundleGroupVersionId identifying the bundleGroupVersion")
@@ -1,10 +1,13 @@
 package com.entando.hub.catalog.rest;
 
 
-import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
-import com.entando.hub.catalog.persistence.entity.Bundle;
-import com.entando.hub.catalog.persistence.entity.BundleGroup;
-import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.config.bulkhead.PublicApi;
+import com.entando.hub.catalog.persistence.projection.BundleGroupTemplateRow;
+import com.entando.hub.catalog.persistence.projection.BundleTemplateRow;
+import com.entando.hub.catalog.service.BundleTemplateService;
+import com.entando.hub.catalog.service.index.CatalogRevision;
+import com.entando.hub.catalog.service.snapshot.StaticCatalogFiles;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -12,76 +15,114 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
+@PublicApi
 @RequestMapping("/ent/api/templates")
 public class EntTemplateController {
-    private BundleGroupVersionRepository bundleGroupVersionRepository;
+    private final BundleTemplateService bundleTemplateService;
+    private final ObjectMapper objectMapper;
+    private final StaticCatalogFiles staticCatalogFiles;
+    private final CatalogRevision catalogRevision;
     private final Logger logger = LoggerFactory.getLogger(EntTemplateController.class);
 
-    public EntTemplateController(BundleGroupVersionRepository bundleGroupVersionRepository) {
-        this.bundleGroupVersionRepository = bundleGroupVersionRepository;
+    public EntTemplateController(BundleTemplateService bundleTemplateService, ObjectMapper objectMapper,
+                                 StaticCatalogFiles staticCatalogFiles, CatalogRevision catalogRevision) {
+        this.bundleTemplateService = bundleTemplateService;
+        this.objectMapper = objectMapper;
+        this.staticCatalogFiles = staticCatalogFiles;
+        this.catalogRevision = catalogRevision;
     }
 
     @Operation(summary = "Get all the templates for the bundle that are in the hub", description = "Public api, no authentication required.")
     @GetMapping(value = "/bundles", produces = {"application/json"})
     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
     @ApiResponse(responseCode = "200", description = "OK")
-    public List<BundleTemplate> getBundleTemplates() {
-        List<BundleGroupVersion> bundleGroupVersionList = bundleGroupVersionRepository.getByTemplateInIt();
-
-        List<BundleTemplate> bundleTemplateList = bundleGroupVersionList.stream()
-                .flatMap(bundleGroupVersion ->
-                        bundleGroupVersion.getBundles().stream().map(bundle -> new BundleTemplate(bundleGroupVersion, bundleGroupVersion.getBundleGroup(), bundle))
-                )
-                .filter(bundleTemplate ->
-                        bundleTemplate.gitSrcRepoAddress != null && bundleTemplate.gitSrcRepoAddress.length() > 0
-                )
-                .collect(Collectors.toList());
-
-        return bundleTemplateList;
+    public List<BundleTemplate> getBundleTemplates(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (staticCatalogFiles.serve("ent/templates/bundles", catalogRevision.current(), this::bundleTemplates, request, response)) {
+            // already written from the static file
+            return null;
+        }
+        return bundleTemplates();
+    }
+
+    @Operation(summary = "Get the templates for the bundle that are in the hub, paginated", description = "Public api, no authentication required.")
+    @GetMapping(value = "/bundles/paged", produces = {"application/json"})
+    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
+    @ApiResponse(responseCode = "200", description = "OK")
+    public PagedContent<BundleTemplate, BundleTemplateRow> getBundleTemplatesPaged(@RequestParam Integer page, @RequestParam Integer pageSize) {
+        Integer sanitizedPageNum = page >= 1 ? page - 1 : 0;
+        Page<BundleTemplateRow> templatesPage = bundleTemplateService.getBundleTemplates(sanitizedPageNum, pageSize);
+        return new PagedContent<>(templatesPage.getContent().stream().map(BundleTemplate::new).collect(Collectors.toList()), templatesPage);
+    }
+
+    @Operation(summary = "Stream all the templates for the bundle that are in the hub", description = "Public api, no authentication required. One json object per line.")
+    @GetMapping(value = "/bundles/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE})
+    @ApiResponse(responseCode = "200", description = "OK")
+    public ResponseEntity<StreamingResponseBody> streamBundleTemplates() {
+        StreamingResponseBody body = outputStream -> bundleTemplateService.streamBundleTemplates(row -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(new BundleTemplate(row)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @Operation(summary = "Get all the bundle groups having templates in them, they can be filtered by name part", description = "Public api, no authentication required.")
     @GetMapping(value = "/bundlegroups", produces = {"application/json"})
     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
     @ApiResponse(responseCode = "200", description = "OK")
-    public List<BundleGroupTemplate> getBundleGroupsWithTemplates(@RequestParam(required = false) String name) {
-        List<BundleGroupVersion> bundleGroupVersionList;
-        if (name != null) {
-            bundleGroupVersionList = bundleGroupVersionRepository.getByTemplateInItFilteredByName("%" + name + "%");
-        } else {
-            bundleGroupVersionList = bundleGroupVersionRepository.getByTemplateInIt();
+    public List<BundleGroupTemplate> getBundleGroupsWithTemplates(@RequestParam(required = false) String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // the name filters are too many to be rendered, only the full list is
+        if (null == name && staticCatalogFiles.serve("ent/templates/bundlegroups", catalogRevision.current(),
+                () -> bundleGroupTemplates(null), request, response)) {
+            return null;
         }
-
-        List<BundleGroupTemplate> bundleGroupTemplateList = bundleGroupVersionList.stream()
-                .map(bundleGroupVersion -> new BundleGroupTemplate(bundleGroupVersion, bundleGroupVersion.getBundleGroup())).collect(Collectors.toList());
-
-        return bundleGroupTemplateList;
+        return bundleGroupTemplates(name);
     }
 
     @Operation(summary = "Get the templates for the bundle given the bundlegroup id", description = "Public api, no authentication required.")
     @GetMapping(value = "/bundlegroups/{id}", produces = {"application/json"})
     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content)
     @ApiResponse(responseCode = "200", description = "OK")
-    public List<BundleTemplate> getBundleTemplateByBundleGroupId(@PathVariable Long id) {
-        List<BundleGroupVersion> bundleGroupVersionList;
-        bundleGroupVersionList = bundleGroupVersionRepository.getByTemplateInItAndId(id);
-
-        List<BundleTemplate> bundleTemplateList = bundleGroupVersionList.stream()
-                .flatMap(bundleGroupVersion ->
-                        bundleGroupVersion.getBundles().stream().map(bundle -> new BundleTemplate(bundleGroupVersion, bundleGroupVersion.getBundleGroup(), bundle))
-                )
-                .filter(bundleTemplate ->
-                        bundleTemplate.gitSrcRepoAddress != null && bundleTemplate.gitSrcRepoAddress.length() > 0
-                )
-                .collect(Collectors.toList());
-
-        return bundleTemplateList;
+    public List<BundleTemplate> getBundleTemplateByBundleGroupId(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // the id comes from the client: no file for the versions without templates
+        if (!bundleTemplateService.hasBundleTemplates(id)) {
+            return Collections.emptyList();
+        }
+        if (staticCatalogFiles.serve("ent/templates/bundlegroups/" + id, catalogRevision.current(),
+                () -> bundleTemplatesByBundleGroupVersionId(id), request, response)) {
+            return null;
+        }
+        return bundleTemplatesByBundleGroupVersionId(id);
+    }
+
+    private List<BundleTemplate> bundleTemplates() {
+        return bundleTemplateService.getBundleTemplates().stream().map(BundleTemplate::new).collect(Collectors.toList());
+    }
+
+    private List<BundleGroupTemplate> bundleGroupTemplates(String name) {
+        return bundleTemplateService.getBundleGroupTemplates(name).stream().map(BundleGroupTemplate::new).collect(Collectors.toList());
+    }
+
+    private List<BundleTemplate> bundleTemplatesByBundleGroupVersionId(Long id) {
+        return bundleTemplateService.getBundleTemplatesByBundleGroupVersionId(id).stream().map(BundleTemplate::new).collect(Collectors.toList());
     }
 
 
@@ -99,13 +140,13 @@ public class EntTemplateController {
         private Long bundleGroupId;
         private Long bundleId;
 
-        public BundleTemplate(BundleGroupVersion bundleGroupVersion, BundleGroup bundleGroup, Bundle bundle) {
-            this.bundleGroupName = bundleGroup.getName();
-            this.bundleName = bundle.getName();
-            this.gitSrcRepoAddress = bundle.getGitSrcRepoAddress();
-            this.bundleGroupVersionId = bundleGroupVersion.getId();
-            this.bundleGroupId = bundleGroup.getId();
-            this.bundleId = bundle.getId();
+        public BundleTemplate(BundleTemplateRow row) {
+            this.bundleGroupName = row.getBundleGroupName();
+            this.bundleName = row.getBundleName();
+            this.gitSrcRepoAddress = row.getGitSrcRepoAddress();
+            this.bundleGroupVersionId = row.getBundleGroupVersionId();
+            this.bundleGroupId = row.getBundleGroupId();
+            this.bundleId = row.getBundleId();
         }
     }
 
@@ -115,9 +156,9 @@ public class EntTemplateController {
         private String bundleGroupName;
         private Long bundleGroupVersionId;
 
-        public BundleGroupTemplate(BundleGroupVersion bundleGroupVersion, BundleGroup bundleGroup) {
-            this.bundleGroupName = bundleGroup.getName();
-            this.bundleGroupVersionId = bundleGroupVersion.getId();
+        public BundleGroupTemplate(BundleGroupTemplateRow row) {
+            this.bundleGroupName = row.getBundleGroupName();
+            this.bundleGroupVersionId = row.getBundleGroupVersionId();
         }
     }
 
@@ -4,6 +4,7 @@ import com.entando.hub.catalog.rest.model.SearchKeycloackUserRequest;
 import com.entando.hub.catalog.service.KeycloakService;
 import com.entando.hub.catalog.service.model.UserRepresentation;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -89,6 +90,9 @@ public class KeycloakUserController {
         private String email;
         private Set<String> organisationIds;
 
+        // when the profile was last read from Keycloak, null when it has just been fetched live
+        private LocalDateTime profileSyncedAt;
+
         public RestUserRepresentation(com.entando.hub.catalog.service.model.UserRepresentation user) {
             this.id = user.getId();
             this.created = new Date(user.getCreatedTimestamp());
@@ -98,6 +102,7 @@ public class KeycloakUserController {
             this.lastName = user.getLastName();
             this.email = user.getEmail();
             this. organisationIds = user.getOrganisationIds().stream().map(Object::toString).collect(Collectors.toSet());
+            this.profileSyncedAt = user.getProfileSyncedAt();
         }
     }
 
@@ -13,6 +13,14 @@ public class PagedContent <T,P> {
         this.metadata = new Metadata<>(pageObj);
     }
 
+    /**
+     * For a page of ready-made views, e.g. served from memory.
+     */
+    public PagedContent(Page<T> pageObj) {
+        this.payload = pageObj.getContent();
+        this.metadata = new Metadata<>(pageObj);
+    }
+
     public List<T> getPayload() {
         return payload;
     }
@@ -27,7 +35,7 @@ public class PagedContent <T,P> {
         private int lastPage;
         private long totalItems;
 
-        public Metadata(Page<P> pageObj) {
+        public Metadata(Page<?> pageObj) {
             this.lastPage = pageObj.getTotalPages();
             this.totalItems = pageObj.getTotalElements();
             this.pageSize = pageObj.getSize();
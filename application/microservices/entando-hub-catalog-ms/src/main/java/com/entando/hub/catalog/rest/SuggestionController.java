@@ -0,0 +1,49 @@
+package com.entando.hub.catalog.rest;
+
+import com.entando.hub.catalog.service.index.SuggestionIndex;
+import com.entando.hub.catalog.service.index.SuggestionIndex.Suggestion;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/*
+ * Controller for the typeahead of the hub search box
+ *
+ */
+@RestController
+@RequestMapping("/api/suggestions")
+public class SuggestionController {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(SuggestionController.class);
+
+    private final SuggestionIndex suggestionIndex;
+
+    public SuggestionController(SuggestionIndex suggestionIndex) {
+        this.suggestionIndex = suggestionIndex;
+    }
+
+    //PUBLIC
+    @Operation(summary = "Suggest bundle group, bundle and organisation names for a search prefix", description = "Public api, no authentication required. You have to provide the prefix, matched against the start of every word of the names; limit defaults to 10, at most 50")
+    @GetMapping(value = "/", produces = {"application/json"})
+    @ApiResponse(responseCode = "200", description = "OK")
+    public List<Suggestion> getSuggestions(@RequestParam String prefix, @RequestParam(required = false, defaultValue = "10") Integer limit) {
+        if (limit <= 0) {
+            logger.warn("An unexpected limit {} was provided. Setting default to {}.", limit, DEFAULT_LIMIT);
+            limit = DEFAULT_LIMIT;
+        } else if (limit > MAX_LIMIT) {
+            logger.warn("An unexpected limit {} was provided. Setting maximum to {}.", limit, MAX_LIMIT);
+            limit = MAX_LIMIT;
+        }
+        return suggestionIndex.suggest(prefix, limit);
+    }
+}
@@ -1,19 +1,15 @@
 package com.entando.hub.catalog.rest.validation;
 
-import com.entando.hub.catalog.persistence.entity.BundleGroup;
-import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
-import com.entando.hub.catalog.persistence.entity.Catalog;
-import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVisibility;
 import com.entando.hub.catalog.service.BundleGroupService;
 import com.entando.hub.catalog.service.BundleGroupVersionService;
-import com.entando.hub.catalog.service.CatalogService;
-import com.entando.hub.catalog.service.PortalUserService;
 import com.entando.hub.catalog.service.exception.NotFoundException;
+import com.entando.hub.catalog.service.index.BundleGroupVisibilityIndex;
+import com.entando.hub.catalog.service.security.PrincipalContext;
+import com.entando.hub.catalog.service.security.PrincipalContextService;
 import com.entando.hub.catalog.service.security.SecurityHelperService;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
 @Component
@@ -28,17 +24,18 @@ public class BundleGroupValidator {
 
     final SecurityHelperService securityHelperService;
 
-    final
-    CatalogService catalogService;
-    private PortalUserService portalUserService;
+    final PrincipalContextService principalContextService;
+
+    final BundleGroupVisibilityIndex bundleGroupVisibilityIndex;
 
     public BundleGroupValidator(BundleGroupService bundleGroupService, BundleGroupVersionService bundleGroupVersionService,
-                                SecurityHelperService securityHelperService, CatalogService catalogService, PortalUserService portalUserService) {
+                                SecurityHelperService securityHelperService, PrincipalContextService principalContextService,
+                                BundleGroupVisibilityIndex bundleGroupVisibilityIndex) {
         this.bundleGroupService = bundleGroupService;
         this.bundleGroupVersionService = bundleGroupVersionService;
         this.securityHelperService = securityHelperService;
-        this.catalogService = catalogService;
-        this.portalUserService = portalUserService;
+        this.principalContextService = principalContextService;
+        this.bundleGroupVisibilityIndex = bundleGroupVisibilityIndex;
     }
 
     public boolean validateBundlePrivateCatalogRequest(Long catalogId) {
@@ -49,51 +46,62 @@ public class BundleGroupValidator {
         return true;
     }
 
+    /**
+     * Checked against the visibility index when it knows the bundle group of the version, otherwise
+     * against the visibility read from the database: both apply BundleGroupVisibility.isVisibleTo.
+     */
     public boolean validateBundleGroupVersionPrivateCatalogRequest(Long catalogId, String bundleGroupVersionId) {
-        Optional<BundleGroupVersion> bundleGroupVersionOptional = bundleGroupVersionService.getBundleGroupVersion(bundleGroupVersionId);
-        BundleGroupVersion bundleGroupVersion;
-
-        if (bundleGroupVersionOptional.isPresent()) {
-            bundleGroupVersion = bundleGroupVersionOptional.get();
-        } else {
-            throw new NotFoundException(BUNDLE_GROUP_NOT_FOUND_MSG);
-        }
-
-        BundleGroup bundleGroup = bundleGroupVersion.getBundleGroup();
-
+        Long bundleGroupId = bundleGroupVersionService.getBundleGroupId(bundleGroupVersionId)
+                .orElseThrow(() -> new NotFoundException(BUNDLE_GROUP_NOT_FOUND_MSG));
+        boolean isAdmin = securityHelperService.isAdmin();
         if (null != catalogId) {
-            if (!securityHelperService.isAdmin()) {
+            if (!isAdmin) {
                 checkUserCatalog(catalogId);
             }
             // verify that the requested bundle group belongs to the specified catalog (if no => return 404)
-            if (!bundleGroup.getCatalogId().equals(catalogId)) {
+            if (!isInCatalog(bundleGroupId, catalogId)) {
                 throw new NotFoundException(CATALOG_NOT_FOUND_MSG);
             }
-        } else {
-            //if user is not an Admin and no catalog has been found checks the organization permissions
-            if (!securityHelperService.isAdmin() && Boolean.FALSE.equals(bundleGroup.getPublicCatalog())) {
-                    Set<Organisation> userOrganizations = portalUserService.getUserOrganizations();
-                    Organisation bundleGroupOrganisation = bundleGroup.getOrganisation();
-                    if (!userOrganizations.contains(bundleGroupOrganisation)) {
-                        throw new NotFoundException(BUNDLE_GROUP_NOT_FOUND_MSG);
-                    }
-                }
+        } else if (!isAdmin && !isVisible(bundleGroupId)) {
+            //if user is not an Admin the bundle group must be public or owned by one of their organisations
+            throw new NotFoundException(BUNDLE_GROUP_NOT_FOUND_MSG);
         }
         return true;
     }
 
+    private boolean isInCatalog(Long bundleGroupId, Long catalogId) {
+        if (isIndexed(bundleGroupId)) {
+            return bundleGroupVisibilityIndex.isInCatalog(bundleGroupId, catalogId);
+        }
+        return catalogId.equals(getBundleGroupVisibility(bundleGroupId).getCatalogId());
+    }
+
+    private boolean isVisible(Long bundleGroupId) {
+        Set<Long> organisationIds = getPrincipalContext().getOrganisationIds();
+        if (isIndexed(bundleGroupId)) {
+            return bundleGroupVisibilityIndex.isVisibleTo(bundleGroupId, organisationIds);
+        }
+        return getBundleGroupVisibility(bundleGroupId).isVisibleTo(organisationIds);
+    }
+
+    private boolean isIndexed(Long bundleGroupId) {
+        return bundleGroupVisibilityIndex.isReady() && bundleGroupVisibilityIndex.contains(bundleGroupId);
+    }
+
+    private BundleGroupVisibility getBundleGroupVisibility(Long bundleGroupId) {
+        return bundleGroupService.getBundleGroupVisibility(bundleGroupId)
+                .orElseThrow(() -> new NotFoundException(BUNDLE_GROUP_NOT_FOUND_MSG));
+    }
 
     //verify that the current user has access to the catalog (if no => return 404)
-    private Catalog checkUserCatalog(Long catalogId) {
-        String username = securityHelperService.getContextAuthenticationUsername();
-
-        // verify that the current user has access to the catalog (if no => return 404)
-        boolean userIsAdmin = securityHelperService.isAdmin();
-        Catalog catalog = catalogService.getCatalogById(username, catalogId, userIsAdmin);
-        List<Catalog> userCatalogs = catalogService.getCatalogs(username, userIsAdmin);
-        if (!userCatalogs.contains(catalog)) {
+    private void checkUserCatalog(Long catalogId) {
+        if (!getPrincipalContext().canAccessCatalog(catalogId)) {
             throw new NotFoundException(CATALOG_NOT_FOUND_MSG);
         }
-        return catalog;
+    }
+
+    // resolved once per request, shared with the service layer
+    private PrincipalContext getPrincipalContext() {
+        return principalContextService.getPrincipalContext(securityHelperService.getContextAuthenticationUsername());
     }
 }
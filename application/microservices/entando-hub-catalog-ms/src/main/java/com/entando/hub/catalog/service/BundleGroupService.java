@@ -6,21 +6,23 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
 import com.entando.hub.catalog.persistence.CatalogRepository;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.entando.hub.catalog.persistence.BundleGroupRepository;
 import com.entando.hub.catalog.persistence.CategoryRepository;
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
 import com.entando.hub.catalog.persistence.entity.Category;
 import com.entando.hub.catalog.rest.BundleGroupController;
 import com.entando.hub.catalog.persistence.entity.Catalog;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVisibility;
 
 @Service
 public class BundleGroupService {
@@ -29,50 +31,77 @@ public class BundleGroupService {
     private final BundleGroupVersionService bundleGroupVersionService;
 
     private final CatalogRepository catalogRepository;
+    private final CatalogEventService catalogEventService;
 
     private final Logger logger = LoggerFactory.getLogger(BundleGroupService.class);
     private final String CLASS_NAME = this.getClass().getSimpleName();
 
     public BundleGroupService(BundleGroupRepository bundleGroupRepository, CategoryRepository categoryRepository, 
-    		BundleGroupVersionService bundleGroupVersionService, CatalogRepository catalogRepository) {
+    		BundleGroupVersionService bundleGroupVersionService, CatalogRepository catalogRepository,
+    		CatalogEventService catalogEventService) {
         this.bundleGroupRepository = bundleGroupRepository;
         this.categoryRepository = categoryRepository;
         this.bundleGroupVersionService = bundleGroupVersionService;
         this.catalogRepository = catalogRepository;
+        this.catalogEventService = catalogEventService;
     }
 
+    @Transactional(readOnly = true)
     public List<BundleGroup> getBundleGroups(Optional<String> organisationId) {
     	logger.debug("{}: getBundleGroups: Get bundle groups organisation id: {}", CLASS_NAME, organisationId);
         if (organisationId.isPresent()) {
-            return bundleGroupRepository.findByOrganisationId(Long.parseLong(organisationId.get()));
+            return withCategories(bundleGroupRepository.findByOrganisationId(Long.parseLong(organisationId.get())));
         }
-        return bundleGroupRepository.findAll();
+        return withCategories(bundleGroupRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
     public Page<BundleGroup> findByOrganisationId(String organisationId, Pageable pageable) {
     	logger.debug("{}: findByOrganisationId: Get bundle groups paginated by organisation id: {}", CLASS_NAME, organisationId);
-    	return bundleGroupRepository.findByOrganisationId(Long.valueOf(organisationId), pageable);
+    	Page<BundleGroup> page = bundleGroupRepository.findByOrganisationId(Long.valueOf(organisationId), pageable);
+    	withCategories(page.getContent());
+    	return page;
     }
 
+    @Transactional(readOnly = true)
     public List<BundleGroup> getBundleGroups(Optional<String> organisationId, Optional<String[]> categoryIds, Optional<String[]> statuses) {
     	logger.debug("{}: getBundleGroups: Get bundle groups paginated by organisation id: {}, categories: {}, statuses: {}", CLASS_NAME, organisationId, categoryIds, statuses);
         if (organisationId.isPresent()) {
-            return bundleGroupRepository.findByOrganisationId(Long.parseLong(organisationId.get()));
+            return withCategories(bundleGroupRepository.findByOrganisationId(Long.parseLong(organisationId.get())));
         }
-        return bundleGroupRepository.findAll();
+        return withCategories(bundleGroupRepository.findAll());
+    }
+
+    /**
+     * Loads the categories the bundle group views are built from, in batches, before the
+     * transaction is over.
+     */
+    private List<BundleGroup> withCategories(List<BundleGroup> bundleGroups) {
+        bundleGroups.forEach(bundleGroup -> Hibernate.initialize(bundleGroup.getCategories()));
+        return bundleGroups;
     }
 
+    @Transactional(readOnly = true)
     public Optional<BundleGroup> getBundleGroup(Long bundleGroupId) {
         logger.debug("{}: getBundleGroup: Get a bundle group by bundle group id: {}", CLASS_NAME, bundleGroupId);
         return bundleGroupRepository.findById(bundleGroupId);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<BundleGroupVisibility> getBundleGroupVisibility(Long bundleGroupId) {
+        return bundleGroupRepository.findVisibilityById(bundleGroupId);
+    }
+
     @Transactional
     public BundleGroup createBundleGroup(BundleGroup bundleGroupEntity, BundleGroupController.BundleGroupNoId bundleGroupNoId) {
     	logger.debug("{}: createBundleGroup: Create a bundle group: {}", CLASS_NAME, bundleGroupNoId);
         this.associatePrivateCatalog(bundleGroupEntity);
+        CatalogEvent.Action action = Objects.nonNull(bundleGroupEntity.getId()) && bundleGroupRepository.existsById(bundleGroupEntity.getId())
+                ? CatalogEvent.Action.UPDATED : CatalogEvent.Action.CREATED;
         BundleGroup entity = bundleGroupRepository.save(bundleGroupEntity);
+        catalogEventService.record(CatalogEvent.EntityType.BUNDLE_GROUP, entity.getId(), entity.getId(), action);
         updateMappedBy(entity, bundleGroupNoId);
+        Hibernate.initialize(entity.getCategories());
         return entity;
     }
 
@@ -125,6 +154,7 @@ public class BundleGroupService {
         byId.ifPresent(bundleGroup -> {
             deleteFromCategories(bundleGroup);
             bundleGroupRepository.delete(bundleGroup);
+            catalogEventService.record(CatalogEvent.EntityType.BUNDLE_GROUP, bundleGroupId, bundleGroupId, CatalogEvent.Action.DELETED);
         });
     }
 
@@ -141,6 +171,7 @@ public class BundleGroupService {
         bundleGroup.getOrganisation().getBundleGroups().remove(bundleGroup);
     }
 
+    @Transactional(readOnly = true)
     public Boolean existsById(Long bundleGroupId){
         return bundleGroupRepository.existsById(bundleGroupId);
     }
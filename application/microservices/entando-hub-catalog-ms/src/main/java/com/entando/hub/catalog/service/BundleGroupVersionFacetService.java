@@ -0,0 +1,123 @@
+package com.entando.hub.catalog.service;
+
+import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.response.BundleGroupVersionFacetsResponseView;
+import com.entando.hub.catalog.service.index.CatalogRevision;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static com.entando.hub.catalog.persistence.specification.BundleGroupVersionSpecifications.*;
+
+/**
+ * Facet counts of the public hub search: for the given filters, how many bundle group versions
+ * there are per category, organisation and status.
+ * Results are cached by filter signature and dropped as soon as the catalog revision changes; at
+ * most app.facets.max-entries of them, the least recently used ones are evicted beyond it.
+ */
+@Service
+public class BundleGroupVersionFacetService {
+
+    private final Logger logger = LoggerFactory.getLogger(BundleGroupVersionFacetService.class);
+    private final String CLASS_NAME = this.getClass().getSimpleName();
+
+    private final BundleGroupVersionRepository bundleGroupVersionRepository;
+    private final CatalogRevision catalogRevision;
+    // access ordered, guarded by itself
+    private final Map<String, BundleGroupVersionFacetsResponseView> facets;
+
+    public BundleGroupVersionFacetService(BundleGroupVersionRepository bundleGroupVersionRepository,
+                                          CatalogRevision catalogRevision,
+                                          @Value("${app.facets.max-entries:1000}") int maxEntries) {
+        this.bundleGroupVersionRepository = bundleGroupVersionRepository;
+        this.catalogRevision = catalogRevision;
+        this.facets = new LinkedHashMap<String, BundleGroupVersionFacetsResponseView>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BundleGroupVersionFacetsResponseView> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Same filters as BundleGroupVersionService.searchBundleGroupVersions: null or empty means no filter.
+     * The three counts are read in one repeatable-read transaction, so they agree with each other; a
+     * cached result takes no connection.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BundleGroupVersionFacetsResponseView getFacets(Long organisationId, String[] categoryIds, String[] statuses,
+                                                          String searchText) {
+        // read before counting: a change committed meanwhile leaves the entry already outdated
+        long revision = catalogRevision.current();
+        String signature = signature(organisationId, categoryIds, statuses, searchText);
+        BundleGroupVersionFacetsResponseView cached;
+        synchronized (facets) {
+            cached = facets.get(signature);
+        }
+        if (null != cached && cached.getRevision() == revision) {
+            return cached;
+        }
+
+        logger.debug("{}: getFacets: computing facets for {} at revision {}", CLASS_NAME, signature, revision);
+        Specification<BundleGroupVersion> organisationFilter = null != organisationId ? ofOrganisation(organisationId) : null;
+        Specification<BundleGroupVersion> categoryFilter = categoryFilter(categoryIds);
+        Specification<BundleGroupVersion> statusFilter = statusFilter(statuses);
+        Specification<BundleGroupVersion> textFilter = null != searchText && !searchText.isEmpty() ? matchingText(searchText) : null;
+
+        BundleGroupVersionFacetsResponseView view = new BundleGroupVersionFacetsResponseView()
+                .setCategories(bundleGroupVersionRepository.countByCategory(
+                        inPublicCatalog().and(organisationFilter).and(statusFilter).and(textFilter)))
+                .setOrganisations(bundleGroupVersionRepository.countByOrganisation(
+                        inPublicCatalog().and(categoryFilter).and(statusFilter).and(textFilter)))
+                .setStatuses(bundleGroupVersionRepository.countByStatus(
+                        inPublicCatalog().and(organisationFilter).and(categoryFilter).and(textFilter)))
+                .setRevision(revision);
+
+        synchronized (facets) {
+            facets.put(signature, view);
+        }
+        return view;
+    }
+
+    private static Specification<BundleGroupVersion> categoryFilter(String[] categoryIds) {
+        if (null == categoryIds || categoryIds.length == 0) {
+            return null;
+        }
+        return inCategories(Arrays.stream(categoryIds).map(Long::valueOf).collect(Collectors.toSet()));
+    }
+
+    private static Specification<BundleGroupVersion> statusFilter(String[] statuses) {
+        if (null == statuses || statuses.length == 0) {
+            return null;
+        }
+        return withStatusIn(Arrays.stream(statuses).map(BundleGroupVersion.Status::valueOf).collect(Collectors.toSet()));
+    }
+
+    /**
+     * Order-insensitive key of the filters, the values of each filter are sorted and deduplicated.
+     */
+    private static String signature(Long organisationId, String[] categoryIds, String[] statuses, String searchText) {
+        return Objects.toString(organisationId, "")
+                + '|' + sorted(categoryIds)
+                + '|' + sorted(statuses)
+                + '|' + (null != searchText ? searchText.toLowerCase() : "");
+    }
+
+    private static String sorted(String[] values) {
+        if (null == values) {
+            return "";
+        }
+        return Arrays.stream(values).distinct().sorted().collect(Collectors.joining(","));
+    }
+}
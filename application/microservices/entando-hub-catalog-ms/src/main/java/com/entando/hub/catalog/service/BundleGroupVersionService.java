@@ -1,29 +1,43 @@
 package com.entando.hub.catalog.service;
 
 import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.BundleGroupVersionListingRepository;
 import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
 import com.entando.hub.catalog.persistence.BundleRepository;
 import com.entando.hub.catalog.persistence.CategoryRepository;
 import com.entando.hub.catalog.persistence.entity.*;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionSearchRow;
 import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
 import com.entando.hub.catalog.rest.BundleGroupVersionController.BundleGroupVersionView;
 import com.entando.hub.catalog.rest.PagedContent;
+import com.entando.hub.catalog.service.cache.SingleFlight;
+import com.entando.hub.catalog.service.index.BundleGroupVersionListingRefresher;
+import com.entando.hub.catalog.service.index.CatalogRevision;
+import com.entando.hub.catalog.service.index.FuzzyNameIndex;
+import com.entando.hub.catalog.service.index.RelevanceIndex;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
-import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
+import static com.entando.hub.catalog.persistence.specification.BundleGroupVersionSpecifications.*;
+
 @Service
 public class BundleGroupVersionService {
 
@@ -32,35 +46,72 @@ public class BundleGroupVersionService {
 
     private final int MAX_PAGE_SIZE = 50;
     private static final String ORDER_BY = "bundleGroup.name";
+    // bound of the bundle group ids in the IN of a single fuzzy search query
+    private static final int MAX_IDS_PER_QUERY = 1000;
+    public static final String SORT_NAME = "name";
+    public static final String SORT_RELEVANCE = "relevance";
 
     private final BundleGroupVersionRepository bundleGroupVersionRepository;
     final private BundleGroupRepository bundleGroupRepository;
     final private BundleRepository bundleRepository;
     final private CategoryRepository categoryRepository;
     private final BundleService bundleService;
+    private final FuzzyNameIndex fuzzyNameIndex;
+    private final RelevanceIndex relevanceIndex;
+    private final CatalogEventService catalogEventService;
+    private final CatalogRevision catalogRevision;
+    private final BundleGroupVersionListingRepository bundleGroupVersionListingRepository;
+    private final BundleGroupVersionListingRefresher bundleGroupVersionListingRefresher;
+    private final SingleFlight publicSearches = new SingleFlight("searchBundleGroupVersions");
 
     @Autowired
     private Environment environment;
 
     public BundleGroupVersionService(BundleGroupVersionRepository bundleGroupVersionRepository,
             BundleGroupRepository bundleGroupRepository, BundleRepository bundleRepository,
-            CategoryRepository categoryRepository, BundleService bundleService) {
+            CategoryRepository categoryRepository, BundleService bundleService, FuzzyNameIndex fuzzyNameIndex,
+            RelevanceIndex relevanceIndex, CatalogEventService catalogEventService, CatalogRevision catalogRevision,
+            BundleGroupVersionListingRepository bundleGroupVersionListingRepository,
+            BundleGroupVersionListingRefresher bundleGroupVersionListingRefresher) {
         this.bundleGroupVersionRepository = bundleGroupVersionRepository;
         this.bundleGroupRepository = bundleGroupRepository;
         this.bundleRepository = bundleRepository;
         this.categoryRepository = categoryRepository;
         this.bundleService = bundleService;
+        this.fuzzyNameIndex = fuzzyNameIndex;
+        this.relevanceIndex = relevanceIndex;
+        this.catalogEventService = catalogEventService;
+        this.catalogRevision = catalogRevision;
+        this.bundleGroupVersionListingRepository = bundleGroupVersionListingRepository;
+        this.bundleGroupVersionListingRefresher = bundleGroupVersionListingRefresher;
     }
 
+    @Transactional(readOnly = true)
     public Optional<BundleGroupVersion> getBundleGroupVersion(String bundleGroupVersionIdString) {
         try {
             long bundleGroupVersionId = Long.parseLong(bundleGroupVersionIdString);
-            return bundleGroupVersionRepository.findById(bundleGroupVersionId);
+            Optional<BundleGroupVersion> bundleGroupVersion = bundleGroupVersionRepository.findById(bundleGroupVersionId);
+            // the categories in a second query, the version is mapped to a view after the transaction is over
+            bundleGroupVersion.map(BundleGroupVersion::getBundleGroup)
+                    .ifPresent(bundleGroup -> Hibernate.initialize(bundleGroup.getCategories()));
+            return bundleGroupVersion;
         } catch (Exception ex) {
             return Optional.empty();
         }
     }
 
+    /**
+     * The id of the bundle group of a version, without loading the version.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getBundleGroupId(String bundleGroupVersionIdString) {
+        try {
+            return bundleGroupVersionRepository.findBundleGroupIdById(Long.parseLong(bundleGroupVersionIdString));
+        } catch (NumberFormatException ex) {
+            return Optional.empty();
+        }
+    }
+
     @Transactional
     public BundleGroupVersion createBundleGroupVersion(BundleGroupVersion bundleGroupVersionEntity,
             BundleGroupVersionView bundleGroupVersionView) {
@@ -71,6 +122,9 @@ public class BundleGroupVersionService {
             bundleGroupVersionView.setChildren(savedBundleIds);
         }
 
+        Optional<BundleGroupVersion.Status> previousStatus = Objects.nonNull(bundleGroupVersionEntity.getId())
+                ? bundleGroupVersionRepository.findStatusById(bundleGroupVersionEntity.getId())
+                : Optional.empty();
         if (bundleGroupVersionView.getStatus().equals(BundleGroupVersion.Status.PUBLISHED)) {
             BundleGroupVersion publishedVersion = bundleGroupVersionRepository.findByBundleGroupAndStatus(
                     bundleGroupVersionEntity.getBundleGroup(), BundleGroupVersion.Status.PUBLISHED);
@@ -78,6 +132,9 @@ public class BundleGroupVersionService {
                 logger.debug("{}: createBundleGroupVersion: Published bundle : {}", CLASS_NAME, publishedVersion);
                 publishedVersion.setStatus(BundleGroupVersion.Status.ARCHIVE);
                 bundleGroupVersionRepository.save(publishedVersion);
+                if (!publishedVersion.getId().equals(bundleGroupVersionEntity.getId())) {
+                    recordEvent(publishedVersion, CatalogEvent.Action.ARCHIVED);
+                }
             }
         }
         if (Objects.nonNull(bundleGroupVersionEntity) && Objects.nonNull(bundleGroupVersionEntity.getId())) {
@@ -85,6 +142,14 @@ public class BundleGroupVersionService {
         }
         bundleGroupVersionEntity.setLastUpdated(LocalDateTime.now());
         BundleGroupVersion entity = bundleGroupVersionRepository.save(bundleGroupVersionEntity);
+        recordEvent(entity, previousStatus.isPresent() ? CatalogEvent.Action.UPDATED : CatalogEvent.Action.CREATED);
+        if (BundleGroupVersion.Status.PUBLISHED.equals(entity.getStatus())
+                && !previousStatus.filter(BundleGroupVersion.Status.PUBLISHED::equals).isPresent()) {
+            recordEvent(entity, CatalogEvent.Action.PUBLISHED);
+        } else if (BundleGroupVersion.Status.ARCHIVE.equals(entity.getStatus())
+                && !previousStatus.filter(BundleGroupVersion.Status.ARCHIVE::equals).isPresent()) {
+            recordEvent(entity, CatalogEvent.Action.ARCHIVED);
+        }
 
         try {
             if (bundleGroupVersionView.getChildren() != null) {
@@ -110,6 +175,7 @@ public class BundleGroupVersionService {
                         Set<BundleGroupVersion> bundleGroups = bundle.getBundleGroupVersions();
                         if (CollectionUtils.isEmpty(bundleGroups)) {
                             bundleRepository.deleteById(bundleId);
+                            catalogEventService.record(CatalogEvent.EntityType.BUNDLE, bundleId, null, CatalogEvent.Action.DELETED);
                             logger.debug("{}: Removed bundle {} from db", CLASS_NAME, bundleId);
                         }
                     });
@@ -119,9 +185,15 @@ public class BundleGroupVersionService {
         } catch (Exception e) {
             logger.error("{}: createBundleGroupVersion: Error: {}", CLASS_NAME, e.getStackTrace());
         }
+        // the returned version is mapped to a view after the transaction is over
+        Hibernate.initialize(entity.getBundles());
+        if (Objects.nonNull(entity.getBundleGroup())) {
+            Hibernate.initialize(entity.getBundleGroup().getCategories());
+        }
         return entity;
     }
 
+    @Transactional(readOnly = true)
     public PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> getBundleGroupVersions(
             Integer pageNum, Integer pageSize, Optional<String> organisationId, String[] categoryIds, String[] statuses,
             Optional<String> searchText) {
@@ -155,7 +227,7 @@ public class BundleGroupVersionService {
         Page<BundleGroupVersion> page = bundleGroupVersionRepository.findByBundleGroupInAndStatusIn(bunleGroups,
                 statusSet, paging);
         PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> pagedContent = new PagedContent<>(
-                toResponseViewList(page, bunleGroups).stream()
+                toResponseViewList(page, bunleGroups, false).stream()
                         .sorted(Comparator.comparing(BundleGroupVersionFilteredResponseView::getName,
                                 String::compareToIgnoreCase))
                         .collect(Collectors.toList()), page);
@@ -181,6 +253,7 @@ public class BundleGroupVersionService {
         return "";
     }
 
+    @Transactional(readOnly = true)
     public PagedContent<BundleGroupVersionFilteredResponseView, com.entando.hub.catalog.persistence.entity.BundleGroupVersion> getBundleGroupVersions(
             Integer pageNum, Integer pageSize, String[] statuses, BundleGroup bundleGroup) {
         logger.debug(
@@ -202,7 +275,7 @@ public class BundleGroupVersionService {
                 page.getNumberOfElements());
 
         PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> pagedContent = new PagedContent<>(
-				new ArrayList<>(toResponseViewList(page, Collections.singletonList(bundleGroup))), page);
+				new ArrayList<>(toResponseViewList(page, Collections.singletonList(bundleGroup), false)), page);
         return pagedContent;
     }
 
@@ -223,6 +296,7 @@ public class BundleGroupVersionService {
                  */
                 parentBundleGroup.getVersion().remove(bundleGroupVersion);
                 bundleGroupVersionRepository.delete(bundleGroupVersion);
+                recordEvent(bundleGroupVersion, CatalogEvent.Action.DELETED);
 
                 /**
                  * Delete the parent bundle group if it does not have any other version.
@@ -233,6 +307,8 @@ public class BundleGroupVersionService {
                      */
                     removeBundleGroupFromCategories(parentBundleGroup);
                     bundleGroupRepository.delete(parentBundleGroup);
+                    catalogEventService.record(CatalogEvent.EntityType.BUNDLE_GROUP, parentBundleGroup.getId(),
+                            parentBundleGroup.getId(), CatalogEvent.Action.DELETED);
                 }
             });
         } catch (Exception e) {
@@ -259,11 +335,18 @@ public class BundleGroupVersionService {
             Set<BundleGroupVersion> bundleGroupVersions = bundle.getBundleGroupVersions();
             if (CollectionUtils.isEmpty(bundleGroupVersions)) {
                 bundleRepository.delete(bundle);
+                catalogEventService.record(CatalogEvent.EntityType.BUNDLE, bundle.getId(), null, CatalogEvent.Action.DELETED);
                 logger.debug("{}: Removed bundle {} from db", CLASS_NAME, bundle);
             }
         });
     }
 
+    private void recordEvent(BundleGroupVersion bundleGroupVersion, CatalogEvent.Action action) {
+        Long bundleGroupId = Objects.nonNull(bundleGroupVersion.getBundleGroup()) ? bundleGroupVersion.getBundleGroup().getId() : null;
+        catalogEventService.record(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION, bundleGroupVersion.getId(), bundleGroupId, action);
+    }
+
+    @Transactional(readOnly = true)
     public List<BundleGroupVersion> getBundleGroupVersions(
             com.entando.hub.catalog.persistence.entity.BundleGroup bundleGroup, String version) {
         logger.debug("{}: getBundleGroupVersions: Get a bundle group version by Bundle Group and version: {}",
@@ -277,6 +360,7 @@ public class BundleGroupVersionService {
      * @param bundleGroup
      * @return
      */
+    @Transactional(readOnly = true)
     public boolean isBundleGroupEditable(BundleGroup bundleGroup) {
         logger.debug("{}: isBundleGroupEditable: Check if the bundle group {} is editable or not", CLASS_NAME,
                 bundleGroup.getId());
@@ -292,6 +376,7 @@ public class BundleGroupVersionService {
      * @param bundleGroup
      * @return
      */
+    @Transactional(readOnly = true)
     public boolean canAddNewVersion(BundleGroup bundleGroup) {
         logger.debug("{}: canAddNewVersion: Check if a new version can be added on a bundle group {}", CLASS_NAME,
                 bundleGroup.getId());
@@ -304,13 +389,16 @@ public class BundleGroupVersionService {
     }
 
     /**
-     * Convert to response view list
+     * Convert to response view list. With fromListing, and the listing view known to be fresh, the
+     * bundle group, organisation, categories, bundles and versions of each row come from the view in
+     * a single read, the rows missing from it are completed from the entities. The listings of the
+     * admin pages always read the entities: they drive the edits.
      *
      * @param page
      * @return
      */
     private List<BundleGroupVersionFilteredResponseView> toResponseViewList(Page<BundleGroupVersion> page,
-            List<BundleGroup> bundleGroups) {
+            List<BundleGroup> bundleGroups, boolean fromListing) {
         logger.debug("{}: toResponseViewList: Convert Bundle Group Version list to response view list", CLASS_NAME);
 
         // create a map to enhance performances
@@ -319,6 +407,14 @@ public class BundleGroupVersionService {
                 .stream()
                 .collect(Collectors.toMap(BundleGroup::getId, bundleGroup -> bundleGroup));
 
+        final Map<Long, BundleGroupVersionListing> listings = !fromListing || page.getContent().isEmpty()
+                || !bundleGroupVersionListingRefresher.isFresh() ? Collections.emptyMap()
+                : bundleGroupVersionListingRepository.findAllById(page.getContent().stream()
+                        .map(BundleGroupVersion::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(BundleGroupVersionListing::getId, Function.identity()));
+
         List<BundleGroupVersionFilteredResponseView> list = new ArrayList<BundleGroupVersionFilteredResponseView>();
         page.getContent().forEach((entity) -> {
             BundleGroupVersionFilteredResponseView viewObj = new BundleGroupVersionFilteredResponseView();
@@ -333,6 +429,13 @@ public class BundleGroupVersionService {
             viewObj.setDisplayContactUrl(entity.getDisplayContactUrl());
             viewObj.setContactUrl(entity.getContactUrl());
 
+            BundleGroupVersionListing listing = listings.get(entity.getId());
+            if (null != listing) {
+                fillFromListing(viewObj, listing);
+                list.add(viewObj);
+                return;
+            }
+
             if (!CollectionUtils.isEmpty(entity.getBundles())) {
                 viewObj.setChildren(entity.getBundles().stream()
                         .map(child -> child.getId().toString()).collect(Collectors.toList()));
@@ -365,8 +468,31 @@ public class BundleGroupVersionService {
         return list;
     }
 
+    private static void fillFromListing(BundleGroupVersionFilteredResponseView viewObj, BundleGroupVersionListing listing) {
+        viewObj.setChildren(split(listing.getBundleIds()));
+        viewObj.setName(listing.getBundleGroupName());
+        viewObj.setBundleGroupId(listing.getBundleGroupId());
+        viewObj.setPublicCatalog(Boolean.TRUE.equals(listing.getPublicCatalog()));
+        viewObj.setIsEditable(Boolean.TRUE.equals(listing.getEditable()));
+        viewObj.setCanAddNewVersion(Boolean.TRUE.equals(listing.getCanAddNewVersion()));
+        viewObj.setOrganisationId(listing.getOrganisationId());
+        viewObj.setOrganisationName(listing.getOrganisationName());
+        viewObj.setCategories(split(listing.getCategoryIds()));
+        viewObj.setAllVersions(split(listing.getAllVersions()));
+    }
+
+    /**
+     * The comma separated lists of the listing view, null when empty as the entities would give.
+     */
+    private static List<String> split(String values) {
+        if (null == values || values.isEmpty()) {
+            return null;
+        }
+        return new ArrayList<>(Arrays.asList(values.split(",")));
+    }
+
     /**
-     * This will search the Bundle groups based on bundle name and organization name and apply the filters.
+     * This will search the Bundle groups based on bundle group, organization and bundle names and descriptions and apply the filters.
      *
      * @param pageNum
      * @param pageSize
@@ -374,24 +500,41 @@ public class BundleGroupVersionService {
      * @param categoryIds
      * @param statuses
      * @param searchText
+     * @param fuzzyThreshold if given, searchText is matched by trigram similarity of at least this value, best matches first
+     * @param sort name (the default) or relevance, the BM25 score of searchText
      * @return
      */
+    @Transactional(readOnly = true)
     public PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> searchBundleGroupVersions(
             Integer pageNum, Integer pageSize, Long organisationId, String[] categoryIds, String[] statuses,
-            String searchText) {
+            String searchText, Double fuzzyThreshold, String sort) {
+        // the public search doesn't depend on the user: the identical concurrent searches share one query
+        String signature = signature(catalogRevision.current(), pageNum, pageSize, organisationId, categoryIds, statuses,
+                searchText, fuzzyThreshold, sort);
+        return publicSearches.execute(signature, () -> doSearchBundleGroupVersions(pageNum, pageSize, organisationId,
+                categoryIds, statuses, searchText, fuzzyThreshold, sort));
+    }
+
+    private PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> doSearchBundleGroupVersions(
+            Integer pageNum, Integer pageSize, Long organisationId, String[] categoryIds, String[] statuses,
+            String searchText, Double fuzzyThreshold, String sort) {
 
         logger.debug(
                 "{}: getBundleGroupVersions: Get bundle group versions paginated by organisation id: {}, categories: {}, statuses: {}, searchText: {}",
                 CLASS_NAME, organisationId, categoryIds, statuses, searchText);
 
-        List<BundleGroup> bundleGroups = this.getBundleGroups(searchText, organisationId, categoryIds);
+        Specification<BundleGroupVersion> scope = inPublicCatalog();
+        if (organisationId != null) {
+            scope = scope.and(ofOrganisation(organisationId));
+        }
 
         Pageable paging = this.getPaging(pageNum, pageSize, ORDER_BY);
 
-        Page<BundleGroupVersion> page = this.getBundleGroupVersionByStatus(bundleGroups, statuses, paging);
+        Page<BundleGroupVersion> page = this.findBundleGroupVersions(scope, categoryIds, statuses, searchText, fuzzyThreshold, sort, paging);
 
+        // mapped here, in the transaction of the search that runs: the coalesced searches share the views, never the entities
         PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> pagedContent = new PagedContent<>(
-                toResponseViewList(page, bundleGroups), page);
+                Collections.unmodifiableList(toResponseViewList(page, getBundleGroups(page), true)), page);
 
         logger.debug("{}: getBundleGroupVersions: organisationId {}, number of elements: {}", CLASS_NAME,
                 organisationId, page.getNumberOfElements());
@@ -399,39 +542,21 @@ public class BundleGroupVersionService {
         return pagedContent;
     }
 
-    private List<BundleGroup> getBundleGroups(String searchText, Long organisationId, String[] categoryIds){
-        List<BundleGroup> bundleGroups;
-        Set<Category> categories = Arrays.stream(categoryIds).map(id -> new Category().setId(Long.valueOf(id))).collect(Collectors.toSet());
-
-        if (organisationId != null && categoryIds.length != 0){
-            bundleGroups = bundleGroupRepository.findDistinctByOrganisationIdAndCategoriesInAndPublicCatalogIsTrue(organisationId, categories);
-        } else if (organisationId != null) {
-            bundleGroups = bundleGroupRepository.findDistinctByOrganisationIdAndPublicCatalogIsTrue(organisationId);
-        } else if (categoryIds.length != 0){
-            bundleGroups = bundleGroupRepository.findDistinctByCategoriesInAndPublicCatalogIsTrue(categories);
-        } else {
-            bundleGroups = bundleGroupRepository.findAll();
-        }
-
-        return searchText != null ? this.filterSearchText(bundleGroups, searchText): bundleGroups;
-    }
-
+    @Transactional(readOnly = true)
     public PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> searchPrivateBundleGroupVersions(
             Integer pageNum, Integer pageSize, Long catalogId, String[] categoryIds, String[] statuses,
-            String searchText) {
+            String searchText, Double fuzzyThreshold, String sort) {
 
         logger.debug(
                 "{}: getBundleGroupVersions: Get bundle group versions paginated by catalog id: {}, categories: {}, statuses: {}, searchText: {}",
                 CLASS_NAME, catalogId, categoryIds, statuses, searchText);
 
-        List<BundleGroup> bundleGroups = this.getPrivateBundleGroups(searchText, catalogId, categoryIds);
-
         Pageable paging = this.getPaging(pageNum, pageSize, ORDER_BY);
 
-        Page<BundleGroupVersion> page = this.getBundleGroupVersionByStatus(bundleGroups, statuses, paging);
+        Page<BundleGroupVersion> page = this.findBundleGroupVersions(inCatalog(catalogId), categoryIds, statuses, searchText, fuzzyThreshold, sort, paging);
 
         PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> pagedContent = new PagedContent<>(
-                toResponseViewList(page, bundleGroups), page);
+                toResponseViewList(page, getBundleGroups(page), true), page);
 
         logger.debug("{}: getBundleGroupVersions: catalogId {}, number of elements: {}", CLASS_NAME,
                 catalogId, page.getNumberOfElements());
@@ -439,35 +564,109 @@ public class BundleGroupVersionService {
         return pagedContent;
     }
 
-    private List<BundleGroup> getPrivateBundleGroups(String searchText, Long catalogId, String[] categoryIds){
-        List<BundleGroup> bundleGroups;
-        Set<Category> categories = Arrays.stream(categoryIds).map(id -> new Category().setId(Long.valueOf(id))).collect(Collectors.toSet());
+    /**
+     * Key of the coalesced searches: the values of categoryIds and statuses are sorted and deduplicated,
+     * the searchText is matched case-insensitively and the missing filters or sort are the same as the empty ones.
+     */
+    private static String signature(long revision, Integer pageNum, Integer pageSize, Long organisationId,
+            String[] categoryIds, String[] statuses, String searchText, Double fuzzyThreshold, String sort) {
+        return revision
+                + "|" + pageNum + "|" + pageSize
+                + "|" + Objects.toString(organisationId, "")
+                + "|" + sorted(categoryIds)
+                + "|" + sorted(statuses)
+                + "|" + (null != searchText ? searchText.toLowerCase() : "")
+                + "|" + Objects.toString(fuzzyThreshold, "")
+                + "|" + (null != sort ? sort : SORT_NAME);
+    }
 
-        if (categoryIds.length != 0){
-            bundleGroups = bundleGroupRepository.findDistinctByCatalogIdAndCategoriesIn(catalogId, categories);
-        } else {
-            bundleGroups = bundleGroupRepository.findDistinctByCatalogId(catalogId);
+    private static String sorted(String[] values) {
+        if (null == values) {
+            return "";
         }
-
-        return searchText != null ? this.filterSearchText(bundleGroups, searchText): bundleGroups;
+        return Arrays.stream(values).distinct().sorted().collect(Collectors.joining(","));
     }
 
+    /**
+     * Runs the search as a single query. Null or empty categoryIds/statuses and a null or empty
+     * searchText mean no filter: they add no predicate instead of an IN over every possible value.
+     * Fuzzy and relevance searches are the exception, their matches are ranked in memory by
+     * similarity or BM25 score.
+     */
+    private Page<BundleGroupVersion> findBundleGroupVersions(Specification<BundleGroupVersion> scope, String[] categoryIds,
+            String[] statuses, String searchText, Double fuzzyThreshold, String sort, Pageable paging) {
+        if (sort != null && !SORT_NAME.equals(sort) && !SORT_RELEVANCE.equals(sort)) {
+            throw new IllegalArgumentException(String.format("sort must be %s or %s", SORT_NAME, SORT_RELEVANCE));
+        }
+        // checked before falling back to the substring search, a wrong value is wrong whether the index is ready or not
+        if (fuzzyThreshold != null && !(fuzzyThreshold > 0 && fuzzyThreshold <= 1)) {
+            throw new IllegalArgumentException("fuzzyThreshold must be greater than 0 and at most 1");
+        }
+        Specification<BundleGroupVersion> specification = scope;
+        if (categoryIds != null && categoryIds.length != 0) {
+            specification = specification.and(inCategories(
+                    Arrays.stream(categoryIds).map(Long::valueOf).collect(Collectors.toSet())));
+        }
+        if (statuses != null && statuses.length != 0) {
+            specification = specification.and(withStatusIn(
+                    Arrays.stream(statuses).map(BundleGroupVersion.Status::valueOf).collect(Collectors.toSet())));
+        }
+        if (searchText != null && !searchText.isEmpty()) {
+            if (fuzzyThreshold != null && fuzzyNameIndex.isReady()) {
+                Map<Long, Double> similarities = fuzzyNameIndex.search(searchText, fuzzyThreshold);
+                if (similarities.isEmpty()) {
+                    return Page.empty(paging);
+                }
+                // every match is selected, in chunks, so that the total of the page counts them all
+                List<Long> bundleGroupIds = new ArrayList<>(similarities.keySet());
+                List<BundleGroupVersionSearchRow> rows = new ArrayList<>();
+                for (int from = 0; from < bundleGroupIds.size(); from += MAX_IDS_PER_QUERY) {
+                    List<Long> chunk = bundleGroupIds.subList(from, Math.min(bundleGroupIds.size(), from + MAX_IDS_PER_QUERY));
+                    rows.addAll(bundleGroupVersionRepository.findSearchRows(specification.and(inBundleGroups(chunk))));
+                }
+                return this.findRankedBundleGroupVersions(rows,
+                        row -> similarities.getOrDefault(row.getBundleGroupId(), 0d), paging);
+            }
+            specification = specification.and(matchingText(searchText));
+            if (SORT_RELEVANCE.equals(sort) && relevanceIndex.isReady()) {
+                Map<Long, Double> scores = relevanceIndex.score(searchText);
+                return this.findRankedBundleGroupVersions(new ArrayList<>(bundleGroupVersionRepository.findSearchRows(specification)),
+                        row -> scores.getOrDefault(row.getId(), 0d), paging);
+            }
+        }
+        return bundleGroupVersionRepository.findAll(specification, paging);
+    }
 
-    private List<BundleGroup> filterSearchText(List<BundleGroup> bundleGroups, String searchText){
-        return bundleGroups.stream()
-                .filter(bundleGroup -> {
-                    String bg = bundleGroup.getName().toLowerCase();
-                    String st = searchText.toLowerCase();
-                    String o = bundleGroup.getOrganisation().getName().toLowerCase();
-                    return bg.startsWith(st) || bg.endsWith(st) || bg.contains(st) || o.startsWith(st) || o.endsWith(st)
-                            || o.contains(st);
-                }).collect(Collectors.toList());
-
+    /**
+     * Orders the matching rows by descending score then as the other searches do, and loads the
+     * entities of the requested page.
+     */
+    private Page<BundleGroupVersion> findRankedBundleGroupVersions(List<BundleGroupVersionSearchRow> rows,
+            ToDoubleFunction<BundleGroupVersionSearchRow> score, Pageable paging) {
+        rows.sort(Comparator.comparingDouble(score).reversed()
+                .thenComparing(BundleGroupVersionSearchRow::getBundleGroupName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                .thenComparing(BundleGroupVersionSearchRow::getLastUpdated, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())));
+
+        int from = (int) Math.min(paging.getOffset(), rows.size());
+        int to = Math.min(from + paging.getPageSize(), rows.size());
+        List<Long> ids = rows.subList(from, to).stream()
+                .map(BundleGroupVersionSearchRow::getId)
+                .collect(Collectors.toList());
+        Map<Long, BundleGroupVersion> byId = bundleGroupVersionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(BundleGroupVersion::getId, Function.identity()));
+        List<BundleGroupVersion> content = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, paging, rows.size());
     }
 
-    private Page<BundleGroupVersion> getBundleGroupVersionByStatus(List<BundleGroup> bundleGroups, String[] statuses, Pageable paging){
-        Set<BundleGroupVersion.Status> statusSet = Arrays.stream(statuses).map(BundleGroupVersion.Status::valueOf).collect(Collectors.toSet());
-        return bundleGroupVersionRepository.findByBundleGroupInAndStatusIn(bundleGroups, statusSet, paging);
+    private List<BundleGroup> getBundleGroups(Page<BundleGroupVersion> page) {
+        return page.getContent().stream()
+                .map(BundleGroupVersion::getBundleGroup)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     private Pageable getPaging(Integer pageNum, Integer pageSize, String orderBy){
@@ -6,16 +6,25 @@ import com.entando.hub.catalog.persistence.BundleRepository;
 import com.entando.hub.catalog.persistence.entity.Bundle;
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
 import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionLink;
+import com.entando.hub.catalog.rest.BundleController;
 import com.entando.hub.catalog.rest.BundleController.BundleNoId;
+import com.entando.hub.catalog.rest.PagedContent;
+import com.entando.hub.catalog.service.cache.SingleFlight;
+import com.entando.hub.catalog.service.index.BundleGroupVisibilityIndex;
+import com.entando.hub.catalog.service.index.CatalogRevision;
 import com.entando.hub.catalog.service.security.SecurityHelperService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,17 +38,49 @@ public class BundleService {
 
     private final Logger logger = LoggerFactory.getLogger(BundleService.class);
     private final String CLASS_NAME = this.getClass().getSimpleName();
+    private static final int MAX_PAGE_SIZE = 50;
     private PortalUserService portaUserService;
+    private final BundleGroupVisibilityIndex bundleGroupVisibilityIndex;
+    private final CatalogEventService catalogEventService;
+    private final CatalogRevision catalogRevision;
+    private final SingleFlight publicBundles = new SingleFlight("getBundles");
 
     public BundleService(BundleRepository bundleRepository, BundleGroupVersionRepository bundleGroupVersionRepository,
-                         BundleGroupRepository bundleGroupRepository, SecurityHelperService securityHelperService, PortalUserService portaUserService) {
+                         BundleGroupRepository bundleGroupRepository, SecurityHelperService securityHelperService, PortalUserService portaUserService,
+                         BundleGroupVisibilityIndex bundleGroupVisibilityIndex, CatalogEventService catalogEventService,
+                         CatalogRevision catalogRevision) {
         this.bundleRepository = bundleRepository;
         this.bundleGroupVersionRepository = bundleGroupVersionRepository;
         this.bundleGroupRepository = bundleGroupRepository;
         this.securityHelperService = securityHelperService;
         this.portaUserService = portaUserService;
+        this.bundleGroupVisibilityIndex = bundleGroupVisibilityIndex;
+        this.catalogEventService = catalogEventService;
+        this.catalogRevision = catalogRevision;
     }
 
+    /**
+     * The views of the bundles of the published versions, of a bundle group or of all the groups, as served
+     * to the App Builder. It doesn't depend on the user: the identical concurrent calls share one query and
+     * its views, mapped in the transaction of the call that ran it, so the returned page must not be modified.
+     */
+    @Transactional(readOnly = true)
+    public PagedContent<BundleController.Bundle, Bundle> getPublishedBundles(Integer pageNum, Integer pageSize, Optional<String> bundleGroupId, Set<Bundle.DescriptorVersion> descriptorVersions) {
+        // no descriptorVersions means all of them, they are sorted by the EnumSet
+        Set<Bundle.DescriptorVersion> versions = EnumSet.noneOf(Bundle.DescriptorVersion.class);
+        versions.addAll(null == descriptorVersions ? EnumSet.allOf(Bundle.DescriptorVersion.class) : descriptorVersions);
+        String signature = catalogRevision.current() + "|" + pageNum + "|" + pageSize + "|" + bundleGroupId.orElse("") + "|" + versions;
+        return publicBundles.execute(signature, () -> {
+            Page<Bundle> page = getBundles(pageNum, pageSize, bundleGroupId, descriptorVersions);
+            return new PagedContent<>(Collections.unmodifiableList(toPublishedViews(page.getContent())), page);
+        });
+    }
+
+    /**
+     * The bundles of the published versions of the bundle groups of the public catalog, the ones of
+     * the published catalog snapshot: the App Builder gets the same bundles whether it is built or not.
+     */
+    @Transactional(readOnly = true)
     public Page<Bundle> getBundles(Integer pageNum, Integer pageSize, Optional<String> bundleGroupId, Set<Bundle.DescriptorVersion> descriptorVersions) {
         logger.debug("{}: getBundles: Get bundles paginated by bundle group  id: {}, descriptorVersions: {}", CLASS_NAME, bundleGroupId, descriptorVersions);
         Pageable paging;
@@ -58,14 +99,16 @@ public class BundleService {
         Page<Bundle> response = new PageImpl<>(new ArrayList<>());
         if (bundleGroupId.isPresent()) {
             Long bundleGroupEntityId = Long.parseLong(bundleGroupId.get());
-            Optional<BundleGroup> bundleGroupEntity = bundleGroupRepository.findById(bundleGroupEntityId);
+            // the bundle groups of the public catalog only, as in the published catalog snapshot
+            Optional<BundleGroup> bundleGroupEntity = bundleGroupRepository.findById(bundleGroupEntityId)
+                    .filter(bundleGroup -> Boolean.TRUE.equals(bundleGroup.getPublicCatalog()));
             if (bundleGroupEntity.isPresent()) {
                 BundleGroupVersion publishedVersion = bundleGroupVersionRepository.findByBundleGroupAndStatus(bundleGroupEntity.get(), BundleGroupVersion.Status.PUBLISHED);
                 if (publishedVersion != null)
                     response = bundleRepository.findByBundleGroupVersionsIsAndDescriptorVersionIn(
                             publishedVersion, descriptorVersions, paging);
             } else {
-                logger.warn("{}: getBundles: bundle group does not exist: {}", CLASS_NAME, bundleGroupEntityId);
+                logger.warn("{}: getBundles: bundle group does not exist or is not public: {}", CLASS_NAME, bundleGroupEntityId);
             }
         } else {
             logger.debug("{}: getBundles: bundle group id is not present: {}, descriptorVersion: {}", CLASS_NAME, bundleGroupId, descriptorVersions);
@@ -75,13 +118,16 @@ public class BundleService {
         return response;
     }
 
+    @Transactional(readOnly = true)
     public List<Bundle> getBundles() {
         return bundleRepository.findAll();
     }
+    @Transactional(readOnly = true)
     public List<Bundle> getPublicBundles() {
         return bundleRepository.findByBundleGroupVersionsBundleGroupPublicCatalogTrue();
     }
 
+    @Transactional(readOnly = true)
     public List<Bundle> getBundles(Optional<String> bundleGroupVersionId) {
         logger.debug("{}: getBundles: Get Bundles by bundle group version id: {}", CLASS_NAME, bundleGroupVersionId);
         if (securityHelperService.isAdmin()) {
@@ -100,28 +146,82 @@ public class BundleService {
 		}
     }
 
+    @Transactional(readOnly = true)
     public List<Bundle> getBundlesByCatalogId(Long catalogId) {
         return bundleRepository.findByBundleGroupVersionsBundleGroupCatalogId(catalogId);
     }
 
+    @Transactional(readOnly = true)
     public List<Bundle> getBundlesByCatalogIdAndBundleGroupVersionId(Long catalogId, Long bundleGroupVersionId) {
         return bundleRepository.findByBundleGroupVersionsBundleGroupCatalogIdAndBundleGroupVersionsId(catalogId, bundleGroupVersionId);
     }
 
+    /**
+     * Ids of the bundle group versions of each bundle, read from the join table only so that
+     * listing bundles does not load the versions themselves.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<String>> getBundleGroupVersionIds(Collection<Bundle> bundles) {
+        Map<Long, List<String>> bundleGroupVersionIds = new HashMap<>();
+        bundles.forEach(bundle -> bundleGroupVersionIds.put(bundle.getId(), new ArrayList<>()));
+        if (!bundleGroupVersionIds.isEmpty()) {
+            List<BundleGroupVersionLink> links = bundleRepository.findBundleGroupVersionLinks(bundleGroupVersionIds.keySet());
+            links.forEach(link -> bundleGroupVersionIds.get(link.getBundleId()).add(link.getBundleGroupVersionId().toString()));
+        }
+        return bundleGroupVersionIds;
+    }
+
+    /**
+     * The views of the bundles as served to the App Builder: the description and the image are the ones
+     * of the first bundle group version of the bundle, all the versions are read by a single query.
+     */
+    @Transactional(readOnly = true)
+    public List<BundleController.Bundle> toPublishedViews(List<Bundle> bundles) {
+        Map<Long, List<String>> bundleGroupVersionIds = getBundleGroupVersionIds(bundles);
+        Set<Long> firstVersionIds = bundleGroupVersionIds.values().stream()
+                .filter(ids -> !ids.isEmpty())
+                .map(ids -> Long.valueOf(ids.get(0)))
+                .collect(Collectors.toSet());
+        Map<Long, BundleGroupVersion> firstVersions = bundleGroupVersionRepository.findAllById(firstVersionIds).stream()
+                .collect(Collectors.toMap(BundleGroupVersion::getId, Function.identity()));
+
+        List<BundleController.Bundle> views = new ArrayList<>();
+        for (Bundle bundle : bundles) {
+            List<String> versionIds = bundleGroupVersionIds.getOrDefault(bundle.getId(), Collections.emptyList());
+            BundleController.Bundle view = new BundleController.Bundle(bundle, versionIds);
+            if (!versionIds.isEmpty()) {
+                BundleGroupVersion firstVersion = firstVersions.get(Long.valueOf(versionIds.get(0)));
+                if (null != firstVersion) {
+                    view.setDescriptionImage(firstVersion.getDescriptionImage());
+                    view.setDescription(firstVersion.getDescription());
+                }
+            }
+            views.add(view);
+        }
+        return views;
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Bundle> getBundle(String bundleId) {
         logger.debug("{}: getBundle: Get a Bundle by bundle id: {}", CLASS_NAME, bundleId);
         return bundleRepository.findById(Long.parseLong(bundleId));
     }
 
+    @Transactional
     public Bundle createBundle(Bundle toSave) {
         logger.debug("{}: createBundle: Create a Bundle: {}", CLASS_NAME, toSave);
-        return bundleRepository.save(toSave);
+        CatalogEvent.Action action = null == toSave.getId() ? CatalogEvent.Action.CREATED : CatalogEvent.Action.UPDATED;
+        Bundle saved = bundleRepository.save(toSave);
+        catalogEventService.record(CatalogEvent.EntityType.BUNDLE, saved.getId(), null, action);
+        return saved;
     }
 
+    @Transactional
     public void deleteBundle(Bundle toDelete) {
         logger.debug("{}: deleteBundle: Delete a Bundle: {}", CLASS_NAME, toDelete);
         deleteFromBundleGroupVersion(toDelete);
         bundleRepository.delete(toDelete);
+        catalogEventService.record(CatalogEvent.EntityType.BUNDLE, toDelete.getId(), null, CatalogEvent.Action.DELETED);
     }
 
     public void deleteFromBundleGroupVersion(Bundle bundle) {
@@ -134,9 +234,16 @@ public class BundleService {
      * @param bundles
      * @return list of saved bundles
      */
+    @Transactional
     public List<Bundle> createBundles(List<Bundle> bundles) {
         logger.debug("{}: createBundles: Create bundles: {}", CLASS_NAME, bundles);
-        return bundleRepository.saveAll(bundles);
+        List<Boolean> created = bundles.stream().map(bundle -> null == bundle.getId()).collect(Collectors.toList());
+        List<Bundle> saved = bundleRepository.saveAll(bundles);
+        for (int i = 0; i < saved.size(); i++) {
+            CatalogEvent.Action action = created.get(i) ? CatalogEvent.Action.CREATED : CatalogEvent.Action.UPDATED;
+            catalogEventService.record(CatalogEvent.EntityType.BUNDLE, saved.get(i).getId(), null, action);
+        }
+        return saved;
     }
 
     /**
@@ -145,6 +252,7 @@ public class BundleService {
      * @param bundleRequest
      * @return list of saved bundles or empty list
      */
+    @Transactional
     public List<Bundle> createBundleEntitiesAndSave(List<BundleNoId> bundleRequest) {
         logger.debug("{}: createBundleEntitiesAndSave: Create bundles: {}", CLASS_NAME, bundleRequest);
         try {
@@ -163,6 +271,7 @@ public class BundleService {
         return Collections.emptyList();
     }
 
+    @Transactional(readOnly = true)
     public List<Bundle> getBundles(String bundleGroupVersionId, Long catalogId) {
         List<Bundle> bundles;
         Boolean isUserAuthenticated = securityHelperService.isUserAuthenticated();
@@ -171,9 +280,7 @@ public class BundleService {
                 if (securityHelperService.isAdmin()) {
                     return this.getBundles();
                 }
-                bundles = this.getPublicBundles();
-                bundles.addAll(this.getBundlesByUserOrganizations());
-                return bundles.stream().distinct().collect(Collectors.toList());
+                return this.getVisibleBundles(Sort.by("id"));
             }
 
             if (null != catalogId) {
@@ -191,13 +298,57 @@ public class BundleService {
         return bundles;
     }
 
+    @Transactional(readOnly = true)
     public List<Bundle> getBundlesByUserOrganizations() {
-        Set<Organisation> userOrganizations = portaUserService.getUserOrganizations();
-        List<Bundle> bundles = new ArrayList<>();
-        userOrganizations.forEach (organisation -> {
-            List<Bundle> organisationBundles = bundleRepository.findByBundleGroupVersionsBundleGroupOrganisation(organisation);
-            bundles.addAll(organisationBundles);
-        });
-        return bundles;
+        Set<Long> organisationIds = getUserOrganisationIds();
+        if (organisationIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (bundleGroupVisibilityIndex.isReady()) {
+            // the index resolves the bundle groups of all the organisations at once
+            List<Long> bundleGroupIds = BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.ownedBy(organisationIds));
+            if (bundleGroupIds.isEmpty()) {
+                return new ArrayList<>();
+            }
+            return bundleRepository.findDistinctByBundleGroupVersionsBundleGroupIdIn(bundleGroupIds);
+        }
+        return bundleRepository.findDistinctByBundleGroupVersionsBundleGroupOrganisationIdIn(organisationIds);
+    }
+
+    /**
+     * Public bundles plus the bundles of the organisations of the current user, deduplicated, sorted
+     * and paged by a single query. Admins get every bundle, anonymous users the public ones only.
+     */
+    @Transactional(readOnly = true)
+    public Page<Bundle> getVisibleBundles(Integer pageNum, Integer pageSize) {
+        logger.debug("{}: getVisibleBundles: Get visible bundles paginated, pageNum: {}, pageSize: {}", CLASS_NAME, pageNum, pageSize);
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            logger.warn("An unexpected pageSize {} was provided. Setting maximum to {}.", pageSize, MAX_PAGE_SIZE);
+            pageSize = MAX_PAGE_SIZE;
+        }
+        Pageable paging = PageRequest.of(pageNum, pageSize, Sort.by(Sort.Direction.ASC, "name").and(Sort.by("id")));
+        if (!Boolean.TRUE.equals(securityHelperService.isUserAuthenticated())) {
+            return bundleRepository.findPublicBundles(paging);
+        }
+        if (securityHelperService.isAdmin()) {
+            return bundleRepository.findAll(paging);
+        }
+        Set<Long> organisationIds = getUserOrganisationIds();
+        if (organisationIds.isEmpty()) {
+            return bundleRepository.findPublicBundles(paging);
+        }
+        return bundleRepository.findVisibleBundles(organisationIds, paging);
+    }
+
+    private List<Bundle> getVisibleBundles(Sort sort) {
+        Set<Long> organisationIds = getUserOrganisationIds();
+        if (organisationIds.isEmpty()) {
+            return bundleRepository.findPublicBundles(sort);
+        }
+        return bundleRepository.findVisibleBundles(organisationIds, sort);
+    }
+
+    private Set<Long> getUserOrganisationIds() {
+        return portaUserService.getUserOrganizations().stream().map(Organisation::getId).collect(Collectors.toSet());
     }
 }
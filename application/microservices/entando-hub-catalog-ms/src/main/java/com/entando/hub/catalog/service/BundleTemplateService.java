@@ -0,0 +1,73 @@
+package com.entando.hub.catalog.service;
+
+import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
+import com.entando.hub.catalog.persistence.projection.BundleGroupTemplateRow;
+import com.entando.hub.catalog.persistence.projection.BundleTemplateRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read side of the templates api: the bundles of the published bundle group versions having a
+ * source repository, selected as flat rows instead of walking the entity graph.
+ */
+@Service
+public class BundleTemplateService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final BundleGroupVersionRepository bundleGroupVersionRepository;
+
+    private final Logger logger = LoggerFactory.getLogger(BundleTemplateService.class);
+    private final String CLASS_NAME = this.getClass().getSimpleName();
+
+    public BundleTemplateService(BundleGroupVersionRepository bundleGroupVersionRepository) {
+        this.bundleGroupVersionRepository = bundleGroupVersionRepository;
+    }
+
+    public List<BundleTemplateRow> getBundleTemplates() {
+        return bundleGroupVersionRepository.findBundleTemplates();
+    }
+
+    public Page<BundleTemplateRow> getBundleTemplates(Integer pageNum, Integer pageSize) {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            logger.warn("An unexpected pageSize {} was provided. Setting maximum to {}.", pageSize, MAX_PAGE_SIZE);
+            pageSize = MAX_PAGE_SIZE;
+        }
+        return bundleGroupVersionRepository.findBundleTemplates(PageRequest.of(pageNum, pageSize));
+    }
+
+    public List<BundleTemplateRow> getBundleTemplatesByBundleGroupVersionId(Long bundleGroupVersionId) {
+        return bundleGroupVersionRepository.findBundleTemplatesByBundleGroupVersionId(bundleGroupVersionId);
+    }
+
+    public boolean hasBundleTemplates(Long bundleGroupVersionId) {
+        return bundleGroupVersionRepository.existsBundleTemplatesByBundleGroupVersionId(bundleGroupVersionId);
+    }
+
+    /**
+     * Hands every template to the consumer while reading them from a database cursor, so that the
+     * whole result is never held in memory.
+     */
+    @Transactional(readOnly = true)
+    public void streamBundleTemplates(Consumer<BundleTemplateRow> consumer) {
+        logger.debug("{}: streamBundleTemplates: streaming the bundle templates", CLASS_NAME);
+        try (Stream<BundleTemplateRow> rows = bundleGroupVersionRepository.streamBundleTemplates()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    public List<BundleGroupTemplateRow> getBundleGroupTemplates(String name) {
+        if (null == name) {
+            return bundleGroupVersionRepository.findBundleGroupTemplates();
+        }
+        return bundleGroupVersionRepository.findBundleGroupTemplatesByName("%" + name + "%");
+    }
+}
@@ -0,0 +1,113 @@
+package com.entando.hub.catalog.service;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogEventsSequencedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Numbers the committed catalog events (see CatalogEventService), in the background right after
+ * every commit of this replica or change notified by the others, and every sequence-ms for the
+ * events whose numbering was missed. The commits during a run are coalesced into a single following
+ * one. Once some events are numbered a CatalogEventsSequencedEvent is published on this replica
+ * only: the other replicas get them at their next read of the feed.
+ */
+@Component
+public class CatalogEventSequencer {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogEventSequencer.class);
+
+    private final CatalogEventService catalogEventService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Executor executor;
+    private final AtomicBoolean sequencePending = new AtomicBoolean();
+
+    public CatalogEventSequencer(CatalogEventService catalogEventService, ApplicationEventPublisher applicationEventPublisher) {
+        this(catalogEventService, applicationEventPublisher, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-event-sequencer");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    CatalogEventSequencer(CatalogEventService catalogEventService, ApplicationEventPublisher applicationEventPublisher, Executor executor) {
+        this.catalogEventService = catalogEventService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.executor = executor;
+    }
+
+    /**
+     * The events committed while no replica was up are numbered too.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStart() {
+        scheduleSequence();
+    }
+
+    /**
+     * After the commit: a run starting from now on sees the event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        scheduleSequence();
+    }
+
+    // the events of the other replicas, committed too
+    @EventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.isRemote()) {
+            scheduleSequence();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog-events.sequence-ms:1000}")
+    public void sequenceMissed() {
+        scheduleSequence();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    void scheduleSequence() {
+        if (sequencePending.compareAndSet(false, true)) {
+            executor.execute(this::sequence);
+        }
+    }
+
+    void sequence() {
+        // cleared before numbering: an event committed from now on needs another run
+        sequencePending.set(false);
+        try {
+            List<CatalogEvent> events;
+            do {
+                events = catalogEventService.sequence(BATCH_SIZE);
+                if (!events.isEmpty()) {
+                    applicationEventPublisher.publishEvent(new CatalogEventsSequencedEvent(events.get(events.size() - 1).getCommitSeq()));
+                }
+            } while (events.size() == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // left to the next run
+            logger.warn("sequence: unable to number the catalog events: {}", e.getMessage());
+        }
+    }
+}
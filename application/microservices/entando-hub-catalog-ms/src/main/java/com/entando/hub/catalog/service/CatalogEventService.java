@@ -0,0 +1,137 @@
+package com.entando.hub.catalog.service;
+
+import com.entando.hub.catalog.config.datasource.ReadFromPrimary;
+import com.entando.hub.catalog.persistence.CatalogEventRepository;
+import com.entando.hub.catalog.persistence.CatalogEventSequenceRepository;
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.entity.CatalogEventSequence;
+import com.entando.hub.catalog.response.CatalogEventsResponseView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Change feed of the catalog. The events are recorded by the catalog services in the transaction of
+ * the change itself, so an event is visible if and only if its change was committed. Every recorded
+ * event is also published as an application event, for the listeners reacting after commit.
+ * The ids are taken at insert time: a transaction still running may commit an event with an id below
+ * one already committed. So the feed is not read in id order but in commit sequence number order,
+ * given to the committed events by sequence() under the lock of the single catalog_event_sequence
+ * row, held until the numbering transaction commits: the numbers become visible in increasing order,
+ * to every replica, whatever the duration of the write transactions or the clocks of the replicas.
+ * An event is settled once numbered, and a cursor moving forward through the settled events never
+ * skips one.
+ * Limits: an event joins the feed only once numbered, by CatalogEventSequencer, right after its
+ * commit, or at the next sequence-ms run when that one is missed (e.g. the replica stopped right
+ * after the commit); the numbering transactions of all the replicas take turns on the sequence row.
+ * The reads are done on the primary, which has the latest numbers.
+ */
+@Service
+public class CatalogEventService {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final CatalogEventRepository catalogEventRepository;
+    private final CatalogEventSequenceRepository catalogEventSequenceRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Logger logger = LoggerFactory.getLogger(CatalogEventService.class);
+    private final String CLASS_NAME = this.getClass().getSimpleName();
+
+    public CatalogEventService(CatalogEventRepository catalogEventRepository, CatalogEventSequenceRepository catalogEventSequenceRepository,
+                               ApplicationEventPublisher applicationEventPublisher) {
+        this.catalogEventRepository = catalogEventRepository;
+        this.catalogEventSequenceRepository = catalogEventSequenceRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CatalogEvent record(CatalogEvent.EntityType entityType, Long entityId, Long bundleGroupId, CatalogEvent.Action action) {
+        CatalogEvent event = new CatalogEvent()
+                .setEntityType(entityType)
+                .setEntityId(entityId)
+                .setBundleGroupId(bundleGroupId)
+                .setAction(action)
+                .setCreatedAt(LocalDateTime.now());
+        logger.debug("{}: record: {}", CLASS_NAME, event);
+        CatalogEvent saved = catalogEventRepository.save(event);
+        applicationEventPublisher.publishEvent(saved);
+        return saved;
+    }
+
+    /**
+     * Gives the next commit sequence numbers to the committed events without one, in id order, at
+     * most limit of them. The sequence row stays locked until the commit, so no other replica gives
+     * numbers meanwhile.
+     * @return the numbered events, empty when there was none to number
+     */
+    @Transactional
+    public List<CatalogEvent> sequence(int limit) {
+        if (!catalogEventRepository.existsByCommitSeqIsNull()) {
+            return Collections.emptyList();
+        }
+        CatalogEventSequence sequence = catalogEventSequenceRepository.findForUpdateById(CatalogEventSequence.ID)
+                .orElseThrow(() -> new IllegalStateException("catalog_event_sequence has no row"));
+        // read once the lock is held: the events numbered by the previous holder are not read again
+        List<CatalogEvent> events = catalogEventRepository.findByCommitSeqIsNullOrderByIdAsc(PageRequest.of(0, limit));
+        long commitSeq = sequence.getLastCommitSeq();
+        for (CatalogEvent event : events) {
+            event.setCommitSeq(++commitSeq);
+        }
+        sequence.setLastCommitSeq(commitSeq);
+        catalogEventRepository.saveAll(events);
+        catalogEventSequenceRepository.save(sequence);
+        logger.debug("{}: sequence: {} events numbered up to {}", CLASS_NAME, events.size(), commitSeq);
+        return events;
+    }
+
+    /**
+     * The events numbered after the since commit sequence number, oldest first, at most limit of
+     * them.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public CatalogEventsResponseView getEvents(Long since, Integer limit) {
+        if (null == since || since < 0) {
+            since = 0L;
+        }
+        if (null == limit || limit <= 0 || limit > MAX_LIMIT) {
+            logger.warn("An unexpected limit {} was provided. Setting maximum to {}.", limit, MAX_LIMIT);
+            limit = MAX_LIMIT;
+        }
+        Slice<CatalogEvent> slice = this.getSettledEvents(since, limit);
+        List<CatalogEvent> events = slice.getContent();
+        return new CatalogEventsResponseView()
+                .setEvents(events)
+                .setLastEventId(events.isEmpty() ? since : events.get(events.size() - 1).getCommitSeq())
+                .setMore(slice.hasNext());
+    }
+
+    /**
+     * The events numbered after the since commit sequence number, oldest first: no event can be
+     * numbered below them any more.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public Slice<CatalogEvent> getSettledEvents(long since, int limit) {
+        return catalogEventRepository.findByCommitSeqGreaterThanOrderByCommitSeqAsc(since, PageRequest.of(0, limit));
+    }
+
+    /**
+     * The last commit sequence number given: every event numbered up to it can be read.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public long getSettledLastEventId() {
+        return catalogEventRepository.findMaxCommitSeq();
+    }
+}
@@ -0,0 +1,333 @@
+package com.entando.hub.catalog.service;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.event.CatalogEventsSequencedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the catalog events to the clients connected through server-sent events.
+ * The events are read from the change feed, so the clients get the changes of every replica:
+ * polled every poll-ms, and right away once this replica has numbered new events.
+ * The id of every sent event is its commit sequence number (see CatalogEventService): a client
+ * reconnecting with it as Last-Event-ID gets the events numbered after it, none twice.
+ * Every subscriber has a bounded buffer, drained by a sender thread of its own while it has events
+ * to send: the sends block on the connection, so a stalled client holds up the thread it is on
+ * only, never the writers or the other subscribers' buffers. When its buffer is full, or a send has
+ * been blocked for longer than send-timeout-ms, it is disconnected, its sender thread interrupted,
+ * and it catches up on reconnection. The sender threads are a fixed pool of sender-threads, a
+ * subscriber uses at most one at a time and waits for a free one in a queue sized for
+ * max-subscribers; a subscriber whose turn can't be queued is disconnected as well.
+ * The stream is public: at most max-subscribers clients are connected at once, the next ones are
+ * refused until one leaves.
+ * Nothing is read from the event log while no client is connected.
+ * A client too far behind gets a reset event and should resync through the change feed.
+ */
+@Service
+public class CatalogEventStreamService {
+
+    static final String EVENT_NAME = "catalog-event";
+    static final String RESET_EVENT_NAME = "reset";
+    // events sent per turn of a subscriber on a sender thread, so that the busy ones take turns
+    private static final int SEND_BATCH = 16;
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogEventStreamService.class);
+
+    private final CatalogEventService catalogEventService;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int replayLimit;
+    private final int pollLimit;
+    private final long sendTimeoutMs;
+    private final int maxSubscribers;
+    private final Executor sender;
+    private final Executor poller;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+    // commit sequence number of the last event sent, negative until the first poll
+    private volatile long lastSent = -1;
+
+    public CatalogEventStreamService(CatalogEventService catalogEventService,
+                                     @Value("${app.catalog-events.stream.buffer-size:256}") int bufferSize,
+                                     @Value("${app.catalog-events.stream.timeout-ms:1800000}") long timeoutMs,
+                                     @Value("${app.catalog-events.stream.replay-limit:200}") int replayLimit,
+                                     @Value("${app.catalog-events.stream.send-timeout-ms:10000}") long sendTimeoutMs,
+                                     @Value("${app.catalog-events.stream.sender-threads:16}") int senderThreads,
+                                     @Value("${app.catalog-events.max-subscribers:1000}") int maxSubscribers) {
+        this(catalogEventService, bufferSize, timeoutMs, replayLimit, sendTimeoutMs, maxSubscribers,
+                newSender(senderThreads, maxSubscribers), Executors.newSingleThreadExecutor());
+    }
+
+    CatalogEventStreamService(CatalogEventService catalogEventService, int bufferSize, long timeoutMs, int replayLimit,
+                              long sendTimeoutMs, int maxSubscribers, Executor sender, Executor poller) {
+        this.catalogEventService = catalogEventService;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        // the replay has to fit in the buffer of the subscriber
+        this.replayLimit = Math.min(replayLimit, bufferSize);
+        this.pollLimit = bufferSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.sender = sender;
+        this.poller = poller;
+    }
+
+    // one queued turn per subscriber at most, so the queue only fills up past max-subscribers
+    private static ThreadPoolExecutor newSender(int threads, int maxSubscribers) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(maxSubscribers, 1)));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Opens a stream of the catalog events. With a lastEventId the events committed after it are
+     * sent first, then the live ones. Empty when max-subscribers clients are already connected.
+     */
+    public Optional<SseEmitter> subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize, null != lastEventId ? lastEventId : Math.max(lastSent, 0));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // registered before the replay is read, so that no event committed in between is missed
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxSubscribers) {
+                logger.debug("subscribe: {} subscribers already, refusing a new one", subscribers.size());
+                return Optional.empty();
+            }
+            subscribers.add(subscriber);
+        }
+        if (null != lastEventId) {
+            List<CatalogEvent> replay = catalogEventService.getSettledEvents(lastEventId, replayLimit + 1).getContent();
+            if (replay.size() > replayLimit) {
+                subscriber.endReplay(null, SseEmitter.event().name(RESET_EVENT_NAME).data(lastEventId));
+            } else {
+                subscriber.endReplay(replay, null);
+            }
+        } else {
+            subscriber.endReplay(null, null);
+        }
+        logger.debug("subscribe: {} subscribers, replay from {}", subscribers.size(), lastEventId);
+        return Optional.of(emitter);
+    }
+
+    // the events numbered by this replica, the ones of the other replicas come with the next poll
+    @EventListener
+    public void onCatalogEventsSequenced(CatalogEventsSequencedEvent event) {
+        this.requestPoll();
+    }
+
+    /**
+     * Sends the events numbered since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog-events.stream.poll-ms:1000}")
+    public synchronized void poll() {
+        if (subscribers.isEmpty()) {
+            // nobody to send to: the next subscriber starts from the events numbered by then
+            lastSent = -1;
+            return;
+        }
+        disconnectStalled();
+        long from = lastSent;
+        if (from < 0) {
+            from = catalogEventService.getSettledLastEventId();
+        }
+        Slice<CatalogEvent> events = catalogEventService.getSettledEvents(from, pollLimit);
+        events.forEach(event -> subscribers.forEach(subscriber -> subscriber.push(event)));
+        lastSent = events.hasContent() ? events.getContent().get(events.getNumberOfElements() - 1).getCommitSeq() : from;
+        if (events.hasNext()) {
+            this.requestPoll();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog-events.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        disconnectStalled();
+        subscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat")));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow();
+        }
+        if (poller instanceof ExecutorService) {
+            ((ExecutorService) poller).shutdownNow();
+        }
+    }
+
+    private void disconnectStalled() {
+        long now = System.currentTimeMillis();
+        subscribers.forEach(subscriber -> {
+            if (subscriber.isStalled(now)) {
+                logger.debug("disconnectStalled: subscriber blocked on a send for more than {} ms, disconnecting it", sendTimeoutMs);
+                subscriber.disconnect();
+            }
+        });
+    }
+
+    private void requestPoll() {
+        if (pollRequested.compareAndSet(false, true)) {
+            poller.execute(() -> {
+                pollRequested.set(false);
+                this.poll();
+            });
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // start of the send in progress, 0 when none
+        private volatile long sendingSince;
+        // the thread draining the buffer, null when none
+        private volatile Thread drainingThread;
+        // the client has got every event up to it
+        private final long resumeFrom;
+        // live events received while the replay was read, null once it has been sent
+        private List<CatalogEvent> pending = new ArrayList<>();
+
+        private Subscriber(SseEmitter emitter, int bufferSize, long resumeFrom) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+            this.resumeFrom = resumeFrom;
+        }
+
+        private SseEventBuilder toSseEvent(CatalogEvent event) {
+            return SseEmitter.event()
+                    .id(String.valueOf(event.getCommitSeq()))
+                    .name(EVENT_NAME)
+                    .data(event, MediaType.APPLICATION_JSON);
+        }
+
+        private synchronized void push(CatalogEvent event) {
+            if (event.getCommitSeq() <= resumeFrom) {
+                // a client resuming from a number this replica hasn't sent yet
+                return;
+            }
+            if (null != pending) {
+                pending.add(event);
+            } else {
+                offer(toSseEvent(event));
+            }
+        }
+
+        private synchronized void endReplay(List<CatalogEvent> replayed, SseEventBuilder reset) {
+            Set<Long> replayedIds = new HashSet<>();
+            if (null != reset) {
+                offer(reset);
+            }
+            if (null != replayed) {
+                replayed.forEach(event -> {
+                    replayedIds.add(event.getId());
+                    offer(toSseEvent(event));
+                });
+            }
+            List<CatalogEvent> live = pending;
+            pending = null;
+            live.stream().filter(event -> !replayedIds.contains(event.getId())).forEach(event -> offer(toSseEvent(event)));
+        }
+
+        private void offer(SseEventBuilder sseEvent) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(sseEvent)) {
+                logger.debug("offer: subscriber buffer full, disconnecting it");
+                disconnect();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                logger.debug("schedule: no room left for the subscriber on the sender threads, disconnecting it");
+                draining.set(false);
+                disconnect();
+            }
+        }
+
+        private boolean isStalled(long now) {
+            long since = sendingSince;
+            return since > 0 && now - since > sendTimeoutMs;
+        }
+
+        private void drain() {
+            drainingThread = Thread.currentThread();
+            try {
+                SseEventBuilder sseEvent;
+                for (int i = 0; i < SEND_BATCH && !closed && null != (sseEvent = buffer.poll()); i++) {
+                    sendingSince = System.currentTimeMillis();
+                    emitter.send(sseEvent);
+                    sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("drain: unable to send to the subscriber, disconnecting it: {}", e.getMessage());
+                disconnect();
+                return;
+            } finally {
+                sendingSince = 0;
+                drainingThread = null;
+                draining.set(false);
+            }
+            // the rest of the buffer, or an event offered after the last poll but before the flag was cleared
+            if (!closed && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        private void disconnect() {
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+            // completing the emitter doesn't unblock a send in progress, the interrupt does for most
+            // containers; otherwise the thread is released by the write timeout of the container
+            Thread thread = drainingThread;
+            if (null != thread && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+            emitter.complete();
+        }
+    }
+}
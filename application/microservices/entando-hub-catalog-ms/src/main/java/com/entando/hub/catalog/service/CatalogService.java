@@ -5,11 +5,13 @@ import com.entando.hub.catalog.persistence.entity.Catalog;
 import com.entando.hub.catalog.persistence.entity.Organisation;
 import com.entando.hub.catalog.service.exception.ConflictException;
 import com.entando.hub.catalog.service.exception.NotFoundException;
+import com.entando.hub.catalog.service.security.CatalogAccessCache;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class CatalogService {
@@ -17,11 +19,15 @@ public class CatalogService {
     private final String CLASS_NAME = this.getClass().getSimpleName();
     private final CatalogRepository catalogRepository;
     private final OrganisationService organisationService;
+    private final CatalogAccessCache catalogAccessCache;
 
-    public CatalogService(CatalogRepository catalogRepository, OrganisationService organisationService) {
+    public CatalogService(CatalogRepository catalogRepository, OrganisationService organisationService, CatalogAccessCache catalogAccessCache) {
         this.catalogRepository = catalogRepository;
         this.organisationService = organisationService;
+        this.catalogAccessCache = catalogAccessCache;
     }
+
+    @Transactional(readOnly = true)
     public List<Catalog> getCatalogs(String username, boolean userIsAdmin) {
         if (userIsAdmin) {
             return catalogRepository.findAll();
@@ -31,6 +37,7 @@ public class CatalogService {
     }
 
 
+    @Transactional(readOnly = true)
     public Catalog getCatalogById(String username, Long id, boolean userIsAdmin) {
         Optional<Catalog> catalog;
         if (userIsAdmin) {
@@ -57,7 +64,9 @@ public class CatalogService {
             Catalog entity = new Catalog()
                     .setOrganisation(organisation.get())
                     .setName(organisation.get().getName() + " private catalog");
-            return catalogRepository.save(entity);
+            Catalog saved = catalogRepository.save(entity);
+            catalogAccessCache.evictCatalog(saved.getId());
+            return saved;
 
         } else {
             throw new NotFoundException("Organisation not found");
@@ -70,6 +79,7 @@ public class CatalogService {
         if (catalog.isPresent()) {
             logger.debug("{} deleting catalog: {}", CLASS_NAME, catalogId);
             catalogRepository.deleteById(catalogId);
+            catalogAccessCache.evictCatalog(catalogId);
             return catalog.get();
         } else {
             logger.debug("{} catalog {} not found, delete failed", CLASS_NAME, catalogId);
@@ -77,6 +87,7 @@ public class CatalogService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Boolean existCatalogById(Long catalogId) {
         return this.catalogRepository.existsById(catalogId);
     }
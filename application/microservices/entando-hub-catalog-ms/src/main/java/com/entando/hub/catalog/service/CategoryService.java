@@ -2,7 +2,9 @@ package com.entando.hub.catalog.service;
 
 import com.entando.hub.catalog.persistence.CategoryRepository;
 import com.entando.hub.catalog.persistence.entity.Category;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,16 +18,23 @@ public class CategoryService {
 
     }
 
+    @Transactional(readOnly = true)
     public List<Category> getCategories() {
-        return categoryRepository.findAll();
+        List<Category> categories = categoryRepository.findAll();
+        categories.forEach(category -> Hibernate.initialize(category.getBundleGroups()));
+        return categories;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Category> getCategory(String categoryId) {
         return categoryRepository.findById(Long.parseLong(categoryId));
     }
 
+    @Transactional
     public Category createCategory(Category toSave) {
-        return categoryRepository.save(toSave);
+        Category saved = categoryRepository.save(toSave);
+        Hibernate.initialize(saved.getBundleGroups());
+        return saved;
     }
 
     public void deleteCategory(String categoryId) {
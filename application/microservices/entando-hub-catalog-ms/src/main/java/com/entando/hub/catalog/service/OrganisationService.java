@@ -6,12 +6,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.entando.hub.catalog.persistence.BundleGroupRepository;
 import com.entando.hub.catalog.persistence.OrganisationRepository;
@@ -57,10 +57,14 @@ public class OrganisationService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Organisation> getOrganisations() {
-        return organisationRepository.findAll(Sort.by(Sort.Order.asc("name")));
+        List<Organisation> organisations = organisationRepository.findAll(Sort.by(Sort.Order.asc("name")));
+        organisations.forEach(organisation -> Hibernate.initialize(organisation.getBundleGroups()));
+        return organisations;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Organisation> getOrganisation(Long organisationId) {
         return organisationRepository.findById(organisationId);
     }
@@ -71,6 +75,7 @@ public class OrganisationService {
     	logger.debug("create organisation entity");
         Organisation entity = organisationRepository.save(organisationEntity);
         updateMappedBy(entity, organisation);
+        Hibernate.initialize(entity.getBundleGroups());
         return entity;
     }
 
@@ -78,6 +83,7 @@ public class OrganisationService {
         organisationRepository.deleteById(organisationId);
     }
 
+    @Transactional(readOnly = true)
     public Boolean existsById(Long organisationId){
         return organisationRepository.existsById(organisationId);
     }
@@ -6,13 +6,19 @@ import com.entando.hub.catalog.persistence.entity.Organisation;
 import com.entando.hub.catalog.persistence.entity.PortalUser;
 import com.entando.hub.catalog.rest.model.OrganisationResponseView;
 import com.entando.hub.catalog.rest.model.PortalUserResponseView;
+import com.entando.hub.catalog.service.cache.CacheInvalidationChannel;
 import com.entando.hub.catalog.service.model.UserRepresentation;
+import com.entando.hub.catalog.service.security.CatalogAccessCache;
+import com.entando.hub.catalog.service.security.PrincipalContextService;
 import com.entando.hub.catalog.service.security.SecurityHelperService;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -37,7 +43,51 @@ public class PortalUserService {
     @Autowired
     private SecurityHelperService securityHelperService;
 
+    @Autowired
+    private PrincipalContextService principalContextService;
+
+    @Autowired
+    private CatalogAccessCache catalogAccessCache;
+
+    @Autowired
+    private CacheInvalidationChannel cacheInvalidationChannel;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * The users are read in a short read-only transaction, keycloak is called once it is over: no
+     * database connection is held during the http calls.
+     */
     public List<UserRepresentation> getUsersByOrganisation(String orgId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        List<UserEntry> entries = transactionTemplate.execute(status -> loadUsers(orgId));
+        if (null == entries) {
+            return null;
+        }
+
+        // profiles are kept up to date by PortalUserSyncService, keycloak is only called for users not synced yet
+        List<UserRepresentation> result = new ArrayList<>();
+        for (UserEntry entry : entries) {
+            UserRepresentation userRepresentation = entry.userRepresentation;
+            if (null == userRepresentation) {
+                userRepresentation = this.keycloakService.getUser(entry.username);
+                if (null == userRepresentation) {
+                    continue;
+                }
+            }
+            userRepresentation.setOrganisationIds(entry.organisationIds);
+            result.add(userRepresentation);
+        }
+        return result;
+    }
+
+    /**
+     * The users of the organisation, or all of them, with their synced profile when there is one;
+     * null when the organisation doesn't exist.
+     */
+    private List<UserEntry> loadUsers(String orgId) {
         Collection<PortalUser> users;
         if (orgId != null) {
             Long orgIdLong = Long.valueOf(orgId);
@@ -53,19 +103,23 @@ public class PortalUserService {
         } else {
             users = this.portalUserRepository.findAll();
         }
-
-        //TODO maybe this could be improved by caching
-        return users.stream()
-                .filter(u -> null != this.keycloakService.getUser(u.getUsername()))
-                .map(u -> {
-                    UserRepresentation userRepresentation = this.keycloakService.getUser(u.getUsername());
-                    userRepresentation.setOrganisationIds(u.getOrganisations().stream().map(Organisation::getId).collect(Collectors.toSet()));
-                    return userRepresentation;
-                })
-                .collect(Collectors.toList());
+        List<UserEntry> entries = new ArrayList<>();
+        for (PortalUser u : users) {
+            UserRepresentation userRepresentation = null;
+            if (null != u.getProfileSyncedAt()) {
+                if (null == u.getKeycloakId()) {
+                    continue;
+                }
+                userRepresentation = PortalUserSyncService.toUserRepresentation(u);
+            }
+            entries.add(new UserEntry(u.getUsername(), userRepresentation,
+                    u.getOrganisations().stream().map(Organisation::getId).collect(Collectors.toSet())));
+        }
+        return entries;
     }
 
 
+    @Transactional
     public boolean addUserToOrganization(String username, String orgId) {
         Long orgIdLong = Long.valueOf(orgId);
         Optional<Organisation> org = this.organisationRepository.findById(orgIdLong);
@@ -83,7 +137,7 @@ public class PortalUserService {
             portalUser = new PortalUser();
             portalUser.setUsername(username);
         }
-        portalUser.setEmail(user.getEmail());
+        PortalUserSyncService.applyProfile(portalUser, user);
         long isPresent = portalUser.getOrganisations().stream().filter(p -> p.getId().equals(orgIdLong)).count();
         if (isPresent == 0) {
             portalUser.getOrganisations().add(org.get());
@@ -91,9 +145,12 @@ public class PortalUserService {
             return false;
         }
         this.portalUserRepository.save(portalUser);
+        this.catalogAccessCache.evictUser(username);
+        this.cacheInvalidationChannel.onUserChange(username);
         return true;
     }
 
+    @Transactional
     public boolean removeUserFromOrganization(String username, String orgId) {
         Long orgIdLong = Long.valueOf(orgId);
         Optional<Organisation> org = this.organisationRepository.findById(orgIdLong);
@@ -116,6 +173,8 @@ public class PortalUserService {
 			/** Delete the user if it is not associated with any organization */
 			this.portalUserRepository.deleteById(portalUser.getId());
         }
+        this.catalogAccessCache.evictUser(username);
+        this.cacheInvalidationChannel.onUserChange(username);
 
         return true;
     }
@@ -124,6 +183,8 @@ public class PortalUserService {
         PortalUser portalUser = this.portalUserRepository.findByUsername(username);
         if(portalUser==null) return false;
         this.portalUserRepository.delete(portalUser);
+        this.catalogAccessCache.evictUser(username);
+        this.cacheInvalidationChannel.onUserChange(username);
         return true;
     }
 
@@ -132,6 +193,7 @@ public class PortalUserService {
      * @param username
      * @return a response view with portal user details.
      */
+	@Transactional(readOnly = true)
 	public PortalUserResponseView getUserByUsername(String username) {
 		PortalUser portalUser = null;
 		PortalUserResponseView portalUserResponseView = null;
@@ -186,11 +248,20 @@ public class PortalUserService {
 
     public Set<Organisation> getUserOrganizations() {
         String username = securityHelperService.getContextAuthenticationUsername();
-        PortalUser user = portalUserRepository.findByUsername(username);
-        if (null == user) {
-            logger.warn("user '{}' does not exist", username);
-            return Collections.emptySet();
+        // memoised for the current request, shared with the security checks
+        return principalContextService.getPrincipalContext(username).getOrganisations();
+    }
+
+    private static final class UserEntry {
+        private final String username;
+        // null when the profile is not synced yet
+        private final UserRepresentation userRepresentation;
+        private final Set<Long> organisationIds;
+
+        private UserEntry(String username, UserRepresentation userRepresentation, Set<Long> organisationIds) {
+            this.username = username;
+            this.userRepresentation = userRepresentation;
+            this.organisationIds = organisationIds;
         }
-        return user.getOrganisations();
     }
 }
@@ -0,0 +1,167 @@
+package com.entando.hub.catalog.service;
+
+import com.entando.hub.catalog.persistence.PortalUserRepository;
+import com.entando.hub.catalog.persistence.entity.PortalUser;
+import com.entando.hub.catalog.service.exception.OidcException;
+import com.entando.hub.catalog.service.model.UserRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the Keycloak profile fields stored on PortalUser up to date, so that user listings
+ * can be answered from the database instead of calling Keycloak once per user.
+ * Users never synced come first, then the ones with the oldest profile; each run handles at
+ * most one batch and waits between two Keycloak calls.
+ * A user Keycloak fails to answer for is skipped and retried after stale-after-minutes, without
+ * being marked as synced: until then the listings keep loading it from Keycloak, or serve the
+ * profile synced before. The batch is only stopped when Keycloak itself is unreachable or
+ * refuses our credentials.
+ */
+@Service
+public class PortalUserSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PortalUserSyncService.class);
+
+    private final KeycloakService keycloakService;
+    private final PortalUserRepository portalUserRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long callIntervalMs;
+    private final long staleAfterMinutes;
+
+    public PortalUserSyncService(KeycloakService keycloakService, PortalUserRepository portalUserRepository,
+                                 @Value("${app.user-sync.enabled:true}") boolean enabled,
+                                 @Value("${app.user-sync.batch-size:50}") int batchSize,
+                                 @Value("${app.user-sync.call-interval-ms:200}") long callIntervalMs,
+                                 @Value("${app.user-sync.stale-after-minutes:60}") long staleAfterMinutes) {
+        this.keycloakService = keycloakService;
+        this.portalUserRepository = portalUserRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.callIntervalMs = callIntervalMs;
+        this.staleAfterMinutes = staleAfterMinutes;
+    }
+
+    @Scheduled(initialDelayString = "${app.user-sync.initial-delay-ms:60000}", fixedDelayString = "${app.user-sync.fixed-delay-ms:300000}")
+    public void scheduledSync() {
+        if (!enabled) {
+            return;
+        }
+        int synced = syncBatch();
+        logger.debug("scheduledSync: {} portal users synced from keycloak", synced);
+    }
+
+    /**
+     * Syncs the next batch of portal users.
+     * @return the number of users whose profile has been refreshed
+     */
+    public int syncBatch() {
+        // a failed user is retried when a synced one would be refreshed
+        LocalDateTime staleLimit = LocalDateTime.now().minusMinutes(staleAfterMinutes);
+        List<PortalUser> batch = new ArrayList<>(portalUserRepository.findNeverSynced(staleLimit, PageRequest.of(0, batchSize)));
+        if (batch.size() < batchSize) {
+            batch.addAll(portalUserRepository.findSyncedBefore(staleLimit, staleLimit, PageRequest.of(0, batchSize - batch.size())));
+        }
+        int synced = 0;
+        int skipped = 0;
+        for (PortalUser portalUser : batch) {
+            if (synced + skipped > 0 && !pause()) {
+                break;
+            }
+            UserRepresentation user;
+            try {
+                user = keycloakService.getUser(portalUser.getUsername());
+            } catch (RuntimeException e) {
+                if (isKeycloakUnavailable(e)) {
+                    // the next users would fail the same way: stop here, the next run starts over
+                    logger.warn("syncBatch: keycloak is unavailable, stopping the batch at user '{}': {}", portalUser.getUsername(), e.getMessage());
+                    break;
+                }
+                // only the failure is recorded, so that it doesn't hold up the next batches: the user is not synced
+                logger.warn("syncBatch: unable to load user '{}' from keycloak, skipping it: {}", portalUser.getUsername(), e.getMessage());
+                portalUserRepository.save(portalUser.setProfileSyncFailedAt(LocalDateTime.now()));
+                skipped++;
+                continue;
+            }
+            applyProfile(portalUser, user);
+            portalUserRepository.save(portalUser);
+            synced++;
+        }
+        if (skipped > 0) {
+            logger.info("syncBatch: {} portal users skipped, retried in {} minutes", skipped, staleAfterMinutes);
+        }
+        return synced;
+    }
+
+    /**
+     * Connection errors, server errors and authentication failures (wrapped by KeycloakService) concern
+     * every user; any other error is about the user being loaded.
+     */
+    static boolean isKeycloakUnavailable(RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e.getCause() instanceof OidcException
+                || e.getCause() instanceof HttpClientErrorException;
+    }
+
+    private boolean pause() {
+        if (callIntervalMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(callIntervalMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Copies the Keycloak profile on the portal user and marks it as synced now.
+     * A null user (removed from Keycloak) clears the Keycloak id, so that listings skip it.
+     */
+    public static PortalUser applyProfile(PortalUser portalUser, UserRepresentation user) {
+        if (null != user) {
+            portalUser.setKeycloakId(user.getId())
+                    .setEmail(user.getEmail())
+                    .setFirstName(user.getFirstName())
+                    .setLastName(user.getLastName())
+                    .setEnabled(user.isEnabled())
+                    .setKeycloakCreatedTimestamp(user.getCreatedTimestamp());
+        } else {
+            portalUser.setKeycloakId(null);
+        }
+        return portalUser.setProfileSyncedAt(LocalDateTime.now())
+                .setProfileSyncFailedAt(null);
+    }
+
+    /**
+     * Builds the user representation from the locally stored profile.
+     */
+    public static UserRepresentation toUserRepresentation(PortalUser portalUser) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(portalUser.getKeycloakId());
+        user.setUsername(portalUser.getUsername());
+        user.setEmail(portalUser.getEmail());
+        user.setFirstName(portalUser.getFirstName());
+        user.setLastName(portalUser.getLastName());
+        user.setEnabled(Boolean.TRUE.equals(portalUser.getEnabled()));
+        if (null != portalUser.getKeycloakCreatedTimestamp()) {
+            user.setCreatedTimestamp(portalUser.getKeycloakCreatedTimestamp());
+        }
+        user.setProfileSyncedAt(portalUser.getProfileSyncedAt());
+        return user;
+    }
+}
@@ -0,0 +1,254 @@
+package com.entando.hub.catalog.service.cache;
+
+import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.persistence.entity.BundleGroup;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.entity.Catalog;
+import com.entando.hub.catalog.persistence.entity.Category;
+import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import com.entando.hub.catalog.service.security.CatalogAccessCache;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Keeps the in-process caches of the replicas coherent through Postgres LISTEN/NOTIFY.
+ * Every catalog change, and every membership change of a user, is notified on the catalog_cache
+ * channel once the transaction of the change has committed, by the CacheInvalidationNotifier on its
+ * own connection: a notification failing within the transaction would abort it. A notification lost
+ * in between, on a crash, leaves the other replicas to the expiry of their caches.
+ * Every replica listens on a dedicated connection and, for the changes of the other replicas,
+ * evicts the second-level cache and the access decisions and republishes the change as a remote
+ * CatalogChangeEvent for the indexes, the listing view included.
+ * When the connection is lost the caches fall back to their expiry (TTL-only); once reconnected
+ * everything is evicted and a CatalogResyncEvent rebuilds the indexes, covering the missed changes.
+ * Disabled unless the datasource is a Postgres one.
+ */
+@Component
+public class CacheInvalidationChannel {
+
+    static final String CHANNEL = "catalog_cache";
+    static final String PORTAL_USER = "PORTAL_USER";
+    private static final String SEPARATOR = ";";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationChannel.class);
+
+    private final CacheInvalidationNotifier notifier;
+    private final DataSourceProperties dataSourceProperties;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CatalogAccessCache catalogAccessCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final boolean enabled;
+    private final int pollMs;
+    private final long reconnectDelayMs;
+
+    // tells our own notifications apart, they come back to the listening connection too
+    private final String origin = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread listener;
+
+    public CacheInvalidationChannel(CacheInvalidationNotifier notifier, DataSourceProperties dataSourceProperties,
+                                    EntityManagerFactory entityManagerFactory, CatalogAccessCache catalogAccessCache,
+                                    ApplicationEventPublisher applicationEventPublisher,
+                                    @Value("${app.cache-sync.enabled:true}") boolean enabled,
+                                    @Value("${app.cache-sync.poll-ms:10000}") int pollMs,
+                                    @Value("${app.cache-sync.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        this.notifier = notifier;
+        this.dataSourceProperties = dataSourceProperties;
+        this.entityManagerFactory = entityManagerFactory;
+        this.catalogAccessCache = catalogAccessCache;
+        this.applicationEventPublisher = applicationEventPublisher;
+        String url = dataSourceProperties.getUrl();
+        this.enabled = enabled && null != url && url.startsWith("jdbc:postgresql:");
+        this.pollMs = pollMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (null != listener) {
+            listener.interrupt();
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Runs synchronously, in the flush of the change, so that the notification waits for its commit.
+     */
+    @EventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (!event.isRemote()) {
+            notifyChange(event.getEntityType().name(), event.getAction().name(), String.valueOf(event.getEntityId()));
+        }
+    }
+
+    /**
+     * The organisations of the user changed: the other replicas must forget its access decisions.
+     */
+    public void onUserChange(String username) {
+        notifyChange(PORTAL_USER, CatalogChangeEvent.Action.UPDATED.name(), username);
+    }
+
+    /**
+     * Applies a notification received on the channel, ignoring the ones sent by this replica.
+     */
+    public void onNotification(String payload) {
+        String[] parts = payload.split(SEPARATOR, 4);
+        if (parts.length != 4 || origin.equals(parts[0])) {
+            return;
+        }
+        try {
+            if (PORTAL_USER.equals(parts[1])) {
+                catalogAccessCache.evictUser(parts[3]);
+                return;
+            }
+            CatalogChangeEvent.EntityType entityType = CatalogChangeEvent.EntityType.valueOf(parts[1]);
+            CatalogChangeEvent.Action action = CatalogChangeEvent.Action.valueOf(parts[2]);
+            Long entityId = Long.valueOf(parts[3]);
+            evict(entityType, entityId);
+            applicationEventPublisher.publishEvent(new CatalogChangeEvent(entityType, entityId, action, true));
+        } catch (IllegalArgumentException e) {
+            logger.warn("onNotification: ignoring the unexpected payload '{}'", payload);
+        }
+    }
+
+    /**
+     * Forgets everything that may have missed a change of the other replicas.
+     */
+    public void resync() {
+        hibernateCache().evictAllRegions();
+        catalogAccessCache.evictAll();
+        applicationEventPublisher.publishEvent(new CatalogResyncEvent());
+    }
+
+    private void notifyChange(String entityType, String action, String key) {
+        if (!enabled) {
+            return;
+        }
+        String payload = String.join(SEPARATOR, origin, entityType, action, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifier.send(CHANNEL, payload);
+                }
+            });
+        } else {
+            notifier.send(CHANNEL, payload);
+        }
+    }
+
+    private void evict(CatalogChangeEvent.EntityType entityType, Long entityId) {
+        Cache cache = hibernateCache();
+        cache.evictEntityData(entityClass(entityType), entityId);
+        // the update timestamps only track the local changes: the cached query results may be stale
+        cache.evictQueryRegions();
+        if (CatalogChangeEvent.EntityType.CATALOG.equals(entityType)) {
+            catalogAccessCache.evictCatalog(entityId);
+        } else if (CatalogChangeEvent.EntityType.ORGANISATION.equals(entityType)) {
+            catalogAccessCache.evictAll();
+        }
+    }
+
+    private Cache hibernateCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    private void listen() {
+        boolean lost = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                if (lost) {
+                    logger.info("listen: cache invalidation channel back, resyncing the caches");
+                    resync();
+                    lost = false;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (null != notifications) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (connected) {
+                    logger.warn("listen: cache invalidation channel lost, caches are TTL-only until it is back: {}", e.getMessage());
+                }
+                connected = false;
+                lost = true;
+                pause();
+            }
+        }
+        connected = false;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static Class<?> entityClass(CatalogChangeEvent.EntityType entityType) {
+        switch (entityType) {
+            case BUNDLE:
+                return Bundle.class;
+            case BUNDLE_GROUP:
+                return BundleGroup.class;
+            case BUNDLE_GROUP_VERSION:
+                return BundleGroupVersion.class;
+            case CATEGORY:
+                return Category.class;
+            case ORGANISATION:
+                return Organisation.class;
+            default:
+                return Catalog.class;
+        }
+    }
+}
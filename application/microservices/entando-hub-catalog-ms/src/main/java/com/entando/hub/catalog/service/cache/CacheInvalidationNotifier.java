@@ -0,0 +1,82 @@
+package com.entando.hub.catalog.service.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sends the notifications of the cache invalidation channel on a dedicated auto-commit connection,
+ * out of the pool and of any transaction: a failed pg_notify would otherwise abort the transaction
+ * it runs in, even with the error caught. The notifications are sent in order by a single thread;
+ * the connection is opened on the first one and again after a failure.
+ */
+@Component
+public class CacheInvalidationNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationNotifier.class);
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // only used on the notifier thread
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    public CacheInvalidationNotifier(DataSourceProperties dataSourceProperties) {
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    /**
+     * Queues the payload to be notified on the channel.
+     */
+    public void send(String channel, String payload) {
+        try {
+            executor.execute(() -> notify(channel, payload));
+        } catch (RejectedExecutionException e) {
+            logger.warn("send: notifier stopped, unable to notify '{}'", payload);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // after the notifications already queued
+        executor.execute(this::close);
+        executor.shutdown();
+    }
+
+    private void notify(String channel, String payload) {
+        try {
+            if (null == jdbcTemplate) {
+                dataSource = new SingleConnectionDataSource(dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(), true);
+                dataSource.setAutoCommit(true);
+                jdbcTemplate = new JdbcTemplate(dataSource);
+            }
+            jdbcTemplate.queryForList("select pg_notify(?, ?)", channel, payload);
+        } catch (RuntimeException e) {
+            // the other replicas will see the change when their caches expire
+            logger.warn("notify: unable to notify '{}': {}", payload, e.getMessage());
+            close();
+        }
+    }
+
+    private void close() {
+        if (null != dataSource) {
+            dataSource.destroy();
+        }
+        dataSource = null;
+        jdbcTemplate = null;
+    }
+}
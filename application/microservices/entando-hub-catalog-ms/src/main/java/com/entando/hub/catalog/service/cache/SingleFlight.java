@@ -0,0 +1,75 @@
+package com.entando.hub.catalog.service.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent calls: the first call with a key runs, the ones arriving while it
+ * is in flight wait for it and get the same result, or the same exception. Nothing is kept once
+ * the call is over, so a result is never older than the call it comes from; keys should include
+ * the CatalogRevision, so that a call started after a change doesn't join one started before it.
+ * The results are shared between threads: they must not be modified by the callers, nor be entities
+ * of the persistence context of the thread that ran the call. Coalesce the views mapped from them.
+ */
+public class SingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String name;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> call) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = calls.putIfAbsent(key, flight);
+        if (null != inFlight) {
+            shared.increment();
+            logger.debug("execute: {} joining the call in flight for {}", name, key);
+            return (T) await(inFlight);
+        }
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, flight);
+        }
+    }
+
+    /**
+     * Number of calls that got the result of another one.
+     */
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    private static Object await(CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.entando.hub.catalog.service.index;
+
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogListingRefreshEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the bundle_group_version_listing materialized view up to date: refreshed concurrently, so
+ * the listings keep reading the previous rows meanwhile, in the background after every change
+ * committed by this replica or notified by the others. The changes committed during a refresh are
+ * coalesced into a single following one. Once refreshed, a CatalogListingRefreshEvent is published
+ * on this replica only: every replica refreshes the view after the changes it sees, its own and
+ * the ones notified by the others, so broadcasting the refreshes would only multiply them.
+ * The view is known to be fresh when this replica has refreshed it after the last change it has
+ * seen: every change bumps a revision, and a refresh records the revision read before it started.
+ * A replica doesn't rely on the refreshes of the others, which may have started before a change
+ * it has already seen.
+ * Disabled unless the datasource is a Postgres one: elsewhere the listing is a plain view, always
+ * fresh. With app.listing.refresh-enabled off the view is never read.
+ */
+@Component
+public class BundleGroupVersionListingRefresher {
+
+    static final String REFRESH = "REFRESH MATERIALIZED VIEW CONCURRENTLY bundle_group_version_listing";
+
+    private static final Logger logger = LoggerFactory.getLogger(BundleGroupVersionListingRefresher.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final boolean refreshEnabled;
+    private final boolean enabled;
+    private final ExecutorService executor;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    // bumped by every change seen, the view holds all of them up to refreshedRevision
+    private final AtomicLong revision = new AtomicLong();
+    private volatile long refreshedRevision = -1;
+
+    public BundleGroupVersionListingRefresher(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                              ApplicationEventPublisher applicationEventPublisher,
+                                              @Value("${app.listing.refresh-enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+        String url = dataSourceProperties.getUrl();
+        this.refreshEnabled = enabled;
+        this.enabled = enabled && null != url && url.startsWith("jdbc:postgresql:");
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "listing-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The changes made while this replica was down are refreshed too.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStart() {
+        scheduleRefresh();
+    }
+
+    /**
+     * After the commit: a refresh starting from now on sees the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        revision.incrementAndGet();
+        scheduleRefresh();
+    }
+
+    /**
+     * The changes of the other replicas may have been missed.
+     */
+    @EventListener(CatalogResyncEvent.class)
+    public void onCatalogResync() {
+        revision.incrementAndGet();
+        scheduleRefresh();
+    }
+
+    /**
+     * Whether the listings may be read from the view: it holds every change seen by this replica.
+     */
+    public boolean isFresh() {
+        if (!refreshEnabled) {
+            return false;
+        }
+        return !enabled || refreshedRevision == revision.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void scheduleRefresh() {
+        if (enabled && refreshPending.compareAndSet(false, true)) {
+            executor.execute(this::refresh);
+        }
+    }
+
+    void refresh() {
+        // cleared before refreshing: a change committed from now on needs another refresh
+        refreshPending.set(false);
+        long refreshing = revision.get();
+        try {
+            jdbcTemplate.execute(REFRESH);
+        } catch (RuntimeException e) {
+            // the view keeps the previous rows, not read until the next change refreshes it
+            logger.warn("refresh: unable to refresh the bundle group version listing: {}", e.getMessage());
+            return;
+        }
+        refreshedRevision = refreshing;
+        applicationEventPublisher.publishEvent(new CatalogListingRefreshEvent());
+    }
+}
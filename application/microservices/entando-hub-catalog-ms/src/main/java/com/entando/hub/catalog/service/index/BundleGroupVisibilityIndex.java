@@ -0,0 +1,224 @@
+package com.entando.hub.catalog.service.index;
+
+import com.entando.hub.catalog.config.datasource.ReadFromPrimary;
+import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVisibility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory visibility index of the bundle groups: one bitmap of bundle group ids per organisation,
+ * one per private catalog and one for the public catalog.
+ * Built at startup and then kept up to date from the CatalogChangeEvents of the bundle groups, so
+ * that visibility filtering is a bitmap union/intersection instead of a query per organisation, and
+ * the private catalog checks of BundleGroupValidator don't load the bundle group.
+ * Callers must check isReady() and fall back to the database while the index is not built or
+ * doesn't know the bundle group yet.
+ */
+@Component
+public class BundleGroupVisibilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BundleGroupVisibilityIndex.class);
+
+    private final BundleGroupRepository bundleGroupRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, BitSet> byOrganisation = new HashMap<>();
+    private final Map<Long, BitSet> byCatalog = new HashMap<>();
+    private final BitSet publicGroups = new BitSet();
+    // last known placement of every indexed bundle group, to unset its bits on change
+    private final Map<Long, Placement> placements = new HashMap<>();
+    private final IndexChangeQueue changes = new IndexChangeQueue(this::apply);
+
+    public BundleGroupVisibilityIndex(BundleGroupRepository bundleGroupRepository) {
+        this.bundleGroupRepository = bundleGroupRepository;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogResyncEvent.class})
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        changes.rebuild(() -> {
+            List<BundleGroupVisibility> visibilities = bundleGroupRepository.findAllVisibilities();
+            lock.writeLock().lock();
+            try {
+                byOrganisation.clear();
+                byCatalog.clear();
+                publicGroups.clear();
+                placements.clear();
+                visibilities.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("rebuild: {} bundle groups indexed", visibilities.size());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @ReadFromPrimary
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getEntityType() == CatalogChangeEvent.EntityType.BUNDLE_GROUP) {
+            changes.onChange(event);
+        }
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        Optional<BundleGroupVisibility> visibility = CatalogChangeEvent.Action.DELETED.equals(event.getAction())
+                ? Optional.empty()
+                : bundleGroupRepository.findVisibilityById(event.getEntityId());
+        lock.writeLock().lock();
+        try {
+            remove(event.getEntityId());
+            visibility.ifPresent(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return changes.isReady();
+    }
+
+    /**
+     * Bundle groups owned by at least one of the organisations.
+     */
+    public BitSet ownedBy(Collection<Long> organisationIds) {
+        BitSet result = new BitSet();
+        lock.readLock().lock();
+        try {
+            organisationIds.forEach(organisationId -> {
+                BitSet bitSet = byOrganisation.get(organisationId);
+                if (null != bitSet) {
+                    result.or(bitSet);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Bundle groups a member of the organisations can see: the public ones plus the ones they own,
+     * as BundleGroupVisibility.isVisibleTo.
+     */
+    public BitSet visibleTo(Collection<Long> organisationIds) {
+        BitSet result = ownedBy(organisationIds);
+        lock.readLock().lock();
+        try {
+            result.or(publicGroups);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public BitSet inCatalog(Long catalogId) {
+        lock.readLock().lock();
+        try {
+            BitSet bitSet = byCatalog.get(catalogId);
+            return null != bitSet ? (BitSet) bitSet.clone() : new BitSet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isVisibleTo(Long bundleGroupId, Collection<Long> organisationIds) {
+        return visibleTo(organisationIds).get(toBit(bundleGroupId));
+    }
+
+    public boolean isInCatalog(Long bundleGroupId, Long catalogId) {
+        return inCatalog(catalogId).get(toBit(bundleGroupId));
+    }
+
+    public boolean contains(Long bundleGroupId) {
+        lock.readLock().lock();
+        try {
+            return placements.containsKey(bundleGroupId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<Long> toIds(BitSet bitSet) {
+        List<Long> ids = new ArrayList<>(bitSet.cardinality());
+        bitSet.stream().forEach(bit -> ids.add((long) bit));
+        return ids;
+    }
+
+    private void put(BundleGroupVisibility visibility) {
+        Placement placement = new Placement(visibility.getOrganisationId(), visibility.getCatalogId(),
+                visibility.isPublic());
+        int bit = toBit(visibility.getId());
+        if (null != placement.organisationId) {
+            byOrganisation.computeIfAbsent(placement.organisationId, id -> new BitSet()).set(bit);
+        }
+        if (null != placement.catalogId) {
+            byCatalog.computeIfAbsent(placement.catalogId, id -> new BitSet()).set(bit);
+        }
+        if (placement.publicCatalog) {
+            publicGroups.set(bit);
+        }
+        placements.put(visibility.getId(), placement);
+    }
+
+    private void remove(Long bundleGroupId) {
+        Placement placement = placements.remove(bundleGroupId);
+        if (null == placement) {
+            return;
+        }
+        int bit = toBit(bundleGroupId);
+        if (null != placement.organisationId) {
+            clear(byOrganisation, placement.organisationId, bit);
+        }
+        if (null != placement.catalogId) {
+            clear(byCatalog, placement.catalogId, bit);
+        }
+        publicGroups.clear(bit);
+    }
+
+    private static void clear(Map<Long, BitSet> bitSets, Long key, int bit) {
+        BitSet bitSet = bitSets.get(key);
+        if (null != bitSet) {
+            bitSet.clear(bit);
+            if (bitSet.isEmpty()) {
+                bitSets.remove(key);
+            }
+        }
+    }
+
+    private static int toBit(Long bundleGroupId) {
+        return Math.toIntExact(bundleGroupId);
+    }
+
+    private static final class Placement {
+        private final Long organisationId;
+        private final Long catalogId;
+        private final boolean publicCatalog;
+
+        private Placement(Long organisationId, Long catalogId, boolean publicCatalog) {
+            this.organisationId = organisationId;
+            this.catalogId = catalogId;
+            this.publicCatalog = publicCatalog;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.entando.hub.catalog.service.index;
+
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogListingRefreshEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revision of the catalog as seen by this instance: bumped after commit by every CatalogChangeEvent.
+ * Derived results (facet counts, suggestions...) remember the revision they were computed at and
+ * are discarded as soon as it changes. Bumped before the other listeners of the same events run, so
+ * that what they rebuild is computed at the new revision.
+ */
+@Component
+public class CatalogRevision {
+
+    private final AtomicLong revision = new AtomicLong();
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        revision.incrementAndGet();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(CatalogResyncEvent.class)
+    public void onCatalogResync() {
+        revision.incrementAndGet();
+    }
+
+    /**
+     * The results read from the listing view before its refresh may miss the last changes.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(CatalogListingRefreshEvent.class)
+    public void onCatalogListingRefresh() {
+        revision.incrementAndGet();
+    }
+
+    public long current() {
+        return revision.get();
+    }
+}
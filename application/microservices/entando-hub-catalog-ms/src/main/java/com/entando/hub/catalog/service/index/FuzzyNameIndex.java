@@ -0,0 +1,220 @@
+package com.entando.hub.catalog.service.index;
+
+import com.entando.hub.catalog.config.datasource.ReadFromPrimary;
+import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import com.entando.hub.catalog.persistence.projection.BundleGroupSearchNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index of the names a bundle group is searched by: its own name and the name of
+ * its organisation, both as a whole and word by word.
+ * The similarity of two strings is the one of pg_trgm: shared trigrams over distinct trigrams of
+ * both, each word padded with two blanks in front and one behind. A bundle group scores the best
+ * similarity of its names, so "keyclok" still finds "Keycloak Theme".
+ * Built at startup and then kept up to date from the CatalogChangeEvents of the bundle groups and
+ * organisations. Callers must check isReady() and fall back to the substring search meanwhile.
+ */
+@Component
+public class FuzzyNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuzzyNameIndex.class);
+
+    private final BundleGroupRepository bundleGroupRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<Long>> groupsByToken = new HashMap<>();
+    private final Map<String, Set<String>> tokensByTrigram = new HashMap<>();
+    private final Map<String, Integer> trigramCountByToken = new HashMap<>();
+    // tokens of every indexed bundle group, to unindex them on change
+    private final Map<Long, Set<String>> tokensByGroup = new HashMap<>();
+    private final IndexChangeQueue changes = new IndexChangeQueue(this::apply);
+
+    public FuzzyNameIndex(BundleGroupRepository bundleGroupRepository) {
+        this.bundleGroupRepository = bundleGroupRepository;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogResyncEvent.class})
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        changes.rebuild(() -> {
+            List<BundleGroupSearchNames> names = bundleGroupRepository.findAllSearchNames();
+            lock.writeLock().lock();
+            try {
+                groupsByToken.clear();
+                tokensByTrigram.clear();
+                trigramCountByToken.clear();
+                tokensByGroup.clear();
+                names.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("rebuild: {} bundle groups indexed", names.size());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @ReadFromPrimary
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getEntityType() == CatalogChangeEvent.EntityType.BUNDLE_GROUP
+                || event.getEntityType() == CatalogChangeEvent.EntityType.ORGANISATION) {
+            changes.onChange(event);
+        }
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        boolean deleted = CatalogChangeEvent.Action.DELETED.equals(event.getAction());
+        List<BundleGroupSearchNames> names;
+        if (event.getEntityType() == CatalogChangeEvent.EntityType.BUNDLE_GROUP) {
+            names = deleted ? Collections.emptyList() : optionalToList(bundleGroupRepository.findSearchNamesById(event.getEntityId()));
+        } else if (event.getEntityType() == CatalogChangeEvent.EntityType.ORGANISATION && !deleted) {
+            // a renamed organisation changes the names of all its bundle groups
+            names = bundleGroupRepository.findSearchNamesByOrganisationId(event.getEntityId());
+        } else {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.getEntityType() == CatalogChangeEvent.EntityType.BUNDLE_GROUP) {
+                remove(event.getEntityId());
+            }
+            names.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return changes.isReady();
+    }
+
+    /**
+     * The bundle groups having a name at least threshold similar to the text, with their similarity,
+     * best first. All of them: the caller filters and pages the matches, a bound here would make its
+     * total wrong.
+     */
+    public Map<Long, Double> search(String text, double threshold) {
+        Set<String> queryTrigrams = trigrams(normalize(text));
+        if (queryTrigrams.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> shared = new HashMap<>();
+            queryTrigrams.forEach(trigram -> tokensByTrigram.getOrDefault(trigram, Collections.emptySet())
+                    .forEach(token -> shared.merge(token, 1, Integer::sum)));
+            shared.forEach((token, count) -> {
+                double similarity = (double) count / (queryTrigrams.size() + trigramCountByToken.get(token) - count);
+                if (similarity >= threshold) {
+                    groupsByToken.get(token).forEach(bundleGroupId -> scores.merge(bundleGroupId, similarity, Math::max));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, Double> best = new LinkedHashMap<>();
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .forEach(entry -> best.put(entry.getKey(), entry.getValue()));
+        return best;
+    }
+
+    private void put(BundleGroupSearchNames names) {
+        remove(names.getId());
+        Set<String> tokens = new HashSet<>();
+        addTokens(tokens, names.getName());
+        addTokens(tokens, names.getOrganisationName());
+        tokens.forEach(token -> {
+            Set<Long> groups = groupsByToken.computeIfAbsent(token, t -> new HashSet<>());
+            if (groups.isEmpty()) {
+                Set<String> trigrams = trigrams(token);
+                trigrams.forEach(trigram -> tokensByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(token));
+                trigramCountByToken.put(token, trigrams.size());
+            }
+            groups.add(names.getId());
+        });
+        tokensByGroup.put(names.getId(), tokens);
+    }
+
+    private void remove(Long bundleGroupId) {
+        Set<String> tokens = tokensByGroup.remove(bundleGroupId);
+        if (null == tokens) {
+            return;
+        }
+        tokens.forEach(token -> {
+            Set<Long> groups = groupsByToken.get(token);
+            groups.remove(bundleGroupId);
+            if (groups.isEmpty()) {
+                groupsByToken.remove(token);
+                trigramCountByToken.remove(token);
+                trigrams(token).forEach(trigram -> {
+                    Set<String> trigramTokens = tokensByTrigram.get(trigram);
+                    trigramTokens.remove(token);
+                    if (trigramTokens.isEmpty()) {
+                        tokensByTrigram.remove(trigram);
+                    }
+                });
+            }
+        });
+    }
+
+    // the whole name and each of its words
+    private static void addTokens(Set<String> tokens, String name) {
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        tokens.add(normalized);
+        Collections.addAll(tokens, normalized.split(" "));
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new HashSet<>();
+        if (normalized.isEmpty()) {
+            return trigrams;
+        }
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Lower case words of letters and digits separated by a single blank.
+     */
+    static String normalize(String text) {
+        if (null == text) {
+            return "";
+        }
+        return text.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static <T> List<T> optionalToList(Optional<T> optional) {
+        return optional.map(Collections::singletonList).orElseGet(Collections::emptyList);
+    }
+}
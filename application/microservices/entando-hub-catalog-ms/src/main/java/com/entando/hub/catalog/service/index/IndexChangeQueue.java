@@ -0,0 +1,69 @@
+package com.entando.hub.catalog.service.index;
+
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The CatalogChangeEvents of an in-memory index, held back while the index is rebuilt: a change
+ * committed after the rebuild has read the database would otherwise be applied to the index being
+ * replaced, or ignored before the first build, and lost until the next resync. The held back
+ * changes are applied, in order, once the rebuilt index is in place.
+ * The changes committed before the first build are left to it.
+ */
+final class IndexChangeQueue {
+
+    private final Consumer<CatalogChangeEvent> apply;
+    private final Queue<CatalogChangeEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger rebuilds = new AtomicInteger();
+    private volatile boolean ready;
+
+    IndexChangeQueue(Consumer<CatalogChangeEvent> apply) {
+        this.apply = apply;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Runs the rebuild of the index, reading the database and swapping the contents, then applies the
+     * changes received meanwhile.
+     */
+    void rebuild(Runnable rebuild) {
+        rebuilds.incrementAndGet();
+        try {
+            rebuild.run();
+            ready = true;
+        } finally {
+            if (rebuilds.decrementAndGet() == 0) {
+                if (ready) {
+                    applyPending();
+                } else {
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    void onChange(CatalogChangeEvent event) {
+        if (!ready && rebuilds.get() == 0) {
+            return;
+        }
+        pending.add(event);
+        if (rebuilds.get() == 0) {
+            applyPending();
+        }
+    }
+
+    // one at a time: each change reads the database again, a later one must not be overwritten
+    private synchronized void applyPending() {
+        CatalogChangeEvent event;
+        while (null != (event = pending.poll())) {
+            apply.accept(event);
+        }
+    }
+}
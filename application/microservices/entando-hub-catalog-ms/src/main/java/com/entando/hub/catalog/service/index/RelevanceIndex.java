@@ -0,0 +1,289 @@
+package com.entando.hub.catalog.service.index;
+
+import com.entando.hub.catalog.config.datasource.ReadFromPrimary;
+import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionText;
+import com.entando.hub.catalog.persistence.projection.BundleNameLink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of the bundle group versions, scoring a text with BM25 per field:
+ * bundle group name, bundle names, organisation name and version description, each with its own
+ * boost and average length.
+ * Built at startup and then kept up to date from the CatalogChangeEvents. Callers must check
+ * isReady() and keep the default order meanwhile.
+ */
+@Component
+public class RelevanceIndex {
+
+    enum Field {
+        BUNDLE_GROUP_NAME(3.0), BUNDLE_NAMES(2.0), ORGANISATION_NAME(1.5), DESCRIPTION(1.0);
+
+        private final double boost;
+
+        Field(double boost) {
+            this.boost = boost;
+        }
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int FIELDS = Field.values().length;
+
+    private static final Logger logger = LoggerFactory.getLogger(RelevanceIndex.class);
+
+    private final BundleGroupVersionRepository bundleGroupVersionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> bundle group version id -> term frequency per field
+    private final Map<String, Map<Long, int[]>> postings = new HashMap<>();
+    // bundle group version id -> length per field, in terms
+    private final Map<Long, int[]> lengths = new HashMap<>();
+    // bundle group version id -> distinct terms, to unindex it on change
+    private final Map<Long, Set<String>> termsByDocument = new HashMap<>();
+    // bundle id -> bundle group version ids, the links of a deleted bundle can't be read any more
+    private final Map<Long, Set<Long>> documentsByBundle = new HashMap<>();
+    // bundle group version id -> bundle ids, to unindex it on change
+    private final Map<Long, Set<Long>> bundlesByDocument = new HashMap<>();
+    private final long[] totalLengths = new long[FIELDS];
+    private final IndexChangeQueue changes = new IndexChangeQueue(this::apply);
+
+    public RelevanceIndex(BundleGroupVersionRepository bundleGroupVersionRepository) {
+        this.bundleGroupVersionRepository = bundleGroupVersionRepository;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogResyncEvent.class})
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        changes.rebuild(() -> {
+            List<BundleGroupVersionText> texts = bundleGroupVersionRepository.findAllTexts();
+            Map<Long, List<BundleNameLink>> bundles = group(bundleGroupVersionRepository.findAllBundleNames());
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                lengths.clear();
+                termsByDocument.clear();
+                documentsByBundle.clear();
+                bundlesByDocument.clear();
+                for (int i = 0; i < FIELDS; i++) {
+                    totalLengths[i] = 0;
+                }
+                texts.forEach(text -> put(text, bundles.getOrDefault(text.getId(), Collections.emptyList())));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("rebuild: {} bundle group versions indexed", texts.size());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @ReadFromPrimary
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        changes.onChange(event);
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        boolean deleted = CatalogChangeEvent.Action.DELETED.equals(event.getAction());
+        Long id = event.getEntityId();
+        switch (event.getEntityType()) {
+            case BUNDLE_GROUP_VERSION:
+                if (deleted) {
+                    reindex(Collections.singletonList(id), Collections.emptyList(), Collections.emptyMap());
+                } else {
+                    reindex(Collections.singletonList(id));
+                }
+                break;
+            case BUNDLE_GROUP:
+                reindex(bundleGroupVersionRepository.findIdsByBundleGroupId(id));
+                break;
+            case ORGANISATION:
+                reindex(bundleGroupVersionRepository.findIdsByOrganisationId(id));
+                break;
+            case BUNDLE:
+                // the versions indexed with the bundle too: it may have been deleted or unlinked from them
+                Set<Long> ids = indexedDocuments(id);
+                if (!deleted) {
+                    ids.addAll(bundleGroupVersionRepository.findIdsByBundleId(id));
+                }
+                reindex(ids);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public boolean isReady() {
+        return changes.isReady();
+    }
+
+    /**
+     * BM25 score of every bundle group version having at least one term of the text; the sum over
+     * the terms and the fields of boost * idf * saturated, length normalized term frequency.
+     */
+    public Map<Long, Double> score(String text) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(text));
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documents = lengths.size();
+            if (documents == 0) {
+                return scores;
+            }
+            double[] averageLengths = new double[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                averageLengths[i] = Math.max(1d, (double) totalLengths[i] / documents);
+            }
+            for (String term : terms) {
+                Map<Long, int[]> documentFrequencies = postings.get(term);
+                if (null == documentFrequencies) {
+                    continue;
+                }
+                int n = documentFrequencies.size();
+                double idf = Math.log(1 + (documents - n + 0.5) / (n + 0.5));
+                documentFrequencies.forEach((id, frequencies) -> {
+                    int[] documentLengths = lengths.get(id);
+                    double score = 0;
+                    for (Field field : Field.values()) {
+                        int tf = frequencies[field.ordinal()];
+                        if (tf > 0) {
+                            double norm = 1 - B + B * documentLengths[field.ordinal()] / averageLengths[field.ordinal()];
+                            score += field.boost * idf * tf * (K1 + 1) / (tf + K1 * norm);
+                        }
+                    }
+                    scores.merge(id, score, Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores;
+    }
+
+    private void reindex(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        reindex(ids, bundleGroupVersionRepository.findTextsByIdIn(ids),
+                group(bundleGroupVersionRepository.findBundleNamesByIdIn(ids)));
+    }
+
+    private void reindex(Collection<Long> ids, List<BundleGroupVersionText> texts, Map<Long, List<BundleNameLink>> bundles) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::remove);
+            texts.forEach(text -> put(text, bundles.getOrDefault(text.getId(), Collections.emptyList())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> indexedDocuments(Long bundleId) {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(documentsByBundle.getOrDefault(bundleId, Collections.emptySet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(BundleGroupVersionText text, List<BundleNameLink> bundles) {
+        remove(text.getId());
+        List<List<String>> fieldTerms = new ArrayList<>(FIELDS);
+        fieldTerms.add(Field.BUNDLE_GROUP_NAME.ordinal(), tokenize(text.getBundleGroupName()));
+        List<String> bundleTerms = new ArrayList<>();
+        Set<Long> bundleIds = new HashSet<>();
+        bundles.forEach(bundle -> {
+            bundleTerms.addAll(tokenize(bundle.getName()));
+            bundleIds.add(bundle.getBundleId());
+            documentsByBundle.computeIfAbsent(bundle.getBundleId(), id -> new HashSet<>()).add(text.getId());
+        });
+        fieldTerms.add(Field.BUNDLE_NAMES.ordinal(), bundleTerms);
+        fieldTerms.add(Field.ORGANISATION_NAME.ordinal(), tokenize(text.getOrganisationName()));
+        fieldTerms.add(Field.DESCRIPTION.ordinal(), tokenize(text.getDescription()));
+
+        int[] documentLengths = new int[FIELDS];
+        Set<String> terms = new LinkedHashSet<>();
+        for (int field = 0; field < FIELDS; field++) {
+            for (String term : fieldTerms.get(field)) {
+                postings.computeIfAbsent(term, t -> new HashMap<>())
+                        .computeIfAbsent(text.getId(), id -> new int[FIELDS])[field]++;
+                terms.add(term);
+            }
+            documentLengths[field] = fieldTerms.get(field).size();
+            totalLengths[field] += documentLengths[field];
+        }
+        lengths.put(text.getId(), documentLengths);
+        termsByDocument.put(text.getId(), terms);
+        bundlesByDocument.put(text.getId(), bundleIds);
+    }
+
+    private void remove(Long id) {
+        Set<String> terms = termsByDocument.remove(id);
+        if (null == terms) {
+            return;
+        }
+        terms.forEach(term -> {
+            Map<Long, int[]> documentFrequencies = postings.get(term);
+            documentFrequencies.remove(id);
+            if (documentFrequencies.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        int[] documentLengths = lengths.remove(id);
+        for (int field = 0; field < FIELDS; field++) {
+            totalLengths[field] -= documentLengths[field];
+        }
+        bundlesByDocument.remove(id).forEach(bundleId -> {
+            Set<Long> documents = documentsByBundle.get(bundleId);
+            documents.remove(id);
+            if (documents.isEmpty()) {
+                documentsByBundle.remove(bundleId);
+            }
+        });
+    }
+
+    private static Map<Long, List<BundleNameLink>> group(List<BundleNameLink> links) {
+        Map<Long, List<BundleNameLink>> bundles = new HashMap<>();
+        links.forEach(link -> bundles.computeIfAbsent(link.getBundleGroupVersionId(), id -> new ArrayList<>()).add(link));
+        return bundles;
+    }
+
+    /**
+     * Lower case words of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (null == text) {
+            return terms;
+        }
+        for (String term : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,372 @@
+package com.entando.hub.catalog.service.index;
+
+import com.entando.hub.catalog.config.datasource.ReadFromPrimary;
+import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.BundleRepository;
+import com.entando.hub.catalog.persistence.OrganisationRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import com.entando.hub.catalog.persistence.projection.BundleNameGroupLink;
+import com.entando.hub.catalog.persistence.projection.EntityName;
+import lombok.Getter;
+import lombok.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix trie of the names shown by the public hub: public bundle groups, bundles of
+ * public bundle groups and organisations. Every word of a name is a key, so "Entando Bundle" is
+ * suggested for both "ent" and "bun".
+ * Built at startup and then kept up to date from the CatalogChangeEvents, so that a suggestion
+ * never touches the database. Returns nothing until it is built.
+ * The public bundle group versions and groups of every suggested bundle are kept too: once a version
+ * or a group is deleted its links are gone from the database, only the bundles it linked are checked
+ * again.
+ */
+@Component
+public class SuggestionIndex {
+
+    public enum Type {
+        BUNDLE_GROUP, BUNDLE, ORGANISATION
+    }
+
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    private final BundleGroupRepository bundleGroupRepository;
+    private final BundleRepository bundleRepository;
+    private final OrganisationRepository organisationRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    // indexed suggestion of every (type, id), to remove its keys on change
+    private final Map<Suggestion, Suggestion> suggestions = new HashMap<>();
+    // public bundle group versions and groups of the suggested bundles
+    private final Links bundlesByVersion = new Links();
+    private final Links bundlesByGroup = new Links();
+    private final IndexChangeQueue changes = new IndexChangeQueue(this::apply);
+
+    public SuggestionIndex(BundleGroupRepository bundleGroupRepository, BundleRepository bundleRepository,
+                           OrganisationRepository organisationRepository) {
+        this.bundleGroupRepository = bundleGroupRepository;
+        this.bundleRepository = bundleRepository;
+        this.organisationRepository = organisationRepository;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogResyncEvent.class})
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        changes.rebuild(() -> {
+            List<Suggestion> all = new ArrayList<>();
+            bundleGroupRepository.findPublicNames().forEach(name -> all.add(toSuggestion(Type.BUNDLE_GROUP, name)));
+            organisationRepository.findAllNames().forEach(name -> all.add(toSuggestion(Type.ORGANISATION, name)));
+            List<BundleNameGroupLink> bundles = bundleRepository.findPublicNameLinks();
+            lock.writeLock().lock();
+            try {
+                root.children.clear();
+                root.suggestions.clear();
+                suggestions.clear();
+                bundlesByVersion.clear();
+                bundlesByGroup.clear();
+                all.forEach(this::put);
+                bundles.forEach(this::putBundle);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("rebuild: {} names and {} bundle links indexed", all.size(), bundles.size());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @ReadFromPrimary
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        changes.onChange(event);
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        boolean deleted = CatalogChangeEvent.Action.DELETED.equals(event.getAction());
+        Long id = event.getEntityId();
+        switch (event.getEntityType()) {
+            case ORGANISATION:
+                replace(Type.ORGANISATION, Collections.singletonList(id),
+                        deleted ? Collections.emptyList() : optionalToList(organisationRepository.findNameById(id)));
+                break;
+            case BUNDLE_GROUP:
+                // the public flag of the group decides whether its bundles are suggested too
+                replace(Type.BUNDLE_GROUP, Collections.singletonList(id),
+                        deleted ? Collections.emptyList() : optionalToList(bundleGroupRepository.findPublicNameById(id)));
+                replaceBundles(deleted ? linkedBundles(bundlesByGroup, id) : bundleRepository.findIdsByBundleGroupId(id));
+                break;
+            case BUNDLE_GROUP_VERSION:
+                // once deleted, the links to its bundles are gone: the ones known by the index are checked again
+                replaceBundles(deleted ? linkedBundles(bundlesByVersion, id) : bundleRepository.findIdsByBundleGroupVersionId(id));
+                break;
+            case BUNDLE:
+                if (deleted) {
+                    replaceBundles(Collections.singletonList(id), Collections.emptyList());
+                } else {
+                    replaceBundles(Collections.singletonList(id));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    public boolean isReady() {
+        return changes.isReady();
+    }
+
+    /**
+     * The first names, in alphabetical order of the matching word, having a word starting with the
+     * prefix (case-insensitive).
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Set<Suggestion> result = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && null != node; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (null != node) {
+                collect(node, result, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(result);
+    }
+
+    private void replaceBundles(List<Long> bundleIds) {
+        for (int from = 0; from < bundleIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = bundleIds.subList(from, Math.min(bundleIds.size(), from + MAX_IDS_PER_QUERY));
+            replaceBundles(chunk, bundleRepository.findPublicNameLinksByIdIn(chunk));
+        }
+    }
+
+    /**
+     * Removes the entries and links of the given bundles and indexes the ones found for them.
+     */
+    private void replaceBundles(Collection<Long> bundleIds, List<BundleNameGroupLink> links) {
+        lock.writeLock().lock();
+        try {
+            bundleIds.forEach(id -> {
+                remove(new Suggestion(Type.BUNDLE, id, null));
+                bundlesByVersion.removeBundle(id);
+                bundlesByGroup.removeBundle(id);
+            });
+            links.forEach(this::putBundle);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> linkedBundles(Links links, Long id) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(links.bundlesOf(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putBundle(BundleNameGroupLink link) {
+        Suggestion suggestion = toSuggestion(Type.BUNDLE, link);
+        // one row per version of the bundle, the name is indexed once
+        if (!suggestions.containsKey(suggestion)) {
+            put(suggestion);
+        }
+        bundlesByVersion.put(link.getBundleGroupVersionId(), link.getId());
+        bundlesByGroup.put(link.getBundleGroupId(), link.getId());
+    }
+
+    /**
+     * Removes the entries of the given ids and indexes the names found for them.
+     */
+    private void replace(Type type, Collection<Long> ids, List<EntityName> names) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(id -> remove(new Suggestion(type, id, null)));
+            names.forEach(name -> put(toSuggestion(type, name)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Suggestion suggestion) {
+        if (null == suggestion.name) {
+            return;
+        }
+        remove(suggestion);
+        keys(suggestion.name).forEach(key -> {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            }
+            node.suggestions.add(suggestion);
+        });
+        suggestions.put(suggestion, suggestion);
+    }
+
+    private void remove(Suggestion suggestion) {
+        Suggestion indexed = suggestions.remove(suggestion);
+        if (null != indexed) {
+            keys(indexed.name).forEach(key -> remove(root, key, 0, indexed));
+        }
+    }
+
+    // returns true when the node is left empty, so that the parent can drop it
+    private static boolean remove(Node node, String key, int depth, Suggestion suggestion) {
+        if (depth == key.length()) {
+            node.suggestions.remove(suggestion);
+        } else {
+            char c = key.charAt(depth);
+            Node child = node.children.get(c);
+            if (null != child && remove(child, key, depth + 1, suggestion)) {
+                node.children.remove(c);
+            }
+        }
+        return node.suggestions.isEmpty() && node.children.isEmpty();
+    }
+
+    private static void collect(Node node, Set<Suggestion> result, int limit) {
+        for (Suggestion suggestion : node.suggestions) {
+            if (result.size() >= limit) {
+                return;
+            }
+            result.add(suggestion);
+        }
+        for (Node child : node.children.values()) {
+            if (result.size() >= limit) {
+                return;
+            }
+            collect(child, result, limit);
+        }
+    }
+
+    /**
+     * The normalized name starting at each of its words.
+     */
+    private static Set<String> keys(String name) {
+        String normalized = normalize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return null == text ? "" : text.trim().toLowerCase();
+    }
+
+    private static Suggestion toSuggestion(Type type, EntityName name) {
+        return new Suggestion(type, name.getId(), name.getName());
+    }
+
+    private static <T> List<T> optionalToList(Optional<T> optional) {
+        return optional.map(Collections::singletonList).orElseGet(Collections::emptyList);
+    }
+
+    /**
+     * Bundle ids per version or group id, and back.
+     */
+    private static final class Links {
+        private final Map<Long, Set<Long>> bundles = new HashMap<>();
+        private final Map<Long, Set<Long>> owners = new HashMap<>();
+
+        private void put(Long ownerId, Long bundleId) {
+            bundles.computeIfAbsent(ownerId, id -> new HashSet<>()).add(bundleId);
+            owners.computeIfAbsent(bundleId, id -> new HashSet<>()).add(ownerId);
+        }
+
+        private void removeBundle(Long bundleId) {
+            Set<Long> ownerIds = owners.remove(bundleId);
+            if (null != ownerIds) {
+                ownerIds.forEach(ownerId -> {
+                    Set<Long> bundleIds = bundles.get(ownerId);
+                    bundleIds.remove(bundleId);
+                    if (bundleIds.isEmpty()) {
+                        bundles.remove(ownerId);
+                    }
+                });
+            }
+        }
+
+        private Set<Long> bundlesOf(Long ownerId) {
+            return bundles.getOrDefault(ownerId, Collections.emptySet());
+        }
+
+        private void clear() {
+            bundles.clear();
+            owners.clear();
+        }
+    }
+
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final Set<Suggestion> suggestions = new LinkedHashSet<>();
+    }
+
+    /**
+     * A suggested name; equal to the other suggestions of the same (type, id) whatever the name.
+     */
+    @Getter
+    @ToString
+    public static final class Suggestion {
+        private final Type type;
+        private final Long id;
+        private final String name;
+
+        public Suggestion(Type type, Long id, String name) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Suggestion that = (Suggestion) o;
+            return type == that.type && Objects.equals(id, that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, id);
+        }
+    }
+}
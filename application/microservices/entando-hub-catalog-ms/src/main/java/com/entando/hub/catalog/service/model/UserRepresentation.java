@@ -1,5 +1,6 @@
 package com.entando.hub.catalog.service.model;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -17,6 +18,7 @@ public class UserRepresentation {
     private String email;
     private List<String> requiredActions;
     private Set<Long> organisationIds = new HashSet<>();
+    private LocalDateTime profileSyncedAt;
 
     public String getId() {
         return id;
@@ -105,4 +107,12 @@ public class UserRepresentation {
     public void setOrganisationIds(Set<Long> organisationIds) {
         this.organisationIds = organisationIds;
     }
+
+    public LocalDateTime getProfileSyncedAt() {
+        return profileSyncedAt;
+    }
+
+    public void setProfileSyncedAt(LocalDateTime profileSyncedAt) {
+        this.profileSyncedAt = profileSyncedAt;
+    }
 }
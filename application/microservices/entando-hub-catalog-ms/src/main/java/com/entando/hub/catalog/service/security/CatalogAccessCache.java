@@ -0,0 +1,114 @@
+package com.entando.hub.catalog.service.security;
+
+import com.entando.hub.catalog.config.datasource.ReadFromPrimary;
+import com.entando.hub.catalog.persistence.CatalogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short lived cache of (user, catalog) access decisions, backed by a single exists query.
+ * Entries expire after app.security.catalog-access-ttl-ms; membership and catalog changes
+ * evict them right away and, when made within a transaction, once more after it completes: a
+ * concurrent request may have cached the decision from the data not committed yet.
+ */
+@Component
+public class CatalogAccessCache {
+
+    private final CatalogRepository catalogRepository;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<Key, Decision> decisions = new ConcurrentHashMap<>();
+
+    public CatalogAccessCache(CatalogRepository catalogRepository,
+                              @Value("${app.security.catalog-access-ttl-ms:30000}") long ttlMs,
+                              @Value("${app.security.catalog-access-max-entries:10000}") int maxEntries) {
+        this.catalogRepository = catalogRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    // a decision may be cached for a while: never taken from a replica that hasn't seen the last membership change
+    @ReadFromPrimary
+    public boolean canAccess(String username, Long catalogId) {
+        if (null == username || null == catalogId) {
+            return false;
+        }
+        Key key = new Key(username, catalogId);
+        long now = System.currentTimeMillis();
+        Decision decision = decisions.get(key);
+        if (null != decision && decision.expiresAt > now) {
+            return decision.allowed;
+        }
+        boolean allowed = catalogRepository.existsByIdAndOrganisation_PortalUsers_Username(catalogId, username);
+        if (decisions.size() >= maxEntries) {
+            // crude bound, entries are cheap to rebuild
+            decisions.clear();
+        }
+        decisions.put(key, new Decision(allowed, now + ttlMs));
+        return allowed;
+    }
+
+    public void evictUser(String username) {
+        evictNowAndAfterCompletion(() -> decisions.keySet().removeIf(key -> key.username.equals(username)));
+    }
+
+    public void evictCatalog(Long catalogId) {
+        evictNowAndAfterCompletion(() -> decisions.keySet().removeIf(key -> key.catalogId.equals(catalogId)));
+    }
+
+    public void evictAll() {
+        decisions.clear();
+    }
+
+    private void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static final class Key {
+        private final String username;
+        private final Long catalogId;
+
+        private Key(String username, Long catalogId) {
+            this.username = username;
+            this.catalogId = catalogId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return username.equals(key.username) && catalogId.equals(key.catalogId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, catalogId);
+        }
+    }
+
+    private static final class Decision {
+        private final boolean allowed;
+        private final long expiresAt;
+
+        private Decision(boolean allowed, long expiresAt) {
+            this.allowed = allowed;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.entando.hub.catalog.service.security;
+
+import com.entando.hub.catalog.persistence.entity.Organisation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * What the hub knows about the current user: username, roles, organisations and accessible catalogs.
+ * Built once per request by PrincipalContextService; each part is loaded on first use and then kept.
+ */
+public class PrincipalContext {
+
+    private final String username;
+    private final Supplier<Set<String>> rolesLoader;
+    private final Supplier<Set<Organisation>> organisationsLoader;
+    private final Supplier<Set<Long>> catalogIdsLoader;
+    private final Predicate<Long> catalogAccessCheck;
+
+    private Set<String> roles;
+    private Set<Organisation> organisations;
+    private Set<Long> organisationIds;
+    private Set<Long> catalogIds;
+    private final Map<Long, Boolean> catalogAccess = new HashMap<>();
+
+    PrincipalContext(String username, Supplier<Set<String>> rolesLoader, Supplier<Set<Organisation>> organisationsLoader,
+                     Supplier<Set<Long>> catalogIdsLoader, Predicate<Long> catalogAccessCheck) {
+        this.username = username;
+        this.rolesLoader = rolesLoader;
+        this.organisationsLoader = organisationsLoader;
+        this.catalogIdsLoader = catalogIdsLoader;
+        this.catalogAccessCheck = catalogAccessCheck;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Role names without the ROLE_ prefix.
+     */
+    public Set<String> getRoles() {
+        if (null == roles) {
+            roles = Collections.unmodifiableSet(rolesLoader.get());
+        }
+        return roles;
+    }
+
+    public boolean hasAnyRole(Set<String> expected) {
+        return getRoles().stream().anyMatch(expected::contains);
+    }
+
+    public Set<Organisation> getOrganisations() {
+        if (null == organisations) {
+            organisations = Collections.unmodifiableSet(organisationsLoader.get());
+        }
+        return organisations;
+    }
+
+    public Set<Long> getOrganisationIds() {
+        if (null == organisationIds) {
+            organisationIds = Collections.unmodifiableSet(getOrganisations().stream().map(Organisation::getId).collect(Collectors.toSet()));
+        }
+        return organisationIds;
+    }
+
+    public boolean belongsToOrganisation(Long organisationId) {
+        return getOrganisationIds().contains(organisationId);
+    }
+
+    public Set<Long> getCatalogIds() {
+        if (null == catalogIds) {
+            catalogIds = Collections.unmodifiableSet(catalogIdsLoader.get());
+        }
+        return catalogIds;
+    }
+
+    /**
+     * Uses the catalog ids when already loaded, a single catalog check otherwise.
+     */
+    public boolean canAccessCatalog(Long catalogId) {
+        if (null != catalogIds) {
+            return catalogIds.contains(catalogId);
+        }
+        return catalogAccess.computeIfAbsent(catalogId, catalogAccessCheck::test);
+    }
+}
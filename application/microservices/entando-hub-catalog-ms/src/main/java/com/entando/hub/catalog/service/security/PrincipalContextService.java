@@ -0,0 +1,77 @@
+package com.entando.hub.catalog.service.security;
+
+import com.entando.hub.catalog.persistence.CatalogRepository;
+import com.entando.hub.catalog.persistence.OrganisationRepository;
+import com.entando.hub.catalog.persistence.entity.Catalog;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out the PrincipalContext of a user, memoised in the current request so that the
+ * controller, validator and service layers share the same lookups.
+ * Outside of a request (scheduled jobs, plain unit tests) a fresh context is returned on every call.
+ */
+@Service
+public class PrincipalContextService {
+
+    private static final String REQUEST_ATTRIBUTE = PrincipalContext.class.getName();
+
+    private final OrganisationRepository organisationRepository;
+    private final CatalogRepository catalogRepository;
+    private final CatalogAccessCache catalogAccessCache;
+
+    public PrincipalContextService(OrganisationRepository organisationRepository, CatalogRepository catalogRepository,
+                                   CatalogAccessCache catalogAccessCache) {
+        this.organisationRepository = organisationRepository;
+        this.catalogRepository = catalogRepository;
+        this.catalogAccessCache = catalogAccessCache;
+    }
+
+    public PrincipalContext getPrincipalContext(String username) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (null == requestAttributes) {
+            return createPrincipalContext(username);
+        }
+        Object memoised = requestAttributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memoised instanceof PrincipalContext && Objects.equals(((PrincipalContext) memoised).getUsername(), username)) {
+            return (PrincipalContext) memoised;
+        }
+        PrincipalContext principalContext = createPrincipalContext(username);
+        requestAttributes.setAttribute(REQUEST_ATTRIBUTE, principalContext, RequestAttributes.SCOPE_REQUEST);
+        return principalContext;
+    }
+
+    private PrincipalContext createPrincipalContext(String username) {
+        if (null == username) {
+            // anonymous or non keycloak principal: roles only
+            return new PrincipalContext(null, PrincipalContextService::loadRoles, Collections::emptySet, Collections::emptySet,
+                    catalogId -> false);
+        }
+        return new PrincipalContext(username,
+                PrincipalContextService::loadRoles,
+                () -> new HashSet<>(organisationRepository.findByPortalUsers_Username(username)),
+                () -> catalogRepository.findByOrganisation_PortalUsers_Username(username).stream().map(Catalog::getId).collect(Collectors.toSet()),
+                catalogId -> catalogAccessCache.canAccess(username, catalogId));
+    }
+
+    private static Set<String> loadRoles() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (null == authentication) {
+            return Collections.emptySet();
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authority -> authority.substring(authority.indexOf("_") + 1))
+                .collect(Collectors.toSet());
+    }
+}
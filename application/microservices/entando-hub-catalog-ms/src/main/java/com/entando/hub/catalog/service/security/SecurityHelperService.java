@@ -2,12 +2,6 @@ package com.entando.hub.catalog.service.security;
 
 import static com.entando.hub.catalog.config.AuthoritiesConstants.ADMIN;
 
-import com.entando.hub.catalog.persistence.CatalogRepository;
-import com.entando.hub.catalog.persistence.PortalUserRepository;
-import com.entando.hub.catalog.persistence.entity.Catalog;
-import com.entando.hub.catalog.persistence.entity.PortalUser;
-
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.keycloak.KeycloakPrincipal;
@@ -19,12 +13,10 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class SecurityHelperService {
-    private final PortalUserRepository portalUserRepository;
-    private final CatalogRepository catalogRepository;
+    private final PrincipalContextService principalContextService;
 
-    public SecurityHelperService(PortalUserRepository portalUserRepository, CatalogRepository catalogRepository) {
-        this.portalUserRepository = portalUserRepository;
-        this.catalogRepository = catalogRepository;
+    public SecurityHelperService(PrincipalContextService principalContextService) {
+        this.principalContextService = principalContextService;
     }
 
     public Boolean isUserAuthenticated() {
@@ -32,40 +24,36 @@ public class SecurityHelperService {
         return (auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken));
     }
 
+    /**
+     * The context of the authenticated user, shared by all the checks done in the current request.
+     */
+    public PrincipalContext getPrincipalContext() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = null;
+        if (null != auth && auth.getPrincipal() instanceof KeycloakPrincipal) {
+            username = getContextAuthenticationUsername();
+        }
+        return principalContextService.getPrincipalContext(username);
+    }
+
     public Boolean userIsInTheOrganisation(Long organisationId) {
-        String preferredUsername = ((KeycloakPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getKeycloakSecurityContext().getToken().getPreferredUsername();
-        PortalUser portalUser = portalUserRepository.findByUsername(preferredUsername);
-        return portalUser != null && portalUser.getOrganisations() != null && portalUser.getOrganisations().stream().anyMatch(organisation -> organisation.getId().equals(organisationId));
+        return getPrincipalContext().belongsToOrganisation(organisationId);
     }
 
     public boolean userCanAccessTheCatalog(Long catalogId) {
-        String preferredUsername = ((KeycloakPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getKeycloakSecurityContext().getToken().getPreferredUsername();
-        PortalUser portalUser = portalUserRepository.findByUsername(preferredUsername);
-        Optional<Catalog> catalog = catalogRepository.findById(catalogId);
-
-        if (!catalog.isPresent()) {
-            return false;
-        } else {
-            Long organisationId = catalog.get().getOrganisation().getId();
-            return portalUser != null && portalUser.getOrganisations() != null && portalUser.getOrganisations().stream().anyMatch(organisation -> organisation.getId().equals(organisationId));
-        }
-
+        return getPrincipalContext().canAccessCatalog(catalogId);
     }
 
     public Set<String> getUserRoles(){
         return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream().map(GrantedAuthority::getAuthority).map(this::getAuthorityFromRole).collect(Collectors.toSet());
     }
 
-    private String getRoleFromAuthority(String authority) {
-        return authority.substring(authority.indexOf("_")+1);
-    }
-
     private String getAuthorityFromRole(String role){
         return "ROLE_"+role;
     }
 
     public Boolean hasRoles(Set<String> roles){
-        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream().map(GrantedAuthority::getAuthority).map(this::getRoleFromAuthority).anyMatch(roles::contains);
+        return getPrincipalContext().hasAnyRole(roles);
     }
 
     //TRUE if user is not admin AND doesn't belong to the organisation
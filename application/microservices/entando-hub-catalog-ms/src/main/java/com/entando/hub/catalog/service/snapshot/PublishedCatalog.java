@@ -0,0 +1,166 @@
+package com.entando.hub.catalog.service.snapshot;
+
+import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
+import com.entando.hub.catalog.rest.BundleController;
+import com.entando.hub.catalog.rest.PagedContent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the published catalog: the published versions of the bundle groups of the
+ * public catalog and their bundles, as served by the App Builder apis, in the order of the
+ * database queries they replace. Built by PublishedCatalogBuilder, never modified afterwards: the
+ * views are shared by all the requests and must not be changed by the callers.
+ */
+public final class PublishedCatalog {
+
+    static final int MAX_PAGE_SIZE = 50;
+
+    private final long revision;
+    private final LocalDateTime builtAt;
+    // sorted by bundle group name, then last update descending
+    private final List<BundleGroupVersionFilteredResponseView> bundleGroupVersions;
+    // sorted by name
+    private final List<BundleController.Bundle> bundles;
+    private final Map<Long, BundleGroupVersionFilteredResponseView> versionsByBundleGroup;
+    private final Map<String, BundleController.Bundle> bundlesById;
+
+    public PublishedCatalog(long revision, List<BundleGroupVersionFilteredResponseView> bundleGroupVersions,
+                            List<BundleController.Bundle> bundles) {
+        this.revision = revision;
+        this.builtAt = LocalDateTime.now();
+        this.bundleGroupVersions = Collections.unmodifiableList(bundleGroupVersions);
+        this.bundles = Collections.unmodifiableList(bundles);
+        this.versionsByBundleGroup = Collections.unmodifiableMap(bundleGroupVersions.stream()
+                .collect(Collectors.toMap(BundleGroupVersionFilteredResponseView::getBundleGroupId, Function.identity(),
+                        (first, second) -> first, LinkedHashMap::new)));
+        this.bundlesById = Collections.unmodifiableMap(bundles.stream()
+                .collect(Collectors.toMap(BundleController.Bundle::getBundleId, Function.identity(),
+                        (first, second) -> first, LinkedHashMap::new)));
+    }
+
+    /**
+     * Same as BundleGroupVersionService.searchBundleGroupVersions with the PUBLISHED status only:
+     * pageNum is zero-based, a pageSize out of 1..50 means 50.
+     */
+    public PagedContent<BundleGroupVersionFilteredResponseView, ?> getBundleGroupVersions(int pageNum, int pageSize) {
+        return new PagedContent<>(page(bundleGroupVersions, PageRequest.of(pageNum, clampedPageSize(pageSize))));
+    }
+
+    /**
+     * Same as BundleService.getBundles: the bundles of the published version of the bundle group, or
+     * of all the published versions with at least one deployable bundle of the descriptorVersions.
+     * pageNum is zero-based, a pageSize of 0 means all of them.
+     */
+    public PagedContent<BundleController.Bundle, ?> getBundles(int pageNum, int pageSize, String bundleGroupId,
+                                                              Set<Bundle.DescriptorVersion> descriptorVersions) {
+        Set<String> versions = descriptorVersions.stream().map(Enum::name).collect(Collectors.toSet());
+        Set<String> bundleIds = new HashSet<>();
+        if (null != bundleGroupId) {
+            BundleGroupVersionFilteredResponseView version = versionsByBundleGroup.get(Long.parseLong(bundleGroupId));
+            if (null != version) {
+                bundleIds.addAll(children(version));
+            }
+        } else {
+            bundleGroupVersions.stream()
+                    .filter(version -> children(version).stream()
+                            .map(bundlesById::get)
+                            .anyMatch(bundle -> null != bundle && versions.contains(bundle.getDescriptorVersion())
+                                    && null != bundle.getGitRepoAddress()))
+                    .forEach(version -> bundleIds.addAll(children(version)));
+        }
+        List<BundleController.Bundle> matching = bundles.stream()
+                .filter(bundle -> bundleIds.contains(bundle.getBundleId()) && versions.contains(bundle.getDescriptorVersion()))
+                .collect(Collectors.toList());
+        Pageable paging = pageSize == 0 ? Pageable.unpaged() : PageRequest.of(pageNum, pageSize);
+        return new PagedContent<>(page(matching, paging));
+    }
+
+    /**
+     * Key of the static file of getBundleGroupVersions: the same for the page sizes giving the same page.
+     * Null, not to be rendered, for the empty pages after the last one.
+     */
+    public String bundleGroupVersionsKey(int pageNum, int pageSize) {
+        int clampedPageSize = clampedPageSize(pageSize);
+        if (pastLastPage(pageNum, clampedPageSize, bundleGroupVersions.size())) {
+            return null;
+        }
+        return "appbuilder/bundlegroups?page=" + pageNum + "&pageSize=" + clampedPageSize;
+    }
+
+    /**
+     * Key of the static file of getBundles, with the bundle group id in its canonical form. Null, not
+     * to be rendered, for an unknown bundle group, a page size out of 0..50 or a page after the last
+     * bundle: the client chooses these ones freely.
+     */
+    public String bundlesKey(int pageNum, int pageSize, String bundleGroupId, Set<Bundle.DescriptorVersion> descriptorVersions) {
+        if (pageSize < 0 || pageSize > MAX_PAGE_SIZE || pastLastPage(pageNum, pageSize, bundles.size())) {
+            return null;
+        }
+        Long canonicalBundleGroupId = null;
+        if (null != bundleGroupId) {
+            try {
+                canonicalBundleGroupId = Long.valueOf(bundleGroupId);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (!versionsByBundleGroup.containsKey(canonicalBundleGroupId)) {
+                return null;
+            }
+        }
+        return "appbuilder/bundles?page=" + pageNum + "&pageSize=" + pageSize
+                + "&bundleGroupId=" + (null != canonicalBundleGroupId ? canonicalBundleGroupId : "")
+                + "&descriptorVersions=" + descriptorVersions.stream().map(Enum::name).sorted().collect(Collectors.joining(","));
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public int getBundleGroupVersionCount() {
+        return bundleGroupVersions.size();
+    }
+
+    public int getBundleCount() {
+        return bundles.size();
+    }
+
+    private static int clampedPageSize(int pageSize) {
+        return pageSize <= 0 || pageSize > MAX_PAGE_SIZE ? MAX_PAGE_SIZE : pageSize;
+    }
+
+    // the first page always exists, even when empty
+    private static boolean pastLastPage(int pageNum, int pageSize, int total) {
+        return pageNum > 0 && (pageSize == 0 || (long) pageNum * pageSize >= total);
+    }
+
+    private static List<String> children(BundleGroupVersionFilteredResponseView version) {
+        return null == version.getChildren() ? Collections.emptyList() : version.getChildren();
+    }
+
+    private static <T> Page<T> page(List<T> items, Pageable paging) {
+        if (paging.isUnpaged()) {
+            return new PageImpl<>(items);
+        }
+        int from = (int) Math.min(paging.getOffset(), items.size());
+        int to = Math.min(from + paging.getPageSize(), items.size());
+        return new PageImpl<>(items.subList(from, to), paging, items.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.entando.hub.catalog.service.snapshot;
+
+import com.entando.hub.catalog.config.datasource.ReadFromPrimary;
+import com.entando.hub.catalog.persistence.BundleRepository;
+import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
+import com.entando.hub.catalog.rest.PagedContent;
+import com.entando.hub.catalog.service.BundleGroupVersionService;
+import com.entando.hub.catalog.service.BundleService;
+import com.entando.hub.catalog.service.index.CatalogRevision;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Assembles a PublishedCatalog in a single read-only transaction, with the same services that
+ * serve the App Builder apis from the database, so that both give the same views.
+ */
+@Component
+public class PublishedCatalogBuilder {
+
+    private static final String[] PUBLISHED = {BundleGroupVersion.Status.PUBLISHED.toString()};
+
+    private final BundleGroupVersionService bundleGroupVersionService;
+    private final BundleService bundleService;
+    private final BundleRepository bundleRepository;
+    private final CatalogRevision catalogRevision;
+
+    public PublishedCatalogBuilder(BundleGroupVersionService bundleGroupVersionService, BundleService bundleService,
+                                   BundleRepository bundleRepository, CatalogRevision catalogRevision) {
+        this.bundleGroupVersionService = bundleGroupVersionService;
+        this.bundleService = bundleService;
+        this.bundleRepository = bundleRepository;
+        this.catalogRevision = catalogRevision;
+    }
+
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public PublishedCatalog build() {
+        // read before loading: a change committed meanwhile leaves the snapshot already outdated
+        long revision = catalogRevision.current();
+
+        List<BundleGroupVersionFilteredResponseView> bundleGroupVersions = new ArrayList<>();
+        int lastPage;
+        int pageNum = 0;
+        do {
+            PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> page = bundleGroupVersionService.searchBundleGroupVersions(
+                    pageNum++, PublishedCatalog.MAX_PAGE_SIZE, null, null, PUBLISHED, null, null, null);
+            bundleGroupVersions.addAll(page.getPayload());
+            lastPage = page.getMetadata().getLastPage();
+        } while (pageNum < lastPage);
+
+        Set<Long> publishedBundleIds = new HashSet<>();
+        bundleGroupVersions.stream()
+                .filter(version -> null != version.getChildren())
+                .forEach(version -> version.getChildren().forEach(id -> publishedBundleIds.add(Long.valueOf(id))));
+        List<Bundle> entities = bundleRepository.findPublicBundles(Sort.by(Sort.Direction.ASC, "name")).stream()
+                .filter(bundle -> publishedBundleIds.contains(bundle.getId()))
+                .collect(Collectors.toList());
+
+        return new PublishedCatalog(revision, bundleGroupVersions, bundleService.toPublishedViews(entities));
+    }
+}
@@ -0,0 +1,114 @@
+package com.entando.hub.catalog.service.snapshot;
+
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogListingRefreshEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the current PublishedCatalog of this instance. The snapshot is rebuilt in the background
+ * after every committed catalog change and swapped in one go, so a request sees either the old or
+ * the new catalog, never a mix of both; the changes committed during a rebuild are coalesced into
+ * a single following rebuild. The bundle group pages of the app.static-catalog.prerender-page-sizes
+ * are then rendered to StaticCatalogFiles.
+ * There is no snapshot before the first build, after a failed one or when app.published-catalog is
+ * disabled: the callers then go to the database.
+ */
+@Service
+public class PublishedCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishedCatalogService.class);
+
+    private final PublishedCatalogBuilder publishedCatalogBuilder;
+    private final StaticCatalogFiles staticCatalogFiles;
+    private final boolean enabled;
+    private final int[] prerenderPageSizes;
+    private final ExecutorService executor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile PublishedCatalog snapshot;
+
+    public PublishedCatalogService(PublishedCatalogBuilder publishedCatalogBuilder, StaticCatalogFiles staticCatalogFiles,
+                                   @Value("${app.published-catalog.enabled:true}") boolean enabled,
+                                   @Value("${app.static-catalog.prerender-page-sizes:10,50}") int[] prerenderPageSizes) {
+        this.publishedCatalogBuilder = publishedCatalogBuilder;
+        this.staticCatalogFiles = staticCatalogFiles;
+        this.enabled = enabled;
+        this.prerenderPageSizes = prerenderPageSizes;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "published-catalog-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The current snapshot, null when the published catalog must be read from the database.
+     */
+    public PublishedCatalog getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * A refresh of the listing view rebuilds again the snapshots built from the rows it replaced.
+     */
+    @EventListener({ApplicationReadyEvent.class, CatalogResyncEvent.class, CatalogListingRefreshEvent.class})
+    public void onCatalogReload() {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void scheduleRebuild() {
+        if (enabled && rebuildPending.compareAndSet(false, true)) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    void rebuild() {
+        // cleared before building: a change committed from now on needs another rebuild
+        rebuildPending.set(false);
+        try {
+            PublishedCatalog built = publishedCatalogBuilder.build();
+            snapshot = built;
+            logger.debug("rebuild: published catalog at revision {}, {} bundle group versions, {} bundles",
+                    built.getRevision(), built.getBundleGroupVersionCount(), built.getBundleCount());
+            prerender(built);
+        } catch (RuntimeException e) {
+            snapshot = null;
+            logger.warn("rebuild: unable to build the published catalog, serving it from the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Renders the bundle group pages of the usual page sizes to static files, ahead of the requests.
+     */
+    private void prerender(PublishedCatalog built) {
+        for (int pageSize : prerenderPageSizes) {
+            int lastPage = built.getBundleGroupVersions(0, pageSize).getMetadata().getLastPage();
+            for (int pageNum = 0; pageNum < Math.max(1, lastPage); pageNum++) {
+                int page = pageNum;
+                staticCatalogFiles.prerender(built.bundleGroupVersionsKey(page, pageSize), built.getRevision(),
+                        () -> built.getBundleGroupVersions(page, pageSize));
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.entando.hub.catalog.service.snapshot;
+
+import com.entando.hub.catalog.config.datasource.ReadWriteRoutingDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Public json responses rendered once per catalog version to local files, plain and gzipped, and
+ * served from there: the hot public endpoints don't serialise nor compress anything per request.
+ * A file is rendered the first time its response is asked for at a version, or ahead of time by
+ * PublishedCatalogService for the standard pages of a new snapshot, and replaced by the first
+ * request at a newer version. The ETag is the digest of the json, so it holds across versions and
+ * replicas as long as the response doesn't change.
+ * The files are sent with the Tomcat sendfile support (zero-copy) when the connector has it,
+ * otherwise through a FileChannel transfer. At most app.static-catalog.max-files responses are
+ * kept, the least recently served ones are evicted beyond it, and a file not served for
+ * app.static-catalog.max-idle-ms is dropped. The callers only render the responses of existing
+ * resources, with normalised keys.
+ */
+@Component
+public class StaticCatalogFiles {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String GZIP = "gzip";
+    // a replaced file may still be queued for sendfile: it is deleted later
+    private static final long RETIRED_DELETE_DELAY_MS = 60000;
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticCatalogFiles.class);
+
+    private final ObjectMapper objectMapper;
+    private final String configuredDirectory;
+    private final int maxFiles;
+    private final long maxIdleMs;
+    // access ordered, guarded by itself: the first one is the least recently served
+    private final LinkedHashMap<String, StaticFile> files = new LinkedHashMap<>(16, 0.75f, true);
+    private final Queue<StaticFile> retired = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean enabled;
+    private Path directory;
+
+    public StaticCatalogFiles(ObjectMapper objectMapper,
+                              @Value("${app.static-catalog.enabled:true}") boolean enabled,
+                              @Value("${app.static-catalog.directory:}") String directory,
+                              @Value("${app.static-catalog.max-files:1000}") int maxFiles,
+                              @Value("${app.static-catalog.max-idle-ms:3600000}") long maxIdleMs) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.configuredDirectory = directory;
+        this.maxFiles = maxFiles;
+        this.maxIdleMs = maxIdleMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (configuredDirectory.isEmpty()) {
+                directory = Files.createTempDirectory("hub-static-catalog");
+            } else {
+                directory = Files.createDirectories(Paths.get(configuredDirectory));
+            }
+        } catch (IOException e) {
+            logger.warn("init: unable to create the static catalog directory, the responses are serialised per request: {}", e.getMessage());
+            enabled = false;
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        synchronized (files) {
+            files.values().forEach(retired::add);
+            files.clear();
+        }
+        retired.forEach(file -> file.retiredAt = 0);
+        deleteRetired(System.currentTimeMillis());
+    }
+
+    /**
+     * Drops the files not served for max-idle-ms, and deletes the ones retired long enough ago.
+     */
+    @Scheduled(fixedDelay = RETIRED_DELETE_DELAY_MS)
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        synchronized (files) {
+            Iterator<StaticFile> iterator = files.values().iterator();
+            while (iterator.hasNext()) {
+                StaticFile file = iterator.next();
+                if (now - file.servedAt >= maxIdleMs) {
+                    iterator.remove();
+                    retire(file, now);
+                }
+            }
+        }
+        deleteRetired(now);
+    }
+
+    /**
+     * Writes the response of key at version from its file, rendering content if the file is missing
+     * or older. Returns false, having written nothing, when the response is to be serialised as usual.
+     */
+    public boolean serve(String key, long version, Supplier<?> content, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        if (!enabled) {
+            return false;
+        }
+        StaticFile file = get(key, version, content);
+        if (null == file) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.ETAG, file.etag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), file.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Path path = gzip ? file.gzipPath : file.path;
+        long length = gzip ? file.gzipLength : file.length;
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat only sends a file given by its canonical path, the directory may be relative or a link
+            String filename = canonicalPath(path);
+            if (null != filename) {
+                request.setAttribute(SENDFILE_FILENAME, filename);
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, length);
+                return true;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            OutputStream outputStream = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, target);
+            }
+            outputStream.flush();
+        }
+        return true;
+    }
+
+    private static String canonicalPath(Path path) {
+        try {
+            return path.toRealPath().toString();
+        } catch (IOException e) {
+            logger.debug("serve: unable to resolve {}, streaming it: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Renders the response of key at version unless a file at that version, or a newer one, exists.
+     */
+    public void prerender(String key, long version, Supplier<?> content) {
+        if (enabled) {
+            get(key, version, content);
+        }
+    }
+
+    StaticFile get(String key, long version, Supplier<?> content) {
+        long now = System.currentTimeMillis();
+        StaticFile current;
+        synchronized (files) {
+            current = files.get(key);
+        }
+        if (null != current && current.version >= version) {
+            current.servedAt = now;
+            return current;
+        }
+        StaticFile rendered = render(key, version, content);
+        if (null == rendered) {
+            return null;
+        }
+        // a concurrent request may have rendered it too: the newest file is kept, the other one retired
+        List<StaticFile> replaced = new ArrayList<>();
+        StaticFile kept;
+        synchronized (files) {
+            StaticFile old = files.get(key);
+            if (null != old && old.version >= rendered.version) {
+                replaced.add(rendered);
+                kept = old;
+            } else {
+                if (null != old) {
+                    replaced.add(old);
+                }
+                files.put(key, rendered);
+                kept = rendered;
+                Iterator<StaticFile> leastRecentlyServed = files.values().iterator();
+                while (files.size() > maxFiles) {
+                    replaced.add(leastRecentlyServed.next());
+                    leastRecentlyServed.remove();
+                }
+            }
+        }
+        replaced.forEach(file -> retire(file, now));
+        deleteRetired(now);
+        return kept;
+    }
+
+    int size() {
+        synchronized (files) {
+            return files.size();
+        }
+    }
+
+    private StaticFile render(String key, long version, Supplier<?> content) {
+        Path path = directory.resolve(sequence.incrementAndGet() + ".json");
+        Path gzipPath = directory.resolve(path.getFileName() + ".gz");
+        // the file outlives the request: a lagging read replica would leave it stale until the next change
+        boolean previous = ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(content.get());
+            Files.write(path, json);
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(Files.newOutputStream(gzipPath))) {
+                gzipOutputStream.write(json);
+            }
+            return new StaticFile(version, path, json.length, gzipPath, Files.size(gzipPath), etag(json),
+                    System.currentTimeMillis());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("render: unable to render {} to a file, serialising it per request: {}", key, e.getMessage());
+            return null;
+        } finally {
+            ReadWriteRoutingDataSource.unpin(previous);
+        }
+    }
+
+    private void retire(StaticFile file, long now) {
+        file.retiredAt = now;
+        retired.add(file);
+    }
+
+    private void deleteRetired(long now) {
+        Iterator<StaticFile> iterator = retired.iterator();
+        while (iterator.hasNext()) {
+            StaticFile candidate = iterator.next();
+            if (now - candidate.retiredAt >= RETIRED_DELETE_DELAY_MS) {
+                iterator.remove();
+                try {
+                    Files.deleteIfExists(candidate.path);
+                    Files.deleteIfExists(candidate.gzipPath);
+                } catch (IOException e) {
+                    logger.debug("retire: unable to delete {}: {}", candidate.path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (null == acceptEncoding) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                // gzip;q=0 means not acceptable
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (null == ifNoneMatch) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            StringBuilder etag = new StringBuilder("\"");
+            for (int i = 0; i < 16; i++) {
+                etag.append(String.format("%02x", digest[i]));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class StaticFile {
+        final long version;
+        final Path path;
+        final long length;
+        final Path gzipPath;
+        final long gzipLength;
+        final String etag;
+        volatile long servedAt;
+        volatile long retiredAt;
+
+        StaticFile(long version, Path path, long length, Path gzipPath, long gzipLength, String etag, long servedAt) {
+            this.version = version;
+            this.path = path;
+            this.length = length;
+            this.gzipPath = gzipPath;
+            this.gzipLength = gzipLength;
+            this.etag = etag;
+            this.servedAt = servedAt;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.entando.hub.catalog.service.webhook;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body posted to the webhook endpoints: the events between the commit sequence numbers fromEventId
+ * and toEventId, coalesced so that an entity changed many times in the range is sent once per kind
+ * of change.
+ */
+@Getter
+@ToString
+public class WebhookBatch {
+
+    private final Long fromEventId;
+    private final Long toEventId;
+    private final List<CatalogEvent> events;
+
+    WebhookBatch(Long fromEventId, Long toEventId, List<CatalogEvent> events) {
+        this.fromEventId = fromEventId;
+        this.toEventId = toEventId;
+        this.events = events;
+    }
+
+    /**
+     * Keeps the last event of every entity and action, oldest first; an entity deleted in the range
+     * only keeps its deletion.
+     */
+    public static WebhookBatch coalesce(List<CatalogEvent> events) {
+        Map<String, Map<CatalogEvent.Action, CatalogEvent>> byEntity = new LinkedHashMap<>();
+        events.forEach(event -> byEntity
+                .computeIfAbsent(event.getEntityType() + ":" + event.getEntityId(), key -> new LinkedHashMap<>())
+                .put(event.getAction(), event));
+        List<CatalogEvent> coalesced = new ArrayList<>();
+        byEntity.values().forEach(byAction -> {
+            CatalogEvent deleted = byAction.get(CatalogEvent.Action.DELETED);
+            if (null != deleted) {
+                coalesced.add(deleted);
+            } else {
+                coalesced.addAll(byAction.values());
+            }
+        });
+        coalesced.sort(Comparator.comparing(CatalogEvent::getCommitSeq));
+        return new WebhookBatch(events.get(0).getCommitSeq(), events.get(events.size() - 1).getCommitSeq(), coalesced);
+    }
+}
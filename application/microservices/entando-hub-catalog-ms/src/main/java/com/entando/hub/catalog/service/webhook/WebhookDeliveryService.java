@@ -0,0 +1,158 @@
+package com.entando.hub.catalog.service.webhook;
+
+import com.entando.hub.catalog.persistence.WebhookCursorRepository;
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.entity.WebhookCursor;
+import com.entando.hub.catalog.service.CatalogEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Delivers the catalog_event table, used as the outbox of the catalog changes, to the webhook
+ * endpoints. Every endpoint has a cursor row: a replica claims the next batch by taking a lease on
+ * it in a short transaction, posts the batch outside of any transaction, then moves the cursor and
+ * releases the lease in a second one. One batch at a time per endpoint across all the replicas, so
+ * the endpoint gets the events in order, without a connection held for the duration of the post.
+ * The events are read in commit sequence number order (see CatalogEventService), so the cursor never
+ * moves past an event still to be committed. A failed batch is retried with an exponential backoff.
+ */
+@Service
+public class WebhookDeliveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookDeliveryService.class);
+
+    private final WebhookCursorRepository webhookCursorRepository;
+    private final CatalogEventService catalogEventService;
+    private final TransactionTemplate transactionTemplate;
+    private final RestTemplate restTemplate;
+    private final int batchSize;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    // longer than a post may take, connection and read timeouts included: the lease of a replica
+    // that died while posting expires, and the batch is retried by another one
+    private final long leaseMs;
+
+    public WebhookDeliveryService(WebhookCursorRepository webhookCursorRepository, CatalogEventService catalogEventService,
+                                  PlatformTransactionManager transactionManager, RestTemplateBuilder restTemplateBuilder,
+                                  @Value("${app.webhooks.timeout-ms:5000}") long timeoutMs,
+                                  @Value("${app.webhooks.batch-size:100}") int batchSize,
+                                  @Value("${app.webhooks.initial-backoff-ms:1000}") long initialBackoffMs,
+                                  @Value("${app.webhooks.max-backoff-ms:300000}") long maxBackoffMs) {
+        this.webhookCursorRepository = webhookCursorRepository;
+        this.catalogEventService = catalogEventService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeoutMs))
+                .setReadTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.batchSize = batchSize;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = 2 * timeoutMs + 30000;
+    }
+
+    /**
+     * Creates the cursor of a new endpoint, positioned after the last settled event: a new endpoint
+     * gets the changes from now on, not the whole history.
+     */
+    @Transactional
+    public void initCursor(String endpoint) {
+        if (!webhookCursorRepository.existsById(endpoint)) {
+            webhookCursorRepository.save(new WebhookCursor()
+                    .setEndpoint(endpoint)
+                    .setLastEventId(catalogEventService.getSettledLastEventId()));
+        }
+    }
+
+    /**
+     * Posts the next batch of events to the endpoint, unless another replica is already doing so
+     * or the endpoint is backing off.
+     * @return true if more events are waiting for the endpoint
+     */
+    public boolean deliverNextBatch(String endpoint) {
+        String lease = UUID.randomUUID().toString();
+        Slice<CatalogEvent> events = transactionTemplate.execute(status -> this.claimNextBatch(endpoint, lease));
+        if (null == events) {
+            return false;
+        }
+        WebhookBatch batch = WebhookBatch.coalesce(events.getContent());
+        RestClientException failure = null;
+        try {
+            restTemplate.postForEntity(endpoint, batch, Void.class);
+        } catch (RestClientException e) {
+            failure = e;
+        }
+        RestClientException postFailure = failure;
+        Boolean moved = transactionTemplate.execute(status -> this.completeBatch(endpoint, lease, batch, postFailure));
+        return null == failure && Boolean.TRUE.equals(moved) && events.hasNext();
+    }
+
+    /**
+     * Leases the cursor and reads the events to post, null when there is nothing to post or the
+     * cursor is not available.
+     */
+    private Slice<CatalogEvent> claimNextBatch(String endpoint, String lease) {
+        Optional<WebhookCursor> lockedCursor = webhookCursorRepository.findLockedByEndpoint(endpoint);
+        if (!lockedCursor.isPresent()) {
+            return null;
+        }
+        WebhookCursor cursor = lockedCursor.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (null != cursor.getNextAttemptAt() && cursor.getNextAttemptAt().isAfter(now)) {
+            return null;
+        }
+        if (null != cursor.getLeasedUntil() && cursor.getLeasedUntil().isAfter(now)) {
+            // another replica is posting
+            return null;
+        }
+        Slice<CatalogEvent> events = catalogEventService.getSettledEvents(cursor.getLastEventId(), batchSize);
+        if (!events.hasContent()) {
+            return null;
+        }
+        cursor.setLeaseOwner(lease).setLeasedUntil(now.plus(leaseMs, ChronoUnit.MILLIS));
+        webhookCursorRepository.save(cursor);
+        return events;
+    }
+
+    /**
+     * Moves the cursor after the posted batch, or backs off after a failure, and releases the lease.
+     * @return false if the lease was lost meanwhile, the batch is then posted again
+     */
+    private boolean completeBatch(String endpoint, String lease, WebhookBatch batch, RestClientException failure) {
+        Optional<WebhookCursor> lockedCursor = webhookCursorRepository.findForUpdateByEndpoint(endpoint);
+        if (!lockedCursor.isPresent() || !lease.equals(lockedCursor.get().getLeaseOwner())) {
+            logger.warn("deliverNextBatch: lease of {} expired while posting events {} to {}", endpoint,
+                    batch.getFromEventId(), batch.getToEventId());
+            return false;
+        }
+        WebhookCursor cursor = lockedCursor.get().setLeaseOwner(null).setLeasedUntil(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (null != failure) {
+            int failures = cursor.getFailures() + 1;
+            long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(failures - 1, 20));
+            cursor.setFailures(failures).setNextAttemptAt(now.plus(backoffMs, ChronoUnit.MILLIS));
+            logger.warn("deliverNextBatch: unable to post events {} to {} to {}, attempt {}, retrying in {} ms: {}",
+                    batch.getFromEventId(), batch.getToEventId(), endpoint, failures, backoffMs, failure.getMessage());
+        } else {
+            cursor.setLastEventId(batch.getToEventId()).setFailures(0).setNextAttemptAt(null).setLastDeliveredAt(now);
+            logger.debug("deliverNextBatch: events {} to {} posted to {}", batch.getFromEventId(), batch.getToEventId(), endpoint);
+        }
+        webhookCursorRepository.save(cursor);
+        return true;
+    }
+}
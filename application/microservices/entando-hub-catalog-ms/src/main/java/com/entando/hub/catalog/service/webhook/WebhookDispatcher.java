@@ -0,0 +1,91 @@
+package com.entando.hub.catalog.service.webhook;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background dispatcher of the webhooks configured in app.webhooks.endpoints (comma separated urls).
+ * Runs every fixed-delay-ms; each endpoint is drained batch after batch by one task at a time, on a
+ * pool of app.webhooks.threads threads shared by all the endpoints. Not triggered by the commits: a
+ * just committed event is delivered by a following run, once numbered (see CatalogEventService).
+ */
+@Component
+public class WebhookDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+    private final WebhookDeliveryService webhookDeliveryService;
+    private final ExecutorService executor;
+    // whether a task is draining the endpoint on this replica
+    private final Map<String, AtomicBoolean> endpoints = new LinkedHashMap<>();
+    private volatile boolean ready;
+
+    public WebhookDispatcher(WebhookDeliveryService webhookDeliveryService,
+                             @Value("${app.webhooks.endpoints:}") String[] endpoints,
+                             @Value("${app.webhooks.threads:4}") int threads) {
+        this.webhookDeliveryService = webhookDeliveryService;
+        Arrays.stream(endpoints)
+                .map(String::trim)
+                .filter(endpoint -> !endpoint.isEmpty())
+                .forEach(endpoint -> this.endpoints.put(endpoint, new AtomicBoolean()));
+        this.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, this.endpoints.size())));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        endpoints.keySet().forEach(endpoint -> {
+            try {
+                webhookDeliveryService.initCursor(endpoint);
+            } catch (DataIntegrityViolationException e) {
+                // created by another replica in the meantime
+                logger.debug("init: cursor of {} already created", endpoint);
+            }
+        });
+        ready = true;
+        logger.debug("init: {} webhook endpoints", endpoints.size());
+        dispatch();
+    }
+
+    @Scheduled(initialDelayString = "${app.webhooks.fixed-delay-ms:5000}", fixedDelayString = "${app.webhooks.fixed-delay-ms:5000}")
+    public void dispatch() {
+        if (!ready) {
+            return;
+        }
+        endpoints.forEach((endpoint, running) -> {
+            if (running.compareAndSet(false, true)) {
+                executor.execute(() -> drain(endpoint, running));
+            }
+        });
+    }
+
+    private void drain(String endpoint, AtomicBoolean running) {
+        try {
+            while (webhookDeliveryService.deliverNextBatch(endpoint)) {
+                logger.debug("drain: more events waiting for {}", endpoint);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("drain: unable to deliver the events to {}: {}", endpoint, e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+package com.entando.hub.catalog.config.bulkhead;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.entando.hub.catalog.rest.AppBuilderCatalogEventController;
+import com.entando.hub.catalog.rest.CategoryController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BulkheadInterceptorTest {
+
+	private RequestBudget publicBudget;
+	private RequestBudget adminBudget;
+	private BulkheadInterceptor bulkheadInterceptor;
+
+	@Before
+	public void setUp() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		publicBudget = new RequestBudget(Bulkhead.PUBLIC, 1, 0, 10, meterRegistry);
+		adminBudget = new RequestBudget(Bulkhead.ADMIN, 1, 0, 10, meterRegistry);
+		Map<Bulkhead, RequestBudget> budgets = new EnumMap<>(Bulkhead.class);
+		budgets.put(Bulkhead.PUBLIC, publicBudget);
+		budgets.put(Bulkhead.ADMIN, adminBudget);
+		bulkheadInterceptor = new BulkheadInterceptor(budgets);
+	}
+
+	@After
+	public void tearDown() {
+		BulkheadContext.clear();
+	}
+
+	@Test
+	public void bulkheadsAreIsolatedTest() throws Exception {
+		HandlerMethod publicHandler = handler(AppBuilderCatalogEventController.class);
+		HandlerMethod adminHandler = handler(CategoryController.class);
+		MockHttpServletRequest publicRequest = new MockHttpServletRequest();
+
+		//Case 1: the public request takes the only public slot
+		assertTrue(bulkheadInterceptor.preHandle(publicRequest, new MockHttpServletResponse(), publicHandler));
+		assertEquals(Bulkhead.PUBLIC, BulkheadContext.get());
+		assertEquals(1, publicBudget.getActive());
+
+		//Case 2: another public request is rejected
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		assertFalse(bulkheadInterceptor.preHandle(new MockHttpServletRequest(), rejected, publicHandler));
+		assertEquals(503, rejected.getStatus());
+		assertEquals("1", rejected.getHeader("Retry-After"));
+		assertEquals(1.0, publicBudget.getRejected(), 0);
+
+		//Case 3: the admin requests are not affected
+		MockHttpServletRequest adminRequest = new MockHttpServletRequest();
+		assertTrue(bulkheadInterceptor.preHandle(adminRequest, new MockHttpServletResponse(), adminHandler));
+		assertEquals(Bulkhead.ADMIN, BulkheadContext.get());
+		bulkheadInterceptor.afterCompletion(adminRequest, new MockHttpServletResponse(), adminHandler, null);
+		assertEquals(0, adminBudget.getActive());
+
+		//Case 4: the slot is given back when the request goes async, only once
+		bulkheadInterceptor.afterConcurrentHandlingStarted(publicRequest, new MockHttpServletResponse(), publicHandler);
+		bulkheadInterceptor.afterCompletion(publicRequest, new MockHttpServletResponse(), publicHandler, null);
+		assertEquals(0, publicBudget.getActive());
+		assertTrue(bulkheadInterceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), publicHandler));
+	}
+
+	@Test
+	public void requestBudgetQueueTest() throws InterruptedException {
+		RequestBudget budget = new RequestBudget(Bulkhead.PUBLIC, 1, 1, 2000, new SimpleMeterRegistry());
+		assertTrue(budget.acquire());
+
+		// the queued request gets the slot as soon as it is released
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			budget.release();
+		});
+		releaser.start();
+		assertTrue(budget.acquire());
+		releaser.join();
+		assertEquals(1, budget.getActive());
+		assertEquals(0, budget.getQueued());
+	}
+
+	private HandlerMethod handler(Class<?> controller) {
+		return new HandlerMethod(Mockito.mock(controller), controller.getDeclaredMethods()[0]);
+	}
+}
@@ -0,0 +1,91 @@
+package com.entando.hub.catalog.config.datasource;
+
+import static org.junit.Assert.assertSame;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ReadWriteRoutingDataSourceTest {
+
+	@Mock
+	DataSource primary;
+	@Mock
+	DataSource replica;
+	@Mock
+	ReplicaLagGuard replicaLagGuard;
+	@Mock
+	Connection primaryConnection;
+	@Mock
+	Connection replicaConnection;
+
+	private ReadWriteRoutingDataSource dataSource;
+
+	@Before
+	public void setUp() throws SQLException {
+		Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+		Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+		Mockito.when(replicaLagGuard.isReplicaUsable()).thenReturn(true);
+		dataSource = new ReadWriteRoutingDataSource(primary, replica, replicaLagGuard);
+	}
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	public void routingTest() throws SQLException {
+		//Case 1: no transaction
+		assertSame(primaryConnection, dataSource.getConnection());
+
+		//Case 2: read-write transaction
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		assertSame(primaryConnection, dataSource.getConnection());
+
+		//Case 3: read-only transaction
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertSame(replicaConnection, dataSource.getConnection());
+
+		//Case 4: read-only transaction pinned to the primary
+		boolean previous = ReadWriteRoutingDataSource.pinToPrimary();
+		try {
+			assertSame(primaryConnection, dataSource.getConnection());
+		} finally {
+			ReadWriteRoutingDataSource.unpin(previous);
+		}
+		assertSame(replicaConnection, dataSource.getConnection());
+
+		//Case 5: replica lagging
+		Mockito.when(replicaLagGuard.isReplicaUsable()).thenReturn(false);
+		assertSame(primaryConnection, dataSource.getConnection());
+	}
+
+	@Test
+	public void replicaNotAvailableTest() throws SQLException {
+		Mockito.when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertSame(primaryConnection, dataSource.getConnection());
+		Mockito.verify(replicaLagGuard).markUnavailable();
+	}
+}
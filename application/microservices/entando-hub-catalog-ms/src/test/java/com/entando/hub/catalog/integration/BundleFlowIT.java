@@ -1,19 +1,31 @@
 package com.entando.hub.catalog.integration;
 
+import com.entando.hub.catalog.persistence.entity.Bundle.DescriptorVersion;
 import com.entando.hub.catalog.rest.BundleController.Bundle;
+import com.entando.hub.catalog.service.BundleService;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalog;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalogBuilder;
 import com.entando.hub.catalog.testhelper.AssertionHelper;
 import com.entando.hub.catalog.testhelper.TestHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.StatusResultMatchers;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.entando.hub.catalog.config.AuthoritiesConstants.ADMIN;
 import static com.entando.hub.catalog.config.AuthoritiesConstants.MANAGER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -21,6 +33,11 @@ class BundleFlowIT extends BaseFlowIT {
 
     private static final String BASE_URL = "/api/bundles";
 
+    @Autowired
+    private BundleService bundleService;
+    @Autowired
+    private PublishedCatalogBuilder publishedCatalogBuilder;
+
     @BeforeEach
     public void setUp() {
         super.setUpBundleFlowData();
@@ -175,6 +192,26 @@ class BundleFlowIT extends BaseFlowIT {
         executeGetBundlesRequest(bundleGroupVersion1.getId(), catalog2.getId(), StatusResultMatchers::isNotFound);
     }
 
+    @Test
+    void theAppBuilderShouldGetTheSameBundlesFromTheSnapshotAndFromTheDatabase() {
+
+        // bundleGroup4 is published but private, bundleGroupVersion2 is public but not published
+        PublishedCatalog publishedCatalog = publishedCatalogBuilder.build();
+        Set<DescriptorVersion> versions = EnumSet.allOf(DescriptorVersion.class);
+
+        List<String> bundleGroupIds = new ArrayList<>();
+        bundleGroupIds.add(null);
+        List.of(bundleGroup1, bundleGroup2, bundleGroup3, bundleGroup4).forEach(bundleGroup -> bundleGroupIds.add(bundleGroup.getId().toString()));
+        for (String bundleGroupId : bundleGroupIds) {
+            List<Bundle> fromSnapshot = publishedCatalog.getBundles(0, 0, bundleGroupId, versions).getPayload();
+            List<Bundle> fromDatabase = bundleService.getPublishedBundles(0, 0, Optional.ofNullable(bundleGroupId), versions).getPayload();
+            assertEquals(new HashSet<>(fromSnapshot), new HashSet<>(fromDatabase), "bundleGroupId " + bundleGroupId);
+        }
+        assertEquals(Set.of(bundle1.getId().toString(), bundle3.getId().toString()),
+                bundleService.getPublishedBundles(0, 0, Optional.empty(), versions).getPayload().stream()
+                        .map(Bundle::getBundleId).collect(Collectors.toSet()));
+    }
+
 
     private ResultActions executeOkGetBundlesRequest(Long bundleGroupVersionId, Long catalogId) throws Exception {
         return executeGetBundlesRequest(bundleGroupVersionId, catalogId, StatusResultMatchers::isOk);
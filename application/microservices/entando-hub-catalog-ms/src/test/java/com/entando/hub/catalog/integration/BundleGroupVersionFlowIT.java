@@ -2,20 +2,32 @@ package com.entando.hub.catalog.integration;
 
 import static com.entando.hub.catalog.config.AuthoritiesConstants.ADMIN;
 import static com.entando.hub.catalog.config.AuthoritiesConstants.MANAGER;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
+import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion.Status;
+import com.entando.hub.catalog.persistence.entity.Category;
+import com.entando.hub.catalog.persistence.specification.BundleGroupVersionSpecifications;
 import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
 import com.entando.hub.catalog.rest.BundleGroupVersionController.BundleGroupVersionView;
+import com.entando.hub.catalog.service.BundleGroupVersionService;
 import com.entando.hub.catalog.testhelper.AssertionHelper;
 import com.entando.hub.catalog.testhelper.TestHelper;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.ResultActions;
@@ -26,6 +38,9 @@ class BundleGroupVersionFlowIT extends BaseFlowIT {
 
     private static final String BASE_URL = "/api/bundlegroupversions";
 
+    @Autowired
+    private BundleGroupVersionService bundleGroupVersionService;
+
     @BeforeEach
     public void setUp() {
         super.setUpBundleGroupVersionFlowData();
@@ -66,6 +81,43 @@ class BundleGroupVersionFlowIT extends BaseFlowIT {
 //        AssertionHelper.assertOnBundleGroupVersionFilteredResponseViews(resultActions, Collections.emptyList());
     }
 
+    @Test
+    void shouldMatchTheSearchTextOnEveryField() throws Exception {
+        bundleGroupRepository.save(bundleGroup1.setName("Alpha Widgets"));
+        organisationRepository.save(organisation2.setName("Beta Corp"));
+        bundleGroupVersionRepository.save(bundleGroupVersion2.setDescription("The gamma release"));
+        bundleRepository.save(bundle3.setName("delta-bundle"));
+        bundleRepository.save(bundle4.setDescription("Epsilon, 100%_ tested"));
+
+        // bundle group name, organisation name, version description, bundle name and description, case-insensitive
+        assertEquals(List.of(bundleGroupVersion1.getId()), searchIds("ALPHA"));
+        assertEquals(List.of(bundleGroupVersion3.getId(), bundleGroupVersion4.getId()), searchIds("beta corp"));
+        assertEquals(List.of(bundleGroupVersion2.getId()), searchIds("Gamma"));
+        assertEquals(List.of(bundleGroupVersion3.getId()), searchIds("delta"));
+        assertEquals(List.of(bundleGroupVersion4.getId()), searchIds("epsilon"));
+
+        // the LIKE wildcards are matched literally
+        assertEquals(List.of(bundleGroupVersion4.getId()), searchIds("100%_"));
+        assertEquals(Collections.emptyList(), searchIds("1_0%"));
+
+        // the public search, bundleGroup4 is not in the public catalog
+        executeGetFilteredRequest("&searchText=delta")
+                .andExpect(jsonPath("$.payload", hasSize(1)))
+                .andExpect(jsonPath("$.payload[0].bundleGroupVersionId").value(bundleGroupVersion3.getId()));
+        executeGetFilteredRequest("&searchText=beta corp")
+                .andExpect(jsonPath("$.payload", hasSize(1)))
+                .andExpect(jsonPath("$.payload[0].bundleGroupVersionId").value(bundleGroupVersion3.getId()));
+        executeGetFilteredRequest("&searchText=epsilon")
+                .andExpect(jsonPath("$.payload", hasSize(0)));
+    }
+
+    private List<Long> searchIds(String searchText) {
+        return bundleGroupVersionRepository.findAll(BundleGroupVersionSpecifications.matchingText(searchText)).stream()
+                .map(BundleGroupVersion::getId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
     @Test
     void shouldGetTheExpectedBundleGroupVersions() throws Exception {
 
@@ -83,6 +135,23 @@ class BundleGroupVersionFlowIT extends BaseFlowIT {
         resultActions.andExpect(jsonPath("$").doesNotExist());
     }
 
+    @Test
+    void shouldLoadTheBundlesAndTheCategoriesOfAVersion() {
+        BundleGroupVersion bundleGroupVersion = bundleGroupVersionRepository.save(
+                TestHelper.stubBundleGroupVersion(bundleGroup1, bundle1)
+                        .setVersion(TestHelper.BUNDLE_GROUP_VERSION_2)
+                        .setBundles(new HashSet<>(List.of(bundle1, bundle2, bundle3))));
+
+        // read outside of the transaction, as the controllers do
+        BundleGroupVersion result = bundleGroupVersionService.getBundleGroupVersion(bundleGroupVersion.getId().toString())
+                .orElseThrow();
+        assertEquals(Set.of(bundle1.getId(), bundle2.getId(), bundle3.getId()),
+                result.getBundles().stream().map(Bundle::getId).collect(Collectors.toSet()));
+        assertEquals(categorySet.stream().map(Category::getId).collect(Collectors.toSet()),
+                result.getBundleGroup().getCategories().stream().map(Category::getId).collect(Collectors.toSet()));
+        assertTrue(categorySet.size() > 1);
+    }
+
     @Test
     @WithMockUser(roles = {ADMIN})
     void anAdminShouldBeAbleToAccessAllRequestedBundleGroupVersion() throws Exception {
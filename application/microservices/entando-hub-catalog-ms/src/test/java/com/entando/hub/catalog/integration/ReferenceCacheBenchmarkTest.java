@@ -0,0 +1,119 @@
+package com.entando.hub.catalog.integration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.entando.hub.catalog.persistence.CatalogRepository;
+import com.entando.hub.catalog.persistence.OrganisationRepository;
+import com.entando.hub.catalog.persistence.entity.Catalog;
+import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.testhelper.TestHelper;
+import java.util.Arrays;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Latency and sql statements per call of the hot reads of the reference entities (categories,
+ * organisations, catalogs), with the second-level and query caches cold (all the regions evicted
+ * before every call) and warm, logged. A warm call must run fewer statements than a cold one.
+ * Skipped unless run with -Dbenchmark:
+ * mvn test -Dbenchmark -Dtest=ReferenceCacheBenchmarkTest
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = ".*")
+public class ReferenceCacheBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceCacheBenchmarkTest.class);
+
+    private static final int ORGANISATIONS = 50;
+    private static final int WARMUP = 200;
+    private static final int RUNS = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrganisationRepository organisationRepository;
+    @Autowired
+    private CatalogRepository catalogRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long organisationId;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 1; i <= ORGANISATIONS; i++) {
+            Organisation organisation = organisationRepository.save(new Organisation().setName("Benchmark organisation " + i));
+            catalogRepository.save(new Catalog().setName("Benchmark catalog " + i).setOrganisation(organisation));
+            organisationId = organisation.getId();
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        catalogRepository.deleteAll();
+        organisationRepository.deleteAll();
+        TestHelper.resetSequenceNumber(this.jdbcTemplate, "SEQ_CATALOG_ID");
+        TestHelper.resetSequenceNumber(this.jdbcTemplate, "SEQ_ORGANISATION_ID");
+    }
+
+    @Test
+    public void referenceReadsLatencyTest() throws Exception {
+        run("GET /api/category/", () -> mockMvc.perform(get("/api/category/").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+        run("GET /api/organisation/", () -> mockMvc.perform(get("/api/organisation/").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+        run("catalogRepository.existsByOrganisationId", () -> catalogRepository.existsByOrganisationId(organisationId));
+    }
+
+    private void run(String name, Call call) throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        double[] statements = new double[2];
+        for (boolean cold : new boolean[]{true, false}) {
+            for (int i = 0; i < WARMUP; i++) {
+                if (cold) {
+                    sessionFactory.getCache().evictAllRegions();
+                }
+                call.run();
+            }
+            statistics.clear();
+            long[] latencies = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                if (cold) {
+                    sessionFactory.getCache().evictAllRegions();
+                }
+                long start = System.nanoTime();
+                call.run();
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            statements[cold ? 0 : 1] = (double) statistics.getPrepareStatementCount() / RUNS;
+            logger.info("{}, {} cache: p50 {} us, p99 {} us, {} statements per call", name, cold ? "cold" : "warm",
+                    latencies[RUNS / 2] / 1000, latencies[RUNS * 99 / 100] / 1000, statements[cold ? 0 : 1]);
+        }
+        assertTrue(statements[1] < statements[0],
+                name + ": " + statements[1] + " statements per call with a warm cache, " + statements[0] + " cold");
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+}
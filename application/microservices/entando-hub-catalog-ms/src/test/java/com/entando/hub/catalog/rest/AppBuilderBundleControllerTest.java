@@ -30,8 +30,9 @@ import org.springframework.web.context.WebApplicationContext;
 import com.entando.hub.catalog.persistence.entity.Bundle;
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
-import com.entando.hub.catalog.service.BundleGroupVersionService;
 import com.entando.hub.catalog.service.BundleService;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalogService;
+import com.entando.hub.catalog.service.snapshot.StaticCatalogFiles;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @WebMvcTest(AppBuilderBundleController.class)
@@ -49,8 +50,12 @@ public class AppBuilderBundleControllerTest {
 	@MockBean
 	BundleService bundleService;
 
+	// no snapshot: the bundles are read from the database
 	@MockBean
-	BundleGroupVersionService bundleGroupVersionService;
+	PublishedCatalogService publishedCatalogService;
+
+	@MockBean
+	StaticCatalogFiles staticCatalogFiles;
 
     private static final String URI = "/appbuilder/api/bundles/";
 
@@ -88,18 +93,16 @@ public class AppBuilderBundleControllerTest {
 		List<Bundle> bundlesList = new ArrayList<>();
 		Bundle bundle = getBundleObj();
 		bundlesList.add(bundle);
-	
-		BundleController.Bundle bundleC = new BundleController.Bundle(bundle);
-		List<BundleController.Bundle> bundlesCList = new ArrayList<>();
-		bundlesCList.add(bundleC);
-		
-		Page<Bundle> response = new PageImpl<>(bundlesList);
+
+		Page<Bundle> bundlesPage = new PageImpl<>(bundlesList);
 
 		Set<Bundle.DescriptorVersion> versions = new HashSet<>();
 		versions.add(Bundle.DescriptorVersion.V1);
 
 		//Case 1: bundleGroupId not provided, page = 0, bundle has null versions
-		Mockito.when(bundleService.getBundles(page, pageSize, Optional.ofNullable(null), versions)).thenReturn(response);
+		PagedContent<BundleController.Bundle, Bundle> response = new PagedContent<>(
+				List.of(new BundleController.Bundle(bundle, List.of())), bundlesPage);
+		Mockito.when(bundleService.getPublishedBundles(page, pageSize, Optional.ofNullable(null), versions)).thenReturn(response);
 
 		mockMvc.perform(MockMvcRequestBuilders.get(URI)
 				.param(PAGE_PARAM, page.toString())
@@ -108,50 +111,38 @@ public class AppBuilderBundleControllerTest {
 				.andExpect(jsonPath("$.payload").exists())
 				.andExpect(jsonPath("$.metadata").exists())
 				.andExpect(status().isOk());
-		
-		//Case 2: bundle has a version
-		bundle.setBundleGroupVersions(Set.of(bundleGroupVersion));
-		Mockito.when(bundleGroupVersionService.getBundleGroupVersion(bundleGroupVersionId)).thenReturn(Optional.of(bundleGroupVersion));
-		Mockito.when(bundleService.getBundles(page, pageSize, Optional.ofNullable(null), versions)).thenReturn(response);
-		
-		mockMvc.perform(MockMvcRequestBuilders.get(URI)
-				.param(PAGE_PARAM, page.toString())
-		        .param(PAGE_SIZE_PARAM, pageSize.toString()))
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
-				.andExpect(jsonPath("$.payload").exists())
-				.andExpect(jsonPath("$.metadata").exists())
-				.andExpect(status().isOk());
 
-//		//Case 3: optionalBundleGroup is empty
-		Mockito.when(bundleGroupVersionService.getBundleGroupVersion(bundleGroupVersionId)).thenReturn(Optional.empty());
+		//Case 2: bundle has a version, its description is the one of the version
+		BundleController.Bundle bundleC = new BundleController.Bundle(bundle, List.of(bundleGroupVersionId));
+		bundleC.setDescription(bundleGroupVersion.getDescription());
+		response = new PagedContent<>(List.of(bundleC), bundlesPage);
+		Mockito.when(bundleService.getPublishedBundles(page, pageSize, Optional.ofNullable(null), versions)).thenReturn(response);
+
 		mockMvc.perform(MockMvcRequestBuilders.get(URI)
 				.param(PAGE_PARAM, page.toString())
 		        .param(PAGE_SIZE_PARAM, pageSize.toString()))
 				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
-				.andExpect(jsonPath("$.payload").exists())
+				.andExpect(jsonPath("$.payload[0].description").value(BUNDLE_GROUP_VERSION_DESCRIPTION))
 				.andExpect(jsonPath("$.metadata").exists())
 				.andExpect(status().isOk());
 
-//		//Case 4: bundleGroupId provided, page >= 1
+		//Case 3: bundleGroupId provided, page >= 1
 		page = 1;
 		Integer sanitizedPageNum = page >= 1 ? page - 1 : 0;
-		Mockito.when(bundleService.getBundles(sanitizedPageNum, pageSize, Optional.of(bundleGroupId), versions)).thenReturn(response);
+		Mockito.when(bundleService.getPublishedBundles(sanitizedPageNum, pageSize, Optional.of(bundleGroupId), versions)).thenReturn(response);
 
 		mockMvc.perform(MockMvcRequestBuilders.get(URI)
 				.param(PAGE_PARAM, page.toString())
-		        .param(PAGE_SIZE_PARAM, pageSize.toString()))
+		        .param(PAGE_SIZE_PARAM, pageSize.toString())
+				.param("bundleGroupId", bundleGroupId))
 				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
 				.andExpect(jsonPath("$.payload").hasJsonPath())
 				.andExpect(jsonPath("$.metadata").hasJsonPath())
 				.andExpect(status().isOk());
 
-		//Case 5: provide one more good descriptorVersion as well as a bad one (which should be excluded.
+		//Case 4: provide one more good descriptorVersion as well as a bad one (which should be excluded.
 		versions.add(Bundle.DescriptorVersion.V5);
-		page = 1;
-
-		bundle.setBundleGroupVersions(Set.of(bundleGroupVersion));
-		Mockito.when(bundleGroupVersionService.getBundleGroupVersion(bundleGroupVersionId)).thenReturn(Optional.of(bundleGroupVersion));
-		Mockito.when(bundleService.getBundles(page, pageSize, Optional.ofNullable(null), versions)).thenReturn(response);
+		Mockito.when(bundleService.getPublishedBundles(sanitizedPageNum, pageSize, Optional.ofNullable(null), versions)).thenReturn(response);
 
 		mockMvc.perform(MockMvcRequestBuilders.get(URI)
 				.param(PAGE_PARAM, page.toString())
@@ -33,6 +33,8 @@ import com.entando.hub.catalog.persistence.entity.BundleGroupVersion.Status;
 import com.entando.hub.catalog.persistence.entity.Category;
 import com.entando.hub.catalog.persistence.entity.Organisation;
 import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
+import com.entando.hub.catalog.service.snapshot.PublishedCatalogService;
+import com.entando.hub.catalog.service.snapshot.StaticCatalogFiles;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -52,6 +54,13 @@ public class AppBuilderBundleGroupsControllerTest {
 
 	@MockBean
 	BundleGroupVersionController bundleGroupVersionController;
+
+	// no snapshot: the bundle groups are read from the database
+	@MockBean
+	PublishedCatalogService publishedCatalogService;
+
+	@MockBean
+	StaticCatalogFiles staticCatalogFiles;
 	
 	private final Long BUNDLE_GROUP_VERSION_ID =  2001L;
 	private final Long BUNDLE_GROUPID =  2002L;
@@ -100,7 +109,7 @@ public class AppBuilderBundleGroupsControllerTest {
 		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> pagedContent = new PagedContent<>(list, response);
 		
 		//Case 1: all optional parameters given
-		Mockito.when(bundleGroupVersionController.getBundleGroupsAndFilterThem(page, pageSize, null, null, statuses, null)).thenReturn(pagedContent);
+		Mockito.when(bundleGroupVersionController.getBundleGroupsAndFilterThem(page, pageSize, null, null, statuses, null, null, null)).thenReturn(pagedContent);
 		mockMvc.perform(MockMvcRequestBuilders.get("/appbuilder/api/bundlegroups/")
 				.contentType(MediaType.APPLICATION_JSON_VALUE)
 				.param("page", inputJsonPage)
@@ -114,7 +123,7 @@ public class AppBuilderBundleGroupsControllerTest {
 		
 		//Case 2: when statuses list is null
 		String[] defaultStatuses = new String[1];
-		Mockito.when(bundleGroupVersionController.getBundleGroupsAndFilterThem(page, pageSize, null, null, statuses, null)).thenReturn(pagedContent);
+		Mockito.when(bundleGroupVersionController.getBundleGroupsAndFilterThem(page, pageSize, null, null, statuses, null, null, null)).thenReturn(pagedContent);
 		mockMvc.perform(MockMvcRequestBuilders.get("/appbuilder/api/bundlegroups/")
 				.contentType(MediaType.APPLICATION_JSON_VALUE)
 				.param("page", inputJsonPage)
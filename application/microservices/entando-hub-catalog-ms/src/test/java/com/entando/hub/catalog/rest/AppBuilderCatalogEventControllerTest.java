@@ -0,0 +1,98 @@
+package com.entando.hub.catalog.rest;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.response.CatalogEventsResponseView;
+import com.entando.hub.catalog.service.CatalogEventService;
+import com.entando.hub.catalog.service.CatalogEventStreamService;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebMvcTest(AppBuilderCatalogEventController.class)
+public class AppBuilderCatalogEventControllerTest {
+
+	@Autowired
+	WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@InjectMocks
+	AppBuilderCatalogEventController appBuilderCatalogEventController;
+
+	@MockBean
+	CatalogEventService catalogEventService;
+
+	@MockBean
+	CatalogEventStreamService catalogEventStreamService;
+
+	private static final String URI = "/appbuilder/api/events/";
+
+	@Before
+	public void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+	}
+
+	@Test
+	public void testGetEvents() throws Exception {
+		CatalogEvent event = new CatalogEvent()
+				.setId(43L)
+				.setEntityType(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION)
+				.setEntityId(2000L)
+				.setBundleGroupId(1000L)
+				.setAction(CatalogEvent.Action.PUBLISHED);
+		CatalogEventsResponseView view = new CatalogEventsResponseView().setEvents(List.of(event)).setLastEventId(43L);
+		Mockito.when(catalogEventService.getEvents(42L, 100)).thenReturn(view);
+
+		mockMvc.perform(MockMvcRequestBuilders.get(URI)
+				.param("since", "42")
+				.accept(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.events[0].entityType").value("BUNDLE_GROUP_VERSION"))
+				.andExpect(jsonPath("$.events[0].action").value("PUBLISHED"))
+				.andExpect(jsonPath("$.lastEventId").value(43))
+				.andExpect(jsonPath("$.more").value(false));
+	}
+
+	@Test
+	public void testStreamEvents() throws Exception {
+		Mockito.when(catalogEventStreamService.subscribe(42L)).thenReturn(Optional.of(new SseEmitter()));
+
+		mockMvc.perform(MockMvcRequestBuilders.get(URI + "stream")
+				.header("Last-Event-ID", "42")
+				.accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(request().asyncStarted());
+		Mockito.verify(catalogEventStreamService).subscribe(42L);
+	}
+
+	@Test
+	public void testStreamEventsTooManySubscribers() throws Exception {
+		Mockito.when(catalogEventStreamService.subscribe(null)).thenReturn(Optional.empty());
+
+		mockMvc.perform(MockMvcRequestBuilders.get(URI + "stream")
+				.accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+				.andExpect(status().isServiceUnavailable());
+	}
+}
@@ -16,6 +16,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -74,6 +75,7 @@ public class BundleControllerTest {
 		Bundle bundle = populateBundle();
 		bundlesList.add(bundle);
 		Mockito.when(bundleService.getBundles(null,null)).thenReturn(bundlesList);
+		Mockito.when(bundleService.getBundleGroupVersionIds(bundlesList)).thenReturn(Map.of(bundle.getId(), List.of(VERSION_ID.toString())));
 		Mockito.when(bundleGroupValidator.validateBundlePrivateCatalogRequest(any())).thenReturn(true);
 		Mockito.when(securityHelperService.isUserAuthenticated()).thenReturn(true);
 		mockMvc.perform(MockMvcRequestBuilders.get("/api/bundles/").accept(MediaType.APPLICATION_JSON_VALUE))
@@ -82,10 +84,25 @@ public class BundleControllerTest {
 				.andDo(print())
 	            .andExpect(jsonPath("$.[*].bundleId").value(bundle.getId().toString()))
 	            .andExpect(jsonPath("$.[*].name").value(bundle.getName()))
-	            .andExpect(jsonPath("$.[*].description").value(bundle.getDescription()));
+	            .andExpect(jsonPath("$.[*].description").value(bundle.getDescription()))
+	            .andExpect(jsonPath("$.[0].bundleGroups[0]").value(VERSION_ID.toString()));
 		
 	}
 	
+	@Test
+	public void testGetBundlesPaged() throws Exception {
+		Bundle bundle = populateBundle();
+		Mockito.when(bundleService.getVisibleBundles(0, 10)).thenReturn(new PageImpl<>(List.of(bundle)));
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/bundles/paged")
+						.param("page", "1")
+						.param("pageSize", "10")
+						.accept(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.payload[0].bundleId").value(bundle.getId().toString()))
+				.andExpect(jsonPath("$.metadata.page").value(1))
+				.andExpect(jsonPath("$.metadata.totalItems").value(1));
+	}
+
 	@Test
 	public void testGetBundle() throws Exception {
 		List<Bundle> bundlesList = new ArrayList<>();
@@ -2,10 +2,12 @@ package com.entando.hub.catalog.rest;
 
 import com.entando.hub.catalog.persistence.entity.*;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion.Status;
+import com.entando.hub.catalog.response.BundleGroupVersionFacetsResponseView;
 import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
 import com.entando.hub.catalog.rest.BundleGroupVersionController.BundleGroupVersionView;
 import com.entando.hub.catalog.rest.validation.BundleGroupValidator;
 import com.entando.hub.catalog.service.BundleGroupService;
+import com.entando.hub.catalog.service.BundleGroupVersionFacetService;
 import com.entando.hub.catalog.service.BundleGroupVersionService;
 import com.entando.hub.catalog.service.CatalogService;
 import com.entando.hub.catalog.service.CategoryService;
@@ -57,6 +59,8 @@ public class BundleGroupVersionControllerTest {
 	@MockBean
 	BundleGroupService bundleGroupService;
 	@MockBean
+	BundleGroupVersionFacetService bundleGroupVersionFacetService;
+	@MockBean
 	CategoryService categoryService;
 	@MockBean
 	SecurityHelperService securityHelperService;
@@ -187,8 +191,8 @@ public class BundleGroupVersionControllerTest {
 		Page<BundleGroupVersion> response = new PageImpl<>(bundleGroupVersionsList);
 		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> pagedContent = new PagedContent<>(list, response);
 		Mockito.when(bundleGroupService.getBundleGroup(bundleGroupId)).thenReturn(Optional.of(bundleGroup));		//Mockito.when(bundleGroupVersionService.getBundleGroupVersions(page, pageSize, Optional.of(organisationId), categoryIds, statuses, Optional.empty())).thenReturn(pagedContent);
-		Mockito.when(bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null)).thenReturn(pagedContent);
-		Mockito.when(bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null)).thenReturn(pagedContent);
+		Mockito.when(bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null, null, null)).thenReturn(pagedContent);
+		Mockito.when(bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null, null, null)).thenReturn(pagedContent);
 		
 		
 		mockMvc.perform(MockMvcRequestBuilders.get("/api/bundlegroupversions/filtered")
@@ -203,7 +207,7 @@ public class BundleGroupVersionControllerTest {
 				.andExpect(jsonPath("$.payload.[*].version").value(bundleGroupVersion.getVersion()));
 
 		//Case 2: when categories list is null
-		Mockito.when(categoryService.getCategories()).thenReturn(categoryList);
+		Mockito.when(bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, null, statuses, null, null, null)).thenReturn(pagedContent);
 		Mockito.when(bundleGroupService.getBundleGroup(bundleGroupId)).thenReturn(Optional.of(bundleGroup));
 		mockMvc.perform(MockMvcRequestBuilders.get("/api/bundlegroupversions/filtered")
 				.contentType(MediaType.APPLICATION_JSON_VALUE)
@@ -216,9 +220,8 @@ public class BundleGroupVersionControllerTest {
 				.andExpect(jsonPath("$.payload.[*].version").value(bundleGroupVersion.getVersion()));;
 		
 		//Case 3: when statuses list is null
-		statuses = Arrays.stream(com.entando.hub.catalog.persistence.entity.BundleGroupVersion.Status.values()).map(Enum::toString).toArray(String[]::new);
 		Mockito.when(bundleGroupService.getBundleGroup(bundleGroupId)).thenReturn(Optional.of(bundleGroup));
-		Mockito.when(bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null)).thenReturn(pagedContent);
+		Mockito.when(bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, null, null, null, null)).thenReturn(pagedContent);
 		mockMvc.perform(MockMvcRequestBuilders.get("/api/bundlegroupversions/filtered")
 				.contentType(MediaType.APPLICATION_JSON_VALUE)
 				.param("page", inputJsonPage)
@@ -245,6 +248,26 @@ public class BundleGroupVersionControllerTest {
 				.andExpect(jsonPath("$.payload.[*].version").value(bundleGroupVersion.getVersion()));;
 	}
 	
+	@Test
+	public void testGetBundleGroupVersionFacets() throws Exception {
+		String[] statuses = new String[]{BundleGroupVersion.Status.PUBLISHED.toString()};
+		BundleGroupVersionFacetsResponseView facets = new BundleGroupVersionFacetsResponseView()
+				.setCategories(Map.of(CATEGORY_ID, 2L))
+				.setOrganisations(Map.of(ORG_ID, 3L))
+				.setStatuses(Map.of(BundleGroupVersion.Status.PUBLISHED, 3L))
+				.setRevision(7L);
+		Mockito.when(bundleGroupVersionFacetService.getFacets(null, null, statuses, null)).thenReturn(facets);
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/bundlegroupversions/facets")
+				.param("statuses", statuses)
+				.accept(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.categories." + CATEGORY_ID).value(2))
+				.andExpect(jsonPath("$.organisations." + ORG_ID).value(3))
+				.andExpect(jsonPath("$.statuses.PUBLISHED").value(3))
+				.andExpect(jsonPath("$.revision").value(7));
+	}
+
 	@Test
 	public void testGetBundleGroupVersion() throws Exception {
 		BundleGroupVersion bundleGroupVersion = createBundleGroupVersion(true);
@@ -0,0 +1,79 @@
+package com.entando.hub.catalog.rest;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.entando.hub.catalog.service.index.SuggestionIndex;
+import com.entando.hub.catalog.service.index.SuggestionIndex.Suggestion;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebMvcTest(SuggestionController.class)
+public class SuggestionControllerTest {
+
+	@Autowired
+	WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@InjectMocks
+	SuggestionController suggestionController;
+
+	@MockBean
+	SuggestionIndex suggestionIndex;
+
+	private static final String URI = "/api/suggestions/";
+
+	@Before
+	public void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+	}
+
+	@Test
+	public void testGetSuggestions() throws Exception {
+		Suggestion suggestion = new Suggestion(SuggestionIndex.Type.BUNDLE_GROUP, 1000L, "Entando Bundle Group");
+		Mockito.when(suggestionIndex.suggest("ent", 10)).thenReturn(List.of(suggestion));
+
+		mockMvc.perform(MockMvcRequestBuilders.get(URI)
+				.param("prefix", "ent")
+				.accept(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.[0].type").value("BUNDLE_GROUP"))
+				.andExpect(jsonPath("$.[0].id").value(1000))
+				.andExpect(jsonPath("$.[0].name").value("Entando Bundle Group"));
+
+		//Case 2: limit above the maximum
+		Mockito.when(suggestionIndex.suggest("ent", 50)).thenReturn(List.of(suggestion, suggestion));
+		mockMvc.perform(MockMvcRequestBuilders.get(URI)
+				.param("prefix", "ent")
+				.param("limit", "500")
+				.accept(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2));
+
+		//Case 3: a limit not above zero means the default
+		mockMvc.perform(MockMvcRequestBuilders.get(URI)
+				.param("prefix", "ent")
+				.param("limit", "0")
+				.accept(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1));
+	}
+}
@@ -0,0 +1,144 @@
+package com.entando.hub.catalog.rest.validation;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.entando.hub.catalog.persistence.projection.BundleGroupVisibility;
+import com.entando.hub.catalog.service.BundleGroupService;
+import com.entando.hub.catalog.service.BundleGroupVersionService;
+import com.entando.hub.catalog.service.exception.NotFoundException;
+import com.entando.hub.catalog.service.index.BundleGroupVisibilityIndex;
+import com.entando.hub.catalog.service.security.PrincipalContext;
+import com.entando.hub.catalog.service.security.PrincipalContextService;
+import com.entando.hub.catalog.service.security.SecurityHelperService;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BundleGroupValidatorTest {
+
+	@InjectMocks
+	BundleGroupValidator bundleGroupValidator;
+	@Mock
+	BundleGroupService bundleGroupService;
+	@Mock
+	BundleGroupVersionService bundleGroupVersionService;
+	@Mock
+	SecurityHelperService securityHelperService;
+	@Mock
+	PrincipalContextService principalContextService;
+	@Mock
+	BundleGroupVisibilityIndex bundleGroupVisibilityIndex;
+	@Mock
+	PrincipalContext principalContext;
+
+	private static final String BUNDLE_GROUP_VERSION_ID = "1002";
+	private static final Long BUNDLE_GROUP_ID = 1000L;
+	private static final Long CATALOG_ID = 3000L;
+	private static final Long ORG_ID = 2000L;
+
+	@Before
+	public void setUp() {
+		Mockito.when(securityHelperService.getContextAuthenticationUsername()).thenReturn("user");
+		Mockito.when(principalContextService.getPrincipalContext("user")).thenReturn(principalContext);
+		Mockito.when(principalContext.getOrganisationIds()).thenReturn(Set.of(ORG_ID));
+		Mockito.when(principalContext.canAccessCatalog(CATALOG_ID)).thenReturn(true);
+		Mockito.when(bundleGroupVersionService.getBundleGroupId(BUNDLE_GROUP_VERSION_ID)).thenReturn(Optional.of(BUNDLE_GROUP_ID));
+		Mockito.when(bundleGroupVisibilityIndex.isReady()).thenReturn(true);
+		Mockito.when(bundleGroupVisibilityIndex.contains(BUNDLE_GROUP_ID)).thenReturn(true);
+	}
+
+	@Test
+	public void validateFromIndexTest() {
+		Mockito.when(bundleGroupVisibilityIndex.isInCatalog(BUNDLE_GROUP_ID, CATALOG_ID)).thenReturn(true);
+		Mockito.when(bundleGroupVisibilityIndex.isVisibleTo(BUNDLE_GROUP_ID, Set.of(ORG_ID))).thenReturn(true);
+
+		assertTrue(bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(CATALOG_ID, BUNDLE_GROUP_VERSION_ID));
+		assertTrue(bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(null, BUNDLE_GROUP_VERSION_ID));
+		// the bundle group is not loaded
+		Mockito.verify(bundleGroupVersionService, Mockito.never()).getBundleGroupVersion(Mockito.any());
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void validateNotInCatalogTest() {
+		Mockito.when(bundleGroupVisibilityIndex.isInCatalog(BUNDLE_GROUP_ID, CATALOG_ID)).thenReturn(false);
+		bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(CATALOG_ID, BUNDLE_GROUP_VERSION_ID);
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void validateNotVisibleTest() {
+		Mockito.when(bundleGroupVisibilityIndex.isVisibleTo(BUNDLE_GROUP_ID, Set.of(ORG_ID))).thenReturn(false);
+		bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(null, BUNDLE_GROUP_VERSION_ID);
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void validateMissingVersionTest() {
+		Mockito.when(bundleGroupVersionService.getBundleGroupId(BUNDLE_GROUP_VERSION_ID)).thenReturn(Optional.empty());
+		bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(null, BUNDLE_GROUP_VERSION_ID);
+	}
+
+	@Test
+	public void validateFromDatabaseTest() {
+		// the index doesn't know the bundle group yet
+		Mockito.when(bundleGroupVisibilityIndex.contains(BUNDLE_GROUP_ID)).thenReturn(false);
+		Mockito.when(bundleGroupService.getBundleGroupVisibility(BUNDLE_GROUP_ID)).thenReturn(Optional.of(visibility(3001L, CATALOG_ID, true)));
+
+		assertTrue(bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(CATALOG_ID, BUNDLE_GROUP_VERSION_ID));
+		assertTrue(bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(null, BUNDLE_GROUP_VERSION_ID));
+		Mockito.verify(bundleGroupVisibilityIndex, Mockito.never()).isInCatalog(Mockito.any(), Mockito.any());
+		Mockito.verify(bundleGroupVersionService, Mockito.never()).getBundleGroupVersion(Mockito.any());
+	}
+
+	@Test
+	public void validateNullPublicCatalogFromDatabaseTest() {
+		Mockito.when(bundleGroupVisibilityIndex.contains(BUNDLE_GROUP_ID)).thenReturn(false);
+
+		// a null public catalog is not public: visible to the members of the organisation only
+		Mockito.when(bundleGroupService.getBundleGroupVisibility(BUNDLE_GROUP_ID)).thenReturn(Optional.of(visibility(ORG_ID, null, null)));
+		assertTrue(bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(null, BUNDLE_GROUP_VERSION_ID));
+
+		//Case 2: not a member
+		Mockito.when(bundleGroupService.getBundleGroupVisibility(BUNDLE_GROUP_ID)).thenReturn(Optional.of(visibility(3001L, null, null)));
+		assertThrows(NotFoundException.class,
+				() -> bundleGroupValidator.validateBundleGroupVersionPrivateCatalogRequest(null, BUNDLE_GROUP_VERSION_ID));
+	}
+
+	private BundleGroupVisibility visibility(Long organisationId, Long catalogId, Boolean publicCatalog) {
+		return new BundleGroupVisibility() {
+			@Override
+			public Long getId() {
+				return BUNDLE_GROUP_ID;
+			}
+
+			@Override
+			public Long getOrganisationId() {
+				return organisationId;
+			}
+
+			@Override
+			public Long getCatalogId() {
+				return catalogId;
+			}
+
+			@Override
+			public Boolean getPublicCatalog() {
+				return publicCatalog;
+			}
+		};
+	}
+}
@@ -48,6 +48,8 @@ public class BundleGroupServiceTest {
 	CatalogRepository catalogRepository;
 	@Mock
 	BundleGroupVersionService bundleGroupVersionService;
+	@Mock
+	CatalogEventService catalogEventService;
 	
 	private final Long BUNDLE_GROUP_VERSION_ID =  2001L;
 	private final Long BUNDLE_GROUPID =  2002L;
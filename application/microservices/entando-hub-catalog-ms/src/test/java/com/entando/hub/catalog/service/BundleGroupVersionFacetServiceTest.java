@@ -0,0 +1,96 @@
+package com.entando.hub.catalog.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.response.BundleGroupVersionFacetsResponseView;
+import com.entando.hub.catalog.service.index.CatalogRevision;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BundleGroupVersionFacetServiceTest {
+
+	@Mock
+	BundleGroupVersionRepository bundleGroupVersionRepository;
+
+	CatalogRevision catalogRevision;
+
+	BundleGroupVersionFacetService bundleGroupVersionFacetService;
+
+	private static final Long ORGANISATION_ID = 4000L;
+	private static final Long CATEGORY_ID = 3000L;
+
+	@Before
+	public void setUp() {
+		catalogRevision = new CatalogRevision();
+		bundleGroupVersionFacetService = new BundleGroupVersionFacetService(bundleGroupVersionRepository, catalogRevision, 100);
+		Mockito.when(bundleGroupVersionRepository.countByCategory(any(Specification.class))).thenReturn(Map.of(CATEGORY_ID, 2L));
+		Mockito.when(bundleGroupVersionRepository.countByOrganisation(any(Specification.class))).thenReturn(Map.of(ORGANISATION_ID, 3L));
+		Mockito.when(bundleGroupVersionRepository.countByStatus(any(Specification.class))).thenReturn(Map.of(BundleGroupVersion.Status.PUBLISHED, 3L));
+	}
+
+	@Test
+	public void getFacetsTest() {
+		BundleGroupVersionFacetsResponseView facets = bundleGroupVersionFacetService.getFacets(null, null, null, null);
+		assertEquals(Long.valueOf(2L), facets.getCategories().get(CATEGORY_ID));
+		assertEquals(Long.valueOf(3L), facets.getOrganisations().get(ORGANISATION_ID));
+		assertEquals(Long.valueOf(3L), facets.getStatuses().get(BundleGroupVersion.Status.PUBLISHED));
+		assertEquals(0L, facets.getRevision());
+	}
+
+	@Test
+	public void getFacetsIsCachedByFilterSignatureTest() {
+		BundleGroupVersionFacetsResponseView facets = bundleGroupVersionFacetService.getFacets(ORGANISATION_ID,
+				new String[]{"2", "1"}, new String[]{"PUBLISHED"}, "Bundle");
+		BundleGroupVersionFacetsResponseView cached = bundleGroupVersionFacetService.getFacets(ORGANISATION_ID,
+				new String[]{"1", "2"}, new String[]{"PUBLISHED"}, "bundle");
+		assertSame(facets, cached);
+		Mockito.verify(bundleGroupVersionRepository, Mockito.times(1)).countByCategory(any(Specification.class));
+
+		bundleGroupVersionFacetService.getFacets(null, null, null, null);
+		Mockito.verify(bundleGroupVersionRepository, Mockito.times(2)).countByCategory(any(Specification.class));
+	}
+
+	@Test
+	public void getFacetsIsRecomputedWhenTheRevisionChangesTest() {
+		BundleGroupVersionFacetsResponseView facets = bundleGroupVersionFacetService.getFacets(null, null, null, null);
+		catalogRevision.onCatalogChange(null);
+		BundleGroupVersionFacetsResponseView recomputed = bundleGroupVersionFacetService.getFacets(null, null, null, null);
+		assertEquals(1L, recomputed.getRevision());
+		Mockito.verify(bundleGroupVersionRepository, Mockito.times(2)).countByStatus(any(Specification.class));
+		assertEquals(0L, facets.getRevision());
+	}
+
+	@Test
+	public void getFacetsEvictsTheLeastRecentlyUsedTest() {
+		bundleGroupVersionFacetService = new BundleGroupVersionFacetService(bundleGroupVersionRepository, catalogRevision, 2);
+		BundleGroupVersionFacetsResponseView all = bundleGroupVersionFacetService.getFacets(null, null, null, null);
+		bundleGroupVersionFacetService.getFacets(ORGANISATION_ID, null, null, null);
+		assertSame(all, bundleGroupVersionFacetService.getFacets(null, null, null, null));
+
+		// the organisation facets make room for the new ones, the most used stay
+		bundleGroupVersionFacetService.getFacets(null, null, null, "bundle");
+		assertSame(all, bundleGroupVersionFacetService.getFacets(null, null, null, null));
+		Mockito.verify(bundleGroupVersionRepository, Mockito.times(3)).countByCategory(any(Specification.class));
+		bundleGroupVersionFacetService.getFacets(ORGANISATION_ID, null, null, null);
+		Mockito.verify(bundleGroupVersionRepository, Mockito.times(4)).countByCategory(any(Specification.class));
+	}
+}
@@ -0,0 +1,102 @@
+package com.entando.hub.catalog.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogListingRefreshEvent;
+import com.entando.hub.catalog.service.index.BundleGroupVersionListingRefresher;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BundleGroupVersionListingRefresherTest {
+
+	private static final String REFRESH = "REFRESH MATERIALIZED VIEW CONCURRENTLY bundle_group_version_listing";
+
+	@Mock
+	JdbcTemplate jdbcTemplate;
+	@Mock
+	ApplicationEventPublisher applicationEventPublisher;
+
+	@Test
+	public void refreshTest() {
+		BundleGroupVersionListingRefresher refresher = refresher("jdbc:postgresql://localhost:5432/hub");
+		refresher.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE_GROUP, 5L, CatalogChangeEvent.Action.UPDATED));
+
+		Mockito.verify(jdbcTemplate, Mockito.timeout(5000)).execute(REFRESH);
+		Mockito.verify(applicationEventPublisher, Mockito.timeout(5000)).publishEvent(any(CatalogListingRefreshEvent.class));
+
+		//Case 2: the changes of the other replicas are refreshed too, each replica refreshes its own
+		refresher.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE_GROUP, 5L, CatalogChangeEvent.Action.UPDATED, true));
+		Mockito.verify(jdbcTemplate, Mockito.timeout(5000).times(2)).execute(REFRESH);
+		Mockito.verify(applicationEventPublisher, Mockito.timeout(5000).times(2)).publishEvent(any(CatalogListingRefreshEvent.class));
+		refresher.shutdown();
+	}
+
+	@Test
+	public void isFreshTest() {
+		BundleGroupVersionListingRefresher refresher = refresher("jdbc:postgresql://localhost:5432/hub");
+		// not yet refreshed since the start
+		assertFalse(refresher.isFresh());
+
+		refresher.onStart();
+		Mockito.verify(applicationEventPublisher, Mockito.timeout(5000)).publishEvent(any(CatalogListingRefreshEvent.class));
+		assertTrue(refresher.isFresh());
+
+		//Case 2: a change seen since the last refresh, which fails
+		Mockito.doThrow(new QueryTimeoutException("lock timeout")).when(jdbcTemplate).execute(REFRESH);
+		refresher.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE_GROUP, 5L, CatalogChangeEvent.Action.UPDATED, true));
+		Mockito.verify(jdbcTemplate, Mockito.timeout(5000).times(2)).execute(REFRESH);
+		assertFalse(refresher.isFresh());
+		refresher.shutdown();
+
+		//Case 3: the plain view is always fresh, unless the refresh is disabled
+		assertTrue(refresher("jdbc:h2:mem:testdb").isFresh());
+		DataSourceProperties dataSourceProperties = new DataSourceProperties();
+		dataSourceProperties.setUrl("jdbc:h2:mem:testdb");
+		assertFalse(new BundleGroupVersionListingRefresher(jdbcTemplate, dataSourceProperties,
+				applicationEventPublisher, false).isFresh());
+	}
+
+	@Test
+	public void failedRefreshTest() {
+		BundleGroupVersionListingRefresher refresher = refresher("jdbc:postgresql://localhost:5432/hub");
+		Mockito.doThrow(new QueryTimeoutException("lock timeout")).when(jdbcTemplate).execute(REFRESH);
+		refresher.onStart();
+
+		Mockito.verify(jdbcTemplate, Mockito.timeout(5000)).execute(REFRESH);
+		Mockito.verify(applicationEventPublisher, Mockito.after(200).never()).publishEvent(any(Object.class));
+		refresher.shutdown();
+	}
+
+	@Test
+	public void notSupportedDatasourceTest() {
+		BundleGroupVersionListingRefresher refresher = refresher("jdbc:h2:mem:testdb");
+		refresher.onStart();
+		Mockito.verify(jdbcTemplate, Mockito.after(200).never()).execute(REFRESH);
+		refresher.shutdown();
+	}
+
+	private BundleGroupVersionListingRefresher refresher(String url) {
+		DataSourceProperties dataSourceProperties = new DataSourceProperties();
+		dataSourceProperties.setUrl(url);
+		return new BundleGroupVersionListingRefresher(jdbcTemplate, dataSourceProperties,
+				applicationEventPublisher, true);
+	}
+}
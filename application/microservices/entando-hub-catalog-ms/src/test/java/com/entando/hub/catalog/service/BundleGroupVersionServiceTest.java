@@ -2,17 +2,21 @@ package com.entando.hub.catalog.service;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -28,19 +32,28 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.BundleGroupVersionListingRepository;
 import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
 import com.entando.hub.catalog.persistence.BundleRepository;
 import com.entando.hub.catalog.persistence.CategoryRepository;
 import com.entando.hub.catalog.persistence.entity.Bundle;
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.entity.BundleGroupVersionListing;
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
 import com.entando.hub.catalog.persistence.entity.Category;
 import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionSearchRow;
 import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
 import com.entando.hub.catalog.rest.BundleGroupVersionController.BundleGroupVersionView;
 import com.entando.hub.catalog.rest.PagedContent;
+import com.entando.hub.catalog.service.index.BundleGroupVersionListingRefresher;
+import com.entando.hub.catalog.service.index.FuzzyNameIndex;
+import com.entando.hub.catalog.service.index.CatalogRevision;
+import com.entando.hub.catalog.service.index.RelevanceIndex;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -61,6 +74,18 @@ public class BundleGroupVersionServiceTest {
 	CategoryRepository categoryRepository;
 	@Mock
 	Environment environment;
+	@Mock
+	FuzzyNameIndex fuzzyNameIndex;
+	@Mock
+	RelevanceIndex relevanceIndex;
+	@Mock
+	CatalogEventService catalogEventService;
+	@Mock
+	CatalogRevision catalogRevision;
+	@Mock
+	BundleGroupVersionListingRepository bundleGroupVersionListingRepository;
+	@Mock
+	BundleGroupVersionListingRefresher bundleGroupVersionListingRefresher;
 	
 	private static final Long BUNDLE_GROUP_VERSION_ID = 1002L;
     private static final String BUNDLE_GROUP_VERSION_DESCRIPTION = "Test Bundle Group Version Decription";
@@ -151,6 +176,26 @@ public class BundleGroupVersionServiceTest {
 		assertNotNull(bundleGroupVersionResult3);
 		assertEquals(bundleGroupVersionResult3.getId(), bundleGroupVersion.getId());
 	}
+
+	@Test
+	public void createBundleGroupVersionRecordsEventsTest() {
+		BundleGroup bundleGroup = createBundleGroup();
+		BundleGroupVersion bundleGroupVersion = createBundleGroupVersion();
+		bundleGroupVersion.setBundleGroup(bundleGroup);
+		BundleGroupVersionView bundleGroupVersionView = new BundleGroupVersionView(bundleGroupVersion);
+		BundleGroupVersion publishedVersion = createBundleGroupVersion();
+		publishedVersion.setId(1001L);
+		publishedVersion.setBundleGroup(bundleGroup);
+
+		Mockito.when(bundleGroupVersionRepository.findStatusById(BUNDLE_GROUP_VERSION_ID)).thenReturn(Optional.of(BundleGroupVersion.Status.NOT_PUBLISHED));
+		Mockito.when(bundleGroupVersionRepository.findByBundleGroupAndStatus(bundleGroup, BundleGroupVersion.Status.PUBLISHED)).thenReturn(publishedVersion);
+		Mockito.when(bundleGroupVersionRepository.save(bundleGroupVersion)).thenReturn(bundleGroupVersion);
+		bundleGroupVersionService.createBundleGroupVersion(bundleGroupVersion, bundleGroupVersionView);
+
+		Mockito.verify(catalogEventService).record(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION, 1001L, BUNDLE_GROUP_ID, CatalogEvent.Action.ARCHIVED);
+		Mockito.verify(catalogEventService).record(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION, BUNDLE_GROUP_VERSION_ID, BUNDLE_GROUP_ID, CatalogEvent.Action.UPDATED);
+		Mockito.verify(catalogEventService).record(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION, BUNDLE_GROUP_VERSION_ID, BUNDLE_GROUP_ID, CatalogEvent.Action.PUBLISHED);
+	}
 	
 	@Test
 	@Ignore
@@ -340,7 +385,6 @@ public class BundleGroupVersionServiceTest {
 	}
 
 	@Test
-	@Ignore
 	public void searchBundleGroupVersionsTest() {
 		List<Category> categoryList = new ArrayList<>();
 		Category category = createCategory();
@@ -378,50 +422,136 @@ public class BundleGroupVersionServiceTest {
 		list.add(viewObj);
 	
 		Page<BundleGroupVersion> response = new PageImpl<>(bundleGroupVersionsList);
-		Mockito.when(bundleGroupRepository.findAll()).thenReturn(bundleGroupsList);
-		Mockito.when(bundleGroupRepository.findDistinctByOrganisationAndCategoriesIn(organisation, categoriesSet)).thenReturn(bundleGroupsList);
-		Mockito.when(bundleGroupRepository.findDistinctByCategoriesIn(categoriesSet)).thenReturn(bundleGroupsList);
-		Mockito.when(bundleGroupVersionRepository.findByBundleGroupInAndStatusIn(bundleGroupsList, statusSet, paging)).thenReturn(response);
+		Mockito.when(bundleGroupVersionRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(response);
 		
 		//Case 1: all optional parameters given
-		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null);
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null, null, null);
 		assertNotNull(bundleGroupVersionResult);
 		assertEquals(bundleGroupVersionResult.getPayload().get(0).getBundleGroupVersionId(), bundleGroupVersionsList.get(0).getId());
 		
 		//Case 2: when search text is not empty
-		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult2 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, "New");
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult2 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, "New", null, null);
 		assertNotNull(bundleGroupVersionResult2);
 		assertEquals(bundleGroupVersionResult2.getPayload().get(0).getBundleGroupVersionId(), bundleGroupVersionsList.get(0).getId());
 		
 		//Case 3: when search text is not empty, organisation id not present
-		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult3 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, categoryIds, statuses, "New");
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult3 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, categoryIds, statuses, "New", null, null);
 		assertNotNull(bundleGroupVersionResult3);
 		assertEquals(bundleGroupVersionResult3.getPayload().get(0).getBundleGroupVersionId(), bundleGroupVersionsList.get(0).getId());
 		
 		//Case 4: when search text is not null but empty
-		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult4 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, "");
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult4 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, "", null, null);
 		assertNotNull(bundleGroupVersionResult4);
 		assertEquals(bundleGroupVersionResult4.getPayload().get(0).getBundleGroupVersionId(), bundleGroupVersionsList.get(0).getId());
 	
 		//Case 5: organisation id not present
-		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult5 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, categoryIds, statuses, null);
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult5 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, categoryIds, statuses, null, null, null);
 		assertNotNull(bundleGroupVersionResult5);
 		assertEquals(bundleGroupVersionResult5.getPayload().get(0).getBundleGroupVersionId(), bundleGroupVersionsList.get(0).getId());
 	
 		//Case 6: page number pageSize == 0
 		pageSize = 0;
-		paging = Pageable.unpaged();
-		Mockito.when(bundleGroupVersionRepository.findByBundleGroupInAndStatusIn(bundleGroupsList, statusSet, paging)).thenReturn(response);
-		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult6 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null);
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult6 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, organisationId, categoryIds, statuses, null, null, null);
 		assertNotNull(bundleGroupVersionResult6);
 		assertEquals(bundleGroupVersionResult6.getPayload().get(0).getBundleGroupVersionId(), bundleGroupVersionsList.get(0).getId());
 		
-		//Case 7: bundleGroups empty
-		bundleGroupsList = new ArrayList<>();
-		Mockito.when(bundleGroupVersionRepository.findByBundleGroupInAndStatusIn(bundleGroupsList, statusSet, paging)).thenReturn(response);
-		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult7 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, categoryIds, statuses, "Old");
+		//Case 7: no category and no status filter
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult7 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, null, null, null, null, null);
 		assertNotNull(bundleGroupVersionResult7);
 		assertEquals(bundleGroupVersionResult7.getPayload().get(0).getBundleGroupVersionId(), bundleGroupVersionsList.get(0).getId());
+
+		//Case 8: fuzzy search, the page is loaded by id in similarity order
+		BundleGroupVersion otherVersion = createBundleGroupVersion();
+		otherVersion.setId(BUNDLE_GROUP_VERSION_ID + 1);
+		Mockito.when(fuzzyNameIndex.isReady()).thenReturn(true);
+		Mockito.when(fuzzyNameIndex.search("Tset", 0.3)).thenReturn(Map.of(bundleGroup.getId(), 0.5));
+		Mockito.when(bundleGroupVersionRepository.findSearchRows(any(Specification.class))).thenReturn(List.of(
+				new BundleGroupVersionSearchRow(otherVersion.getId(), bundleGroup.getId(), BUNDLE_GROUP_NAME, LocalDateTime.now().minusDays(1)),
+				new BundleGroupVersionSearchRow(bundleGroupVersion.getId(), bundleGroup.getId(), BUNDLE_GROUP_NAME, LocalDateTime.now())));
+		Mockito.when(bundleGroupVersionRepository.findAllById(List.of(bundleGroupVersion.getId(), otherVersion.getId())))
+				.thenReturn(List.of(otherVersion, bundleGroupVersion));
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult8 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, null, null, "Tset", 0.3, null);
+		assertEquals(2, bundleGroupVersionResult8.getPayload().size());
+		assertEquals(bundleGroupVersion.getId(), bundleGroupVersionResult8.getPayload().get(0).getBundleGroupVersionId());
+
+		//Case 9: fuzzy search without matches
+		Mockito.when(fuzzyNameIndex.search("zzz", 0.3)).thenReturn(Map.of());
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult9 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, null, null, "zzz", 0.3, null);
+		assertEquals(0, bundleGroupVersionResult9.getPayload().size());
+
+		//Case 10: relevance sort, the best score first
+		Mockito.when(relevanceIndex.isReady()).thenReturn(true);
+		Mockito.when(relevanceIndex.score("Test")).thenReturn(Map.of(otherVersion.getId(), 2.0, bundleGroupVersion.getId(), 1.0));
+		Mockito.when(bundleGroupVersionRepository.findAllById(List.of(otherVersion.getId(), bundleGroupVersion.getId())))
+				.thenReturn(List.of(bundleGroupVersion, otherVersion));
+		PagedContent<BundleGroupVersionFilteredResponseView, BundleGroupVersion> bundleGroupVersionResult10 = bundleGroupVersionService.searchBundleGroupVersions(page, pageSize, null, null, null, "Test", null, BundleGroupVersionService.SORT_RELEVANCE);
+		assertEquals(2, bundleGroupVersionResult10.getPayload().size());
+		assertEquals(otherVersion.getId(), bundleGroupVersionResult10.getPayload().get(0).getBundleGroupVersionId());
+
+		//Case 11: a fuzzyThreshold out of range, whether the index is ready or not
+		Mockito.when(fuzzyNameIndex.isReady()).thenReturn(false);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> bundleGroupVersionService.searchBundleGroupVersions(0, 10, null, null, null, "Tset", 1.5, null));
+		Mockito.when(fuzzyNameIndex.isReady()).thenReturn(true);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> bundleGroupVersionService.searchBundleGroupVersions(0, 10, null, null, null, "Tset", 0d, null));
+	}
+
+	@Test
+	public void searchBundleGroupVersionsFromListingTest() {
+		BundleGroupVersion bundleGroupVersion = createBundleGroupVersion();
+		BundleGroup bundleGroup = createBundleGroup();
+		bundleGroupVersion.setBundleGroup(bundleGroup);
+		Page<BundleGroupVersion> response = new PageImpl<>(List.of(bundleGroupVersion));
+		Mockito.when(bundleGroupVersionRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(response);
+		BundleGroupVersionListing listing = new BundleGroupVersionListing()
+				.setId(bundleGroupVersion.getId())
+				.setBundleGroupId(BUNDLE_GROUP_ID)
+				.setBundleGroupName(BUNDLE_GROUP_NAME)
+				.setPublicCatalog(true)
+				.setOrganisationId(ORG_ID)
+				.setOrganisationName(ORG_NAME)
+				.setCategoryIds(CATEGORY_ID.toString())
+				.setBundleIds(BUNDLE_ID + ",1005")
+				.setAllVersions("v0.9.0," + BUNDLE_GROUP_VERSION_VERSION)
+				.setEditable(false)
+				.setCanAddNewVersion(true);
+		Mockito.when(bundleGroupVersionListingRepository.findAllById(List.of(bundleGroupVersion.getId()))).thenReturn(List.of(listing));
+		Mockito.when(bundleGroupVersionListingRefresher.isFresh()).thenReturn(true);
+
+		// the aggregates come from the listing view, not from the entities
+		BundleGroupVersionFilteredResponseView viewObj = bundleGroupVersionService.searchBundleGroupVersions(0, 10, null, null, null, null, null, null).getPayload().get(0);
+		assertEquals(BUNDLE_GROUP_NAME, viewObj.getName());
+		assertEquals(ORG_NAME, viewObj.getOrganisationName());
+		assertEquals(List.of(BUNDLE_ID.toString(), "1005"), viewObj.getChildren());
+		assertEquals(List.of(CATEGORY_ID.toString()), viewObj.getCategories());
+		assertEquals(List.of("v0.9.0", BUNDLE_GROUP_VERSION_VERSION), viewObj.getAllVersions());
+		assertEquals(false, viewObj.getIsEditable());
+		assertEquals(true, viewObj.isCanAddNewVersion());
+		Mockito.verify(bundleGroupVersionRepository, Mockito.never()).countByBundleGroup(any());
+
+		//Case 2: a version not yet in the view is completed from the entities
+		Mockito.when(bundleGroupVersionListingRepository.findAllById(List.of(bundleGroupVersion.getId()))).thenReturn(List.of());
+		viewObj = bundleGroupVersionService.searchBundleGroupVersions(0, 10, null, null, null, null, null, null).getPayload().get(0);
+		assertEquals(bundleGroup.getName(), viewObj.getName());
+		Mockito.verify(bundleGroupVersionRepository, Mockito.atLeastOnce()).countByBundleGroup(any());
+
+		//Case 3: the view is not read until it is refreshed after the last change
+		Mockito.reset(bundleGroupVersionListingRepository);
+		Mockito.when(bundleGroupVersionListingRefresher.isFresh()).thenReturn(false);
+		viewObj = bundleGroupVersionService.searchBundleGroupVersions(0, 10, null, null, null, null, null, null).getPayload().get(0);
+		assertEquals(bundleGroup.getName(), viewObj.getName());
+		Mockito.verifyNoInteractions(bundleGroupVersionListingRepository);
+
+		//Case 4: the admin listings always read the entities
+		Mockito.when(bundleGroupVersionListingRefresher.isFresh()).thenReturn(true);
+		Mockito.when(bundleGroupVersionRepository.findByBundleGroupAndStatusIn(any(), any(), any(Pageable.class))).thenReturn(response);
+		viewObj = bundleGroupVersionService.getBundleGroupVersions(0, 10, new String[]{"PUBLISHED"}, bundleGroup).getPayload().get(0);
+		assertEquals(bundleGroup.getName(), viewObj.getName());
+		Mockito.verifyNoInteractions(bundleGroupVersionListingRepository);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void searchBundleGroupVersionsWithUnknownSortTest() {
+		bundleGroupVersionService.searchBundleGroupVersions(0, 10, null, null, null, null, null, "price");
 	}
 	
 	private BundleGroupVersion createBundleGroupVersion() {
@@ -6,8 +6,14 @@ import com.entando.hub.catalog.persistence.BundleRepository;
 import com.entando.hub.catalog.persistence.entity.Bundle;
 import com.entando.hub.catalog.persistence.entity.BundleGroup;
 import com.entando.hub.catalog.persistence.entity.BundleGroupVersion;
+import com.entando.hub.catalog.persistence.entity.Organisation;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionLink;
+import com.entando.hub.catalog.rest.BundleController;
 import com.entando.hub.catalog.rest.BundleController.BundleNoId;
+import com.entando.hub.catalog.rest.PagedContent;
 import com.entando.hub.catalog.rest.validation.BundleGroupValidator;
+import com.entando.hub.catalog.service.index.BundleGroupVisibilityIndex;
+import com.entando.hub.catalog.service.index.CatalogRevision;
 import com.entando.hub.catalog.service.security.SecurityHelperService;
 import org.junit.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,6 +33,7 @@ import java.util.*;
 import static com.entando.hub.catalog.config.AuthoritiesConstants.ADMIN;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +53,14 @@ public class BundleServiceTest {
 	SecurityHelperService securityHelperService;
 	@Mock
 	BundleGroupValidator bundleGroupValidator;
+	@Mock
+	BundleGroupVisibilityIndex bundleGroupVisibilityIndex;
+	@Mock
+	PortalUserService portalUserService;
+	@Mock
+	CatalogEventService catalogEventService;
+	@Mock
+	CatalogRevision catalogRevision;
 
 	private static final Long BUNDLE_ID = 1001L; 
 	private static final String BUNDLE_NAME = "Test Bundle Name";
@@ -68,6 +83,7 @@ public class BundleServiceTest {
 		 List<Bundle> bundleList = new ArrayList<>();
 		 Bundle bundle = createBundle();
 		 BundleGroup bundleGroup = createBundleGroup();
+		 bundleGroup.setPublicCatalog(true);
 		 List<BundleGroupVersion> bundleGroupVersionList = new ArrayList<>();
 		 BundleGroupVersion bundleGroupVersion = createBundleGroupVersion();
 		 bundle.setBundleGroupVersions(Set.of(bundleGroupVersion));		
@@ -104,6 +120,13 @@ public class BundleServiceTest {
 		 Page<Bundle> bundleResult3 = bundleService.getBundles(pageNum, pageSize, Optional.of(bundleGroupId.toString()), versions);
 		 assertNotNull(bundleResult3);
 		 assertEquals(0, bundleResult3.getSize());
+
+		//Case 4: bundle group not in the public catalog, as for the published catalog snapshot
+		 bundleGroup.setPublicCatalog(false);
+		 Mockito.when(bundleGroupRepository.findById(bundleGroupId)).thenReturn(Optional.of(bundleGroup));
+		 Page<Bundle> bundleResult4 = bundleService.getBundles(pageNum, pageSize, Optional.of(bundleGroupId.toString()), versions);
+		 assertEquals(0, bundleResult4.getSize());
+		 Mockito.verify(bundleRepository, Mockito.times(1)).findByBundleGroupVersionsIsAndDescriptorVersionIn(any(), any(), any());
 	}
 	
 	@Test
@@ -207,6 +230,88 @@ public class BundleServiceTest {
 //		 assertEquals(0, bundleGroupVersion.getBundles().size());
 	}
 
+	@Test
+	public void getVisibleBundlesTest() {
+		Bundle bundle = createBundle();
+		Page<Bundle> response = new PageImpl<>(List.of(bundle));
+		Pageable paging = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "name").and(Sort.by("id")));
+		Organisation organisation = new Organisation();
+		organisation.setId(2000L);
+
+		//Case 1: anonymous users get the public bundles
+		Mockito.when(securityHelperService.isUserAuthenticated()).thenReturn(false);
+		Mockito.when(bundleRepository.findPublicBundles(paging)).thenReturn(response);
+		Page<Bundle> bundleResult = bundleService.getVisibleBundles(0, 10);
+		assertEquals(1, bundleResult.getNumberOfElements());
+		Mockito.verify(bundleRepository, Mockito.never()).findVisibleBundles(any(), any(Pageable.class));
+
+		//Case 2: members get public and organisation bundles from a single query
+		Mockito.when(securityHelperService.isUserAuthenticated()).thenReturn(true);
+		Mockito.when(securityHelperService.isAdmin()).thenReturn(false);
+		Mockito.when(portalUserService.getUserOrganizations()).thenReturn(Set.of(organisation));
+		Mockito.when(bundleRepository.findVisibleBundles(Set.of(2000L), paging)).thenReturn(response);
+		bundleResult = bundleService.getVisibleBundles(0, 10);
+		assertEquals(1, bundleResult.getNumberOfElements());
+		Mockito.verify(bundleRepository, Mockito.never()).findByBundleGroupVersionsBundleGroupOrganisation(any());
+
+		//Case 3: admins get every bundle, the page size is capped
+		Mockito.when(securityHelperService.isAdmin()).thenReturn(true);
+		Pageable cappedPaging = PageRequest.of(0, 50, Sort.by(Sort.Direction.ASC, "name").and(Sort.by("id")));
+		Mockito.when(bundleRepository.findAll(cappedPaging)).thenReturn(response);
+		bundleResult = bundleService.getVisibleBundles(0, 1000);
+		assertEquals(1, bundleResult.getNumberOfElements());
+	}
+
+	@Test
+	public void getBundleGroupVersionIdsTest() {
+		Bundle bundle = createBundle();
+		Bundle otherBundle = createBundle();
+		otherBundle.setId(BUNDLE_ID + 1);
+		BundleGroupVersionLink link = Mockito.mock(BundleGroupVersionLink.class);
+		Mockito.when(link.getBundleId()).thenReturn(BUNDLE_ID);
+		Mockito.when(link.getBundleGroupVersionId()).thenReturn(BUNDLE_GROUP_VERSION_ID);
+		Mockito.when(bundleRepository.findBundleGroupVersionLinks(Set.of(BUNDLE_ID, BUNDLE_ID + 1))).thenReturn(List.of(link));
+
+		Map<Long, List<String>> bundleGroupVersionIds = bundleService.getBundleGroupVersionIds(List.of(bundle, otherBundle));
+		assertEquals(List.of(BUNDLE_GROUP_VERSION_ID.toString()), bundleGroupVersionIds.get(BUNDLE_ID));
+		assertEquals(List.of(), bundleGroupVersionIds.get(BUNDLE_ID + 1));
+
+		//Case 1: no bundles, no query
+		assertEquals(0, bundleService.getBundleGroupVersionIds(List.of()).size());
+		Mockito.verify(bundleRepository, Mockito.times(1)).findBundleGroupVersionLinks(any());
+	}
+
+	@Test
+	public void getPublishedBundlesTest() {
+		Bundle bundle = createBundle();
+		BundleGroupVersion bundleGroupVersion = createBundleGroupVersion();
+		bundleGroupVersion.setDescriptionImage("data:image/png;base64,image");
+		List<BundleGroupVersion> bundleGroupVersionList = List.of(bundleGroupVersion);
+		Set<Bundle.DescriptorVersion> versions = Set.of(Bundle.DescriptorVersion.V1);
+		Page<Bundle> response = new PageImpl<>(List.of(bundle));
+		BundleGroupVersionLink link = Mockito.mock(BundleGroupVersionLink.class);
+		Mockito.when(link.getBundleId()).thenReturn(BUNDLE_ID);
+		Mockito.when(link.getBundleGroupVersionId()).thenReturn(BUNDLE_GROUP_VERSION_ID);
+
+		Mockito.when(bundleGroupVersionRepository.getPublishedBundleGroups(versions)).thenReturn(bundleGroupVersionList);
+		Mockito.when(bundleRepository.findByBundleGroupVersionsInAndDescriptorVersionIn(bundleGroupVersionList, versions, Pageable.unpaged())).thenReturn(response);
+		Mockito.when(bundleRepository.findBundleGroupVersionLinks(Set.of(BUNDLE_ID))).thenReturn(List.of(link));
+		Mockito.when(bundleGroupVersionRepository.findAllById(Set.of(BUNDLE_GROUP_VERSION_ID))).thenReturn(bundleGroupVersionList);
+
+		// the views are mapped before being returned, with the description and the image of the version
+		PagedContent<BundleController.Bundle, Bundle> result = bundleService.getPublishedBundles(0, 0, Optional.empty(), versions);
+		assertEquals(1, result.getPayload().size());
+		BundleController.Bundle view = result.getPayload().get(0);
+		assertEquals(BUNDLE_ID.toString(), view.getBundleId());
+		assertEquals(List.of(BUNDLE_GROUP_VERSION_ID.toString()), view.getBundleGroups());
+		assertEquals(BUNDLE_GROUP_VERSION_DESCRIPTION, view.getDescription());
+		assertEquals("data:image/png;base64,image", view.getDescriptionImage());
+		assertEquals(1L, result.getMetadata().getTotalItems());
+
+		//Case 2: the page is shared by the coalesced calls, it can't be modified
+		assertThrows(UnsupportedOperationException.class, () -> result.getPayload().add(view));
+	}
+
 	private Bundle createBundle() {
 		Bundle bundle = new Bundle();
 		bundle.setId(BUNDLE_ID);
@@ -0,0 +1,72 @@
+package com.entando.hub.catalog.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
+import com.entando.hub.catalog.persistence.projection.BundleGroupTemplateRow;
+import com.entando.hub.catalog.persistence.projection.BundleTemplateRow;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BundleTemplateServiceTest {
+
+	@InjectMocks
+	BundleTemplateService bundleTemplateService;
+	@Mock
+	BundleGroupVersionRepository bundleGroupVersionRepository;
+
+	@Test
+	public void getBundleTemplatesPageTest() {
+		BundleTemplateRow row = Mockito.mock(BundleTemplateRow.class);
+		Mockito.when(bundleGroupVersionRepository.findBundleTemplates(PageRequest.of(1, 10))).thenReturn(new PageImpl<>(List.of(row)));
+		Mockito.when(bundleGroupVersionRepository.findBundleTemplates(PageRequest.of(0, 50))).thenReturn(new PageImpl<>(List.of(row, row)));
+
+		assertEquals(1, bundleTemplateService.getBundleTemplates(1, 10).getNumberOfElements());
+
+		//Case 1: the page size is capped
+		assertEquals(2, bundleTemplateService.getBundleTemplates(0, 1000).getNumberOfElements());
+	}
+
+	@Test
+	public void streamBundleTemplatesTest() {
+		BundleTemplateRow row = Mockito.mock(BundleTemplateRow.class);
+		Mockito.when(bundleGroupVersionRepository.streamBundleTemplates()).thenReturn(Stream.of(row, row, row));
+
+		List<BundleTemplateRow> consumed = new ArrayList<>();
+		bundleTemplateService.streamBundleTemplates(consumed::add);
+		assertEquals(3, consumed.size());
+	}
+
+	@Test
+	public void getBundleGroupTemplatesTest() {
+		BundleGroupTemplateRow row = Mockito.mock(BundleGroupTemplateRow.class);
+		Mockito.when(bundleGroupVersionRepository.findBundleGroupTemplates()).thenReturn(List.of(row));
+		Mockito.when(bundleGroupVersionRepository.findBundleGroupTemplatesByName("%tutorial%")).thenReturn(List.of(row, row));
+
+		assertEquals(1, bundleTemplateService.getBundleGroupTemplates(null).size());
+
+		//Case 1: the name is matched as a substring
+		assertEquals(2, bundleTemplateService.getBundleGroupTemplates("tutorial").size());
+		Mockito.verify(bundleGroupVersionRepository, Mockito.never()).findBundleGroupTemplatesByName(null);
+		Mockito.verify(bundleGroupVersionRepository, Mockito.times(1)).findBundleGroupTemplatesByName(any());
+	}
+}
@@ -0,0 +1,99 @@
+package com.entando.hub.catalog.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogEventsSequencedEvent;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CatalogEventSequencerTest {
+
+	@Mock
+	CatalogEventService catalogEventService;
+	@Mock
+	ApplicationEventPublisher applicationEventPublisher;
+
+	// the runs are kept instead of started, so that the test decides when they happen
+	private final List<Runnable> runs = new ArrayList<>();
+	private CatalogEventSequencer catalogEventSequencer;
+
+	@Before
+	public void setUp() {
+		catalogEventSequencer = new CatalogEventSequencer(catalogEventService, applicationEventPublisher, runs::add);
+		Mockito.when(catalogEventService.sequence(CatalogEventSequencer.BATCH_SIZE)).thenReturn(List.of());
+	}
+
+	@Test
+	public void sequenceTest() {
+		Mockito.when(catalogEventService.sequence(CatalogEventSequencer.BATCH_SIZE))
+				.thenReturn(events(1, CatalogEventSequencer.BATCH_SIZE), events(501, 2), List.of());
+		catalogEventSequencer.onCatalogEvent(new CatalogEvent().setId(502L));
+		// committed during the pending run, numbered by it
+		catalogEventSequencer.onCatalogEvent(new CatalogEvent().setId(503L));
+		assertEquals(1, runs.size());
+		runs.get(0).run();
+
+		// batch after batch, each one announced once numbered
+		Mockito.verify(catalogEventService, Mockito.times(2)).sequence(CatalogEventSequencer.BATCH_SIZE);
+		ArgumentCaptor<CatalogEventsSequencedEvent> captor = ArgumentCaptor.forClass(CatalogEventsSequencedEvent.class);
+		Mockito.verify(applicationEventPublisher, Mockito.times(2)).publishEvent(captor.capture());
+		assertEquals(500L, captor.getAllValues().get(0).getLastCommitSeq());
+		assertEquals(502L, captor.getAllValues().get(1).getLastCommitSeq());
+
+		//Case 2: nothing left to number, nothing announced
+		catalogEventSequencer.sequenceMissed();
+		runs.get(1).run();
+		Mockito.verify(applicationEventPublisher, Mockito.times(2)).publishEvent(any());
+	}
+
+	@Test
+	public void remoteChangeTest() {
+		catalogEventSequencer.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE, 3000L, CatalogChangeEvent.Action.UPDATED));
+		assertEquals(0, runs.size());
+
+		// the events of the other replicas are numbered here too, whichever replica gets there first
+		catalogEventSequencer.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE, 3000L, CatalogChangeEvent.Action.UPDATED, true));
+		assertEquals(1, runs.size());
+	}
+
+	@Test
+	public void failedSequenceTest() {
+		Mockito.when(catalogEventService.sequence(CatalogEventSequencer.BATCH_SIZE)).thenThrow(new CannotAcquireLockException("lock timeout"));
+		catalogEventSequencer.onStart();
+		runs.get(0).run();
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(any());
+
+		//Case 2: the next run tries again
+		catalogEventSequencer.sequenceMissed();
+		assertEquals(2, runs.size());
+	}
+
+	private List<CatalogEvent> events(long fromCommitSeq, int count) {
+		return LongStream.range(fromCommitSeq, fromCommitSeq + count)
+				.mapToObj(commitSeq -> new CatalogEvent().setId(commitSeq).setCommitSeq(commitSeq))
+				.collect(Collectors.toList());
+	}
+}
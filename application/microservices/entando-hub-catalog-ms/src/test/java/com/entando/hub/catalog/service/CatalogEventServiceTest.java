@@ -0,0 +1,169 @@
+package com.entando.hub.catalog.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.entando.hub.catalog.aspect.ReadFromPrimaryAspect;
+import com.entando.hub.catalog.config.datasource.ReadWriteRoutingDataSource;
+import com.entando.hub.catalog.config.datasource.ReplicaLagGuard;
+import com.entando.hub.catalog.persistence.CatalogEventRepository;
+import com.entando.hub.catalog.persistence.CatalogEventSequenceRepository;
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.entity.CatalogEventSequence;
+import com.entando.hub.catalog.response.CatalogEventsResponseView;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CatalogEventServiceTest {
+
+	@Mock
+	CatalogEventRepository catalogEventRepository;
+	@Mock
+	CatalogEventSequenceRepository catalogEventSequenceRepository;
+	@Mock
+	ApplicationEventPublisher applicationEventPublisher;
+
+	private CatalogEventService catalogEventService;
+
+	@Before
+	public void setUp() {
+		catalogEventService = new CatalogEventService(catalogEventRepository, catalogEventSequenceRepository, applicationEventPublisher);
+	}
+
+	@Test
+	public void recordTest() {
+		Mockito.when(catalogEventRepository.save(any(CatalogEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		catalogEventService.record(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION, 2000L, 1000L, CatalogEvent.Action.PUBLISHED);
+
+		ArgumentCaptor<CatalogEvent> captor = ArgumentCaptor.forClass(CatalogEvent.class);
+		Mockito.verify(catalogEventRepository).save(captor.capture());
+		assertEquals(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION, captor.getValue().getEntityType());
+		assertEquals(Long.valueOf(2000L), captor.getValue().getEntityId());
+		assertEquals(Long.valueOf(1000L), captor.getValue().getBundleGroupId());
+		assertEquals(CatalogEvent.Action.PUBLISHED, captor.getValue().getAction());
+		Mockito.verify(applicationEventPublisher).publishEvent(captor.getValue());
+	}
+
+	@Test
+	public void getEventsTest() {
+		List<CatalogEvent> events = List.of(event(11L), event(12L));
+		Mockito.when(catalogEventRepository.findByCommitSeqGreaterThanOrderByCommitSeqAsc(10L, PageRequest.of(0, 2)))
+				.thenReturn(new SliceImpl<>(events, PageRequest.of(0, 2), true));
+
+		CatalogEventsResponseView result = catalogEventService.getEvents(10L, 2);
+		assertEquals(2, result.getEvents().size());
+		assertEquals(Long.valueOf(12L), result.getLastEventId());
+		assertTrue(result.isMore());
+
+		//Case 2: nothing new, the client keeps its sequence number
+		Mockito.when(catalogEventRepository.findByCommitSeqGreaterThanOrderByCommitSeqAsc(12L, PageRequest.of(0, 500)))
+				.thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 500), false));
+		CatalogEventsResponseView result2 = catalogEventService.getEvents(12L, 1000);
+		assertTrue(result2.getEvents().isEmpty());
+		assertEquals(Long.valueOf(12L), result2.getLastEventId());
+		assertFalse(result2.isMore());
+	}
+
+	@Test
+	public void sequenceTest() {
+		CatalogEventSequence sequence = new CatalogEventSequence().setId(CatalogEventSequence.ID).setLastCommitSeq(12L);
+		Mockito.when(catalogEventSequenceRepository.findForUpdateById(CatalogEventSequence.ID)).thenReturn(Optional.of(sequence));
+		Mockito.when(catalogEventRepository.existsByCommitSeqIsNull()).thenReturn(true);
+		// 15 was committed while the transaction of 13 was still running
+		CatalogEvent event13 = event(13L).setCommitSeq(null);
+		CatalogEvent event15 = event(15L).setCommitSeq(null);
+		Mockito.when(catalogEventRepository.findByCommitSeqIsNullOrderByIdAsc(PageRequest.of(0, 10))).thenReturn(List.of(event15));
+
+		assertEquals(List.of(event15), catalogEventService.sequence(10));
+		assertEquals(Long.valueOf(13L), event15.getCommitSeq());
+		assertEquals(Long.valueOf(13L), sequence.getLastCommitSeq());
+		Mockito.verify(catalogEventRepository).saveAll(List.of(event15));
+		Mockito.verify(catalogEventSequenceRepository).save(sequence);
+
+		//Case 2: 13 is committed late, it comes after 15 in the feed, not before the cursors already past it
+		Mockito.when(catalogEventRepository.findByCommitSeqIsNullOrderByIdAsc(PageRequest.of(0, 10))).thenReturn(List.of(event13));
+		assertEquals(List.of(event13), catalogEventService.sequence(10));
+		assertEquals(Long.valueOf(14L), event13.getCommitSeq());
+		assertEquals(Long.valueOf(14L), sequence.getLastCommitSeq());
+
+		//Case 3: nothing to number, the sequence row is not locked
+		Mockito.when(catalogEventRepository.existsByCommitSeqIsNull()).thenReturn(false);
+		assertTrue(catalogEventService.sequence(10).isEmpty());
+		Mockito.verify(catalogEventSequenceRepository, Mockito.times(2)).findForUpdateById(CatalogEventSequence.ID);
+	}
+
+	@Test
+	public void readFromPrimaryTest() throws SQLException {
+		// the replica hasn't replayed the numbering of 12 and 13 yet
+		List<CatalogEvent> onPrimary = List.of(event(11L), event(12L), event(13L));
+		List<CatalogEvent> onReplica = List.of(event(11L));
+		DataSource primary = Mockito.mock(DataSource.class);
+		DataSource replica = Mockito.mock(DataSource.class);
+		Connection primaryConnection = Mockito.mock(Connection.class);
+		Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+		Mockito.when(replica.getConnection()).thenReturn(Mockito.mock(Connection.class));
+		ReplicaLagGuard replicaLagGuard = Mockito.mock(ReplicaLagGuard.class);
+		Mockito.when(replicaLagGuard.isReplicaUsable()).thenReturn(true);
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, replicaLagGuard);
+		Mockito.when(catalogEventRepository.findByCommitSeqGreaterThanOrderByCommitSeqAsc(Mockito.eq(10L), any())).thenAnswer(invocation -> {
+			List<CatalogEvent> events = dataSource.getConnection() == primaryConnection ? onPrimary : onReplica;
+			return new SliceImpl<>(events, PageRequest.of(0, 10), false);
+		});
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(catalogEventService);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAspect(new ReadFromPrimaryAspect());
+		CatalogEventService proxy = proxyFactory.getProxy();
+
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try {
+			CatalogEventsResponseView result = proxy.getEvents(10L, 10);
+			assertEquals(onPrimary, result.getEvents());
+			assertEquals(Long.valueOf(13L), result.getLastEventId());
+
+			//Case 2: the webhooks read the same events
+			assertEquals(onPrimary, proxy.getSettledEvents(10L, 10).getContent());
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		}
+	}
+
+	private CatalogEvent event(Long commitSeq) {
+		return new CatalogEvent()
+				.setId(commitSeq)
+				.setCommitSeq(commitSeq)
+				.setEntityType(CatalogEvent.EntityType.BUNDLE)
+				.setEntityId(3000L)
+				.setAction(CatalogEvent.Action.UPDATED)
+				.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+	}
+}
@@ -0,0 +1,182 @@
+package com.entando.hub.catalog.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.event.CatalogEventsSequencedEvent;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CatalogEventStreamServiceTest {
+
+	@Mock
+	CatalogEventService catalogEventService;
+
+	// the drain and poll tasks are kept instead of run, so that the buffers only fill up
+	private final List<Runnable> sendTasks = new ArrayList<>();
+	private final List<Runnable> pollTasks = new ArrayList<>();
+	private CatalogEventStreamService catalogEventStreamService;
+
+	@Before
+	public void setUp() {
+		catalogEventStreamService = new CatalogEventStreamService(catalogEventService, 2, 60000, 500, 10000, 2, sendTasks::add, pollTasks::add);
+		Mockito.when(catalogEventService.getSettledEvents(Mockito.anyLong(), Mockito.anyInt())).thenReturn(slice());
+	}
+
+	@Test
+	public void subscribeReplaysFromLastEventIdTest() {
+		Mockito.when(catalogEventService.getSettledEvents(10L, 3)).thenReturn(slice(event(11L)));
+		catalogEventStreamService.subscribe(10L);
+
+		// the replay is capped to the buffer size
+		Mockito.verify(catalogEventService).getSettledEvents(10L, 3);
+		assertEquals(1, catalogEventStreamService.getSubscriberCount());
+		assertEquals(1, sendTasks.size());
+
+		//Case 2: too many events missed, a reset is sent instead
+		Mockito.when(catalogEventService.getSettledEvents(5L, 3)).thenReturn(slice(event(6L), event(7L), event(8L)));
+		catalogEventStreamService.subscribe(5L);
+		assertEquals(2, catalogEventStreamService.getSubscriberCount());
+		assertEquals(2, sendTasks.size());
+	}
+
+	@Test
+	public void slowSubscriberIsDisconnectedTest() {
+		Mockito.when(catalogEventService.getSettledLastEventId()).thenReturn(0L);
+		Mockito.when(catalogEventService.getSettledEvents(0L, 2)).thenReturn(slice(event(1L), event(2L)));
+		catalogEventStreamService.subscribe(null);
+		catalogEventStreamService.poll();
+		assertEquals(1, catalogEventStreamService.getSubscriberCount());
+
+		//Case 2: the buffer is full, the subscriber is dropped and has to reconnect
+		Mockito.when(catalogEventService.getSettledEvents(2L, 2)).thenReturn(slice(event(3L)));
+		catalogEventStreamService.poll();
+		assertEquals(0, catalogEventStreamService.getSubscriberCount());
+	}
+
+	@Test
+	public void pollTest() {
+		catalogEventStreamService = new CatalogEventStreamService(catalogEventService, 3, 60000, 500, 10000, 2, sendTasks::add, pollTasks::add);
+		Mockito.when(catalogEventService.getSettledLastEventId()).thenReturn(0L);
+		catalogEventStreamService.subscribe(null);
+
+		// read in commit order, from the last event sent
+		Mockito.when(catalogEventService.getSettledEvents(0L, 3)).thenReturn(slice(event(1L), event(2L)));
+		catalogEventStreamService.poll();
+		Mockito.when(catalogEventService.getSettledEvents(2L, 3)).thenReturn(slice());
+		catalogEventStreamService.poll();
+		Mockito.verify(catalogEventService).getSettledEvents(2L, 3);
+		assertEquals(1, catalogEventStreamService.getSubscriberCount());
+		assertTrue(pollTasks.isEmpty());
+
+		//Case 2: more events waiting, another poll follows
+		Mockito.when(catalogEventService.getSettledEvents(2L, 3))
+				.thenReturn(new SliceImpl<>(List.of(event(3L)), PageRequest.of(0, 3), true));
+		catalogEventStreamService.poll();
+		assertEquals(1, pollTasks.size());
+		pollTasks.get(0).run();
+		Mockito.verify(catalogEventService).getSettledEvents(3L, 3);
+
+		//Case 3: the events numbered by this replica trigger a poll, one pending at a time
+		catalogEventStreamService.onCatalogEventsSequenced(new CatalogEventsSequencedEvent(4L));
+		catalogEventStreamService.onCatalogEventsSequenced(new CatalogEventsSequencedEvent(5L));
+		assertEquals(2, pollTasks.size());
+		pollTasks.get(1).run();
+		catalogEventStreamService.onCatalogEventsSequenced(new CatalogEventsSequencedEvent(6L));
+		assertEquals(3, pollTasks.size());
+	}
+
+	@Test
+	public void pollWithoutSubscribersTest() {
+		// nobody connected, the event log is not read
+		catalogEventStreamService.poll();
+		Mockito.verify(catalogEventService, Mockito.never()).getSettledLastEventId();
+		Mockito.verify(catalogEventService, Mockito.never()).getSettledEvents(Mockito.anyLong(), Mockito.anyInt());
+
+		//Case 2: the first subscriber starts from the events settled when it connects
+		Mockito.when(catalogEventService.getSettledLastEventId()).thenReturn(7L);
+		catalogEventStreamService.subscribe(null);
+		catalogEventStreamService.poll();
+		Mockito.verify(catalogEventService).getSettledEvents(7L, 2);
+	}
+
+	@Test
+	public void subscribersDoNotShareASenderTest() {
+		Mockito.when(catalogEventService.getSettledLastEventId()).thenReturn(0L);
+		Mockito.when(catalogEventService.getSettledEvents(0L, 2)).thenReturn(slice(event(1L)));
+		catalogEventStreamService.subscribe(null);
+		catalogEventStreamService.subscribe(null);
+		catalogEventStreamService.poll();
+
+		// one drain per subscriber: a client blocked on a send holds up its own one only
+		assertEquals(2, sendTasks.size());
+	}
+
+	@Test
+	public void maxSubscribersTest() {
+		assertTrue(catalogEventStreamService.subscribe(null).isPresent());
+		assertTrue(catalogEventStreamService.subscribe(null).isPresent());
+
+		// the stream is public, the clients past max-subscribers are refused
+		assertFalse(catalogEventStreamService.subscribe(null).isPresent());
+		assertFalse(catalogEventStreamService.subscribe(10L).isPresent());
+		assertEquals(2, catalogEventStreamService.getSubscriberCount());
+		Mockito.verify(catalogEventService, Mockito.never()).getSettledEvents(Mockito.anyLong(), Mockito.anyInt());
+
+		//Case 2: once the clients are gone, new ones get in
+		catalogEventStreamService.close();
+		assertTrue(catalogEventStreamService.subscribe(null).isPresent());
+		assertEquals(1, catalogEventStreamService.getSubscriberCount());
+	}
+
+	@Test
+	public void rejectedSendIsDisconnectedTest() {
+		catalogEventStreamService = new CatalogEventStreamService(catalogEventService, 2, 60000, 500, 10000, 2, task -> {
+			throw new RejectedExecutionException("sender queue full");
+		}, pollTasks::add);
+		Mockito.when(catalogEventService.getSettledLastEventId()).thenReturn(0L);
+		Mockito.when(catalogEventService.getSettledEvents(0L, 2)).thenReturn(slice(event(1L)));
+		catalogEventStreamService.subscribe(null);
+		assertEquals(1, catalogEventStreamService.getSubscriberCount());
+
+		// no room on the sender threads, the subscriber is dropped and has to reconnect
+		catalogEventStreamService.poll();
+		assertEquals(0, catalogEventStreamService.getSubscriberCount());
+	}
+
+	private Slice<CatalogEvent> slice(CatalogEvent... events) {
+		return new SliceImpl<>(List.of(events));
+	}
+
+	private CatalogEvent event(Long commitSeq) {
+		return new CatalogEvent()
+				.setId(commitSeq)
+				.setCommitSeq(commitSeq)
+				.setEntityType(CatalogEvent.EntityType.BUNDLE)
+				.setEntityId(3000L)
+				.setAction(CatalogEvent.Action.UPDATED)
+				.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+	}
+}
@@ -13,6 +13,7 @@ import com.entando.hub.catalog.persistence.entity.Catalog;
 import com.entando.hub.catalog.persistence.entity.Organisation;
 import com.entando.hub.catalog.service.exception.ConflictException;
 import com.entando.hub.catalog.service.exception.NotFoundException;
+import com.entando.hub.catalog.service.security.CatalogAccessCache;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -34,12 +35,14 @@ class CatalogServiceTest {
     private CatalogRepository catalogRepository;
     @Mock
     private OrganisationService organisationService;
+    @Mock
+    private CatalogAccessCache catalogAccessCache;
 
     private CatalogService catalogService;
 
     @BeforeEach
     void setUp() {
-            this.catalogService = new CatalogService(catalogRepository, organisationService);
+            this.catalogService = new CatalogService(catalogRepository, organisationService, catalogAccessCache);
     }
 
     @Test
@@ -13,6 +13,7 @@ import java.util.Set;
 import org.junit.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -20,6 +21,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.entando.hub.catalog.persistence.OrganisationRepository;
 import com.entando.hub.catalog.persistence.PortalUserRepository;
@@ -28,6 +30,8 @@ import com.entando.hub.catalog.persistence.entity.PortalUser;
 import com.entando.hub.catalog.rest.model.OrganisationResponseView;
 import com.entando.hub.catalog.rest.model.PortalUserResponseView;
 import com.entando.hub.catalog.service.model.UserRepresentation;
+import com.entando.hub.catalog.service.cache.CacheInvalidationChannel;
+import com.entando.hub.catalog.service.security.CatalogAccessCache;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -42,6 +46,12 @@ public class PortalUserServiceTest {
 	OrganisationRepository organisationRepository;
 	@Mock
 	PortalUserRepository portalUserRepository;
+	@Mock
+	CatalogAccessCache catalogAccessCache;
+	@Mock
+	CacheInvalidationChannel cacheInvalidationChannel;
+	@Mock
+	PlatformTransactionManager transactionManager;
 	
 	private static final String USER_ID = "1001";
     private static final String USER_NAME = "Test User Admin";
@@ -82,6 +92,11 @@ public class PortalUserServiceTest {
 		List<UserRepresentation> result = portalUserService.getUsersByOrganisation(organisationId.toString());
 		assertNotNull(result);
 		assertEquals(userRepresentationList.get(0).getId(), result.get(0).getId());
+		// keycloak is called once the transaction is over
+		InOrder inOrder = Mockito.inOrder(organisationRepository, transactionManager, keycloakService);
+		inOrder.verify(organisationRepository).findById(organisationId);
+		inOrder.verify(transactionManager).commit(Mockito.any());
+		inOrder.verify(keycloakService).getUser(portalUser.getUsername());
 		
 		//Case 2: when user is null
 		Mockito.when(this.keycloakService.getUser(portalUser.getUsername())).thenReturn(null);
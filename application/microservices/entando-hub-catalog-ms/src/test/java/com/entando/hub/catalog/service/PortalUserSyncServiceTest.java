@@ -0,0 +1,244 @@
+package com.entando.hub.catalog.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.keycloak.adapters.springboot.KeycloakSpringBootProperties;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.entando.hub.catalog.persistence.PortalUserRepository;
+import com.entando.hub.catalog.persistence.entity.PortalUser;
+import com.entando.hub.catalog.service.model.AuthResponse;
+import com.entando.hub.catalog.service.model.UserRepresentation;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PortalUserSyncServiceTest {
+
+	// stands in for the keycloak admin api
+	@Mock
+	KeycloakService keycloakService;
+	@Mock
+	PortalUserRepository portalUserRepository;
+	@Mock
+	OpenIDConnectService oidcService;
+
+	PortalUserSyncService portalUserSyncService;
+	HttpServer keycloak;
+
+	private static final int BATCH_SIZE = 2;
+
+	@Before
+	public void setUp() {
+		portalUserSyncService = new PortalUserSyncService(keycloakService, portalUserRepository, true, BATCH_SIZE, 0, 60);
+	}
+
+	@After
+	public void tearDown() {
+		if (null != keycloak) {
+			keycloak.stop(0);
+		}
+	}
+
+	@Test
+	public void syncBatchTest() {
+		PortalUser neverSynced = createPortalUser(1L, "user1");
+		PortalUser removed = createPortalUser(2L, "user2");
+		List<PortalUser> unsynced = new ArrayList<>();
+		unsynced.add(neverSynced);
+		unsynced.add(removed);
+
+		Mockito.when(portalUserRepository.findNeverSynced(any(), any(Pageable.class))).thenReturn(unsynced);
+		Mockito.when(keycloakService.getUser("user1")).thenReturn(createUserRepresentation("kc-1", "user1"));
+		Mockito.when(keycloakService.getUser("user2")).thenReturn(null);
+
+		//Case 1: unsynced users fill the batch, stale users are not loaded
+		int result = portalUserSyncService.syncBatch();
+		assertEquals(2, result);
+		assertEquals("kc-1", neverSynced.getKeycloakId());
+		assertEquals("user1@mail.com", neverSynced.getEmail());
+		assertEquals("First", neverSynced.getFirstName());
+		assertEquals("Last", neverSynced.getLastName());
+		assertEquals(Boolean.TRUE, neverSynced.getEnabled());
+		assertNotNull(neverSynced.getProfileSyncedAt());
+		assertNull(removed.getKeycloakId());
+		assertNotNull(removed.getProfileSyncedAt());
+		Mockito.verify(portalUserRepository, Mockito.never()).findSyncedBefore(any(), any(), any());
+		Mockito.verify(portalUserRepository, Mockito.times(2)).save(any(PortalUser.class));
+	}
+
+	@Test
+	public void syncBatchStaleUsersTest() {
+		PortalUser stale = createPortalUser(3L, "user3");
+		stale.setProfileSyncedAt(LocalDateTime.now().minusDays(1));
+		List<PortalUser> staleUsers = new ArrayList<>();
+		staleUsers.add(stale);
+
+		Mockito.when(portalUserRepository.findNeverSynced(any(), any(Pageable.class))).thenReturn(new ArrayList<>());
+		Mockito.when(portalUserRepository.findSyncedBefore(any(), any(), any(Pageable.class))).thenReturn(staleUsers);
+		Mockito.when(keycloakService.getUser("user3")).thenReturn(createUserRepresentation("kc-3", "user3"));
+
+		int result = portalUserSyncService.syncBatch();
+		assertEquals(1, result);
+		assertEquals("kc-3", stale.getKeycloakId());
+		assertEquals("user3@mail.com", stale.getEmail());
+	}
+
+	@Test
+	public void syncBatchStopsOnKeycloakFailureTest() {
+		List<PortalUser> unsynced = new ArrayList<>();
+		unsynced.add(createPortalUser(1L, "user1"));
+		unsynced.add(createPortalUser(2L, "user2"));
+
+		Mockito.when(portalUserRepository.findNeverSynced(any(), any(Pageable.class))).thenReturn(unsynced);
+		Mockito.when(keycloakService.getUser("user1")).thenThrow(new ResourceAccessException("Connection refused"));
+
+		int result = portalUserSyncService.syncBatch();
+		assertEquals(0, result);
+		Mockito.verify(keycloakService, Mockito.never()).getUser("user2");
+		Mockito.verify(portalUserRepository, Mockito.never()).save(any(PortalUser.class));
+	}
+
+	@Test
+	public void syncBatchOverHttpTest() throws Exception {
+		// a stubbed keycloak admin api: user2 is answered with an error, the others are found
+		keycloak = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		keycloak.createContext("/auth/admin/realms/hub/users", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			if (!"Bearer token-1".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+				respond(exchange, 401, "");
+			} else if ("username=user2".equals(query)) {
+				respond(exchange, 400, "{\"error\":\"invalid username\"}");
+			} else {
+				String username = query.substring("username=".length());
+				respond(exchange, 200, "[{\"id\":\"kc-" + username + "\",\"username\":\"" + username
+						+ "\",\"email\":\"" + username + "@mail.com\",\"enabled\":true,\"createdTimestamp\":90019,\"access\":{}}]");
+			}
+		});
+		keycloak.start();
+		KeycloakSpringBootProperties configuration = new KeycloakSpringBootProperties();
+		configuration.setAuthServerUrl("http://localhost:" + keycloak.getAddress().getPort() + "/auth");
+		configuration.setRealm("hub");
+		AuthResponse authResponse = new AuthResponse();
+		authResponse.setAccessToken("token-1");
+		Mockito.when(oidcService.authenticateAPI()).thenReturn(authResponse);
+		PortalUserSyncService httpSyncService = new PortalUserSyncService(new KeycloakService(configuration, oidcService),
+				portalUserRepository, true, 3, 0, 60);
+
+		PortalUser user1 = createPortalUser(1L, "user1");
+		PortalUser user2 = createPortalUser(2L, "user2");
+		PortalUser user3 = createPortalUser(3L, "user3");
+		List<PortalUser> unsynced = new ArrayList<>(List.of(user1, user2, user3));
+		Mockito.when(portalUserRepository.findNeverSynced(any(), any(Pageable.class))).thenReturn(unsynced);
+
+		//Case 1: the user keycloak fails to answer for is skipped, the batch goes on
+		assertEquals(2, httpSyncService.syncBatch());
+		assertEquals("kc-user1", user1.getKeycloakId());
+		assertEquals("user3@mail.com", user3.getEmail());
+		assertNull(user1.getProfileSyncFailedAt());
+		// not marked as synced: the listings keep loading it from keycloak until it is
+		assertNull(user2.getKeycloakId());
+		assertNull(user2.getProfileSyncedAt());
+		assertNotNull(user2.getProfileSyncFailedAt());
+		Mockito.verify(portalUserRepository, Mockito.times(3)).save(any(PortalUser.class));
+
+		//Case 2: keycloak unreachable, the batch stops at the first user
+		keycloak.stop(0);
+		keycloak = null;
+		PortalUser user4 = createPortalUser(4L, "user4");
+		PortalUser user5 = createPortalUser(5L, "user5");
+		Mockito.when(portalUserRepository.findNeverSynced(any(), any(Pageable.class))).thenReturn(new ArrayList<>(List.of(user4, user5)));
+		assertEquals(0, httpSyncService.syncBatch());
+		assertNull(user4.getProfileSyncedAt());
+		assertNull(user5.getProfileSyncedAt());
+		Mockito.verify(portalUserRepository, Mockito.times(3)).save(any(PortalUser.class));
+	}
+
+	@Test
+	public void syncBatchRetriesFailedUsersTest() {
+		PortalUser failed = createPortalUser(1L, "user1");
+		failed.setProfileSyncFailedAt(LocalDateTime.now().minusDays(1));
+		List<PortalUser> unsynced = new ArrayList<>();
+		unsynced.add(failed);
+
+		// the users failed less than stale-after-minutes ago are left out by the queries
+		Mockito.when(portalUserRepository.findNeverSynced(any(), any(Pageable.class))).thenReturn(unsynced);
+		Mockito.when(keycloakService.getUser("user1")).thenReturn(createUserRepresentation("kc-1", "user1"));
+
+		assertEquals(1, portalUserSyncService.syncBatch());
+		assertEquals("kc-1", failed.getKeycloakId());
+		assertNotNull(failed.getProfileSyncedAt());
+		assertNull(failed.getProfileSyncFailedAt());
+		ArgumentCaptor<LocalDateTime> failedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+		Mockito.verify(portalUserRepository).findNeverSynced(failedBefore.capture(), any(Pageable.class));
+		assertTrue(failedBefore.getValue().isBefore(LocalDateTime.now().minusMinutes(59)));
+	}
+
+	@Test
+	public void toUserRepresentationTest() {
+		PortalUser portalUser = createPortalUser(1L, "user1");
+		PortalUserSyncService.applyProfile(portalUser, createUserRepresentation("kc-1", "user1"));
+
+		UserRepresentation result = PortalUserSyncService.toUserRepresentation(portalUser);
+		assertEquals("kc-1", result.getId());
+		assertEquals("user1", result.getUsername());
+		assertEquals("user1@mail.com", result.getEmail());
+		assertEquals(90019L, result.getCreatedTimestamp());
+		assertEquals(portalUser.getProfileSyncedAt(), result.getProfileSyncedAt());
+	}
+
+	private void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream outputStream = exchange.getResponseBody()) {
+			outputStream.write(bytes);
+		}
+	}
+
+	private PortalUser createPortalUser(Long id, String username) {
+		PortalUser portalUser = new PortalUser();
+		portalUser.setId(id);
+		portalUser.setUsername(username);
+		return portalUser;
+	}
+
+	private UserRepresentation createUserRepresentation(String id, String username) {
+		UserRepresentation user = new UserRepresentation();
+		user.setId(id);
+		user.setUsername(username);
+		user.setEmail(username + "@mail.com");
+		user.setFirstName("First");
+		user.setLastName("Last");
+		user.setEnabled(true);
+		user.setCreatedTimestamp(90019L);
+		return user;
+	}
+}
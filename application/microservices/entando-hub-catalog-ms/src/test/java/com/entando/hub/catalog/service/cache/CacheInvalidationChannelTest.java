@@ -0,0 +1,148 @@
+package com.entando.hub.catalog.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.entando.hub.catalog.persistence.entity.Catalog;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogResyncEvent;
+import com.entando.hub.catalog.service.security.CatalogAccessCache;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CacheInvalidationChannelTest {
+
+	@Mock
+	CacheInvalidationNotifier notifier;
+	@Mock
+	EntityManagerFactory entityManagerFactory;
+	@Mock
+	SessionFactory sessionFactory;
+	@Mock
+	Cache cache;
+	@Mock
+	CatalogAccessCache catalogAccessCache;
+	@Mock
+	ApplicationEventPublisher applicationEventPublisher;
+
+	private CacheInvalidationChannel cacheInvalidationChannel;
+
+	@Before
+	public void setUp() {
+		Mockito.when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+		Mockito.when(sessionFactory.getCache()).thenReturn(cache);
+		cacheInvalidationChannel = channel("jdbc:postgresql://localhost:5432/hub");
+	}
+
+	@Test
+	public void onNotificationFromAnotherReplicaTest() {
+		cacheInvalidationChannel.onNotification("other-replica;CATALOG;UPDATED;12");
+
+		Mockito.verify(cache).evictEntityData(Catalog.class, 12L);
+		Mockito.verify(cache).evictQueryRegions();
+		Mockito.verify(catalogAccessCache).evictCatalog(12L);
+		ArgumentCaptor<CatalogChangeEvent> event = ArgumentCaptor.forClass(CatalogChangeEvent.class);
+		Mockito.verify(applicationEventPublisher).publishEvent(event.capture());
+		assertEquals(CatalogChangeEvent.EntityType.CATALOG, event.getValue().getEntityType());
+		assertEquals(Long.valueOf(12L), event.getValue().getEntityId());
+		assertTrue(event.getValue().isRemote());
+
+		//Case 2: the memberships of a user changed, the username may contain the separator
+		cacheInvalidationChannel.onNotification("other-replica;PORTAL_USER;UPDATED;user;name");
+		Mockito.verify(catalogAccessCache).evictUser("user;name");
+
+		//Case 3: an unexpected payload is ignored
+		cacheInvalidationChannel.onNotification("other-replica;UNKNOWN;UPDATED;12");
+		Mockito.verify(applicationEventPublisher, Mockito.times(1)).publishEvent(any(Object.class));
+	}
+
+	@Test
+	public void ownNotificationsAreIgnoredTest() {
+		cacheInvalidationChannel.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE, 5L, CatalogChangeEvent.Action.DELETED));
+		ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+		Mockito.verify(notifier).send(eq("catalog_cache"), payload.capture());
+		assertTrue(payload.getValue().endsWith(";BUNDLE;DELETED;5"));
+
+		cacheInvalidationChannel.onNotification(payload.getValue());
+		Mockito.verifyNoInteractions(cache, catalogAccessCache, applicationEventPublisher);
+
+		//Case 2: the remote changes are not notified again
+		cacheInvalidationChannel.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE, 5L, CatalogChangeEvent.Action.DELETED, true));
+		Mockito.verify(notifier, Mockito.times(1)).send(anyString(), anyString());
+	}
+
+	@Test
+	public void notifyAfterCommitTest() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cacheInvalidationChannel.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE, 5L, CatalogChangeEvent.Action.UPDATED));
+			cacheInvalidationChannel.onUserChange("admin");
+			Mockito.verifyNoInteractions(notifier);
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			Mockito.verify(notifier).send(eq("catalog_cache"), Mockito.endsWith(";BUNDLE;UPDATED;5"));
+			Mockito.verify(notifier).send(eq("catalog_cache"), Mockito.endsWith(";PORTAL_USER;UPDATED;admin"));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		//Case 2: nothing is notified for a rolled back transaction
+		Mockito.reset(notifier);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cacheInvalidationChannel.onUserChange("admin");
+			TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+					synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+			Mockito.verifyNoInteractions(notifier);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void notSupportedDatasourceTest() {
+		CacheInvalidationChannel h2Channel = channel("jdbc:h2:mem:testdb");
+		h2Channel.onCatalogChange(new CatalogChangeEvent(CatalogChangeEvent.EntityType.BUNDLE, 5L, CatalogChangeEvent.Action.UPDATED));
+		h2Channel.onUserChange("admin");
+		Mockito.verifyNoInteractions(notifier);
+	}
+
+	@Test
+	public void resyncTest() {
+		cacheInvalidationChannel.resync();
+		Mockito.verify(cache).evictAllRegions();
+		Mockito.verify(catalogAccessCache).evictAll();
+		Mockito.verify(applicationEventPublisher).publishEvent(any(CatalogResyncEvent.class));
+	}
+
+	private CacheInvalidationChannel channel(String url) {
+		DataSourceProperties dataSourceProperties = new DataSourceProperties();
+		dataSourceProperties.setUrl(url);
+		return new CacheInvalidationChannel(notifier, dataSourceProperties, entityManagerFactory,
+				catalogAccessCache, applicationEventPublisher, true, 1000, 1000);
+	}
+}
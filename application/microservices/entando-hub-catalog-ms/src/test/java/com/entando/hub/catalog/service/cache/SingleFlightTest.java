@@ -0,0 +1,119 @@
+package com.entando.hub.catalog.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	@Test
+	public void identicalConcurrentCallsShareOneComputationTest() throws Exception {
+		SingleFlight singleFlight = new SingleFlight("test");
+		AtomicInteger computations = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		Object result = new Object();
+
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			for (int i = 0; i < CALLERS; i++) {
+				futures.add(executor.submit(() -> singleFlight.execute("key", () -> {
+					computations.incrementAndGet();
+					await(release);
+					return result;
+				})));
+			}
+			// let every caller join the call in flight before it completes
+			long deadline = System.currentTimeMillis() + 5000;
+			while (singleFlight.getSharedCount() < CALLERS - 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			release.countDown();
+			for (Future<Object> future : futures) {
+				assertSame(result, future.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, computations.get());
+		assertEquals(CALLERS - 1, singleFlight.getSharedCount());
+
+		//Case 2: once the call is over the next one runs again
+		assertEquals("again", singleFlight.execute("key", () -> "again"));
+	}
+
+	@Test
+	public void differentKeysAreNotSharedTest() {
+		SingleFlight singleFlight = new SingleFlight("test");
+		assertEquals("a", singleFlight.execute("a", () -> "a"));
+		assertEquals("b", singleFlight.execute("b", () -> "b"));
+		assertEquals(0, singleFlight.getSharedCount());
+	}
+
+	@Test
+	public void failureIsSharedAndNotKeptTest() throws Exception {
+		SingleFlight singleFlight = new SingleFlight("test");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+				started.countDown();
+				await(release);
+				throw new IllegalArgumentException("sort must be name or relevance");
+			}));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			AtomicReference<Throwable> followerFailure = new AtomicReference<>();
+			Thread follower = new Thread(() -> {
+				try {
+					singleFlight.execute("key", () -> "not expected");
+				} catch (RuntimeException e) {
+					followerFailure.set(e);
+				}
+			});
+			follower.start();
+			long deadline = System.currentTimeMillis() + 5000;
+			while (singleFlight.getSharedCount() < 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			release.countDown();
+			follower.join(5000);
+			assertTrue(followerFailure.get() instanceof IllegalArgumentException);
+			try {
+				leader.get(5, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof IllegalArgumentException);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		//Case 2: the failure is not kept
+		assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
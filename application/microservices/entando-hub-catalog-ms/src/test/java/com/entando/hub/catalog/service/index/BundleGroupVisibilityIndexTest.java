@@ -0,0 +1,152 @@
+package com.entando.hub.catalog.service.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.Action;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.EntityType;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVisibility;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BundleGroupVisibilityIndexTest {
+
+	@InjectMocks
+	BundleGroupVisibilityIndex bundleGroupVisibilityIndex;
+	@Mock
+	BundleGroupRepository bundleGroupRepository;
+
+	private static final Long ORG_1 = 1L;
+	private static final Long ORG_2 = 2L;
+	private static final Long CATALOG_1 = 10L;
+
+	@Test
+	public void rebuildTest() {
+		List<BundleGroupVisibility> visibilities = new ArrayList<>();
+		visibilities.add(visibility(100L, ORG_1, CATALOG_1, true));
+		visibilities.add(visibility(101L, ORG_1, CATALOG_1, false));
+		visibilities.add(visibility(102L, ORG_2, null, true));
+		Mockito.when(bundleGroupRepository.findAllVisibilities()).thenReturn(visibilities);
+
+		assertFalse(bundleGroupVisibilityIndex.isReady());
+		bundleGroupVisibilityIndex.rebuild();
+		assertTrue(bundleGroupVisibilityIndex.isReady());
+
+		assertEquals(List.of(100L, 101L), BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.ownedBy(Set.of(ORG_1))));
+		assertEquals(List.of(100L, 101L, 102L), BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.ownedBy(Set.of(ORG_1, ORG_2))));
+		assertEquals(List.of(100L, 101L), BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.inCatalog(CATALOG_1)));
+
+		//Case 1: the private group of org 1 is visible to its members only
+		assertEquals(List.of(100L, 102L), BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.visibleTo(Set.of())));
+		assertTrue(bundleGroupVisibilityIndex.isVisibleTo(101L, Set.of(ORG_1)));
+		assertFalse(bundleGroupVisibilityIndex.isVisibleTo(101L, Set.of(ORG_2)));
+		assertTrue(bundleGroupVisibilityIndex.isInCatalog(101L, CATALOG_1));
+		assertFalse(bundleGroupVisibilityIndex.isInCatalog(102L, CATALOG_1));
+		assertTrue(bundleGroupVisibilityIndex.contains(102L));
+		assertFalse(bundleGroupVisibilityIndex.contains(103L));
+	}
+
+	@Test
+	public void nullPublicCatalogTest() {
+		BundleGroupVisibility visibility = visibility(100L, ORG_1, null, null);
+		Mockito.when(bundleGroupRepository.findAllVisibilities()).thenReturn(new ArrayList<>(List.of(visibility)));
+		bundleGroupVisibilityIndex.rebuild();
+
+		// not public, as on the database path
+		assertFalse(visibility.isPublic());
+		assertFalse(bundleGroupVisibilityIndex.isVisibleTo(100L, Set.of(ORG_2)));
+		assertFalse(visibility.isVisibleTo(Set.of(ORG_2)));
+		assertTrue(bundleGroupVisibilityIndex.isVisibleTo(100L, Set.of(ORG_1)));
+		assertTrue(visibility.isVisibleTo(Set.of(ORG_1)));
+	}
+
+	@Test
+	public void onCatalogChangeTest() {
+		List<BundleGroupVisibility> visibilities = new ArrayList<>();
+		visibilities.add(visibility(100L, ORG_1, CATALOG_1, true));
+		Mockito.when(bundleGroupRepository.findAllVisibilities()).thenReturn(visibilities);
+		bundleGroupVisibilityIndex.rebuild();
+
+		//Case 1: a new private bundle group
+		Mockito.when(bundleGroupRepository.findVisibilityById(101L)).thenReturn(Optional.of(visibility(101L, ORG_2, null, false)));
+		bundleGroupVisibilityIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 101L, Action.CREATED));
+		assertEquals(List.of(101L), BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.ownedBy(Set.of(ORG_2))));
+		assertFalse(bundleGroupVisibilityIndex.isVisibleTo(101L, Set.of(ORG_1)));
+
+		//Case 2: moved to another organisation and made public
+		Mockito.when(bundleGroupRepository.findVisibilityById(101L)).thenReturn(Optional.of(visibility(101L, ORG_1, null, true)));
+		bundleGroupVisibilityIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 101L, Action.UPDATED));
+		assertTrue(bundleGroupVisibilityIndex.ownedBy(Set.of(ORG_2)).isEmpty());
+		assertTrue(bundleGroupVisibilityIndex.isVisibleTo(101L, Set.of(ORG_2)));
+
+		//Case 3: deleted
+		bundleGroupVisibilityIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 100L, Action.DELETED));
+		assertEquals(List.of(101L), BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.visibleTo(Set.of(ORG_1))));
+		assertTrue(bundleGroupVisibilityIndex.inCatalog(CATALOG_1).isEmpty());
+
+		//Case 4: other entities are ignored
+		bundleGroupVisibilityIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE, 101L, Action.DELETED));
+		assertTrue(bundleGroupVisibilityIndex.isVisibleTo(101L, Set.of()));
+	}
+
+	@Test
+	public void changeDuringRebuildTest() {
+		//Case 1: before the first build the changes are left to it
+		bundleGroupVisibilityIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 100L, Action.CREATED));
+		Mockito.verify(bundleGroupRepository, Mockito.never()).findVisibilityById(100L);
+
+		//Case 2: a change committed once the rebuild has read the database is applied after it
+		Mockito.when(bundleGroupRepository.findAllVisibilities()).thenAnswer(invocation -> {
+			bundleGroupVisibilityIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 101L, Action.CREATED));
+			return new ArrayList<>(List.of(visibility(100L, ORG_1, CATALOG_1, true)));
+		});
+		Mockito.when(bundleGroupRepository.findVisibilityById(101L)).thenReturn(Optional.of(visibility(101L, ORG_2, null, false)));
+		bundleGroupVisibilityIndex.rebuild();
+		assertTrue(bundleGroupVisibilityIndex.isReady());
+		assertEquals(List.of(100L, 101L), BundleGroupVisibilityIndex.toIds(bundleGroupVisibilityIndex.visibleTo(Set.of(ORG_2))));
+	}
+
+	private BundleGroupVisibility visibility(Long id, Long organisationId, Long catalogId, Boolean publicCatalog) {
+		return new BundleGroupVisibility() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public Long getOrganisationId() {
+				return organisationId;
+			}
+
+			@Override
+			public Long getCatalogId() {
+				return catalogId;
+			}
+
+			@Override
+			public Boolean getPublicCatalog() {
+				return publicCatalog;
+			}
+		};
+	}
+}
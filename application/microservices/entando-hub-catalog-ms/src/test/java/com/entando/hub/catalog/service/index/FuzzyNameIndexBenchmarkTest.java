@@ -0,0 +1,85 @@
+package com.entando.hub.catalog.service.index;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.projection.BundleGroupSearchNames;
+
+/**
+ * Latency of FuzzyNameIndex.search over synthetic catalogs of 10k and 100k bundle groups, logged
+ * and checked against a loose bound. Skipped unless run with -Dbenchmark:
+ * mvn test -Dbenchmark -Dtest=FuzzyNameIndexBenchmarkTest
+ */
+public class FuzzyNameIndexBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(FuzzyNameIndexBenchmarkTest.class);
+
+	private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "po", "ru", "sa", "te", "vi", "zo", "an", "el", "or", "un", "is"};
+	private static final String[] QUERIES = {"kalomi", "porusa", "tevizo", "anelor", "keyclok", "bankng demo"};
+	private static final int WARMUP = 200;
+	private static final int RUNS = 1000;
+	// far above the expected latency: catches an index degraded to a scan of every name per search
+	private static final long MAX_P99_MS = 200;
+
+	@Before
+	public void setUp() {
+		assumeTrue(null != System.getProperty("benchmark"));
+	}
+
+	@Test
+	public void searchLatencyTest() {
+		run(10_000);
+		run(100_000);
+	}
+
+	private void run(int groups) {
+		Random random = new Random(42);
+		List<BundleGroupSearchNames> names = new ArrayList<>(groups);
+		for (long id = 1; id <= groups; id++) {
+			names.add(FuzzyNameIndexTest.names(id, word(random) + " " + word(random), word(random)));
+		}
+		BundleGroupRepository bundleGroupRepository = Mockito.mock(BundleGroupRepository.class);
+		Mockito.when(bundleGroupRepository.findAllSearchNames()).thenReturn(names);
+		FuzzyNameIndex index = new FuzzyNameIndex(bundleGroupRepository);
+
+		long buildStart = System.nanoTime();
+		index.rebuild();
+		long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+		for (int i = 0; i < WARMUP; i++) {
+			index.search(QUERIES[i % QUERIES.length], 0.3);
+		}
+		long[] latencies = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			index.search(QUERIES[i % QUERIES.length], 0.3);
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		long p50 = latencies[RUNS / 2] / 1000;
+		long p99 = latencies[RUNS * 99 / 100] / 1000;
+		logger.info("{} groups: build {} ms, search p50 {} us, p99 {} us", groups, buildMs, p50, p99);
+		assertTrue(groups + " groups: search p99 " + p99 + " us", p99 < MAX_P99_MS * 1000);
+	}
+
+	private static String word(Random random) {
+		StringBuilder word = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int i = 0; i < syllables; i++) {
+			word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		return word.toString();
+	}
+}
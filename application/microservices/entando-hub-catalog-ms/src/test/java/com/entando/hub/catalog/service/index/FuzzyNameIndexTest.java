@@ -0,0 +1,134 @@
+package com.entando.hub.catalog.service.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.Action;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.EntityType;
+import com.entando.hub.catalog.persistence.projection.BundleGroupSearchNames;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FuzzyNameIndexTest {
+
+	@InjectMocks
+	FuzzyNameIndex fuzzyNameIndex;
+	@Mock
+	BundleGroupRepository bundleGroupRepository;
+
+	private static final Long ORG_1 = 1L;
+
+	@Test
+	public void searchTest() {
+		List<BundleGroupSearchNames> names = new ArrayList<>();
+		names.add(names(100L, "Keycloak Theme", "Entando"));
+		names.add(names(101L, "Banking Demo", "Acme"));
+		Mockito.when(bundleGroupRepository.findAllSearchNames()).thenReturn(names);
+
+		assertFalse(fuzzyNameIndex.isReady());
+		fuzzyNameIndex.rebuild();
+		assertTrue(fuzzyNameIndex.isReady());
+
+		//Case 1: a typo in a word of the name
+		Map<Long, Double> matches = fuzzyNameIndex.search("keyclok", 0.3);
+		assertEquals(List.of(100L), new ArrayList<>(matches.keySet()));
+		assertEquals(6d / 11d, matches.get(100L), 0.0001);
+
+		//Case 2: the organisation name
+		assertEquals(List.of(101L), new ArrayList<>(fuzzyNameIndex.search("acmee", 0.3).keySet()));
+
+		//Case 3: the whole name ranks the closest group first
+		names.add(names(102L, "Banking Demo Plus", "Acme"));
+		fuzzyNameIndex.rebuild();
+		assertEquals(List.of(101L, 102L), new ArrayList<>(fuzzyNameIndex.search("banking demo", 0.3).keySet()));
+
+		//Case 4: below the threshold
+		assertTrue(fuzzyNameIndex.search("keyclok", 0.9).isEmpty());
+		assertTrue(fuzzyNameIndex.search("  ", 0.3).isEmpty());
+	}
+
+	@Test
+	public void onCatalogChangeTest() {
+		Mockito.when(bundleGroupRepository.findAllSearchNames()).thenReturn(List.of(names(100L, "Keycloak Theme", "Entando")));
+		fuzzyNameIndex.rebuild();
+
+		//Case 1: a renamed bundle group
+		Mockito.when(bundleGroupRepository.findSearchNamesById(100L)).thenReturn(Optional.of(names(100L, "Portal Theme", "Entando")));
+		fuzzyNameIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 100L, Action.UPDATED));
+		assertTrue(fuzzyNameIndex.search("keycloak", 0.3).isEmpty());
+		assertEquals(List.of(100L), new ArrayList<>(fuzzyNameIndex.search("portal", 0.3).keySet()));
+
+		//Case 2: a renamed organisation
+		Mockito.when(bundleGroupRepository.findSearchNamesByOrganisationId(ORG_1)).thenReturn(List.of(names(100L, "Portal Theme", "Acme")));
+		fuzzyNameIndex.onCatalogChange(new CatalogChangeEvent(EntityType.ORGANISATION, ORG_1, Action.UPDATED));
+		assertTrue(fuzzyNameIndex.search("entando", 0.3).isEmpty());
+		assertEquals(List.of(100L), new ArrayList<>(fuzzyNameIndex.search("acme", 0.3).keySet()));
+
+		//Case 3: a deleted bundle group
+		fuzzyNameIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 100L, Action.DELETED));
+		assertTrue(fuzzyNameIndex.search("portal", 0.3).isEmpty());
+	}
+
+	@Test
+	public void changeDuringRebuildTest() {
+		// the bundle group is renamed once the rebuild has read the names
+		Mockito.when(bundleGroupRepository.findAllSearchNames()).thenAnswer(invocation -> {
+			fuzzyNameIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 100L, Action.UPDATED));
+			return List.of(names(100L, "Keycloak Theme", "Entando"));
+		});
+		Mockito.when(bundleGroupRepository.findSearchNamesById(100L)).thenReturn(Optional.of(names(100L, "Portal Theme", "Entando")));
+		fuzzyNameIndex.rebuild();
+		assertTrue(fuzzyNameIndex.search("keycloak", 0.3).isEmpty());
+		assertEquals(List.of(100L), new ArrayList<>(fuzzyNameIndex.search("portal", 0.3).keySet()));
+	}
+
+	@Test
+	public void searchAllMatchesTest() {
+		List<BundleGroupSearchNames> names = new ArrayList<>();
+		for (long id = 0; id < 1500; id++) {
+			names.add(names(id, "Theme " + id, "Entando"));
+		}
+		Mockito.when(bundleGroupRepository.findAllSearchNames()).thenReturn(names);
+		fuzzyNameIndex.rebuild();
+		assertEquals(1500, fuzzyNameIndex.search("theme", 0.3).size());
+	}
+
+	static BundleGroupSearchNames names(Long id, String name, String organisationName) {
+		return new BundleGroupSearchNames() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public String getOrganisationName() {
+				return organisationName;
+			}
+		};
+	}
+}
@@ -0,0 +1,168 @@
+package com.entando.hub.catalog.service.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.entando.hub.catalog.persistence.BundleGroupVersionRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.Action;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.EntityType;
+import com.entando.hub.catalog.persistence.projection.BundleGroupVersionText;
+import com.entando.hub.catalog.persistence.projection.BundleNameLink;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class RelevanceIndexTest {
+
+	@InjectMocks
+	RelevanceIndex relevanceIndex;
+	@Mock
+	BundleGroupVersionRepository bundleGroupVersionRepository;
+
+	@Before
+	public void setUp() {
+		Mockito.when(bundleGroupVersionRepository.findAllTexts()).thenReturn(List.of(
+				text(1L, "Login and user management", "Keycloak Theme", "Entando"),
+				text(2L, "Themes for the keycloak login page and the portal", "Portal Theme", "Acme"),
+				text(3L, "A banking demo", "Banking Demo", "Keycloak Friends")));
+		Mockito.when(bundleGroupVersionRepository.findAllBundleNames()).thenReturn(List.of(
+				bundle(2L, 20L, "keycloak-theme"), bundle(3L, 30L, "banking-ui")));
+	}
+
+	@Test
+	public void scoreTest() {
+		assertFalse(relevanceIndex.isReady());
+		relevanceIndex.rebuild();
+		assertTrue(relevanceIndex.isReady());
+
+		//Case 1: a match in the group name beats a match in the organisation name
+		Map<Long, Double> scores = relevanceIndex.score("keycloak");
+		assertEquals(3, scores.size());
+		assertTrue(scores.get(1L) > scores.get(3L));
+
+		//Case 2: more matching terms and fields score higher
+		scores = relevanceIndex.score("keycloak theme");
+		assertTrue(scores.get(2L) > scores.get(3L));
+		assertTrue(scores.get(1L) > scores.get(3L));
+
+		//Case 3: no match
+		assertTrue(relevanceIndex.score("payments").isEmpty());
+	}
+
+	@Test
+	public void onCatalogChangeTest() {
+		relevanceIndex.rebuild();
+
+		//Case 1: an updated version
+		Mockito.when(bundleGroupVersionRepository.findTextsByIdIn(List.of(1L))).thenReturn(List.of(
+				text(1L, "Payments gateway", "Payments", "Entando")));
+		Mockito.when(bundleGroupVersionRepository.findBundleNamesByIdIn(List.of(1L))).thenReturn(List.of());
+		relevanceIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP_VERSION, 1L, Action.UPDATED));
+		assertEquals(List.of(1L), new ArrayList<>(relevanceIndex.score("payments").keySet()));
+		assertFalse(relevanceIndex.score("keycloak").containsKey(1L));
+
+		//Case 2: a renamed organisation reindexes the versions of its groups
+		Mockito.when(bundleGroupVersionRepository.findIdsByOrganisationId(10L)).thenReturn(List.of(3L));
+		Mockito.when(bundleGroupVersionRepository.findTextsByIdIn(List.of(3L))).thenReturn(List.of(
+				text(3L, "A banking demo", "Banking Demo", "Fintech")));
+		Mockito.when(bundleGroupVersionRepository.findBundleNamesByIdIn(List.of(3L))).thenReturn(List.of(bundle(3L, 30L, "banking-ui")));
+		relevanceIndex.onCatalogChange(new CatalogChangeEvent(EntityType.ORGANISATION, 10L, Action.UPDATED));
+		assertFalse(relevanceIndex.score("keycloak").containsKey(3L));
+		assertTrue(relevanceIndex.score("fintech").containsKey(3L));
+
+		//Case 3: a deleted version
+		relevanceIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP_VERSION, 2L, Action.DELETED));
+		assertTrue(relevanceIndex.score("portal").isEmpty());
+	}
+
+	@Test
+	public void onBundleDeleteTest() {
+		relevanceIndex.rebuild();
+		assertTrue(relevanceIndex.score("banking").containsKey(3L));
+
+		// the links of the deleted bundle are gone, its versions are the ones it was indexed with
+		Mockito.when(bundleGroupVersionRepository.findTextsByIdIn(Set.of(3L))).thenReturn(List.of(
+				text(3L, "A demo", "Demo", "Keycloak Friends")));
+		Mockito.when(bundleGroupVersionRepository.findBundleNamesByIdIn(Set.of(3L))).thenReturn(List.of());
+		relevanceIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE, 30L, Action.DELETED));
+		Mockito.verify(bundleGroupVersionRepository, Mockito.never()).findIdsByBundleId(30L);
+		assertTrue(relevanceIndex.score("banking").isEmpty());
+		assertTrue(relevanceIndex.score("demo").containsKey(3L));
+	}
+
+	@Test
+	public void changeDuringRebuildTest() {
+		// the version is updated once the rebuild has read the texts
+		Mockito.when(bundleGroupVersionRepository.findAllBundleNames()).thenAnswer(invocation -> {
+			relevanceIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP_VERSION, 1L, Action.UPDATED));
+			return List.of();
+		});
+		Mockito.when(bundleGroupVersionRepository.findTextsByIdIn(List.of(1L))).thenReturn(List.of(
+				text(1L, "Payments gateway", "Payments", "Entando")));
+		Mockito.when(bundleGroupVersionRepository.findBundleNamesByIdIn(List.of(1L))).thenReturn(List.of());
+		relevanceIndex.rebuild();
+		assertEquals(List.of(1L), new ArrayList<>(relevanceIndex.score("payments").keySet()));
+	}
+
+	private BundleGroupVersionText text(Long id, String description, String bundleGroupName, String organisationName) {
+		return new BundleGroupVersionText() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getDescription() {
+				return description;
+			}
+
+			@Override
+			public String getBundleGroupName() {
+				return bundleGroupName;
+			}
+
+			@Override
+			public String getOrganisationName() {
+				return organisationName;
+			}
+		};
+	}
+
+	private BundleNameLink bundle(Long bundleGroupVersionId, Long bundleId, String name) {
+		return new BundleNameLink() {
+			@Override
+			public Long getBundleGroupVersionId() {
+				return bundleGroupVersionId;
+			}
+
+			@Override
+			public Long getBundleId() {
+				return bundleId;
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+		};
+	}
+}
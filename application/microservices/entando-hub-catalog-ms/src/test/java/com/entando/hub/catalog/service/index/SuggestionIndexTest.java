@@ -0,0 +1,179 @@
+package com.entando.hub.catalog.service.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.entando.hub.catalog.persistence.BundleGroupRepository;
+import com.entando.hub.catalog.persistence.BundleRepository;
+import com.entando.hub.catalog.persistence.OrganisationRepository;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.Action;
+import com.entando.hub.catalog.persistence.event.CatalogChangeEvent.EntityType;
+import com.entando.hub.catalog.persistence.projection.BundleNameGroupLink;
+import com.entando.hub.catalog.persistence.projection.EntityName;
+import com.entando.hub.catalog.service.index.SuggestionIndex.Suggestion;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class SuggestionIndexTest {
+
+	@InjectMocks
+	SuggestionIndex suggestionIndex;
+	@Mock
+	BundleGroupRepository bundleGroupRepository;
+	@Mock
+	BundleRepository bundleRepository;
+	@Mock
+	OrganisationRepository organisationRepository;
+
+	@Before
+	public void setUp() {
+		Mockito.when(bundleGroupRepository.findPublicNames()).thenReturn(List.of(name(100L, "Entando Bundle Group"), name(101L, "Banking Demo")));
+		// bundle-sample is in two versions of group 100
+		Mockito.when(bundleRepository.findPublicNameLinks()).thenReturn(List.of(link(200L, "bundle-sample", 400L, 100L),
+				link(200L, "bundle-sample", 402L, 100L), link(201L, "widget-pack", 401L, 101L)));
+		Mockito.when(organisationRepository.findAllNames()).thenReturn(List.of(name(300L, "Entando")));
+	}
+
+	@Test
+	public void suggestTest() {
+		assertTrue(suggestionIndex.suggest("ent", 10).isEmpty());
+		suggestionIndex.rebuild();
+		assertTrue(suggestionIndex.isReady());
+
+		//Case 1: the shorter key comes first
+		assertEquals(List.of("Entando", "Entando Bundle Group"), names(suggestionIndex.suggest("ENT", 10)));
+
+		//Case 2: every word of a name is a key
+		assertEquals(List.of("Entando Bundle Group", "bundle-sample"), names(suggestionIndex.suggest("bun", 10)));
+		assertEquals(List.of("bundle-sample"), names(suggestionIndex.suggest("sam", 10)));
+		assertEquals(List.of("Banking Demo", "Entando Bundle Group"), names(suggestionIndex.suggest("b", 2)));
+
+		//Case 3: no match, blank prefix
+		assertTrue(suggestionIndex.suggest("xyz", 10).isEmpty());
+		assertTrue(suggestionIndex.suggest(" ", 10).isEmpty());
+	}
+
+	@Test
+	public void onCatalogChangeTest() {
+		suggestionIndex.rebuild();
+
+		//Case 1: a renamed organisation
+		Mockito.when(organisationRepository.findNameById(300L)).thenReturn(Optional.of(name(300L, "Acme")));
+		suggestionIndex.onCatalogChange(new CatalogChangeEvent(EntityType.ORGANISATION, 300L, Action.UPDATED));
+		assertEquals(List.of("Entando Bundle Group"), names(suggestionIndex.suggest("ent", 10)));
+		assertEquals(List.of("Acme"), names(suggestionIndex.suggest("acm", 10)));
+
+		//Case 2: a bundle group made private takes its bundles out
+		Mockito.when(bundleGroupRepository.findPublicNameById(100L)).thenReturn(Optional.empty());
+		Mockito.when(bundleRepository.findIdsByBundleGroupId(100L)).thenReturn(List.of(200L));
+		Mockito.when(bundleRepository.findPublicNameLinksByIdIn(List.of(200L))).thenReturn(List.of());
+		suggestionIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 100L, Action.UPDATED));
+		assertTrue(suggestionIndex.suggest("bun", 10).isEmpty());
+
+		//Case 3: a deleted bundle group
+		suggestionIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 101L, Action.DELETED));
+		assertFalse(names(suggestionIndex.suggest("b", 10)).contains("Banking Demo"));
+	}
+
+	@Test
+	public void onDeleteTest() {
+		suggestionIndex.rebuild();
+		assertEquals(List.of("bundle-sample"), names(suggestionIndex.suggest("sam", 10)));
+
+		//Case 1: the links of a deleted version are gone, only the bundles it linked are checked again
+		Mockito.when(bundleRepository.findPublicNameLinksByIdIn(List.of(200L))).thenReturn(List.of(link(200L, "bundle-sample", 402L, 100L)));
+		suggestionIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP_VERSION, 400L, Action.DELETED));
+		Mockito.verify(bundleRepository, Mockito.never()).findIdsByBundleGroupVersionId(400L);
+		Mockito.verify(bundleRepository).findPublicNameLinksByIdIn(List.of(200L));
+		Mockito.verify(bundleRepository, Mockito.never()).findPublicNameLinksByIdIn(List.of(201L));
+		// still in another public version
+		assertEquals(List.of("bundle-sample"), names(suggestionIndex.suggest("sam", 10)));
+
+		//Case 2: same for a deleted bundle group
+		Mockito.when(bundleRepository.findPublicNameLinksByIdIn(List.of(200L))).thenReturn(List.of());
+		suggestionIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP, 100L, Action.DELETED));
+		Mockito.verify(bundleRepository, Mockito.never()).findIdsByBundleGroupId(100L);
+		assertTrue(suggestionIndex.suggest("sam", 10).isEmpty());
+		assertEquals(List.of("widget-pack"), names(suggestionIndex.suggest("wid", 10)));
+		assertEquals(List.of("Entando"), names(suggestionIndex.suggest("ent", 10)));
+
+		//Case 3: a deleted version linking no suggested bundle reads nothing
+		Mockito.clearInvocations(bundleRepository);
+		suggestionIndex.onCatalogChange(new CatalogChangeEvent(EntityType.BUNDLE_GROUP_VERSION, 400L, Action.DELETED));
+		Mockito.verifyNoInteractions(bundleRepository);
+	}
+
+	@Test
+	public void changeDuringRebuildTest() {
+		// the organisation is renamed once the rebuild has read the names
+		Mockito.when(organisationRepository.findAllNames()).thenAnswer(invocation -> {
+			suggestionIndex.onCatalogChange(new CatalogChangeEvent(EntityType.ORGANISATION, 300L, Action.UPDATED));
+			return List.of(name(300L, "Entando"));
+		});
+		Mockito.when(organisationRepository.findNameById(300L)).thenReturn(Optional.of(name(300L, "Acme")));
+		suggestionIndex.rebuild();
+		assertEquals(List.of("Acme"), names(suggestionIndex.suggest("acm", 10)));
+		assertEquals(List.of("Entando Bundle Group"), names(suggestionIndex.suggest("ent", 10)));
+	}
+
+	private List<String> names(List<Suggestion> suggestions) {
+		return suggestions.stream().map(Suggestion::getName).collect(Collectors.toList());
+	}
+
+	private EntityName name(Long id, String name) {
+		return new EntityName() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+		};
+	}
+
+	private BundleNameGroupLink link(Long id, String name, Long bundleGroupVersionId, Long bundleGroupId) {
+		return new BundleNameGroupLink() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public Long getBundleGroupVersionId() {
+				return bundleGroupVersionId;
+			}
+
+			@Override
+			public Long getBundleGroupId() {
+				return bundleGroupId;
+			}
+		};
+	}
+}
@@ -0,0 +1,91 @@
+package com.entando.hub.catalog.service.security;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.entando.hub.catalog.persistence.CatalogRepository;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CatalogAccessCacheTest {
+
+	@Mock
+	CatalogRepository catalogRepository;
+
+	CatalogAccessCache catalogAccessCache;
+
+	private static final String USERNAME = "user";
+	private static final Long CATALOG_ID = 3000L;
+
+	@Before
+	public void setUp() {
+		catalogAccessCache = new CatalogAccessCache(catalogRepository, 60000, 100);
+	}
+
+	@Test
+	public void canAccessTest() {
+		Mockito.when(catalogRepository.existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME)).thenReturn(true);
+
+		//Case 1: the decision is cached
+		assertTrue(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+		assertTrue(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+		Mockito.verify(catalogRepository, Mockito.times(1)).existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME);
+
+		//Case 2: evicting the user drops the decision
+		Mockito.when(catalogRepository.existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME)).thenReturn(false);
+		catalogAccessCache.evictUser(USERNAME);
+		assertFalse(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+
+		//Case 3: evicting the catalog drops the decision
+		Mockito.when(catalogRepository.existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME)).thenReturn(true);
+		catalogAccessCache.evictCatalog(CATALOG_ID);
+		assertTrue(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+
+		//Case 4: no username or catalog, no query
+		assertFalse(catalogAccessCache.canAccess(null, CATALOG_ID));
+		assertFalse(catalogAccessCache.canAccess(USERNAME, null));
+		Mockito.verify(catalogRepository, Mockito.times(3)).existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME);
+	}
+
+	@Test
+	public void evictAfterCommitTest() {
+		Mockito.when(catalogRepository.existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME)).thenReturn(true);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			catalogAccessCache.evictUser(USERNAME);
+			// a concurrent request caches the decision from the data committed so far
+			assertTrue(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+
+			Mockito.when(catalogRepository.existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME)).thenReturn(false);
+			TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+					synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+			assertFalse(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void canAccessExpiredTest() {
+		catalogAccessCache = new CatalogAccessCache(catalogRepository, 0, 100);
+		Mockito.when(catalogRepository.existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME)).thenReturn(true);
+
+		assertTrue(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+		assertTrue(catalogAccessCache.canAccess(USERNAME, CATALOG_ID));
+		Mockito.verify(catalogRepository, Mockito.times(2)).existsByIdAndOrganisation_PortalUsers_Username(CATALOG_ID, USERNAME);
+	}
+}
@@ -0,0 +1,111 @@
+package com.entando.hub.catalog.service.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.entando.hub.catalog.persistence.CatalogRepository;
+import com.entando.hub.catalog.persistence.OrganisationRepository;
+import com.entando.hub.catalog.persistence.entity.Catalog;
+import com.entando.hub.catalog.persistence.entity.Organisation;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PrincipalContextServiceTest {
+
+	@InjectMocks
+	PrincipalContextService principalContextService;
+	@Mock
+	OrganisationRepository organisationRepository;
+	@Mock
+	CatalogRepository catalogRepository;
+	@Mock
+	CatalogAccessCache catalogAccessCache;
+
+	private static final String USERNAME = "user";
+	private static final Long ORG_ID = 2000L;
+	private static final Long CATALOG_ID = 3000L;
+
+	@After
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void getPrincipalContextInRequestTest() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		mockRepositories();
+
+		PrincipalContext context = principalContextService.getPrincipalContext(USERNAME);
+		assertTrue(context.belongsToOrganisation(ORG_ID));
+		assertFalse(context.belongsToOrganisation(ORG_ID + 1));
+		assertTrue(context.canAccessCatalog(CATALOG_ID));
+		assertFalse(context.canAccessCatalog(CATALOG_ID + 1));
+
+		//Case 1: same user in the same request, lookups are not repeated
+		PrincipalContext context2 = principalContextService.getPrincipalContext(USERNAME);
+		assertSame(context, context2);
+		assertEquals(Set.of(ORG_ID), context2.getOrganisationIds());
+		assertTrue(context2.canAccessCatalog(CATALOG_ID));
+		Mockito.verify(organisationRepository, Mockito.times(1)).findByPortalUsers_Username(USERNAME);
+		Mockito.verify(catalogAccessCache, Mockito.times(1)).canAccess(USERNAME, CATALOG_ID);
+		Mockito.verify(catalogRepository, Mockito.never()).findByOrganisation_PortalUsers_Username(USERNAME);
+
+		//Case 2: once the catalog ids are loaded they answer the access checks
+		assertEquals(Set.of(CATALOG_ID), context2.getCatalogIds());
+		assertFalse(context2.canAccessCatalog(CATALOG_ID + 2));
+		Mockito.verify(catalogAccessCache, Mockito.never()).canAccess(USERNAME, CATALOG_ID + 2);
+
+		//Case 3: another user in the same request gets its own context
+		PrincipalContext otherContext = principalContextService.getPrincipalContext("other");
+		assertNotSame(context, otherContext);
+		assertFalse(otherContext.belongsToOrganisation(ORG_ID));
+	}
+
+	@Test
+	public void getPrincipalContextOutsideRequestTest() {
+		mockRepositories();
+
+		PrincipalContext context = principalContextService.getPrincipalContext(USERNAME);
+		PrincipalContext context2 = principalContextService.getPrincipalContext(USERNAME);
+		assertNotSame(context, context2);
+		assertTrue(context2.belongsToOrganisation(ORG_ID));
+
+		//Case 1: no username, no lookups
+		PrincipalContext anonymous = principalContextService.getPrincipalContext(null);
+		assertTrue(anonymous.getOrganisations().isEmpty());
+		assertTrue(anonymous.getCatalogIds().isEmpty());
+		Mockito.verify(organisationRepository, Mockito.never()).findByPortalUsers_Username(null);
+	}
+
+	private void mockRepositories() {
+		Organisation organisation = new Organisation();
+		organisation.setId(ORG_ID);
+		Catalog catalog = new Catalog();
+		catalog.setId(CATALOG_ID);
+		Mockito.when(organisationRepository.findByPortalUsers_Username(USERNAME)).thenReturn(List.of(organisation));
+		Mockito.when(catalogRepository.findByOrganisation_PortalUsers_Username(USERNAME)).thenReturn(List.of(catalog));
+		Mockito.when(catalogAccessCache.canAccess(USERNAME, CATALOG_ID)).thenReturn(true);
+	}
+}
@@ -0,0 +1,144 @@
+package com.entando.hub.catalog.service.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.entando.hub.catalog.persistence.entity.Bundle;
+import com.entando.hub.catalog.response.BundleGroupVersionFilteredResponseView;
+import com.entando.hub.catalog.rest.BundleController;
+import com.entando.hub.catalog.rest.PagedContent;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PublishedCatalogTest {
+
+	@Mock
+	PublishedCatalogBuilder publishedCatalogBuilder;
+	@Mock
+	StaticCatalogFiles staticCatalogFiles;
+
+	@Test
+	public void getBundleGroupVersionsTest() {
+		PublishedCatalog publishedCatalog = new PublishedCatalog(3L,
+				List.of(version(1L, 11L, "101"), version(2L, 12L, "102"), version(3L, 13L, "103")), List.of());
+
+		PagedContent<BundleGroupVersionFilteredResponseView, ?> page = publishedCatalog.getBundleGroupVersions(1, 2);
+		assertEquals(1, page.getPayload().size());
+		assertEquals(Long.valueOf(13L), page.getPayload().get(0).getBundleGroupVersionId());
+		assertEquals(2, page.getMetadata().getLastPage());
+		assertEquals(3L, page.getMetadata().getTotalItems());
+
+		//Case 2: an unexpected pageSize means the maximum, as for the database
+		assertEquals(3, publishedCatalog.getBundleGroupVersions(0, 0).getPayload().size());
+	}
+
+	@Test
+	public void getBundlesTest() {
+		PublishedCatalog publishedCatalog = new PublishedCatalog(3L,
+				List.of(version(1L, 11L, "101", "102"), version(2L, 12L, "103"), version(3L, 13L, "104")),
+				List.of(bundle("101", "V1", "docker://a"), bundle("102", "V5", "docker://b"),
+						bundle("103", "V5", "docker://c"), bundle("104", "V1", null)));
+
+		// the bundles of the published version of the bundle group
+		assertEquals(List.of("101"), ids(publishedCatalog.getBundles(0, 0, "1", Set.of(Bundle.DescriptorVersion.V1))));
+		assertEquals(List.of("101", "102"), ids(publishedCatalog.getBundles(0, 0, "1", Set.of(Bundle.DescriptorVersion.values()))));
+		assertEquals(List.of(), ids(publishedCatalog.getBundles(0, 0, "99", Set.of(Bundle.DescriptorVersion.V1))));
+
+		//Case 2: the bundles of the versions with a deployable bundle of the descriptor versions
+		assertEquals(List.of("102", "103"), ids(publishedCatalog.getBundles(0, 0, null, Set.of(Bundle.DescriptorVersion.V5))));
+
+		//Case 3: paged
+		PagedContent<BundleController.Bundle, ?> page = publishedCatalog.getBundles(1, 1, null, Set.of(Bundle.DescriptorVersion.V5));
+		assertEquals(List.of("103"), ids(page));
+		assertEquals(2, page.getMetadata().getLastPage());
+	}
+
+	@Test
+	public void keysTest() {
+		PublishedCatalog publishedCatalog = new PublishedCatalog(3L,
+				List.of(version(1L, 11L, "101"), version(2L, 12L, "102"), version(3L, 13L, "103")),
+				List.of(bundle("101", "V1", "docker://a"), bundle("102", "V1", "docker://b"), bundle("103", "V1", "docker://c")));
+
+		assertEquals("appbuilder/bundlegroups?page=1&pageSize=2", publishedCatalog.bundleGroupVersionsKey(1, 2));
+		assertEquals("appbuilder/bundlegroups?page=0&pageSize=50", publishedCatalog.bundleGroupVersionsKey(0, 500));
+		assertNull(publishedCatalog.bundleGroupVersionsKey(2, 2));
+
+		//Case 2: the bundle group id in its canonical form, none for the unknown ones
+		Set<Bundle.DescriptorVersion> versions = Set.of(Bundle.DescriptorVersion.V5, Bundle.DescriptorVersion.V1);
+		assertEquals("appbuilder/bundles?page=0&pageSize=10&bundleGroupId=1&descriptorVersions=V1,V5",
+				publishedCatalog.bundlesKey(0, 10, "01", versions));
+		assertEquals("appbuilder/bundles?page=0&pageSize=0&bundleGroupId=&descriptorVersions=V1,V5",
+				publishedCatalog.bundlesKey(0, 0, null, versions));
+		assertNull(publishedCatalog.bundlesKey(0, 10, "99", versions));
+		assertNull(publishedCatalog.bundlesKey(0, 10, "abc", versions));
+
+		//Case 3: no file for the page sizes out of 0..50 nor the pages after the last bundle
+		assertNull(publishedCatalog.bundlesKey(0, 51, null, versions));
+		assertNull(publishedCatalog.bundlesKey(0, -1, null, versions));
+		assertNull(publishedCatalog.bundlesKey(3, 1, null, versions));
+		assertNull(publishedCatalog.bundlesKey(1, 0, null, versions));
+	}
+
+	@Test
+	public void rebuildTest() {
+		PublishedCatalogService publishedCatalogService = new PublishedCatalogService(publishedCatalogBuilder, staticCatalogFiles, true, new int[]{2});
+		assertNull(publishedCatalogService.getSnapshot());
+
+		PublishedCatalog publishedCatalog = new PublishedCatalog(1L, List.of(), List.of());
+		Mockito.doReturn(publishedCatalog).when(publishedCatalogBuilder).build();
+		publishedCatalogService.onCatalogReload();
+		Mockito.verify(publishedCatalogBuilder, Mockito.timeout(5000)).build();
+		Mockito.verify(publishedCatalogBuilder, Mockito.after(200).times(1)).build();
+		assertSame(publishedCatalog, publishedCatalogService.getSnapshot());
+		// the first bundle group page is rendered even when empty
+		Mockito.verify(staticCatalogFiles, Mockito.timeout(5000)).prerender(Mockito.eq("appbuilder/bundlegroups?page=0&pageSize=2"), Mockito.eq(1L), Mockito.any());
+
+		//Case 2: the rebuild fails, the catalog is served from the database again
+		Mockito.doThrow(new IllegalStateException("database down")).when(publishedCatalogBuilder).build();
+		publishedCatalogService.onCatalogChange(null);
+		Mockito.verify(publishedCatalogBuilder, Mockito.timeout(5000).times(2)).build();
+		Mockito.verify(publishedCatalogBuilder, Mockito.after(200).times(2)).build();
+		assertNull(publishedCatalogService.getSnapshot());
+		publishedCatalogService.shutdown();
+	}
+
+	@Test
+	public void disabledTest() {
+		PublishedCatalogService publishedCatalogService = new PublishedCatalogService(publishedCatalogBuilder, staticCatalogFiles, false, new int[]{2});
+		publishedCatalogService.onCatalogReload();
+		Mockito.verify(publishedCatalogBuilder, Mockito.after(200).never()).build();
+		assertNull(publishedCatalogService.getSnapshot());
+		publishedCatalogService.shutdown();
+	}
+
+	private BundleGroupVersionFilteredResponseView version(Long bundleGroupId, Long bundleGroupVersionId, String... children) {
+		return new BundleGroupVersionFilteredResponseView()
+				.setBundleGroupId(bundleGroupId)
+				.setBundleGroupVersionId(bundleGroupVersionId)
+				.setChildren(List.of(children));
+	}
+
+	private BundleController.Bundle bundle(String id, String descriptorVersion, String gitRepoAddress) {
+		return new BundleController.Bundle(id, "bundle-" + id, null, gitRepoAddress, null, List.of(), List.of(), descriptorVersion);
+	}
+
+	private List<String> ids(PagedContent<BundleController.Bundle, ?> page) {
+		return page.getPayload().stream().map(BundleController.Bundle::getBundleId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,172 @@
+package com.entando.hub.catalog.service.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class StaticCatalogFilesTest {
+
+	private static final String JSON = "[\"bundle-1\",\"bundle-2\"]";
+
+	private final AtomicInteger renders = new AtomicInteger();
+	private StaticCatalogFiles staticCatalogFiles;
+
+	@Before
+	public void setUp() {
+		staticCatalogFiles = new StaticCatalogFiles(new ObjectMapper(), true, "", 2, 3600000);
+		staticCatalogFiles.init();
+	}
+
+	@After
+	public void tearDown() {
+		staticCatalogFiles.cleanup();
+	}
+
+	@Test
+	public void serveTest() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(staticCatalogFiles.serve("bundles", 1L, this::content, request(null), response));
+		assertEquals(JSON, response.getContentAsString());
+		assertEquals("application/json", response.getContentType());
+		assertNull(response.getHeader("Content-Encoding"));
+		String etag = response.getHeader("ETag");
+		assertNotNull(etag);
+
+		//Case 2: gzipped when accepted, from the same rendering
+		response = new MockHttpServletResponse();
+		MockHttpServletRequest request = request(null);
+		request.addHeader("Accept-Encoding", "deflate, gzip;q=0.8");
+		assertTrue(staticCatalogFiles.serve("bundles", 1L, this::content, request, response));
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+		assertEquals(JSON, gunzip(response.getContentAsByteArray()));
+		assertEquals(1, renders.get());
+
+		//Case 3: not modified
+		response = new MockHttpServletResponse();
+		assertTrue(staticCatalogFiles.serve("bundles", 1L, this::content, request(etag), response));
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+
+		//Case 4: a newer version is rendered again, the same json keeps its etag
+		response = new MockHttpServletResponse();
+		assertTrue(staticCatalogFiles.serve("bundles", 2L, this::content, request(etag), response));
+		assertEquals(304, response.getStatus());
+		assertEquals(2, renders.get());
+	}
+
+	@Test
+	public void sendfileTest() throws IOException {
+		MockHttpServletRequest request = request(null);
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(staticCatalogFiles.serve("bundles", 1L, this::content, request, response));
+		assertNotNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals((long) JSON.length(), request.getAttribute("org.apache.tomcat.sendfile.end"));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void sendfileCanonicalPathTest() throws IOException {
+		Path target = Files.createTempDirectory("hub-static-catalog-test");
+		Path link = Files.createSymbolicLink(target.resolveSibling(target.getFileName() + "-link"), target);
+		StaticCatalogFiles linked = new StaticCatalogFiles(new ObjectMapper(), true, link.toString(), 2, 3600000);
+		linked.init();
+		try {
+			MockHttpServletRequest request = request(null);
+			request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+			assertTrue(linked.serve("bundles", 1L, this::content, request, new MockHttpServletResponse()));
+
+			// the directory is configured through a link, Tomcat gets the path of the file it points to
+			Path filename = Paths.get((String) request.getAttribute("org.apache.tomcat.sendfile.filename"));
+			assertTrue(filename.isAbsolute());
+			assertEquals(filename.toRealPath(), filename);
+			assertTrue(filename.startsWith(target.toRealPath()));
+		} finally {
+			linked.cleanup();
+			Files.delete(link);
+			Files.delete(target);
+		}
+	}
+
+	@Test
+	public void maxFilesTest() throws IOException {
+		assertTrue(staticCatalogFiles.serve("page-1", 1L, this::content, request(null), new MockHttpServletResponse()));
+		assertTrue(staticCatalogFiles.serve("page-2", 1L, this::content, request(null), new MockHttpServletResponse()));
+		assertTrue(staticCatalogFiles.serve("page-1", 1L, this::content, request(null), new MockHttpServletResponse()));
+		assertEquals(2, renders.get());
+
+		// the least recently served file makes room for the new one
+		assertTrue(staticCatalogFiles.serve("page-3", 1L, this::content, request(null), new MockHttpServletResponse()));
+		assertTrue(staticCatalogFiles.serve("page-1", 1L, this::content, request(null), new MockHttpServletResponse()));
+		assertEquals(3, renders.get());
+		assertTrue(staticCatalogFiles.serve("page-2", 1L, this::content, request(null), new MockHttpServletResponse()));
+		assertEquals(4, renders.get());
+
+		//Case 2: a failing rendering is left to the usual serialisation
+		assertFalse(staticCatalogFiles.serve("page-1", 2L, () -> {
+			throw new IllegalStateException("database down");
+		}, request(null), new MockHttpServletResponse()));
+	}
+
+	@Test
+	public void sweepTest() throws IOException {
+		StaticCatalogFiles idle = new StaticCatalogFiles(new ObjectMapper(), true, "", 2, 0);
+		idle.init();
+		try {
+			assertTrue(idle.serve("bundles", 1L, this::content, request(null), new MockHttpServletResponse()));
+			idle.sweep();
+			// the idle file is dropped and rendered again on the next request
+			assertTrue(idle.serve("bundles", 1L, this::content, request(null), new MockHttpServletResponse()));
+			assertEquals(2, renders.get());
+		} finally {
+			idle.cleanup();
+		}
+	}
+
+	@Test
+	public void disabledTest() throws IOException {
+		StaticCatalogFiles disabled = new StaticCatalogFiles(new ObjectMapper(), false, "", 2, 3600000);
+		disabled.init();
+		assertFalse(disabled.serve("bundles", 1L, this::content, request(null), new MockHttpServletResponse()));
+		assertEquals(0, renders.get());
+	}
+
+	private List<String> content() {
+		renders.incrementAndGet();
+		return List.of("bundle-1", "bundle-2");
+	}
+
+	private MockHttpServletRequest request(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/appbuilder/api/bundles/");
+		if (null != ifNoneMatch) {
+			request.addHeader("If-None-Match", ifNoneMatch);
+		}
+		return request;
+	}
+
+	private String gunzip(byte[] gzipped) throws IOException {
+		try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+			return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package com.entando.hub.catalog.service.webhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.entando.hub.catalog.persistence.WebhookCursorRepository;
+import com.entando.hub.catalog.persistence.entity.CatalogEvent;
+import com.entando.hub.catalog.persistence.entity.WebhookCursor;
+import com.entando.hub.catalog.service.CatalogEventService;
+import com.sun.net.httpserver.HttpServer;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class WebhookDeliveryServiceTest {
+
+	@Mock
+	WebhookCursorRepository webhookCursorRepository;
+	@Mock
+	CatalogEventService catalogEventService;
+	@Mock
+	PlatformTransactionManager transactionManager;
+
+	// local stand-in of a webhook endpoint, answering with the configured status
+	private HttpServer server;
+	private final List<String> received = new CopyOnWriteArrayList<>();
+	private final AtomicInteger responseStatus = new AtomicInteger(200);
+	private String endpoint;
+	private WebhookDeliveryService webhookDeliveryService;
+
+	@Before
+	public void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/hook", exchange -> {
+			try (InputStream body = exchange.getRequestBody()) {
+				received.add(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+			}
+			exchange.sendResponseHeaders(responseStatus.get(), -1);
+			exchange.close();
+		});
+		server.start();
+		endpoint = "http://localhost:" + server.getAddress().getPort() + "/hook";
+		webhookDeliveryService = new WebhookDeliveryService(webhookCursorRepository, catalogEventService,
+				transactionManager, new RestTemplateBuilder(), 2000, 2, 1000, 60000);
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	public void deliverNextBatchTest() {
+		WebhookCursor cursor = new WebhookCursor().setEndpoint(endpoint).setLastEventId(10L);
+		Mockito.when(webhookCursorRepository.findLockedByEndpoint(endpoint)).thenReturn(Optional.of(cursor));
+		Mockito.when(webhookCursorRepository.findForUpdateByEndpoint(endpoint)).thenReturn(Optional.of(cursor));
+		Mockito.when(catalogEventService.getSettledEvents(10L, 2))
+				.thenReturn(new SliceImpl<>(List.of(event(11L, CatalogEvent.Action.UPDATED), event(12L, CatalogEvent.Action.PUBLISHED)), PageRequest.of(0, 2), true));
+
+		assertTrue(webhookDeliveryService.deliverNextBatch(endpoint));
+		assertEquals(1, received.size());
+		assertTrue(received.get(0).contains("\"fromEventId\":11"));
+		assertTrue(received.get(0).contains("\"toEventId\":12"));
+		assertEquals(Long.valueOf(12L), cursor.getLastEventId());
+		assertNotNull(cursor.getLastDeliveredAt());
+		assertNull(cursor.getLeaseOwner());
+		// the post runs between two transactions, not within one
+		Mockito.verify(transactionManager, Mockito.times(2)).commit(any());
+
+		//Case 2: the endpoint fails, the cursor stays and the batch is retried after a backoff
+		responseStatus.set(503);
+		Mockito.when(catalogEventService.getSettledEvents(12L, 2))
+				.thenReturn(new SliceImpl<>(List.of(event(13L, CatalogEvent.Action.DELETED)), PageRequest.of(0, 2), false));
+		assertFalse(webhookDeliveryService.deliverNextBatch(endpoint));
+		assertEquals(Long.valueOf(12L), cursor.getLastEventId());
+		assertEquals(1, cursor.getFailures());
+		assertTrue(cursor.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+		//Case 3: still backing off, nothing is posted
+		assertFalse(webhookDeliveryService.deliverNextBatch(endpoint));
+		assertEquals(2, received.size());
+
+		//Case 4: backoff over and endpoint back, the failures are reset
+		responseStatus.set(204);
+		cursor.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+		assertFalse(webhookDeliveryService.deliverNextBatch(endpoint));
+		assertEquals(3, received.size());
+		assertEquals(Long.valueOf(13L), cursor.getLastEventId());
+		assertEquals(0, cursor.getFailures());
+		assertNull(cursor.getNextAttemptAt());
+	}
+
+	@Test
+	public void deliverNextBatchLockedByAnotherReplicaTest() {
+		Mockito.when(webhookCursorRepository.findLockedByEndpoint(endpoint)).thenReturn(Optional.empty());
+
+		assertFalse(webhookDeliveryService.deliverNextBatch(endpoint));
+		Mockito.verify(catalogEventService, Mockito.never()).getSettledEvents(anyLong(), anyInt());
+		assertTrue(received.isEmpty());
+
+		//Case 2: another replica holds the lease while it posts
+		WebhookCursor cursor = new WebhookCursor().setEndpoint(endpoint).setLastEventId(10L)
+				.setLeaseOwner("other").setLeasedUntil(LocalDateTime.now().plusMinutes(1));
+		Mockito.when(webhookCursorRepository.findLockedByEndpoint(endpoint)).thenReturn(Optional.of(cursor));
+		assertFalse(webhookDeliveryService.deliverNextBatch(endpoint));
+		assertTrue(received.isEmpty());
+	}
+
+	@Test
+	public void deliverNextBatchLeaseLostTest() {
+		WebhookCursor cursor = new WebhookCursor().setEndpoint(endpoint).setLastEventId(10L);
+		Mockito.when(webhookCursorRepository.findLockedByEndpoint(endpoint)).thenReturn(Optional.of(cursor));
+		Mockito.when(catalogEventService.getSettledEvents(10L, 2))
+				.thenReturn(new SliceImpl<>(List.of(event(11L, CatalogEvent.Action.UPDATED)), PageRequest.of(0, 2), true));
+		// the lease expired during the post and was taken by another replica
+		Mockito.when(webhookCursorRepository.findForUpdateByEndpoint(endpoint)).thenAnswer(invocation ->
+				Optional.of(cursor.setLeaseOwner("other")));
+
+		assertFalse(webhookDeliveryService.deliverNextBatch(endpoint));
+		assertEquals(1, received.size());
+		assertEquals(Long.valueOf(10L), cursor.getLastEventId());
+		assertEquals("other", cursor.getLeaseOwner());
+	}
+
+	@Test
+	public void initCursorTest() {
+		Mockito.when(webhookCursorRepository.existsById(endpoint)).thenReturn(false);
+		Mockito.when(catalogEventService.getSettledLastEventId()).thenReturn(42L);
+		webhookDeliveryService.initCursor(endpoint);
+		Mockito.verify(webhookCursorRepository).save(Mockito.argThat(cursor -> cursor.getLastEventId().equals(42L)));
+	}
+
+	@Test
+	public void coalesceTest() {
+		CatalogEvent created = event(1L, CatalogEvent.Action.CREATED);
+		CatalogEvent updated = event(2L, CatalogEvent.Action.UPDATED);
+		CatalogEvent updatedAgain = event(3L, CatalogEvent.Action.UPDATED);
+		CatalogEvent published = event(4L, CatalogEvent.Action.PUBLISHED);
+		CatalogEvent other = event(5L, CatalogEvent.Action.UPDATED).setEntityId(3001L);
+		CatalogEvent otherDeleted = event(6L, CatalogEvent.Action.DELETED).setEntityId(3001L);
+
+		WebhookBatch batch = WebhookBatch.coalesce(List.of(created, updated, updatedAgain, published, other, otherDeleted));
+		assertEquals(Long.valueOf(1L), batch.getFromEventId());
+		assertEquals(Long.valueOf(6L), batch.getToEventId());
+		assertEquals(List.of(created, updatedAgain, published, otherDeleted), batch.getEvents());
+
+		//Case 2: in commit order, an event inserted first but committed last comes last
+		CatalogEvent late = event(7L, CatalogEvent.Action.UPDATED).setEntityId(3002L).setId(0L);
+		WebhookBatch batch2 = WebhookBatch.coalesce(List.of(published, late));
+		assertEquals(Long.valueOf(4L), batch2.getFromEventId());
+		assertEquals(Long.valueOf(7L), batch2.getToEventId());
+		assertEquals(List.of(published, late), batch2.getEvents());
+	}
+
+	private CatalogEvent event(Long commitSeq, CatalogEvent.Action action) {
+		return new CatalogEvent()
+				.setId(commitSeq)
+				.setCommitSeq(commitSeq)
+				.setEntityType(CatalogEvent.EntityType.BUNDLE_GROUP_VERSION)
+				.setEntityId(3000L)
+				.setBundleGroupId(1000L)
+				.setAction(action);
+	}
+}